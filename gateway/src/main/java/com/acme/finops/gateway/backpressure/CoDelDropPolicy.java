@@ -0,0 +1,134 @@
+package com.acme.finops.gateway.backpressure;
+
+import com.acme.finops.gateway.memory.PacketDescriptor;
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.queue.QueueSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Sojourn-time active queue management (CoDel, RFC 8289) applied at dequeue.
+ *
+ * <p>Each packet's sojourn is the time since it was enqueued. While sojourn stays below
+ * {@code target}, or the lane is nearly empty, nothing is dropped. Once every packet seen
+ * for a full {@code interval} has been above target (the minimum sojourn over the
+ * interval exceeds it), the lane enters the dropping state: it drops one packet, then
+ * the next at {@code interval / sqrt(count)} after the previous drop, so the drop rate
+ * rises until sojourn falls back below target. Re-entering the dropping state shortly
+ * after leaving it resumes from the previous drop count instead of starting over.</p>
+ *
+ * <p>Unlike depth watermarks, this reacts to standing queues and not to bursts that drain
+ * within an interval, and needs no tuning for packet size or worker speed. State is kept
+ * per lane ({@link QueueSnapshot#lane()}); one lock per lane guards it, held for a few
+ * arithmetic operations.</p>
+ */
+public final class CoDelDropPolicy implements DropPolicy {
+    /** The lane is treated as empty, never dropping, at or below this depth. */
+    private static final int MIN_DEPTH_TO_DROP = 1;
+
+    private final long targetNanos;
+    private final long intervalNanos;
+    private final LaneState[] lanes;
+
+    /**
+     * @param targetNanos   acceptable standing sojourn time, e.g. 5 ms
+     * @param intervalNanos how long sojourn must stay above target before dropping,
+     *                      on the order of a worst-case processing round trip, e.g. 100 ms
+     * @param laneCount     number of dispatcher lanes, each with its own state
+     */
+    public CoDelDropPolicy(long targetNanos, long intervalNanos, int laneCount) {
+        if (targetNanos <= 0L || intervalNanos <= 0L) {
+            throw new IllegalArgumentException("target and interval must be > 0");
+        }
+        this.targetNanos = targetNanos;
+        this.intervalNanos = intervalNanos;
+        this.lanes = new LaneState[Math.max(1, laneCount)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new LaneState();
+        }
+    }
+
+    @Override
+    public DropDecision decide(PacketRef packet, QueueSnapshot snapshot, long nowNanos) {
+        PacketDescriptor descriptor = Objects.requireNonNull(packet, "packet").descriptor();
+        return decide(packet, snapshot, nowNanos, descriptor == null ? 0L : descriptor.ingestNanos());
+    }
+
+    @Override
+    public DropDecision decide(PacketRef packet, QueueSnapshot snapshot, long nowNanos, long enqueueNanos) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        if (enqueueNanos <= 0L) {
+            return new DropDecision.Keep();
+        }
+        long sojourn = nowNanos - enqueueNanos;
+        LaneState lane = lanes[Math.floorMod(snapshot.lane(), lanes.length)];
+        boolean drop;
+        synchronized (lane) {
+            drop = lane.onDequeue(sojourn, snapshot.depth(), nowNanos);
+        }
+        return drop ? new DropDecision.Drop(DropReasonCode.SOJOURN_ABOVE_TARGET) : new DropDecision.Keep();
+    }
+
+    /** Per-lane control state, in lane order. */
+    public List<CoDelLaneStats> stats() {
+        List<CoDelLaneStats> out = new ArrayList<>(lanes.length);
+        for (int i = 0; i < lanes.length; i++) {
+            LaneState lane = lanes[i];
+            synchronized (lane) {
+                out.add(new CoDelLaneStats(i, lane.dropping, lane.count, lane.drops));
+            }
+        }
+        return out;
+    }
+
+    private final class LaneState {
+        /** When sojourn will have been above target for a full interval; {@code 0} while below. */
+        long firstAboveNanos;
+        long dropNextNanos;
+        int count;
+        int lastCount;
+        boolean dropping;
+        long drops;
+
+        boolean onDequeue(long sojournNanos, int depth, long nowNanos) {
+            boolean okToDrop = false;
+            if (sojournNanos < targetNanos || depth <= MIN_DEPTH_TO_DROP) {
+                firstAboveNanos = 0L;
+            } else if (firstAboveNanos == 0L) {
+                firstAboveNanos = nowNanos + intervalNanos;
+            } else if (nowNanos - firstAboveNanos >= 0L) {
+                okToDrop = true;
+            }
+
+            if (dropping) {
+                if (!okToDrop) {
+                    dropping = false;
+                    return false;
+                }
+                if (nowNanos - dropNextNanos >= 0L) {
+                    count++;
+                    dropNextNanos = controlLaw(dropNextNanos, count);
+                    drops++;
+                    return true;
+                }
+                return false;
+            }
+            if (okToDrop) {
+                dropping = true;
+                int delta = count - lastCount;
+                count = delta > 1 && nowNanos - dropNextNanos < 16L * intervalNanos ? delta : 1;
+                lastCount = count;
+                dropNextNanos = controlLaw(nowNanos, count);
+                drops++;
+                return true;
+            }
+            return false;
+        }
+
+        private long controlLaw(long fromNanos, int dropCount) {
+            return fromNanos + (long) (intervalNanos / Math.sqrt(dropCount));
+        }
+    }
+}
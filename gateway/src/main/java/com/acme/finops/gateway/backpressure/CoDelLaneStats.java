@@ -0,0 +1,12 @@
+package com.acme.finops.gateway.backpressure;
+
+/**
+ * Point-in-time control state of one {@link CoDelDropPolicy} lane.
+ *
+ * @param lane     lane index
+ * @param dropping whether the lane is in the dropping state
+ * @param count    drops in the current (or last) dropping state, which sets the drop rate
+ * @param drops    total packets dropped by the lane
+ */
+public record CoDelLaneStats(int lane, boolean dropping, int count, long drops) {
+}
@@ -0,0 +1,21 @@
+package com.acme.finops.gateway.backpressure;
+
+import java.util.Map;
+
+/**
+ * Point-in-time view of one {@link CompositeThrottleStrategy}.
+ *
+ * @param mode      current throttle mode, after hysteresis
+ * @param score     combined pressure: the largest input pressure
+ * @param dominant  input with the largest pressure
+ * @param pressures latest pressure per input, {@code 1.0} being that input's critical level
+ * @param throttled non-pass decisions per input that dominated them
+ */
+public record CompositeThrottleStats(
+    ThrottleMode mode,
+    double score,
+    PressureInput dominant,
+    Map<PressureInput, Double> pressures,
+    Map<PressureInput, Long> throttled
+) {
+}
@@ -0,0 +1,158 @@
+package com.acme.finops.gateway.backpressure;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throttle on a combined pressure score of queue depth, queued bytes and the sampled
+ * inputs of a {@link SampledPressure} (slab memory, exporter in-flight saturation,
+ * upstream latency).
+ *
+ * <p>Each input is mapped onto one scale by its {@link PressureLevels}: the queue inputs
+ * by the lane's watermarks, so with no other pressure this sheds exactly where
+ * {@link WatermarkThrottleStrategy} does. The score is the largest input pressure, so any
+ * one input nearing its limit is enough to shed, and that input is named in the decision's
+ * reason ({@code memory_above_high}) and counted in {@link #stats()}.</p>
+ *
+ * <p>Hysteresis: a more severe mode is entered as soon as the score reaches it; a mode is
+ * only left once the score has fallen {@code hysteresis} below the level that entered it,
+ * so a score hovering at a boundary does not flap between modes.</p>
+ *
+ * <p>Decisions are prebuilt per mode and dominant input; {@link #onLoad} allocates nothing
+ * and writes shared state only when the mode or the queue pressures change.</p>
+ */
+public final class CompositeThrottleStrategy implements ThrottleStrategy {
+    private static final PressureInput[] INPUTS = PressureInput.values();
+    private static final ThrottleMode[] MODES = ThrottleMode.values();
+
+    private final SampledPressure sampled;
+    private final double hysteresis;
+    /** [mode][dominant input]. */
+    private final ThrottleDecision[][] decisions;
+    private final LongAdder[] throttled = new LongAdder[INPUTS.length];
+    private final AtomicReference<ThrottleMode> previousMode = new AtomicReference<>(ThrottleMode.PASS);
+    private volatile double depthPressure;
+    private volatile double bytesPressure;
+
+    /**
+     * @param sampled    external inputs, shared between lanes; {@link SampledPressure#NONE} for queue only
+     * @param hysteresis score gap below a mode's entry level before the mode is left, e.g. {@code 0.1}
+     */
+    public CompositeThrottleStrategy(SampledPressure sampled,
+                                     double shedLightRatio,
+                                     double shedAggressiveRatio,
+                                     long pauseNanos,
+                                     double hysteresis) {
+        this.sampled = Objects.requireNonNull(sampled, "sampled");
+        this.hysteresis = Math.max(0.0d, hysteresis);
+        this.decisions = new ThrottleDecision[MODES.length][INPUTS.length];
+        ThrottleDecision pass = new ThrottleDecision(ThrottleMode.PASS, 0.0d, 0L, "load_below_low");
+        for (PressureInput input : INPUTS) {
+            int i = input.ordinal();
+            decisions[ThrottleMode.PASS.ordinal()][i] = pass;
+            decisions[ThrottleMode.SHED_LIGHT.ordinal()][i] = new ThrottleDecision(
+                ThrottleMode.SHED_LIGHT, clampRatio(shedLightRatio), 0L, input.label() + "_above_low");
+            decisions[ThrottleMode.SHED_AGGRESSIVE.ordinal()][i] = new ThrottleDecision(
+                ThrottleMode.SHED_AGGRESSIVE, clampRatio(shedAggressiveRatio), 0L, input.label() + "_above_high");
+            decisions[ThrottleMode.PAUSE_INGRESS.ordinal()][i] = new ThrottleDecision(
+                ThrottleMode.PAUSE_INGRESS, 1.0d, Math.max(0L, pauseNanos), input.label() + "_above_critical");
+            throttled[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public ThrottleDecision onDepth(int depth, Watermarks watermarks, long nowNanos) {
+        return onLoad(depth, 0L, watermarks, nowNanos);
+    }
+
+    @Override
+    public ThrottleDecision onLoad(int depth, long bytes, Watermarks watermarks, long nowNanos) {
+        Objects.requireNonNull(watermarks, "watermarks");
+        sampled.refresh(nowNanos);
+        double depthP = PressureLevels.pressure(depth, watermarks.low(), watermarks.high(), watermarks.critical());
+        double bytesP = watermarks.lowBytes() == Watermarks.NO_BYTE_LIMIT ? 0.0d
+            : PressureLevels.pressure(bytes, watermarks.lowBytes(), watermarks.highBytes(), watermarks.criticalBytes());
+        if (depthP != depthPressure) {
+            depthPressure = depthP;
+        }
+        if (bytesP != bytesPressure) {
+            bytesPressure = bytesP;
+        }
+
+        PressureInput dominant = PressureInput.QUEUE_DEPTH;
+        double score = depthP;
+        if (bytesP > score) {
+            dominant = PressureInput.QUEUE_BYTES;
+            score = bytesP;
+        }
+        if (!sampled.isEmpty()) {
+            for (int i = PressureInput.MEMORY.ordinal(); i < INPUTS.length; i++) {
+                double p = sampled.pressure(INPUTS[i]);
+                if (p > score) {
+                    dominant = INPUTS[i];
+                    score = p;
+                }
+            }
+        }
+
+        ThrottleMode entered = modeFor(score);
+        ThrottleMode held = modeFor(score + hysteresis);
+        ThrottleMode next;
+        while (true) {
+            ThrottleMode prev = previousMode.get();
+            // Escalate at once; de-escalate only as far as the score clears by the hysteresis gap.
+            next = prev.ordinal() <= entered.ordinal() ? entered
+                : MODES[Math.max(entered.ordinal(), Math.min(prev.ordinal(), held.ordinal()))];
+            if (prev == next || previousMode.compareAndSet(prev, next)) {
+                break;
+            }
+        }
+        if (next != ThrottleMode.PASS) {
+            throttled[dominant.ordinal()].increment();
+        }
+        return decisions[next.ordinal()][dominant.ordinal()];
+    }
+
+    static ThrottleMode modeFor(double score) {
+        if (score >= PressureLevels.CRITICAL) {
+            return ThrottleMode.PAUSE_INGRESS;
+        }
+        if (score >= PressureLevels.HIGH) {
+            return ThrottleMode.SHED_AGGRESSIVE;
+        }
+        if (score >= PressureLevels.LOW) {
+            return ThrottleMode.SHED_LIGHT;
+        }
+        return ThrottleMode.PASS;
+    }
+
+    /** Latest pressures: queue inputs as of the last call, sampled inputs as of the last sample. */
+    public CompositeThrottleStats stats() {
+        Map<PressureInput, Double> pressures = new EnumMap<>(PressureInput.class);
+        Map<PressureInput, Long> counts = new EnumMap<>(PressureInput.class);
+        PressureInput dominant = PressureInput.QUEUE_DEPTH;
+        double score = -1.0d;
+        for (PressureInput input : INPUTS) {
+            double p = switch (input) {
+                case QUEUE_DEPTH -> depthPressure;
+                case QUEUE_BYTES -> bytesPressure;
+                default -> sampled.pressure(input);
+            };
+            pressures.put(input, p);
+            counts.put(input, throttled[input.ordinal()].sum());
+            if (p > score) {
+                score = p;
+                dominant = input;
+            }
+        }
+        return new CompositeThrottleStats(previousMode.get(), score, dominant, pressures, counts);
+    }
+
+    private static double clampRatio(double ratio) {
+        if (ratio < 0.0d) return 0.0d;
+        return Math.min(ratio, 1.0d);
+    }
+}
@@ -0,0 +1,45 @@
+package com.acme.finops.gateway.backpressure;
+
+import com.acme.finops.gateway.memory.PacketDescriptor;
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.queue.QueueSnapshot;
+
+import java.util.Objects;
+
+/**
+ * Drops packets whose client deadline ({@link PacketDescriptor#deadlineNanos()}) has passed,
+ * and otherwise defers to the wrapped policy.
+ *
+ * <p>Packets reach the queue only after the client was acknowledged, so dropping them
+ * loses data the client will not resend; this treats the client's deadline as the data's
+ * freshness budget and is meant for overload, where exporting stale telemetry only delays
+ * fresh telemetry behind it. Packets without a deadline are never dropped here.</p>
+ */
+public final class DeadlineDropPolicy implements DropPolicy {
+    private static final DropDecision EXPIRED = new DropDecision.Drop(DropReasonCode.DEADLINE_EXPIRED);
+
+    private final DropPolicy delegate;
+
+    public DeadlineDropPolicy(DropPolicy delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+    }
+
+    @Override
+    public DropDecision decide(PacketRef packet, QueueSnapshot snapshot, long nowNanos) {
+        return expired(packet, nowNanos) ? EXPIRED : delegate.decide(packet, snapshot, nowNanos);
+    }
+
+    @Override
+    public DropDecision decide(PacketRef packet, QueueSnapshot snapshot, long nowNanos, long enqueueNanos) {
+        return expired(packet, nowNanos) ? EXPIRED : delegate.decide(packet, snapshot, nowNanos, enqueueNanos);
+    }
+
+    public DropPolicy delegate() {
+        return delegate;
+    }
+
+    private static boolean expired(PacketRef packet, long nowNanos) {
+        PacketDescriptor descriptor = packet == null ? null : packet.descriptor();
+        return descriptor != null && descriptor.deadlineExpired(nowNanos);
+    }
+}
@@ -0,0 +1,136 @@
+package com.acme.finops.gateway.backpressure;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Exponentially weighted drain rate of a sharded queue, in items and bytes per second.
+ *
+ * <p>Consumers report each drained batch with {@link #onDrained}; the counts accumulate per
+ * shard and are folded into each shard's EWMA at most once per tick (a tenth of the half
+ * life, at least 1 ms). Folding weighs the rate observed since the previous tick by
+ * {@code 1 - exp(-elapsed / tau)}, so irregular ticks decay correctly and a queue nobody
+ * drains decays toward zero on the next fold. The first fold takes the observed rate as is.</p>
+ *
+ * <p>{@link #millisToDrain} turns the rates into the expected time for a backlog to drain,
+ * assuming no new arrivals, which holds while ingress is being refused.</p>
+ *
+ * <h3>Concurrency Protocol</h3>
+ * <ul>
+ *   <li>{@code onDrained} is two atomic adds; any thread past the tick boundary that wins the
+ *       CAS on the last tick time folds all shards. Rates are stored as raw double bits.</li>
+ *   <li>Readers see each shard's latest fold; lane totals are summed without a lock.</li>
+ * </ul>
+ */
+public final class DrainRateEstimator {
+    private static final long MIN_TICK_NANOS = 1_000_000L;
+    private static final long NO_ESTIMATE = -1L;
+
+    private final int shards;
+    private final long tickNanos;
+    private final double tauNanos;
+    private final AtomicLongArray pendingItems;
+    private final AtomicLongArray pendingBytes;
+    private final AtomicLongArray itemRateBits;
+    private final AtomicLongArray byteRateBits;
+    private final AtomicLong lastTickNanos;
+    private volatile boolean primed;
+
+    /**
+     * @param shards        number of queue shards
+     * @param halfLifeNanos time for an old observation's weight to halve
+     * @param nowNanos      start of the first observation window
+     */
+    public DrainRateEstimator(int shards, long halfLifeNanos, long nowNanos) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("shards must be > 0");
+        }
+        if (halfLifeNanos <= 0L) {
+            throw new IllegalArgumentException("halfLifeNanos must be > 0");
+        }
+        this.shards = shards;
+        this.tickNanos = Math.max(MIN_TICK_NANOS, halfLifeNanos / 10L);
+        this.tauNanos = halfLifeNanos / Math.log(2.0d);
+        this.pendingItems = new AtomicLongArray(shards);
+        this.pendingBytes = new AtomicLongArray(shards);
+        this.itemRateBits = new AtomicLongArray(shards);
+        this.byteRateBits = new AtomicLongArray(shards);
+        this.lastTickNanos = new AtomicLong(nowNanos);
+    }
+
+    public void onDrained(int shard, int items, long bytes, long nowNanos) {
+        if (items <= 0) {
+            return;
+        }
+        pendingItems.getAndAdd(shard, items);
+        pendingBytes.getAndAdd(shard, bytes);
+        tick(nowNanos);
+    }
+
+    /** Folds pending counts into the rates if a tick has passed since the last fold. */
+    public void tick(long nowNanos) {
+        long last = lastTickNanos.get();
+        long elapsed = nowNanos - last;
+        if (elapsed < tickNanos || !lastTickNanos.compareAndSet(last, nowNanos)) {
+            return;
+        }
+        double perSecond = 1_000_000_000.0d / elapsed;
+        double alpha = primed ? 1.0d - Math.exp(-elapsed / tauNanos) : 1.0d;
+        for (int i = 0; i < shards; i++) {
+            fold(itemRateBits, i, pendingItems.getAndSet(i, 0L) * perSecond, alpha);
+            fold(byteRateBits, i, pendingBytes.getAndSet(i, 0L) * perSecond, alpha);
+        }
+        primed = true;
+    }
+
+    private static void fold(AtomicLongArray rates, int shard, double observed, double alpha) {
+        double rate = Double.longBitsToDouble(rates.get(shard));
+        rates.set(shard, Double.doubleToRawLongBits(rate + alpha * (observed - rate)));
+    }
+
+    public double itemsPerSecond(int shard) {
+        return Double.longBitsToDouble(itemRateBits.get(shard));
+    }
+
+    /** Sum over shards. */
+    public double itemsPerSecond() {
+        return sum(itemRateBits);
+    }
+
+    /** Sum over shards. */
+    public double bytesPerSecond() {
+        return sum(byteRateBits);
+    }
+
+    private double sum(AtomicLongArray rates) {
+        double total = 0.0d;
+        for (int i = 0; i < shards; i++) {
+            total += Double.longBitsToDouble(rates.get(i));
+        }
+        return total;
+    }
+
+    /**
+     * Expected milliseconds until {@code excessItems} and {@code excessBytes} have drained at
+     * the current rates: {@code 0} with no excess, {@code -1} when an excess is non-zero but
+     * its rate is not yet known (nothing drained).
+     */
+    public long millisToDrain(long excessItems, long excessBytes) {
+        double millis = 0.0d;
+        if (excessItems > 0L) {
+            double rate = itemsPerSecond();
+            if (rate <= 0.0d) {
+                return NO_ESTIMATE;
+            }
+            millis = excessItems * 1_000.0d / rate;
+        }
+        if (excessBytes > 0L) {
+            double rate = bytesPerSecond();
+            if (rate <= 0.0d) {
+                return NO_ESTIMATE;
+            }
+            millis = Math.max(millis, excessBytes * 1_000.0d / rate);
+        }
+        return (long) Math.ceil(Math.min(millis, Long.MAX_VALUE));
+    }
+}
@@ -19,4 +19,14 @@ public interface DropPolicy {
      * @return the drop-or-accept decision
      */
     DropDecision decide(PacketRef packet, QueueSnapshot snapshot, long nowNanos);
+
+    /**
+     * Dequeue-time variant that also receives when the packet entered the queue, for
+     * policies driven by sojourn time. Defaults to {@link #decide(PacketRef, QueueSnapshot, long)}.
+     *
+     * @param enqueueNanos monotonic timestamp of the enqueue, {@code 0} if unknown
+     */
+    default DropDecision decide(PacketRef packet, QueueSnapshot snapshot, long nowNanos, long enqueueNanos) {
+        return decide(packet, snapshot, nowNanos);
+    }
 }
@@ -0,0 +1,7 @@
+package com.acme.finops.gateway.backpressure;
+
+public enum DropReasonCode {
+    QUEUE_FULL, STALE_PACKET, LOW_PRIORITY_SHEDDING, MALFORMED_PACKET, SOJOURN_ABOVE_TARGET,
+    /** The client's deadline passed while the packet was queued. */
+    DEADLINE_EXPIRED
+}
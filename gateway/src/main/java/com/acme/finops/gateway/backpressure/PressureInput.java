@@ -0,0 +1,23 @@
+package com.acme.finops.gateway.backpressure;
+
+import java.util.Locale;
+
+/** Inputs of {@link CompositeThrottleStrategy}; the label names each one in metrics and reasons. */
+public enum PressureInput {
+    /** Lane depth against the depth watermarks. */
+    QUEUE_DEPTH,
+    /** Lane byte load against the byte watermarks. */
+    QUEUE_BYTES,
+    /** Allocator in-use bytes as a share of slab capacity. */
+    MEMORY,
+    /** Exporter in-flight requests as a share of the in-flight limit. */
+    EXPORTER_IN_FLIGHT,
+    /** Recent upstream export latency p99. */
+    UPSTREAM_LATENCY;
+
+    private final String label = name().toLowerCase(Locale.ROOT);
+
+    public String label() {
+        return label;
+    }
+}
@@ -0,0 +1,45 @@
+package com.acme.finops.gateway.backpressure;
+
+/**
+ * Low, high and critical levels of one pressure input, in the input's own unit.
+ *
+ * <p>{@link #pressure} maps a value onto the shared pressure scale piecewise linearly:
+ * {@code 0} at zero, {@value #LOW} at {@code low}, {@value #HIGH} at {@code high} and
+ * {@code 1.0} at {@code critical}, proportionally beyond. Those are the points at which
+ * {@link CompositeThrottleStrategy} starts light shedding, aggressive shedding and pausing,
+ * so an input at its own low level sheds like queue depth at the low watermark.</p>
+ */
+public record PressureLevels(double low, double high, double critical) {
+    public static final double LOW = 0.5d;
+    public static final double HIGH = 0.75d;
+    public static final double CRITICAL = 1.0d;
+
+    public PressureLevels {
+        if (!(low > 0.0d) || high < low || critical < high) {
+            throw new IllegalArgumentException("require 0 < low <= high <= critical");
+        }
+    }
+
+    /** Levels with {@code high} halfway between {@code low} and {@code critical}. */
+    public static PressureLevels of(double low, double critical) {
+        return new PressureLevels(low, (low + critical) / 2.0d, critical);
+    }
+
+    public double pressure(double value) {
+        return pressure(value, low, high, critical);
+    }
+
+    /** {@link #pressure(double)} without building levels, for watermarks read per call. */
+    public static double pressure(double value, double low, double high, double critical) {
+        if (value >= critical) {
+            return critical > 0.0d ? CRITICAL * value / critical : CRITICAL;
+        }
+        if (value >= high) {
+            return HIGH + (CRITICAL - HIGH) * (value - high) / (critical - high);
+        }
+        if (value >= low) {
+            return LOW + (HIGH - LOW) * (value - low) / (high - low);
+        }
+        return value <= 0.0d ? 0.0d : LOW * value / low;
+    }
+}
@@ -0,0 +1,19 @@
+package com.acme.finops.gateway.backpressure;
+
+import java.util.Objects;
+import java.util.function.DoubleSupplier;
+
+/**
+ * One sampled input of {@link SampledPressure}.
+ *
+ * @param input  which input this is; queue inputs come from the throttle call instead
+ * @param value  current value in the unit of {@code levels}; read once per sample interval
+ * @param levels where the value starts and stops shedding
+ */
+public record PressureSource(PressureInput input, DoubleSupplier value, PressureLevels levels) {
+    public PressureSource {
+        Objects.requireNonNull(input, "input");
+        Objects.requireNonNull(value, "value");
+        Objects.requireNonNull(levels, "levels");
+    }
+}
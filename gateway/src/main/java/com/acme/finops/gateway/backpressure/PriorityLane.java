@@ -0,0 +1,37 @@
+package com.acme.finops.gateway.backpressure;
+
+import com.acme.finops.gateway.transport.api.SignalKind;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * One dispatcher priority lane: the signals routed to it, its scheduling weight, and the
+ * watermarks and throttle applied to its own depth.
+ *
+ * <p>{@code priority} orders lanes for shedding under overall pressure: {@code 0} is the
+ * most important, larger values are shed first (see {@link QueueAwareDropPolicy}).
+ * {@code weight} is the lane's deficit-round-robin share when workers are saturated. The
+ * throttle holds hysteresis state, so each lane needs its own instance.</p>
+ */
+public record PriorityLane(
+    String name,
+    Set<SignalKind> signals,
+    int priority,
+    int weight,
+    Watermarks watermarks,
+    ThrottleStrategy throttle
+) {
+    public PriorityLane {
+        Objects.requireNonNull(name, "name");
+        signals = Set.copyOf(signals);
+        if (priority < 0) {
+            throw new IllegalArgumentException("priority must be >= 0: " + priority);
+        }
+        if (weight < 1) {
+            throw new IllegalArgumentException("weight must be >= 1: " + weight);
+        }
+        Objects.requireNonNull(watermarks, "watermarks");
+        Objects.requireNonNull(throttle, "throttle");
+    }
+}
@@ -0,0 +1,69 @@
+package com.acme.finops.gateway.backpressure;
+
+import com.acme.finops.gateway.transport.api.SignalKind;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Static lane configuration, before watermarks and a throttle are attached to make a
+ * {@link PriorityLane}.
+ *
+ * <p>Spec format: {@code name|signals|priority|weight} entries separated by {@code ;}, with
+ * signals ({@code TRACES|METRICS|LOGS}) joined by {@code +}, e.g.
+ * {@code traces|TRACES|0|4;metrics|METRICS|1|2;logs|LOGS|2|1}. A signal listed by an
+ * earlier lane is ignored in later ones.
+ *
+ * @param name     lane name, used in logs and metric labels
+ * @param signals  signals routed to the lane
+ * @param priority shedding priority, {@code 0} most important
+ * @param weight   deficit-round-robin weight, {@code >= 1}
+ */
+public record PriorityLaneSpec(String name, Set<SignalKind> signals, int priority, int weight) {
+    private static final Logger LOG = Logger.getLogger(PriorityLaneSpec.class.getName());
+
+    public PriorityLaneSpec {
+        signals = Set.copyOf(signals);
+    }
+
+    public static List<PriorityLaneSpec> parse(String spec) {
+        List<PriorityLaneSpec> out = new ArrayList<>();
+        if (spec == null || spec.isBlank()) {
+            return out;
+        }
+        Set<SignalKind> claimed = EnumSet.noneOf(SignalKind.class);
+        for (String def : spec.split(";")) {
+            String entry = def.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            String[] parts = entry.split("\\|", -1);
+            if (parts.length != 4 || parts[0].isBlank()) {
+                LOG.warning("Skipping malformed lane entry: " + entry);
+                continue;
+            }
+            try {
+                Set<SignalKind> signals = EnumSet.noneOf(SignalKind.class);
+                for (String raw : parts[1].split("\\+")) {
+                    signals.add(SignalKind.valueOf(raw.trim().toUpperCase(Locale.ROOT)));
+                }
+                signals.removeAll(claimed);
+                int priority = Integer.parseInt(parts[2].trim());
+                int weight = Integer.parseInt(parts[3].trim());
+                if (signals.isEmpty() || priority < 0 || weight < 1) {
+                    LOG.warning("Skipping lane without new signals or with invalid priority/weight: " + entry);
+                    continue;
+                }
+                claimed.addAll(signals);
+                out.add(new PriorityLaneSpec(parts[0].trim(), signals, priority, weight));
+            } catch (IllegalArgumentException e) {
+                LOG.warning("Skipping invalid lane entry: " + entry + " (" + e.getMessage() + ")");
+            }
+        }
+        return out;
+    }
+}
@@ -4,22 +4,60 @@ import com.acme.finops.gateway.memory.PacketDescriptor;
 import com.acme.finops.gateway.memory.PacketRef;
 import com.acme.finops.gateway.queue.QueueSnapshot;
 
+import java.util.List;
 import java.util.Objects;
 
 /**
  * Drop policy for queued packets under overload.
+ *
+ * <p>Throttles see depth and bytes ({@link ThrottleStrategy#onLoad}). With priority lanes,
+ * each packet is judged twice and the more severe mode wins:
+ * <ul>
+ *   <li>by its own lane's throttle against the lane depth and queued bytes, so a flooded
+ *       lane sheds and pauses on its own without touching the others;</li>
+ *   <li>by the overall throttle against the total depth and byte load
+ *       ({@link QueueSnapshot#totalBytes()}), which sheds low-priority lanes
+ *       first: {@code SHED_LIGHT} applies only to the lowest-priority class,
+ *       {@code SHED_AGGRESSIVE} to every class but the highest, {@code PAUSE_INGRESS} to
+ *       all lanes.</li>
+ * </ul>
  */
 public final class QueueAwareDropPolicy implements DropPolicy {
     private final ThrottleStrategy throttleStrategy;
     private final Watermarks watermarks;
     private final long maxQueueWaitNanos;
+    private final PriorityLane[] lanes;
+    private final int minPriority;
+    private final int maxPriority;
 
     public QueueAwareDropPolicy(ThrottleStrategy throttleStrategy,
                                 Watermarks watermarks,
                                 long maxQueueWaitNanos) {
+        this(throttleStrategy, watermarks, maxQueueWaitNanos, List.of());
+    }
+
+    /**
+     * @param throttleStrategy overall throttle, applied to the total depth across lanes
+     * @param watermarks       overall watermarks
+     * @param lanes            lanes in dispatcher order, indexed by {@link QueueSnapshot#lane()};
+     *                         empty for a single queue
+     */
+    public QueueAwareDropPolicy(ThrottleStrategy throttleStrategy,
+                                Watermarks watermarks,
+                                long maxQueueWaitNanos,
+                                List<PriorityLane> lanes) {
         this.throttleStrategy = Objects.requireNonNull(throttleStrategy, "throttleStrategy");
         this.watermarks = Objects.requireNonNull(watermarks, "watermarks");
         this.maxQueueWaitNanos = Math.max(0L, maxQueueWaitNanos);
+        this.lanes = lanes.toArray(new PriorityLane[0]);
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (PriorityLane lane : this.lanes) {
+            min = Math.min(min, lane.priority());
+            max = Math.max(max, lane.priority());
+        }
+        this.minPriority = min;
+        this.maxPriority = max;
     }
 
     @Override
@@ -33,7 +71,9 @@ public final class QueueAwareDropPolicy implements DropPolicy {
             return new DropDecision.Drop(DropReasonCode.STALE_PACKET);
         }
 
-        ThrottleDecision throttle = throttleStrategy.onDepth(snapshot.depth(), watermarks, nowNanos);
+        ThrottleDecision throttle = lanes.length == 0
+            ? throttleStrategy.onLoad(snapshot.depth(), snapshot.totalBytes(), watermarks, nowNanos)
+            : laneThrottle(snapshot, nowNanos);
         return switch (throttle.mode()) {
             case PASS -> new DropDecision.Keep();
             case SHED_LIGHT, SHED_AGGRESSIVE -> shouldShed(packet, throttle.shedRatio())
@@ -43,6 +83,25 @@ public final class QueueAwareDropPolicy implements DropPolicy {
         };
     }
 
+    private ThrottleDecision laneThrottle(QueueSnapshot snapshot, long nowNanos) {
+        PriorityLane lane = lanes[Math.floorMod(snapshot.lane(), lanes.length)];
+        ThrottleDecision local = lane.throttle().onLoad(snapshot.depth(), snapshot.queuedBytes(), lane.watermarks(), nowNanos);
+        ThrottleDecision overall = throttleStrategy.onLoad(snapshot.totalDepth(), snapshot.totalBytes(), watermarks, nowNanos);
+        if (!appliesToPriority(overall.mode(), lane.priority())) {
+            return local;
+        }
+        return overall.mode().ordinal() > local.mode().ordinal() ? overall : local;
+    }
+
+    private boolean appliesToPriority(ThrottleMode mode, int priority) {
+        return switch (mode) {
+            case PASS -> false;
+            case SHED_LIGHT -> priority == maxPriority;
+            case SHED_AGGRESSIVE -> priority > minPriority || minPriority == maxPriority;
+            case PAUSE_INGRESS -> true;
+        };
+    }
+
     private static boolean shouldShed(PacketRef packet, double ratio) {
         if (ratio <= 0.0d) {
             return false;
@@ -0,0 +1,73 @@
+package com.acme.finops.gateway.backpressure;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pressure of inputs that live outside the queue (allocator, exporter, upstream), sampled at
+ * most once per interval and shared by every lane's {@link CompositeThrottleStrategy}.
+ *
+ * <p>Reads are one volatile load per input. The thread that crosses the interval boundary
+ * and wins the CAS on the sample time calls the sources; a source that throws keeps its
+ * previous pressure. Sources may therefore be stateful (for example a windowed quantile),
+ * since only one thread samples at a time as long as sampling takes less than the
+ * interval.</p>
+ */
+public final class SampledPressure {
+    private static final Logger LOG = Logger.getLogger(SampledPressure.class.getName());
+
+    /** No external inputs: every pressure reads {@code 0}. */
+    public static final SampledPressure NONE = new SampledPressure(List.of(), 1L);
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final PressureSource[] sources;
+    private final long intervalNanos;
+    private final AtomicLongArray pressureBits = new AtomicLongArray(PressureInput.values().length);
+    /** {@link #NEVER} until the first sample. */
+    private final AtomicLong sampledNanos = new AtomicLong(NEVER);
+
+    public SampledPressure(List<PressureSource> sources, long intervalNanos) {
+        if (intervalNanos <= 0L) {
+            throw new IllegalArgumentException("intervalNanos must be > 0");
+        }
+        this.sources = sources.toArray(new PressureSource[0]);
+        for (PressureSource source : this.sources) {
+            if (source.input() == PressureInput.QUEUE_DEPTH || source.input() == PressureInput.QUEUE_BYTES) {
+                throw new IllegalArgumentException("queue inputs are not sampled: " + source.input());
+            }
+        }
+        this.intervalNanos = intervalNanos;
+    }
+
+    /** Re-samples the sources if the interval has passed since the last sample. */
+    public void refresh(long nowNanos) {
+        if (sources.length == 0) {
+            return;
+        }
+        long last = sampledNanos.get();
+        if ((last != NEVER && nowNanos - last < intervalNanos) || !sampledNanos.compareAndSet(last, nowNanos)) {
+            return;
+        }
+        for (PressureSource source : sources) {
+            try {
+                double pressure = source.levels().pressure(source.value().getAsDouble());
+                pressureBits.set(source.input().ordinal(), Double.doubleToRawLongBits(pressure));
+            } catch (RuntimeException e) {
+                LOG.log(Level.FINE, "pressure source " + source.input().label() + " unavailable", e);
+            }
+        }
+    }
+
+    /** Latest pressure of {@code input}; {@code 0} for queue inputs and unconfigured ones. */
+    public double pressure(PressureInput input) {
+        return Double.longBitsToDouble(pressureBits.get(input.ordinal()));
+    }
+
+    public boolean isEmpty() {
+        return sources.length == 0;
+    }
+}
@@ -16,4 +16,14 @@ public interface ThrottleStrategy {
      * @return the throttle decision (pass, shed, or pause)
      */
     ThrottleDecision onDepth(int depth, Watermarks watermarks, long nowNanos);
+
+    /**
+     * Evaluates the throttle mode for the current depth and queued bytes, checked against
+     * the byte thresholds of {@code watermarks}. Defaults to {@link #onDepth}, ignoring bytes.
+     *
+     * @param bytes current byte load, see {@link com.acme.finops.gateway.queue.QueueSnapshot#queuedBytes()}
+     */
+    default ThrottleDecision onLoad(int depth, long bytes, Watermarks watermarks, long nowNanos) {
+        return onDepth(depth, watermarks, nowNanos);
+    }
 }
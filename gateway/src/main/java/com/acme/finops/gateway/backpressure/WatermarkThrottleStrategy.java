@@ -1,64 +1,58 @@
 package com.acme.finops.gateway.backpressure;
 
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Queue-depth based throttling strategy with CAS-safe hysteresis.
+ * Queue-depth (and optionally queued-bytes) based throttling strategy. With byte
+ * watermarks, the more severe of the depth and byte levels wins.
+ *
+ * <p>The mode follows the current load alone, with no hysteresis; use
+ * {@link CompositeThrottleStrategy} with a non-zero gap to keep a mode from flapping at a
+ * watermark.</p>
+ *
+ * <p>Decisions are immutable and built once per mode, so {@link #onDepth} returns a
+ * cached instance and the strategy holds no mutable state.</p>
  */
 public final class WatermarkThrottleStrategy implements ThrottleStrategy {
-    private final double shedLightRatio;
-    private final double shedAggressiveRatio;
-    private final long pauseNanos;
-    private final AtomicReference<ThrottleMode> previousMode = new AtomicReference<>(ThrottleMode.PASS);
+    private final ThrottleDecision pass;
+    private final ThrottleDecision shedLight;
+    private final ThrottleDecision shedAggressive;
+    private final ThrottleDecision pause;
 
     public WatermarkThrottleStrategy(double shedLightRatio,
                                      double shedAggressiveRatio,
                                      long pauseNanos) {
-        this.shedLightRatio = clampRatio(shedLightRatio);
-        this.shedAggressiveRatio = clampRatio(shedAggressiveRatio);
-        this.pauseNanos = Math.max(0L, pauseNanos);
+        this.pass = new ThrottleDecision(ThrottleMode.PASS, 0.0d, 0L, "load_below_low");
+        this.shedLight = new ThrottleDecision(ThrottleMode.SHED_LIGHT, clampRatio(shedLightRatio), 0L, "load_above_low");
+        this.shedAggressive = new ThrottleDecision(ThrottleMode.SHED_AGGRESSIVE, clampRatio(shedAggressiveRatio), 0L, "load_above_high");
+        this.pause = new ThrottleDecision(ThrottleMode.PAUSE_INGRESS, 1.0d, Math.max(0L, pauseNanos), "load_above_critical");
     }
 
     @Override
     public ThrottleDecision onDepth(int depth, Watermarks watermarks, long nowNanos) {
+        return onLoad(depth, 0L, watermarks, nowNanos);
+    }
+
+    @Override
+    public ThrottleDecision onLoad(int depth, long bytes, Watermarks watermarks, long nowNanos) {
         Objects.requireNonNull(watermarks, "watermarks");
         int low = Math.max(0, watermarks.low());
         int high = Math.max(low, watermarks.high());
         int critical = Math.max(high, watermarks.critical());
+        long lowBytes = Math.max(0L, watermarks.lowBytes());
+        long highBytes = Math.max(lowBytes, watermarks.highBytes());
+        long criticalBytes = Math.max(highBytes, watermarks.criticalBytes());
 
-        ThrottleMode depthMode;
-        if (depth >= critical) {
-            depthMode = ThrottleMode.PAUSE_INGRESS;
-        } else if (depth >= high) {
-            depthMode = ThrottleMode.SHED_AGGRESSIVE;
-        } else if (depth >= low) {
-            depthMode = ThrottleMode.SHED_LIGHT;
-        } else {
-            depthMode = ThrottleMode.PASS;
+        if (depth >= critical || bytes >= criticalBytes) {
+            return pause;
         }
-
-        // CAS-safe hysteresis: once in shed/pause, keep mode until depth < low.
-        ThrottleMode next;
-        while (true) {
-            ThrottleMode prev = previousMode.get();
-            if (prev != ThrottleMode.PASS && depth >= low && depthMode == ThrottleMode.PASS) {
-                next = prev;
-            } else {
-                next = depthMode;
-            }
-            if (previousMode.compareAndSet(prev, next)) {
-                break;
-            }
-            // CAS failed — another thread updated; re-read and retry
+        if (depth >= high || bytes >= highBytes) {
+            return shedAggressive;
         }
-
-        return switch (next) {
-            case PASS -> new ThrottleDecision(ThrottleMode.PASS, 0.0d, 0L, "depth_below_low");
-            case SHED_LIGHT -> new ThrottleDecision(ThrottleMode.SHED_LIGHT, shedLightRatio, 0L, "depth_above_low");
-            case SHED_AGGRESSIVE -> new ThrottleDecision(ThrottleMode.SHED_AGGRESSIVE, shedAggressiveRatio, 0L, "depth_above_high");
-            case PAUSE_INGRESS -> new ThrottleDecision(ThrottleMode.PAUSE_INGRESS, 1.0d, pauseNanos, "depth_above_critical");
-        };
+        if (depth >= low || bytes >= lowBytes) {
+            return shedLight;
+        }
+        return pass;
     }
 
     private static double clampRatio(double ratio) {
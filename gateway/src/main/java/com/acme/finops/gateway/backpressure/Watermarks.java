@@ -1,3 +1,20 @@
 package com.acme.finops.gateway.backpressure;
 
-public record Watermarks(int low, int high, int critical) {}
+/**
+ * Throttle thresholds on queue depth (items) and, optionally, queued bytes.
+ *
+ * <p>A load is at a level when either its depth or its bytes reach that level's
+ * threshold. Byte thresholds of {@link #NO_BYTE_LIMIT} disable byte checks, which is what
+ * the count-only constructor sets.</p>
+ */
+public record Watermarks(int low, int high, int critical, long lowBytes, long highBytes, long criticalBytes) {
+    public static final long NO_BYTE_LIMIT = Long.MAX_VALUE;
+
+    public Watermarks(int low, int high, int critical) {
+        this(low, high, critical, NO_BYTE_LIMIT, NO_BYTE_LIMIT, NO_BYTE_LIMIT);
+    }
+
+    public boolean hasByteLimits() {
+        return lowBytes != NO_BYTE_LIMIT || highBytes != NO_BYTE_LIMIT || criticalBytes != NO_BYTE_LIMIT;
+    }
+}
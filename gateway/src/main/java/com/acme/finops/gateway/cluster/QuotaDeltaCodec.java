@@ -0,0 +1,99 @@
+package com.acme.finops.gateway.cluster;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datagram layout of {@link QuotaPeerExchange}: per-tenant cumulative admitted counts of
+ * one node.
+ *
+ * <pre>
+ *   int   magic 'QTG1'
+ *   long  nodeId        random per process, so a restarted peer starts a new baseline
+ *   int   report        sequence number of the report the datagram belongs to
+ *   byte  flags         {@link #FLAG_FULL}: part of a report listing every tenant
+ *   short entryCount
+ *   entryCount x { short tenantLength, tenantLength x byte (UTF-8), long requests, long bytes }
+ * </pre>
+ *
+ * <p>Counts are cumulative since the sender started, not deltas, so a lost or reordered
+ * datagram only delays what the receiver learns; the receiver takes differences itself.</p>
+ */
+final class QuotaDeltaCodec {
+    static final int MAGIC = 0x51544731;
+    static final byte FLAG_FULL = 0x01;
+    private static final int COUNT_OFFSET = Integer.BYTES + Long.BYTES + Integer.BYTES + Byte.BYTES;
+    static final int HEADER_BYTES = COUNT_OFFSET + Short.BYTES;
+    static final int ENTRY_FIXED_BYTES = Short.BYTES + 2 * Long.BYTES;
+    /** Fits one Ethernet frame with IP and UDP headers to spare, so datagrams are never fragmented. */
+    static final int MAX_DATAGRAM_BYTES = 1_400;
+    static final int MAX_TENANT_BYTES = MAX_DATAGRAM_BYTES - HEADER_BYTES - ENTRY_FIXED_BYTES;
+
+    record Entry(String tenant, long requests, long bytes) {}
+
+    record Report(long nodeId, int sequence, boolean full, List<Entry> entries) {}
+
+    private QuotaDeltaCodec() {
+    }
+
+    static void beginDatagram(ByteBuffer out, long nodeId, int sequence, boolean full) {
+        out.clear();
+        out.putInt(MAGIC).putLong(nodeId).putInt(sequence).put(full ? FLAG_FULL : 0).putShort((short) 0);
+    }
+
+    /**
+     * Appends one entry if it fits.
+     *
+     * @return {@code false} if the datagram is full and must be sent first
+     */
+    static boolean putEntry(ByteBuffer out, byte[] tenantUtf8, long requests, long bytes) {
+        if (out.remaining() < ENTRY_FIXED_BYTES + tenantUtf8.length) {
+            return false;
+        }
+        out.putShort((short) tenantUtf8.length).put(tenantUtf8).putLong(requests).putLong(bytes);
+        out.putShort(COUNT_OFFSET, (short) (out.getShort(COUNT_OFFSET) + 1));
+        return true;
+    }
+
+    static int entryCount(ByteBuffer out) {
+        return Short.toUnsignedInt(out.getShort(COUNT_OFFSET));
+    }
+
+    /**
+     * Decodes a received datagram, positioned at its start.
+     *
+     * @throws IllegalArgumentException if the datagram is not a well-formed quota report
+     */
+    static Report decode(ByteBuffer in) {
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IllegalArgumentException("bad magic");
+            }
+            long nodeId = in.getLong();
+            int sequence = in.getInt();
+            boolean full = (in.get() & FLAG_FULL) != 0;
+            int count = Short.toUnsignedInt(in.getShort());
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = Short.toUnsignedInt(in.getShort());
+                if (length > in.remaining()) {
+                    throw new IllegalArgumentException("truncated tenant");
+                }
+                byte[] tenant = new byte[length];
+                in.get(tenant);
+                long requests = in.getLong();
+                long bytes = in.getLong();
+                if (requests < 0L || bytes < 0L) {
+                    throw new IllegalArgumentException("negative count");
+                }
+                entries.add(new Entry(new String(tenant, StandardCharsets.UTF_8), requests, bytes));
+            }
+            return new Report(nodeId, sequence, full, entries);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("truncated datagram", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.acme.finops.gateway.cluster;
+
+/**
+ * Point-in-time counters of a {@link QuotaPeerExchange}.
+ *
+ * @param peers              peers heard from recently
+ * @param datagramsSent      reports sent, counted once per peer
+ * @param datagramsReceived  well-formed reports received from other nodes
+ * @param datagramsMalformed datagrams that were not quota reports
+ * @param datagramsRejected  datagrams from addresses that are not configured peers
+ * @param remoteRequests     requests admitted by peers and charged to local buckets
+ * @param remoteBytes        payload bytes admitted by peers and charged to local buckets
+ */
+public record QuotaExchangeStats(
+    int peers,
+    long datagramsSent,
+    long datagramsReceived,
+    long datagramsMalformed,
+    long datagramsRejected,
+    long remoteRequests,
+    long remoteBytes
+) {
+}
@@ -0,0 +1,323 @@
+package com.acme.finops.gateway.cluster;
+
+import com.acme.finops.gateway.policy.TenantQuotaAdmissionPolicy;
+import com.acme.finops.gateway.policy.TenantQuotaStats;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shares tenant quota consumption between gateway nodes, so a tenant's rate limit holds
+ * for the cluster rather than per node behind a load balancer.
+ *
+ * <p>Every {@code interval} each node sends its peers, over UDP, the cumulative requests
+ * and bytes it has admitted per tenant ({@link QuotaDeltaCodec}). A receiver takes the
+ * difference to the previous report of that peer and charges it to its own buckets with
+ * {@link TenantQuotaAdmissionPolicy#chargeRemote}. Every node's buckets therefore refill
+ * at the global rate and drain by the whole cluster's admissions, and the cluster admits
+ * the configured rate, overshooting by at most what peers admit within one interval plus
+ * the datagram delay.</p>
+ *
+ * <p>Only tenants whose counts changed are sent each interval, and all of them every
+ * {@value #FULL_REPORT_EVERY} intervals, so a lost datagram delays a peer's view by at most
+ * that long. The first full report received from a peer, which may span several datagrams,
+ * sets the baseline of every tenant; later, a tenant seen for the first time is new and
+ * its counts are charged whole. A peer that restarts gets a new node id,
+ * and one silent for {@value #PEER_EXPIRY_INTERVALS} intervals is forgotten.</p>
+ *
+ * <p>Reports are neither signed nor encrypted. Datagrams are accepted only from the
+ * addresses reports are sent to, which keeps strangers from spending a tenant's quota but
+ * not a host that can spoof a peer's source address, so the exchange belongs on a trusted
+ * network and should be bound to an interface on it.</p>
+ *
+ * <h3>Concurrency Protocol</h3>
+ * <ul>
+ *   <li>One daemon thread sends and receives; peer baselines are confined to it.</li>
+ *   <li>{@link #stats()} reads adders and may run on any thread.</li>
+ * </ul>
+ */
+public final class QuotaPeerExchange implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(QuotaPeerExchange.class.getName());
+    static final int FULL_REPORT_EVERY = 10;
+    static final int PEER_EXPIRY_INTERVALS = 100;
+
+    private final TenantQuotaAdmissionPolicy policy;
+    private final DatagramChannel channel;
+    private final Selector selector;
+    private final long intervalNanos;
+    private final long nodeId;
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(QuotaDeltaCodec.MAX_DATAGRAM_BYTES);
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(QuotaDeltaCodec.MAX_DATAGRAM_BYTES);
+    private final Map<String, long[]> lastSent = new HashMap<>();
+    private final Map<Long, PeerState> peers = new HashMap<>();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder remoteRequests = new LongAdder();
+    private final LongAdder remoteBytes = new LongAdder();
+    private volatile int knownPeers;
+    private volatile List<InetSocketAddress> targets = List.of();
+    private volatile Set<InetSocketAddress> allowedSenders = Set.of();
+    private volatile Thread thread;
+    private int reports;
+
+    private QuotaPeerExchange(TenantQuotaAdmissionPolicy policy, DatagramChannel channel, Selector selector, long intervalNanos) {
+        this.policy = policy;
+        this.channel = channel;
+        this.selector = selector;
+        this.intervalNanos = intervalNanos;
+        this.nodeId = ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * Opens the exchange's UDP socket; nothing is sent or received before {@link #start}.
+     *
+     * @param bindAddress   local address, port {@code 0} for an ephemeral one
+     * @param intervalNanos time between reports
+     */
+    public static QuotaPeerExchange bind(TenantQuotaAdmissionPolicy policy,
+                                         InetSocketAddress bindAddress,
+                                         long intervalNanos) throws IOException {
+        Objects.requireNonNull(policy, "policy");
+        Objects.requireNonNull(bindAddress, "bindAddress");
+        if (intervalNanos <= 0L) {
+            throw new IllegalArgumentException("intervalNanos must be > 0");
+        }
+        DatagramChannel channel = DatagramChannel.open();
+        try {
+            channel.bind(bindAddress);
+            channel.configureBlocking(false);
+            Selector selector = Selector.open();
+            channel.register(selector, SelectionKey.OP_READ);
+            return new QuotaPeerExchange(policy, channel, selector, intervalNanos);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public InetSocketAddress localAddress() throws IOException {
+        return (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    /**
+     * Starts reporting to {@code peerAddresses}. Reports are accepted from those addresses
+     * only, so each peer must send from the address it is listed under here.
+     */
+    public synchronized void start(List<InetSocketAddress> peerAddresses) {
+        if (thread != null) {
+            return;
+        }
+        targets = List.copyOf(peerAddresses);
+        allowedSenders = Set.copyOf(targets);
+        Thread t = new Thread(this::run, "gateway-quota-exchange");
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+    }
+
+    public QuotaExchangeStats stats() {
+        return new QuotaExchangeStats(knownPeers, sent.sum(), received.sum(), malformed.sum(), rejected.sum(),
+            remoteRequests.sum(), remoteBytes.sum());
+    }
+
+    private void run() {
+        long nextReport = System.nanoTime();
+        while (channel.isOpen()) {
+            try {
+                long now = System.nanoTime();
+                if (now - nextReport >= 0L) {
+                    report(now);
+                    nextReport = now + intervalNanos;
+                }
+                long waitMillis = Math.max(1L, (nextReport - now) / 1_000_000L);
+                if (selector.select(waitMillis) > 0) {
+                    selector.selectedKeys().clear();
+                    receiveAll();
+                }
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                if (!channel.isOpen()) {
+                    return;
+                }
+                LOG.log(Level.WARNING, "Quota peer exchange failure", e);
+            }
+        }
+    }
+
+    private void report(long now) throws IOException {
+        int sequence = reports++;
+        boolean full = Integer.remainderUnsigned(sequence, FULL_REPORT_EVERY) == 0;
+        QuotaDeltaCodec.beginDatagram(sendBuffer, nodeId, sequence, full);
+        for (TenantQuotaStats tenant : policy.stats()) {
+            long[] last = lastSent.get(tenant.tenant());
+            if (!full && last != null && last[0] == tenant.admitted() && last[1] == tenant.admittedBytes()) {
+                continue;
+            }
+            byte[] name = tenant.tenant().getBytes(StandardCharsets.UTF_8);
+            if (name.length > QuotaDeltaCodec.MAX_TENANT_BYTES) {
+                continue;
+            }
+            if (!QuotaDeltaCodec.putEntry(sendBuffer, name, tenant.admitted(), tenant.admittedBytes())) {
+                flush();
+                QuotaDeltaCodec.beginDatagram(sendBuffer, nodeId, sequence, full);
+                QuotaDeltaCodec.putEntry(sendBuffer, name, tenant.admitted(), tenant.admittedBytes());
+            }
+            lastSent.put(tenant.tenant(), new long[] {tenant.admitted(), tenant.admittedBytes()});
+        }
+        // Always sent, even empty: it is also the heartbeat that keeps peers from expiring us.
+        flush();
+        expirePeers(now);
+    }
+
+    private void flush() throws IOException {
+        sendBuffer.flip();
+        for (InetSocketAddress target : targets) {
+            channel.send(sendBuffer.duplicate(), target);
+            sent.increment();
+        }
+    }
+
+    private void receiveAll() throws IOException {
+        while (true) {
+            receiveBuffer.clear();
+            SocketAddress from = channel.receive(receiveBuffer);
+            if (from == null) {
+                return;
+            }
+            if (!allowedSenders.contains(from)) {
+                rejected.increment();
+                continue;
+            }
+            receiveBuffer.flip();
+            QuotaDeltaCodec.Report report;
+            try {
+                report = QuotaDeltaCodec.decode(receiveBuffer);
+            } catch (IllegalArgumentException e) {
+                malformed.increment();
+                continue;
+            }
+            if (report.nodeId() == nodeId) {
+                continue;
+            }
+            received.increment();
+            apply(report, System.nanoTime());
+        }
+    }
+
+    private void apply(QuotaDeltaCodec.Report report, long now) {
+        PeerState peer = peers.get(report.nodeId());
+        if (peer == null) {
+            peer = new PeerState();
+            peers.put(report.nodeId(), peer);
+            knownPeers = peers.size();
+        }
+        peer.lastHeardNanos = now;
+        if (!peer.synced && report.full()) {
+            peer.synced = true;
+            peer.baselineReport = report.sequence();
+        }
+        boolean baseline = !peer.synced || report.sequence() == peer.baselineReport;
+        for (QuotaDeltaCodec.Entry entry : report.entries()) {
+            long[] last = peer.lastCounts.get(entry.tenant());
+            long requests = entry.requests() - (last == null ? 0L : last[0]);
+            long bytes = entry.bytes() - (last == null ? 0L : last[1]);
+            if (last != null && (requests < 0L || bytes < 0L)) {
+                continue;
+            }
+            peer.lastCounts.put(entry.tenant(), new long[] {entry.requests(), entry.bytes()});
+            if (baseline || (requests == 0L && bytes == 0L)) {
+                continue;
+            }
+            policy.chargeRemote(entry.tenant(), requests, bytes, now);
+            remoteRequests.add(requests);
+            remoteBytes.add(bytes);
+        }
+    }
+
+    private void expirePeers(long now) {
+        long expiry = intervalNanos * PEER_EXPIRY_INTERVALS;
+        Iterator<PeerState> it = peers.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().lastHeardNanos > expiry) {
+                it.remove();
+            }
+        }
+        knownPeers = peers.size();
+    }
+
+    /**
+     * Parses {@code host:port[,host:port...]}; malformed entries are logged and skipped.
+     */
+    public static List<InetSocketAddress> parsePeers(String spec) {
+        List<InetSocketAddress> out = new ArrayList<>();
+        if (spec == null || spec.isBlank()) {
+            return out;
+        }
+        for (String raw : spec.split(",")) {
+            String entry = raw.trim();
+            int colon = entry.lastIndexOf(':');
+            if (colon <= 0 || colon == entry.length() - 1) {
+                LOG.warning("Ignoring quota peer without host:port: " + entry);
+                continue;
+            }
+            try {
+                int port = Integer.parseInt(entry.substring(colon + 1));
+                if (port < 1 || port > 65_535) {
+                    throw new NumberFormatException("port out of range");
+                }
+                out.add(new InetSocketAddress(entry.substring(0, colon), port));
+            } catch (NumberFormatException e) {
+                LOG.warning("Ignoring quota peer with invalid port: " + entry);
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+            selector.close();
+        } catch (IOException e) {
+            LOG.fine("Quota peer exchange close failed: " + e.getClass().getSimpleName());
+        }
+        Thread t = thread;
+        if (t != null) {
+            try {
+                t.join(1_000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class PeerState {
+        final Map<String, long[]> lastCounts = new HashMap<>();
+        long lastHeardNanos;
+        /** A full report has been seen, so every tenant's baseline is known. */
+        boolean synced;
+        /** Sequence number of that report; its other datagrams are baselines as well. */
+        int baselineReport;
+    }
+}
@@ -1,9 +1,11 @@
 package com.acme.finops.gateway.memory;
 
+import com.acme.finops.gateway.util.GatewayStatusCodes;
+
 /**
  * Thrown when a slab allocation is denied (all regions draining / capacity exhausted).
  * Carries the allocator's reason code so ingress adapters can map it to the appropriate
- * transport-level status (HTTP 503 / gRPC UNAVAILABLE).
+ * transport-level status (HTTP 503 / gRPC UNAVAILABLE, or HTTP 429 for quota denials).
  */
 public final class AllocationDeniedException extends RuntimeException {
     private final int reasonCode;
@@ -16,4 +18,14 @@ public final class AllocationDeniedException extends RuntimeException {
     public int reasonCode() {
         return reasonCode;
     }
+
+    /** True when the denial came from a tenant or signal quota rather than slab exhaustion. */
+    public boolean isQuotaExceeded() {
+        return isQuotaReason(reasonCode);
+    }
+
+    static boolean isQuotaReason(int reasonCode) {
+        return reasonCode == GatewayStatusCodes.TENANT_QUOTA_EXCEEDED
+            || reasonCode == GatewayStatusCodes.SIGNAL_QUOTA_EXCEEDED;
+    }
 }
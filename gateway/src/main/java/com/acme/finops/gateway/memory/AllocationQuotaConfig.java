@@ -0,0 +1,114 @@
+package com.acme.finops.gateway.memory;
+
+import com.acme.finops.gateway.transport.api.SignalKind;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Static quota configuration for {@link AllocationQuotas}.
+ *
+ * <p>Spec format (both tenant and signal specs): {@code key|reservedBytes|burstBytes}
+ * entries separated by {@code ;}. Tenant key {@code *} sets the burst limit applied to
+ * tenants without an explicit entry; its reservation is ignored because the set of
+ * unlisted tenants is unbounded. Signal keys are {@code TRACES|METRICS|LOGS}.
+ *
+ * @param tenantLimits       explicit per-tenant limits
+ * @param defaultTenantLimit limit for unlisted tenants ({@link QuotaLimit#UNLIMITED} if unset)
+ * @param signalLimits       per-signal limits; absent signals are unlimited
+ */
+public record AllocationQuotaConfig(
+    Map<String, QuotaLimit> tenantLimits,
+    QuotaLimit defaultTenantLimit,
+    Map<SignalKind, QuotaLimit> signalLimits
+) {
+    private static final Logger LOG = Logger.getLogger(AllocationQuotaConfig.class.getName());
+    private static final String DEFAULT_TENANT_KEY = "*";
+
+    public AllocationQuotaConfig {
+        tenantLimits = tenantLimits == null ? Map.of() : Map.copyOf(tenantLimits);
+        defaultTenantLimit = defaultTenantLimit == null
+            ? QuotaLimit.UNLIMITED
+            : new QuotaLimit(0L, defaultTenantLimit.burstBytes());
+        signalLimits = signalLimits == null || signalLimits.isEmpty()
+            ? Map.of()
+            : Map.copyOf(new EnumMap<>(signalLimits));
+    }
+
+    public long reservedTenantBytes() {
+        long sum = 0L;
+        for (QuotaLimit limit : tenantLimits.values()) {
+            sum += limit.reservedBytes();
+        }
+        return sum;
+    }
+
+    public long reservedSignalBytes() {
+        long sum = 0L;
+        for (QuotaLimit limit : signalLimits.values()) {
+            sum += limit.reservedBytes();
+        }
+        return sum;
+    }
+
+    public static AllocationQuotaConfig parse(String tenantSpec, String signalSpec) {
+        Map<String, QuotaLimit> tenants = new LinkedHashMap<>();
+        QuotaLimit defaultTenant = null;
+        for (Map.Entry<String, QuotaLimit> e : parseEntries(tenantSpec).entrySet()) {
+            if (DEFAULT_TENANT_KEY.equals(e.getKey())) {
+                defaultTenant = e.getValue();
+            } else {
+                tenants.put(e.getKey(), e.getValue());
+            }
+        }
+
+        Map<SignalKind, QuotaLimit> signals = new EnumMap<>(SignalKind.class);
+        for (Map.Entry<String, QuotaLimit> e : parseEntries(signalSpec).entrySet()) {
+            SignalKind kind = parseSignal(e.getKey());
+            if (kind == null) {
+                LOG.warning("Skipping signal quota with unknown signal: " + e.getKey());
+                continue;
+            }
+            signals.put(kind, e.getValue());
+        }
+        return new AllocationQuotaConfig(tenants, defaultTenant, signals);
+    }
+
+    private static Map<String, QuotaLimit> parseEntries(String spec) {
+        Map<String, QuotaLimit> out = new LinkedHashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return out;
+        }
+        for (String def : spec.split(";")) {
+            String entry = def.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            String[] parts = entry.split("\\|", -1);
+            if (parts.length != 3 || parts[0].isBlank()) {
+                LOG.warning("Skipping malformed quota entry: " + entry);
+                continue;
+            }
+            try {
+                long reserved = Long.parseLong(parts[1].trim());
+                long burst = Long.parseLong(parts[2].trim());
+                out.put(parts[0].trim(), new QuotaLimit(reserved, burst));
+            } catch (IllegalArgumentException e) {
+                LOG.warning("Skipping invalid quota entry: " + entry + " (" + e.getMessage() + ")");
+            }
+        }
+        return out;
+    }
+
+    private static SignalKind parseSignal(String raw) {
+        return switch (raw.trim().toUpperCase(Locale.ROOT)) {
+            case "TRACES" -> SignalKind.TRACES;
+            case "METRICS" -> SignalKind.METRICS;
+            case "LOGS" -> SignalKind.LOGS;
+            default -> null;
+        };
+    }
+}
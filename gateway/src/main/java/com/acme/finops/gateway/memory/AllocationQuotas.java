@@ -0,0 +1,161 @@
+package com.acme.finops.gateway.memory;
+
+import com.acme.finops.gateway.transport.api.SignalKind;
+import com.acme.finops.gateway.util.GatewayStatusCodes;
+import com.acme.finops.gateway.util.TenantRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Per-tenant and per-signal byte quotas enforced by {@link SlabPacketAllocator}.
+ *
+ * <p>One instance is shared by every shard of a {@link StripedPacketAllocator} so limits
+ * apply to the whole node, not to a single shard. Tenant and signal dimensions are
+ * charged independently; an allocation must fit both. Accounting is lock-free (CAS on
+ * per-key and shared-pool counters, see {@link QuotaLedger}).
+ *
+ * <p>Unlisted tenants get their own account with the configured default burst limit.
+ * Accounts live in a {@link TenantRegistry} with room for every configured tenant plus
+ * {@value #MAX_DYNAMIC_TENANTS} others; tenants beyond that share the
+ * {@value TenantRegistry#OVERFLOW_TENANT} account, so a tenant-id explosion cannot grow the
+ * map without bound. Configured tenants are registered up front and never overflow.
+ */
+public final class AllocationQuotas {
+    static final int MAX_DYNAMIC_TENANTS = 1024;
+
+    private final AllocationQuotaConfig config;
+    private final QuotaLedger tenantLedger;
+    private final QuotaLedger signalLedger;
+    private final TenantRegistry<QuotaLedger.Account> tenantAccounts;
+    private final QuotaLedger.Account[] signalAccounts;
+
+    public AllocationQuotas(AllocationQuotaConfig config, long totalCapacityBytes) {
+        this.config = Objects.requireNonNull(config, "config");
+        this.tenantLedger = new QuotaLedger(totalCapacityBytes, config.reservedTenantBytes());
+        this.signalLedger = new QuotaLedger(totalCapacityBytes, config.reservedSignalBytes());
+
+        this.tenantAccounts = new TenantRegistry<>(MAX_DYNAMIC_TENANTS + config.tenantLimits().size(),
+            (tenant, slot) -> tenantLedger.newAccount(tenant, slot == TenantRegistry.OVERFLOW_SLOT
+                ? config.defaultTenantLimit()
+                : config.tenantLimits().getOrDefault(tenant, config.defaultTenantLimit())));
+        for (String tenant : config.tenantLimits().keySet()) {
+            tenantAccounts.entryFor(tenant);
+        }
+
+        // Index 0 = untagged / unknown signal, 1..3 = signalTypeCode of TRACES/METRICS/LOGS.
+        this.signalAccounts = new QuotaLedger.Account[4];
+        signalAccounts[0] = signalLedger.newAccount(TenantRegistry.UNKNOWN_TENANT, QuotaLimit.UNLIMITED);
+        for (SignalKind kind : SignalKind.values()) {
+            QuotaLimit limit = config.signalLimits().getOrDefault(kind, QuotaLimit.UNLIMITED);
+            signalAccounts[kind.ordinal() + 1] = signalLedger.newAccount(kind.name(), limit);
+        }
+    }
+
+    public AllocationQuotaConfig config() {
+        return config;
+    }
+
+    /**
+     * Charges {@code bytes} against the tag's tenant and signal accounts.
+     *
+     * @return a granted {@link Charge} to pass to {@link #refund}, or a denied charge whose
+     *         {@link Charge#reasonCode()} identifies the exhausted dimension
+     */
+    public Charge charge(AllocationTag tag, long bytes) {
+        QuotaLedger.Account tenant = tenantAccounts.entryFor(tag == null ? null : tag.tenantId());
+        if (!tenantLedger.tryAcquire(tenant, bytes)) {
+            return Charge.DENIED_TENANT;
+        }
+        QuotaLedger.Account signal = signalAccount(tag == null ? 0 : tag.signalTypeCode());
+        if (!signalLedger.tryAcquire(signal, bytes)) {
+            tenantLedger.release(tenant, bytes);
+            return Charge.DENIED_SIGNAL;
+        }
+        return new Charge(tenant, signal, bytes);
+    }
+
+    /** Returns a granted charge's bytes to both accounts. No-op for denied charges. */
+    public void refund(Charge charge) {
+        if (charge == null || !charge.granted()) {
+            return;
+        }
+        signalLedger.release(charge.signal, charge.bytes);
+        tenantLedger.release(charge.tenant, charge.bytes);
+    }
+
+    /** Point-in-time usage per quota key, for metrics export. */
+    public List<QuotaUsage> usage() {
+        List<QuotaLedger.Account> tenants = tenantAccounts.entries();
+        List<QuotaUsage> out = new ArrayList<>(tenants.size() + signalAccounts.length);
+        for (QuotaLedger.Account a : tenants) {
+            out.add(toUsage(QuotaUsage.DIMENSION_TENANT, a));
+        }
+        for (QuotaLedger.Account a : signalAccounts) {
+            out.add(toUsage(QuotaUsage.DIMENSION_SIGNAL, a));
+        }
+        return out;
+    }
+
+    long tenantSharedInUse() {
+        return tenantLedger.sharedInUse();
+    }
+
+    long signalSharedInUse() {
+        return signalLedger.sharedInUse();
+    }
+
+    private QuotaLedger.Account signalAccount(int signalTypeCode) {
+        return signalTypeCode > 0 && signalTypeCode < signalAccounts.length
+            ? signalAccounts[signalTypeCode]
+            : signalAccounts[0];
+    }
+
+    private static QuotaUsage toUsage(String dimension, QuotaLedger.Account a) {
+        return new QuotaUsage(
+            dimension,
+            a.key,
+            a.inUse.get(),
+            a.limit.reservedBytes(),
+            a.limit.burstBytes(),
+            a.denied.sum()
+        );
+    }
+
+    /**
+     * Result of {@link #charge}. Granted charges are owned by the packet and refunded
+     * exactly once on its final release.
+     */
+    public static final class Charge {
+        static final Charge DENIED_TENANT = new Charge(GatewayStatusCodes.TENANT_QUOTA_EXCEEDED);
+        static final Charge DENIED_SIGNAL = new Charge(GatewayStatusCodes.SIGNAL_QUOTA_EXCEEDED);
+
+        private final QuotaLedger.Account tenant;
+        private final QuotaLedger.Account signal;
+        private final long bytes;
+        private final int reasonCode;
+
+        private Charge(QuotaLedger.Account tenant, QuotaLedger.Account signal, long bytes) {
+            this.tenant = tenant;
+            this.signal = signal;
+            this.bytes = bytes;
+            this.reasonCode = 0;
+        }
+
+        private Charge(int reasonCode) {
+            this.tenant = null;
+            this.signal = null;
+            this.bytes = 0L;
+            this.reasonCode = reasonCode;
+        }
+
+        public boolean granted() {
+            return reasonCode == 0;
+        }
+
+        public int reasonCode() {
+            return reasonCode;
+        }
+    }
+}
@@ -1,3 +1,12 @@
 package com.acme.finops.gateway.memory;
 
-public record AllocationTag(String pipeline, String tenantId, int signalTypeCode) {}
+/**
+ * What an allocation is for: quota accounts are charged by {@code tenantId} and
+ * {@code signalTypeCode}, and the packet's descriptor is created with
+ * {@code deadlineNanos} as its client deadline ({@code 0} for none).
+ */
+public record AllocationTag(String pipeline, String tenantId, int signalTypeCode, long deadlineNanos) {
+    public AllocationTag(String pipeline, String tenantId, int signalTypeCode) {
+        this(pipeline, tenantId, signalTypeCode, 0L);
+    }
+}
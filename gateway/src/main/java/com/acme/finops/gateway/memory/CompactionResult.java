@@ -0,0 +1,25 @@
+package com.acme.finops.gateway.memory;
+
+/**
+ * Outcome of one {@link SlabPacketAllocator#compact} pass.
+ *
+ * @param regionsFreed  DRAINING regions that returned to FREE because of the pass
+ * @param packetsMoved  live packets relocated into the ACTIVE region
+ * @param bytesCopied   payload bytes copied (aligned packet sizes)
+ * @param pinnedSkips   candidate regions skipped because a live packet was pinned
+ * @param leakSkips     candidate regions skipped because a packet was collected without
+ *                      release or is older than the leak detector's threshold
+ */
+public record CompactionResult(long regionsFreed, long packetsMoved, long bytesCopied, long pinnedSkips, long leakSkips) {
+    public static final CompactionResult NONE = new CompactionResult(0, 0, 0, 0, 0);
+
+    public CompactionResult plus(CompactionResult other) {
+        return new CompactionResult(
+            regionsFreed + other.regionsFreed,
+            packetsMoved + other.packetsMoved,
+            bytesCopied + other.bytesCopied,
+            pinnedSkips + other.pinnedSkips,
+            leakSkips + other.leakSkips
+        );
+    }
+}
@@ -0,0 +1,51 @@
+package com.acme.finops.gateway.memory;
+
+/**
+ * Sizing and shrink policy for {@link ElasticSlabPacketAllocator}.
+ *
+ * @param arenaBytes              size of each arena (one {@link SlabPacketAllocator})
+ * @param regionsPerArena         region count per arena (power of two)
+ * @param minArenas               arenas kept allocated even when idle (>= 1)
+ * @param maxArenas               hard cap on concurrently allocated arenas
+ * @param idleCooldownMillis      how long an arena must see no allocations before it is retired
+ * @param growAfterMillis         how long every arena must keep failing allocations before one
+ *                                is added; {@code 0} grows on the first exhausted scan
+ * @param maintenanceIntervalMillis period of the background shrink check; {@code 0} disables
+ *                                the background thread (callers drive {@code maintain()})
+ */
+public record ElasticSlabConfig(
+    long arenaBytes,
+    int regionsPerArena,
+    int minArenas,
+    int maxArenas,
+    long idleCooldownMillis,
+    long growAfterMillis,
+    long maintenanceIntervalMillis
+) {
+    public ElasticSlabConfig {
+        if (arenaBytes <= 0) {
+            throw new IllegalArgumentException("arenaBytes must be positive, got " + arenaBytes);
+        }
+        if (minArenas < 1) {
+            throw new IllegalArgumentException("minArenas must be >= 1, got " + minArenas);
+        }
+        if (maxArenas < minArenas) {
+            throw new IllegalArgumentException(
+                "maxArenas (" + maxArenas + ") must be >= minArenas (" + minArenas + ")");
+        }
+        if (idleCooldownMillis < 0 || growAfterMillis < 0 || maintenanceIntervalMillis < 0) {
+            throw new IllegalArgumentException("cooldown, grow delay and maintenance interval must be >= 0");
+        }
+    }
+
+    /** A configuration that grows on the first exhausted scan. */
+    public ElasticSlabConfig(long arenaBytes, int regionsPerArena, int minArenas, int maxArenas,
+                             long idleCooldownMillis, long maintenanceIntervalMillis) {
+        this(arenaBytes, regionsPerArena, minArenas, maxArenas, idleCooldownMillis, 0L, maintenanceIntervalMillis);
+    }
+
+    /** Upper bound on bytes this configuration can allocate. */
+    public long maxCapacityBytes() {
+        return arenaBytes * maxArenas;
+    }
+}
@@ -0,0 +1,438 @@
+package com.acme.finops.gateway.memory;
+
+import com.acme.finops.gateway.util.GatewayStatusCodes;
+
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Slab allocator that grows and shrinks by whole arenas.
+ *
+ * <p>Each arena is an independent {@link SlabPacketAllocator} with its own off-heap
+ * {@code Arena}. The allocator starts with {@code minArenas}, adds an arena when every
+ * live arena has stayed exhausted for {@code growAfterMillis} (up to {@code maxArenas}),
+ * and retires arenas that have seen no allocations for {@code idleCooldownMillis}. Until
+ * then exhausted allocations are denied, so a short burst is pushed back to clients
+ * instead of committing an arena that would sit idle for the whole cool-down.
+ *
+ * <p>Pressure counts as sustained when exhausted scans keep arriving for
+ * {@code growAfterMillis} with no gap longer than that between two of them; a longer gap
+ * starts a new episode. Successful allocations do not reset it, since under pressure some
+ * allocations still fit as packets are released.
+ *
+ * <h3>Concurrency Protocol</h3>
+ * <ul>
+ *   <li>The live arena list is a copy-on-write array published through a volatile field.
+ *       {@link #allocate} never locks; grow and shrink serialize on {@code structureLock}
+ *       and publish a new array.</li>
+ *   <li>Growth is taken only by the thread that still sees the array it scanned: a thread
+ *       whose snapshot is stale retries on the newer array instead of growing again.</li>
+ *   <li>Retirement removes the arena from the live array first, then calls
+ *       {@link SlabPacketAllocator#retire()}. Threads holding the old snapshot can still
+ *       reach the arena; its own retire handshake denies them before any slab memory is
+ *       handed out. The arena closes itself on the last live packet's release.</li>
+ *   <li>Retired arenas stay in {@code retiring} until closed so their live bytes remain
+ *       visible in {@link #stats()}; closed arenas fold their counters into the retired
+ *       totals so alloc/release counts stay monotonic.</li>
+ * </ul>
+ */
+public final class ElasticSlabPacketAllocator implements PacketAllocator {
+    private static final Logger LOG = Logger.getLogger(ElasticSlabPacketAllocator.class.getName());
+
+    private final ElasticSlabConfig config;
+    private final int regionsPerArena;
+    private final long regionCapacity;
+    private final AllocationQuotas quotas;
+    private final SlabBacking backing;
+    private final boolean relocatable;
+    private final Object structureLock = new Object();
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    private volatile ArenaSlot[] live;
+    private volatile int preferred;
+    private final List<ArenaSlot> retiring = new ArrayList<>();
+
+    private final AtomicLong failedAllocations = new AtomicLong();
+    private final AtomicLong growCount = new AtomicLong();
+    private final AtomicLong shrinkCount = new AtomicLong();
+    private long retiredAllocCount;
+    private long retiredReleaseCount;
+    /** Start of the current exhaustion episode; guarded by {@code structureLock}. */
+    private boolean underPressure;
+    private long pressureSinceNanos;
+    private long lastPressureNanos;
+    /** Monotonic arena id for diagnostics; written in the constructor and under {@code structureLock}. */
+    private int nextArenaId;
+
+    private final ScheduledExecutorService maintenance;
+
+    public ElasticSlabPacketAllocator(ElasticSlabConfig config) {
+        this(config, null);
+    }
+
+    public ElasticSlabPacketAllocator(ElasticSlabConfig config, AllocationQuotas quotas) {
+        this(config, quotas, SlabBacking.ANONYMOUS);
+    }
+
+    public ElasticSlabPacketAllocator(ElasticSlabConfig config, AllocationQuotas quotas, SlabBacking backing) {
+        this(config, quotas, backing, false);
+    }
+
+    /**
+     * @param relocatable build arenas whose DRAINING regions can be compacted, see {@link #compact}
+     */
+    public ElasticSlabPacketAllocator(ElasticSlabConfig config, AllocationQuotas quotas, SlabBacking backing,
+                                      boolean relocatable) {
+        this.relocatable = relocatable;
+        this.backing = Objects.requireNonNull(backing, "backing");
+        this.config = Objects.requireNonNull(config, "config");
+        this.regionsPerArena = config.regionsPerArena() <= 0
+            ? SlabPacketAllocator.clampRegions(8, config.arenaBytes())
+            : config.regionsPerArena();
+        this.regionCapacity = (config.arenaBytes() / regionsPerArena) & ~7L;
+        this.quotas = quotas;
+
+        ArenaSlot[] initial = new ArenaSlot[config.minArenas()];
+        long now = System.nanoTime();
+        for (int i = 0; i < initial.length; i++) {
+            initial[i] = newSlot(now);
+        }
+        this.live = initial;
+
+        if (config.maintenanceIntervalMillis() > 0) {
+            this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "gateway-slab-maintenance");
+                t.setDaemon(true);
+                return t;
+            });
+            long interval = config.maintenanceIntervalMillis();
+            maintenance.scheduleWithFixedDelay(this::maintainSafely, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.maintenance = null;
+        }
+    }
+
+    @Override
+    public LeaseResult allocate(int minBytes, AllocationTag tag) {
+        return allocate(minBytes, tag, System.nanoTime());
+    }
+
+    LeaseResult allocate(int minBytes, AllocationTag tag, long nowNanos) {
+        if (closed.get()) {
+            return new LeaseResult.Denied(GatewayStatusCodes.SERVICE_UNAVAILABLE);
+        }
+        if (minBytes <= 0) {
+            return new LeaseResult.Denied(GatewayStatusCodes.BAD_REQUEST);
+        }
+        if (((minBytes + 7L) & ~7L) > regionCapacity) {
+            // Would never fit a region; growing cannot help.
+            failedAllocations.incrementAndGet();
+            return new LeaseResult.Denied(GatewayStatusCodes.INSUFFICIENT_STORAGE);
+        }
+
+        while (true) {
+            ArenaSlot[] snapshot = live;
+            LeaseResult result = allocateFrom(snapshot, minBytes, tag);
+            if (result instanceof LeaseResult.Granted
+                || (result instanceof LeaseResult.Denied d && AllocationDeniedException.isQuotaReason(d.reasonCode()))) {
+                return result;
+            }
+            if (!grow(snapshot, nowNanos)) {
+                failedAllocations.incrementAndGet();
+                return new LeaseResult.Denied(GatewayStatusCodes.INSUFFICIENT_STORAGE);
+            }
+        }
+    }
+
+    private LeaseResult allocateFrom(ArenaSlot[] snapshot, int minBytes, AllocationTag tag) {
+        int n = snapshot.length;
+        int start = preferred;
+        if (start >= n) {
+            start = 0;
+        }
+        LeaseResult last = null;
+        for (int i = 0; i < n; i++) {
+            int idx = (start + i) % n;
+            last = snapshot[idx].slab.allocate(minBytes, tag);
+            if (last instanceof LeaseResult.Granted) {
+                if (idx != start) {
+                    preferred = idx;
+                }
+                return last;
+            }
+            if (last instanceof LeaseResult.Denied d && AllocationDeniedException.isQuotaReason(d.reasonCode())) {
+                return last;
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Records an exhausted scan of {@code observed} and adds one arena if it is still the
+     * published array, the pressure has lasted {@code growAfterMillis} and the cap allows.
+     *
+     * @return {@code true} if the caller should retry (arena added or array changed)
+     */
+    private boolean grow(ArenaSlot[] observed, long nowNanos) {
+        synchronized (structureLock) {
+            if (closed.get()) {
+                return false;
+            }
+            ArenaSlot[] current = live;
+            if (current != observed) {
+                return true;
+            }
+            long growAfterNanos = TimeUnit.MILLISECONDS.toNanos(config.growAfterMillis());
+            if (!underPressure || nowNanos - lastPressureNanos > growAfterNanos) {
+                underPressure = true;
+                pressureSinceNanos = nowNanos;
+            }
+            lastPressureNanos = nowNanos;
+            if (nowNanos - pressureSinceNanos < growAfterNanos) {
+                return false;
+            }
+            if (current.length + openRetiringCount() >= config.maxArenas()) {
+                return false;
+            }
+            ArenaSlot[] next = new ArenaSlot[current.length + 1];
+            System.arraycopy(current, 0, next, 0, current.length);
+            next[current.length] = newSlot(System.nanoTime());
+            live = next;
+            preferred = current.length;
+            underPressure = false;
+            growCount.incrementAndGet();
+            LOG.fine("Elastic slab grew to " + next.length + " arenas");
+            return true;
+        }
+    }
+
+    /**
+     * Retires idle arenas above {@code minArenas} and drops retired arenas that have closed.
+     * Called by the maintenance thread; exposed for callers that drive maintenance manually.
+     */
+    public void maintain() {
+        maintain(System.nanoTime());
+    }
+
+    void maintain(long nowNanos) {
+        long cooldownNanos = TimeUnit.MILLISECONDS.toNanos(config.idleCooldownMillis());
+        synchronized (structureLock) {
+            if (closed.get()) {
+                return;
+            }
+            ArenaSlot[] current = live;
+            List<ArenaSlot> keep = new ArrayList<>(current.length);
+            int removable = current.length - config.minArenas();
+            for (ArenaSlot slot : current) {
+                long allocs = slot.slab.stats().allocCount();
+                if (allocs != slot.lastAllocCount) {
+                    slot.lastAllocCount = allocs;
+                    slot.lastActiveNanos = nowNanos;
+                }
+                if (removable > 0 && nowNanos - slot.lastActiveNanos >= cooldownNanos) {
+                    removable--;
+                    retiring.add(slot);
+                    shrinkCount.incrementAndGet();
+                } else {
+                    keep.add(slot);
+                }
+            }
+            if (keep.size() != current.length) {
+                live = keep.toArray(new ArenaSlot[0]);
+                preferred = 0;
+                LOG.fine("Elastic slab shrank to " + keep.size() + " arenas");
+            }
+
+            // Retire after unpublishing so new snapshots never include the arena.
+            for (int i = retiring.size() - 1; i >= 0; i--) {
+                ArenaSlot slot = retiring.get(i);
+                slot.slab.retire();
+                if (slot.slab.isClosed()) {
+                    AllocatorStats s = slot.slab.stats();
+                    retiredAllocCount += s.allocCount();
+                    retiredReleaseCount += s.releaseCount();
+                    retiring.remove(i);
+                }
+            }
+        }
+    }
+
+    private int openRetiringCount() {
+        int open = 0;
+        for (ArenaSlot slot : retiring) {
+            if (!slot.slab.isClosed()) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    private void maintainSafely() {
+        try {
+            maintain();
+        } catch (RuntimeException e) {
+            LOG.warning("Elastic slab maintenance failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Pre-touches the arenas allocated so far (the {@code minArenas} created at startup).
+     * Arenas added later by growth are not pre-touched. Must run before traffic.
+     */
+    public SlabPreTouch.Result preTouch(int parallelism) {
+        List<MemorySegment> segments = new ArrayList<>();
+        collectSegments(segments);
+        return SlabPreTouch.touch(segments, parallelism);
+    }
+
+    void collectSegments(List<MemorySegment> out) {
+        for (ArenaSlot slot : live) {
+            slot.slab.collectSegments(out);
+        }
+    }
+
+    /** Arenas currently accepting allocations. */
+    public int arenaCount() {
+        return live.length;
+    }
+
+    /** Arenas unpublished but still waiting for live packets to be released. */
+    public int retiringArenaCount() {
+        synchronized (structureLock) {
+            return retiring.size();
+        }
+    }
+
+    public long growCount() {
+        return growCount.get();
+    }
+
+    public long shrinkCount() {
+        return shrinkCount.get();
+    }
+
+    /** Bytes currently reserved off-heap by live and retiring arenas. */
+    public long committedBytes() {
+        synchronized (structureLock) {
+            long bytes = 0;
+            for (ArenaSlot slot : live) {
+                bytes += slot.slab.capacityBytes();
+            }
+            for (ArenaSlot slot : retiring) {
+                if (!slot.slab.isClosed()) {
+                    bytes += slot.slab.capacityBytes();
+                }
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Compacts each live arena in turn, sharing one copy budget. Packets never move across
+     * arenas, so retiring arenas still drain by release only.
+     */
+    public CompactionResult compact(long maxCopyBytes, int maxLivePercent) {
+        CompactionResult total = CompactionResult.NONE;
+        for (ArenaSlot slot : live) {
+            long remaining = maxCopyBytes - total.bytesCopied();
+            if (remaining <= 0) {
+                break;
+            }
+            total = total.plus(slot.slab.compact(remaining, maxLivePercent));
+        }
+        return total;
+    }
+
+    /**
+     * Region breakdown of every live and retiring arena. {@link RegionStats#arena()} is a
+     * stable per-arena id, so a retiring arena keeps its id until it closes.
+     */
+    public List<RegionStats> regionStats() {
+        synchronized (structureLock) {
+            List<RegionStats> out = new ArrayList<>();
+            for (ArenaSlot slot : live) {
+                appendRegions(slot, out);
+            }
+            for (ArenaSlot slot : retiring) {
+                if (!slot.slab.isClosed()) {
+                    appendRegions(slot, out);
+                }
+            }
+            return out;
+        }
+    }
+
+    private static void appendRegions(ArenaSlot slot, List<RegionStats> out) {
+        for (RegionStats r : slot.slab.regionStats()) {
+            out.add(r.withArena(slot.id));
+        }
+    }
+
+    @Override
+    public AllocatorStats stats() {
+        synchronized (structureLock) {
+            long alloc = retiredAllocCount;
+            long release = retiredReleaseCount;
+            long inUse = 0;
+            for (ArenaSlot slot : live) {
+                AllocatorStats s = slot.slab.stats();
+                alloc += s.allocCount();
+                release += s.releaseCount();
+                inUse += s.inUseBytes();
+            }
+            for (ArenaSlot slot : retiring) {
+                AllocatorStats s = slot.slab.stats();
+                alloc += s.allocCount();
+                release += s.releaseCount();
+                inUse += s.inUseBytes();
+            }
+            return new AllocatorStats(alloc, release, inUse, failedAllocations.get());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+        synchronized (structureLock) {
+            for (ArenaSlot slot : live) {
+                slot.slab.close();
+            }
+            for (ArenaSlot slot : retiring) {
+                slot.slab.close();
+            }
+            retiring.clear();
+        }
+    }
+
+    private ArenaSlot newSlot(long nowNanos) {
+        return new ArenaSlot(nextArenaId++,
+            new SlabPacketAllocator(config.arenaBytes(), regionsPerArena, quotas, backing, relocatable), nowNanos);
+    }
+
+    /** One arena plus the idle-tracking state read and written under {@code structureLock}. */
+    private static final class ArenaSlot {
+        final int id;
+        final SlabPacketAllocator slab;
+        long lastAllocCount;
+        long lastActiveNanos;
+
+        ArenaSlot(int id, SlabPacketAllocator slab, long nowNanos) {
+            this.id = id;
+            this.slab = slab;
+            this.lastActiveNanos = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.acme.finops.gateway.memory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded lock-free pool of reusable per-packet carriers.
+ *
+ * <p>Backed by a multi-producer multi-consumer ring with per-slot sequence stamps
+ * (Vyukov), so {@link #acquire()} and {@link #release(Object)} never allocate and
+ * objects can be acquired on an I/O thread and released on a worker thread. When the
+ * ring is empty {@code acquire()} falls back to the factory; when it is full
+ * {@code release()} drops the object for the GC. Capacity bounds the retained heap.
+ *
+ * <p>The pool does not reset objects. Owners reinitialize a carrier when they take it
+ * out and clear its references when they hand it back.
+ */
+public final class ObjectPool<T> {
+    private static final VarHandle SEQ = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final Object[] slots;
+    private final long[] sequences;
+    private final int mask;
+    private final Supplier<T> factory;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+
+    /**
+     * @param capacity retained objects, rounded up to a power of two
+     * @param factory  creates a carrier when the pool is empty
+     */
+    public ObjectPool(int capacity, Supplier<T> factory) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive, got " + capacity);
+        }
+        int size = Integer.highestOneBit(Math.min(capacity, 1 << 30));
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new Object[size];
+        this.sequences = new long[size];
+        for (int i = 0; i < size; i++) {
+            sequences[i] = i;
+        }
+        this.mask = size - 1;
+        this.factory = Objects.requireNonNull(factory, "factory");
+    }
+
+    /** Takes a pooled object, or creates one if the pool is empty. */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        while (true) {
+            long pos = head.get();
+            int idx = (int) (pos & mask);
+            long seq = (long) SEQ.getAcquire(sequences, idx);
+            long diff = seq - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    T value = (T) slots[idx];
+                    slots[idx] = null;
+                    SEQ.setRelease(sequences, idx, pos + mask + 1);
+                    return value;
+                }
+            } else if (diff < 0) {
+                created.incrementAndGet();
+                return factory.get();
+            }
+            // Another consumer moved head; retry.
+        }
+    }
+
+    /**
+     * Returns an object to the pool.
+     *
+     * @return {@code false} if the pool is full and the object was dropped
+     */
+    public boolean release(T value) {
+        Objects.requireNonNull(value, "value");
+        while (true) {
+            long pos = tail.get();
+            int idx = (int) (pos & mask);
+            long seq = (long) SEQ.getAcquire(sequences, idx);
+            long diff = seq - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots[idx] = value;
+                    SEQ.setRelease(sequences, idx, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+            // Another producer moved tail; retry.
+        }
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /** Objects currently pooled (approximate under concurrency). */
+    public int size() {
+        long n = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(n, slots.length));
+    }
+
+    /** Objects created by the factory because the pool was empty. */
+    public long createdCount() {
+        return created.get();
+    }
+}
@@ -3,12 +3,138 @@ package com.acme.finops.gateway.memory;
 import com.acme.finops.gateway.transport.api.ProtocolKind;
 import com.acme.finops.gateway.transport.api.SignalKind;
 
-public record PacketDescriptor(
-    long packetId,
-    long requestId,
-    SignalKind signalKind,
-    ProtocolKind protocol,
-    int payloadOffset,
-    int payloadLength,
-    long ingestNanos
-) { }
+/**
+ * Per-packet metadata carried by a {@link PacketRef}.
+ *
+ * <p>Read-only from the outside. Slab refs are recycled (see {@link ObjectPool}), and their
+ * descriptor is reinitialized in place with the ref, so a descriptor must not be used
+ * after the owning ref's final release. For the same reason equality is identity: two
+ * descriptors are never interchangeable, and a descriptor must not be used as a map key
+ * beyond the life of its ref.
+ *
+ * <p>The client deadline is fixed when the packet is created, from the
+ * {@link AllocationTag#deadlineNanos()} it was allocated with; {@code 0} means none. The
+ * tenant is likewise the {@link AllocationTag#tenantId()} the packet's memory was charged
+ * to, so copies made from it (reframes) are charged to the same tenant.
+ */
+public final class PacketDescriptor {
+    private long packetId;
+    private long requestId;
+    private SignalKind signalKind;
+    private ProtocolKind protocol;
+    private int payloadOffset;
+    private int payloadLength;
+    private long ingestNanos;
+    private long deadlineNanos;
+    private String tenantId;
+
+    public PacketDescriptor(long packetId,
+                            long requestId,
+                            SignalKind signalKind,
+                            ProtocolKind protocol,
+                            int payloadOffset,
+                            int payloadLength,
+                            long ingestNanos) {
+        this(packetId, requestId, signalKind, protocol, payloadOffset, payloadLength, ingestNanos, 0L);
+    }
+
+    public PacketDescriptor(long packetId,
+                            long requestId,
+                            SignalKind signalKind,
+                            ProtocolKind protocol,
+                            int payloadOffset,
+                            int payloadLength,
+                            long ingestNanos,
+                            long deadlineNanos) {
+        this(packetId, requestId, signalKind, protocol, payloadOffset, payloadLength, ingestNanos, deadlineNanos, null);
+    }
+
+    public PacketDescriptor(long packetId,
+                            long requestId,
+                            SignalKind signalKind,
+                            ProtocolKind protocol,
+                            int payloadOffset,
+                            int payloadLength,
+                            long ingestNanos,
+                            long deadlineNanos,
+                            String tenantId) {
+        set(packetId, requestId, signalKind, protocol, payloadOffset, payloadLength, ingestNanos, deadlineNanos, tenantId);
+    }
+
+    /** Reinitializes a pooled descriptor; only for the allocator that owns it. */
+    void set(long packetId,
+             long requestId,
+             SignalKind signalKind,
+             ProtocolKind protocol,
+             int payloadOffset,
+             int payloadLength,
+             long ingestNanos,
+             long deadlineNanos,
+             String tenantId) {
+        this.packetId = packetId;
+        this.requestId = requestId;
+        this.signalKind = signalKind;
+        this.protocol = protocol;
+        this.payloadOffset = payloadOffset;
+        this.payloadLength = payloadLength;
+        this.ingestNanos = ingestNanos;
+        this.deadlineNanos = deadlineNanos;
+        this.tenantId = tenantId;
+    }
+
+    public long packetId() {
+        return packetId;
+    }
+
+    public long requestId() {
+        return requestId;
+    }
+
+    public SignalKind signalKind() {
+        return signalKind;
+    }
+
+    public ProtocolKind protocol() {
+        return protocol;
+    }
+
+    public int payloadOffset() {
+        return payloadOffset;
+    }
+
+    public int payloadLength() {
+        return payloadLength;
+    }
+
+    public long ingestNanos() {
+        return ingestNanos;
+    }
+
+    /** {@link System#nanoTime()} after which the client has given up, or {@code 0} for none. */
+    public long deadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /** Tenant the packet's memory is charged to, or {@code null} if unknown. */
+    public String tenantId() {
+        return tenantId;
+    }
+
+    /** Whether a deadline is set and has passed at {@code nowNanos}. */
+    public boolean deadlineExpired(long nowNanos) {
+        return deadlineNanos != 0L && nowNanos - deadlineNanos >= 0L;
+    }
+
+    @Override
+    public String toString() {
+        return "PacketDescriptor[packetId=" + packetId
+            + ", requestId=" + requestId
+            + ", signalKind=" + signalKind
+            + ", protocol=" + protocol
+            + ", payloadOffset=" + payloadOffset
+            + ", payloadLength=" + payloadLength
+            + ", ingestNanos=" + ingestNanos
+            + ", deadlineNanos=" + deadlineNanos
+            + ", tenantId=" + tenantId + "]";
+    }
+}
@@ -0,0 +1,272 @@
+package com.acme.finops.gateway.memory;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Sampled lifecycle tracking for {@link PacketRef}s.
+ *
+ * <p>A configurable fraction of refs get a {@link Tracker} at creation that records the
+ * allocation site and the last {@value #MAX_TOUCHES} touch points ({@link PacketRef#touch}).
+ * A tracker is closed on final release. Two conditions are reported:
+ * <ul>
+ *   <li><b>LONG_LIVED</b> — still open after {@code maxAgeMillis} (pinned slab region,
+ *       stuck export, forgotten retain).</li>
+ *   <li><b>GC_UNRELEASED</b> — the ref became unreachable without its final release;
+ *       detected through a {@link PhantomReference} and logged once.</li>
+ * </ul>
+ *
+ * <p>The detector is installed process-wide (like Netty's {@code ResourceLeakDetector})
+ * because refs are created deep inside allocators and transport adapters. With no
+ * detector installed, {@link #trackIfSampled} is a single volatile read returning
+ * {@code null}, and {@code touch()} on an untracked ref is a null check.
+ */
+public final class PacketLeakDetector {
+    private static final Logger LOG = Logger.getLogger(PacketLeakDetector.class.getName());
+
+    public static final String KIND_LONG_LIVED = "LONG_LIVED";
+    public static final String KIND_GC_UNRELEASED = "GC_UNRELEASED";
+
+    static final int MAX_TOUCHES = 8;
+    static final int MAX_SITE_FRAMES = 16;
+    static final int MAX_REPORTS = 64;
+
+    private static volatile PacketLeakDetector installed;
+
+    private final double sampleRate;
+    private final long maxAgeNanos;
+    private final int maxTracked;
+
+    private final Set<Tracker> live = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private final ArrayDeque<PacketLeakReport> recentLeaks = new ArrayDeque<>();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder skippedAtCapacity = new LongAdder();
+    private final LongAdder gcUnreleased = new LongAdder();
+
+    /**
+     * @param sampleRate   fraction of refs to track, {@code (0, 1]}
+     * @param maxAgeMillis age after which an open ref is reported as LONG_LIVED
+     * @param maxTracked   cap on concurrently tracked refs; sampling pauses at the cap
+     */
+    public PacketLeakDetector(double sampleRate, long maxAgeMillis, int maxTracked) {
+        if (!(sampleRate > 0.0d && sampleRate <= 1.0d)) {
+            throw new IllegalArgumentException("sampleRate must be in (0, 1], got " + sampleRate);
+        }
+        if (maxAgeMillis <= 0 || maxTracked <= 0) {
+            throw new IllegalArgumentException("maxAgeMillis and maxTracked must be positive");
+        }
+        this.sampleRate = sampleRate;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        this.maxTracked = maxTracked;
+    }
+
+    public static void install(PacketLeakDetector detector) {
+        installed = detector;
+    }
+
+    public static void uninstall() {
+        installed = null;
+    }
+
+    /** The installed detector, or {@code null} when leak detection is disabled. */
+    public static PacketLeakDetector installed() {
+        return installed;
+    }
+
+    /**
+     * Starts tracking {@code ref} if a detector is installed and the ref is sampled.
+     *
+     * @return the tracker to touch and close, or {@code null} when not tracked
+     */
+    public static Tracker trackIfSampled(PacketRef ref, long packetId) {
+        PacketLeakDetector detector = installed;
+        return detector == null ? null : detector.maybeTrack(ref, packetId);
+    }
+
+    Tracker maybeTrack(PacketRef ref, long packetId) {
+        if (sampleRate < 1.0d && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return null;
+        }
+        drainCollected();
+        if (live.size() >= maxTracked) {
+            skippedAtCapacity.increment();
+            return null;
+        }
+        Tracker tracker = new Tracker(this, ref, packetId);
+        live.add(tracker);
+        sampled.increment();
+        return tracker;
+    }
+
+    /** Age after which an open ref counts as LONG_LIVED. */
+    long maxAgeNanos() {
+        return maxAgeNanos;
+    }
+
+    /** Point-in-time view: counters plus recent GC leaks and the oldest long-lived refs. */
+    public Snapshot snapshot() {
+        drainCollected();
+        long now = System.nanoTime();
+        List<Tracker> old = new ArrayList<>();
+        for (Tracker t : live) {
+            if (now - t.createdNanos >= maxAgeNanos) {
+                old.add(t);
+            }
+        }
+        old.sort(Comparator.comparingLong(t -> t.createdNanos));
+        List<PacketLeakReport> reports = new ArrayList<>();
+        synchronized (recentLeaks) {
+            reports.addAll(recentLeaks);
+        }
+        for (int i = 0; i < old.size() && i < MAX_REPORTS; i++) {
+            reports.add(old.get(i).report(KIND_LONG_LIVED, now));
+        }
+        return new Snapshot(
+            sampleRate,
+            TimeUnit.NANOSECONDS.toMillis(maxAgeNanos),
+            sampled.sum(),
+            skippedAtCapacity.sum(),
+            live.size(),
+            old.size(),
+            gcUnreleased.sum(),
+            reports
+        );
+    }
+
+    private void drainCollected() {
+        Reference<?> ref;
+        while ((ref = collected.poll()) != null) {
+            Tracker t = (Tracker) ref;
+            if (t.closed.compareAndSet(false, true) && live.remove(t)) {
+                gcUnreleased.increment();
+                PacketLeakReport report = t.report(KIND_GC_UNRELEASED, System.nanoTime());
+                synchronized (recentLeaks) {
+                    if (recentLeaks.size() >= MAX_REPORTS) {
+                        recentLeaks.removeFirst();
+                    }
+                    recentLeaks.addLast(report);
+                }
+                LOG.warning("LEAK: PacketRef packetId=" + report.packetId()
+                    + " was garbage-collected without release; allocated at " + report.allocationSite()
+                    + ", touches=" + report.touches());
+            }
+        }
+    }
+
+    /**
+     * @param sampleRate         configured sampling fraction
+     * @param maxAgeMillis       LONG_LIVED threshold
+     * @param sampledTotal       refs tracked since start
+     * @param skippedAtCapacity  sampled refs not tracked because {@code maxTracked} was reached
+     * @param tracked            refs currently tracked
+     * @param longLived          tracked refs older than the threshold
+     * @param gcUnreleasedTotal  refs collected without final release since start
+     * @param reports            recent GC leaks followed by the oldest long-lived refs
+     */
+    public record Snapshot(
+        double sampleRate,
+        long maxAgeMillis,
+        long sampledTotal,
+        long skippedAtCapacity,
+        long tracked,
+        long longLived,
+        long gcUnreleasedTotal,
+        List<PacketLeakReport> reports
+    ) {}
+
+    /**
+     * Per-ref tracking state. Holds no strong reference to the ref itself, only the
+     * metadata needed to explain a leak after the ref is gone.
+     */
+    public static final class Tracker extends PhantomReference<Object> {
+        private final PacketLeakDetector owner;
+        private final long packetId;
+        private final long createdNanos;
+        private final Throwable site;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private final String[] touchHints = new String[MAX_TOUCHES];
+        private final long[] touchNanos = new long[MAX_TOUCHES];
+        private final String[] touchThreads = new String[MAX_TOUCHES];
+        private int touchCount;
+
+        private Tracker(PacketLeakDetector owner, PacketRef ref, long packetId) {
+            super(ref, owner.collected);
+            this.owner = owner;
+            this.packetId = packetId;
+            this.createdNanos = System.nanoTime();
+            this.site = new Throwable("allocation site");
+        }
+
+        /** Records a lifecycle touch point; keeps the most recent {@value #MAX_TOUCHES}. */
+        public void touch(String hint) {
+            if (closed.get()) {
+                return;
+            }
+            long now = System.nanoTime();
+            String thread = Thread.currentThread().getName();
+            synchronized (this) {
+                int slot = touchCount % MAX_TOUCHES;
+                touchHints[slot] = hint;
+                touchNanos[slot] = now;
+                touchThreads[slot] = thread;
+                touchCount++;
+            }
+        }
+
+        /** Marks the ref as properly released. Idempotent. */
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                owner.live.remove(this);
+                clear();
+            }
+        }
+
+        private PacketLeakReport report(String kind, long nowNanos) {
+            List<String> touches = new ArrayList<>(MAX_TOUCHES);
+            synchronized (this) {
+                int n = Math.min(touchCount, MAX_TOUCHES);
+                int first = touchCount - n;
+                for (int i = first; i < touchCount; i++) {
+                    int slot = i % MAX_TOUCHES;
+                    touches.add(touchHints[slot] + "@+" + TimeUnit.NANOSECONDS.toMillis(touchNanos[slot] - createdNanos)
+                        + "ms[" + touchThreads[slot] + "]");
+                }
+            }
+            return new PacketLeakReport(
+                packetId,
+                kind,
+                TimeUnit.NANOSECONDS.toMillis(nowNanos - createdNanos),
+                formatSite(site),
+                touches
+            );
+        }
+
+        private static List<String> formatSite(Throwable site) {
+            List<String> frames = new ArrayList<>(MAX_SITE_FRAMES);
+            for (StackTraceElement e : site.getStackTrace()) {
+                String cls = e.getClassName();
+                if (cls.equals(PacketLeakDetector.class.getName()) || cls.startsWith(Tracker.class.getName())) {
+                    continue;
+                }
+                frames.add(e.toString());
+                if (frames.size() == MAX_SITE_FRAMES) {
+                    break;
+                }
+            }
+            return frames;
+        }
+    }
+}
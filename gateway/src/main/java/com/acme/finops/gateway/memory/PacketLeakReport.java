@@ -0,0 +1,25 @@
+package com.acme.finops.gateway.memory;
+
+import java.util.List;
+
+/**
+ * One suspicious {@link PacketRef} found by {@link PacketLeakDetector}.
+ *
+ * @param packetId       packet id of the tracked ref
+ * @param kind           {@link PacketLeakDetector#KIND_LONG_LIVED} or {@link PacketLeakDetector#KIND_GC_UNRELEASED}
+ * @param ageMillis      time since allocation when the report was produced
+ * @param allocationSite innermost stack frames of the allocating thread
+ * @param touches        most recent touch points, oldest first ({@code hint@+offsetMs[thread]})
+ */
+public record PacketLeakReport(
+    long packetId,
+    String kind,
+    long ageMillis,
+    List<String> allocationSite,
+    List<String> touches
+) {
+    public PacketLeakReport {
+        allocationSite = List.copyOf(allocationSite);
+        touches = List.copyOf(touches);
+    }
+}
@@ -5,6 +5,14 @@ import java.lang.foreign.MemorySegment;
 /**
  * PacketRef: zero-copy envelope around off-heap payload.
  * Ownership: caller MUST release exactly once per ownership unit.
+ *
+ * <p>Relocation: an allocator may move an unpinned payload to compact its memory
+ * (see {@link SlabPacketAllocator#compact}). {@link #segment()} is stable only while the
+ * caller holds a pin. Relocatable refs are created holding one pin, so code that fills
+ * or reads a fresh ref needs no extra step; whoever parks a ref for a while (the ingress
+ * queue) drops that pin and re-pins before touching the payload again. Processing drops it
+ * once done with the payload, and the exporter pins only while writing, so a packet waiting
+ * for a connection is movable and one awaiting a response is no longer held.
  */
 public interface PacketRef extends AutoCloseable {
     long packetId();
@@ -20,6 +28,27 @@ public interface PacketRef extends AutoCloseable {
     PacketRef retain();
     boolean release();
 
+    /**
+     * Pins the payload in place: {@link #segment()} keeps returning the same memory until
+     * the matching {@link #unpin()}. Reentrant. Waits out an in-progress relocation.
+     * No-op for refs that are never relocated.
+     */
+    default PacketRef pin() {
+        return this;
+    }
+
+    /** Drops one pin taken by {@link #pin()} or held since creation. */
+    default void unpin() {
+    }
+
+    /**
+     * Records a lifecycle touch point (e.g. {@code "enqueue"}, {@code "plan"}, {@code "export"})
+     * for leak diagnostics. No-op unless the ref is sampled by {@link PacketLeakDetector}.
+     */
+    default PacketRef touch(String hint) {
+        return this;
+    }
+
     @Override
     default void close() { release(); }
 }
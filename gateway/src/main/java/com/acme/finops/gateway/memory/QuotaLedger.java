@@ -0,0 +1,114 @@
+package com.acme.finops.gateway.memory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free reserved/burst byte accounting for one quota dimension (tenants or signals).
+ *
+ * <p>Each {@link Account} may use its reservation unconditionally. Bytes above the
+ * reservation ("overflow") are borrowed from a shared pool whose capacity is the
+ * allocator capacity minus all reservations, so one key bursting can never eat into
+ * another key's reservation.
+ *
+ * <h3>Concurrency Protocol</h3>
+ * <ul>
+ *   <li>The shared pool is reserved BEFORE the account's {@code inUse} CAS. If the
+ *       account CAS then loses, the pool borrow is returned and the loop retries.</li>
+ *   <li>Overflow deltas are computed from the exact {@code cur → next} transition that
+ *       wins the CAS, so acquire and release always move the shared pool by matching
+ *       amounts regardless of interleaving.</li>
+ * </ul>
+ */
+final class QuotaLedger {
+    private final long sharedCapacity;
+    private final AtomicLong sharedInUse = new AtomicLong();
+
+    QuotaLedger(long totalCapacity, long reservedBytes) {
+        if (reservedBytes > totalCapacity) {
+            throw new IllegalArgumentException(
+                "quota reservations (" + reservedBytes + ") exceed allocator capacity (" + totalCapacity + ")");
+        }
+        this.sharedCapacity = totalCapacity - reservedBytes;
+    }
+
+    Account newAccount(String key, QuotaLimit limit) {
+        return new Account(key, limit);
+    }
+
+    boolean tryAcquire(Account account, long bytes) {
+        long reserved = account.limit.reservedBytes();
+        long burst = account.limit.burstBytes();
+        while (true) {
+            long cur = account.inUse.get();
+            long next = cur + bytes;
+            if (next < cur || next > burst) {
+                account.denied.increment();
+                return false;
+            }
+            long borrow = overflow(next, reserved) - overflow(cur, reserved);
+            if (borrow > 0 && !borrowShared(borrow)) {
+                account.denied.increment();
+                return false;
+            }
+            if (account.inUse.compareAndSet(cur, next)) {
+                return true;
+            }
+            if (borrow > 0) {
+                sharedInUse.addAndGet(-borrow);
+            }
+        }
+    }
+
+    void release(Account account, long bytes) {
+        long reserved = account.limit.reservedBytes();
+        while (true) {
+            long cur = account.inUse.get();
+            long next = cur - bytes;
+            if (account.inUse.compareAndSet(cur, next)) {
+                long returned = overflow(cur, reserved) - overflow(next, reserved);
+                if (returned > 0) {
+                    sharedInUse.addAndGet(-returned);
+                }
+                return;
+            }
+        }
+    }
+
+    long sharedCapacity() {
+        return sharedCapacity;
+    }
+
+    long sharedInUse() {
+        return sharedInUse.get();
+    }
+
+    private boolean borrowShared(long bytes) {
+        while (true) {
+            long cur = sharedInUse.get();
+            long next = cur + bytes;
+            if (next < cur || next > sharedCapacity) {
+                return false;
+            }
+            if (sharedInUse.compareAndSet(cur, next)) {
+                return true;
+            }
+        }
+    }
+
+    private static long overflow(long inUse, long reserved) {
+        return inUse > reserved ? inUse - reserved : 0L;
+    }
+
+    static final class Account {
+        final String key;
+        final QuotaLimit limit;
+        final AtomicLong inUse = new AtomicLong();
+        final LongAdder denied = new LongAdder();
+
+        private Account(String key, QuotaLimit limit) {
+            this.key = key;
+            this.limit = limit;
+        }
+    }
+}
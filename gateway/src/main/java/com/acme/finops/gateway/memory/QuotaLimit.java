@@ -0,0 +1,21 @@
+package com.acme.finops.gateway.memory;
+
+/**
+ * Byte limits for one quota key (tenant or signal).
+ *
+ * <p>{@code reservedBytes} are guaranteed to the key and excluded from the shared pool.
+ * Usage above the reservation is borrowed from the shared pool, up to {@code burstBytes}.
+ */
+public record QuotaLimit(long reservedBytes, long burstBytes) {
+    public static final QuotaLimit UNLIMITED = new QuotaLimit(0L, Long.MAX_VALUE);
+
+    public QuotaLimit {
+        if (reservedBytes < 0) {
+            throw new IllegalArgumentException("reservedBytes must be >= 0, got " + reservedBytes);
+        }
+        if (burstBytes < reservedBytes) {
+            throw new IllegalArgumentException(
+                "burstBytes (" + burstBytes + ") must be >= reservedBytes (" + reservedBytes + ")");
+        }
+    }
+}
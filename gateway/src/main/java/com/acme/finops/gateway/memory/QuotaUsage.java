@@ -0,0 +1,13 @@
+package com.acme.finops.gateway.memory;
+
+public record QuotaUsage(
+    String dimension,
+    String key,
+    long inUseBytes,
+    long reservedBytes,
+    long burstBytes,
+    long deniedAllocations
+) {
+    public static final String DIMENSION_TENANT = "tenant";
+    public static final String DIMENSION_SIGNAL = "signal";
+}
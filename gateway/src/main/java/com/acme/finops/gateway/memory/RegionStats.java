@@ -0,0 +1,46 @@
+package com.acme.finops.gateway.memory;
+
+/**
+ * Point-in-time view of one bump-pointer region of a {@link SlabPacketAllocator}.
+ *
+ * <p>Fields are read individually without a lock, so a snapshot taken under load may
+ * mix values from adjacent instants. Good enough for dashboards and incident dumps.
+ *
+ * @param arena               arena index within an elastic allocator, {@code 0} otherwise
+ * @param region              region index within the arena
+ * @param state               {@code FREE}, {@code ACTIVE} or {@code DRAINING}
+ * @param cursorBytes         bump cursor (bytes handed out in the current epoch)
+ * @param capacityBytes       region capacity
+ * @param livePackets         packets granted from this region and not yet released
+ * @param pinnedBytes         bytes that cannot be reused until the live packets are released
+ * @param oldestLiveAgeMillis age of the region's current epoch while packets are live; an
+ *                            upper bound on the oldest live packet, {@code 0} when none are live
+ */
+public record RegionStats(
+    int arena,
+    int region,
+    String state,
+    long cursorBytes,
+    long capacityBytes,
+    long livePackets,
+    long pinnedBytes,
+    long oldestLiveAgeMillis
+) {
+    public static final String FREE = "FREE";
+    public static final String ACTIVE = "ACTIVE";
+    public static final String DRAINING = "DRAINING";
+
+    /** Numeric state for gauges: FREE=0, ACTIVE=1, DRAINING=2. */
+    public int stateCode() {
+        return switch (state) {
+            case ACTIVE -> 1;
+            case DRAINING -> 2;
+            default -> 0;
+        };
+    }
+
+    RegionStats withArena(int arenaIndex) {
+        return new RegionStats(arenaIndex, region, state, cursorBytes, capacityBytes,
+            livePackets, pinnedBytes, oldestLiveAgeMillis);
+    }
+}
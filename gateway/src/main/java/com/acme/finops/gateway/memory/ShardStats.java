@@ -0,0 +1,13 @@
+package com.acme.finops.gateway.memory;
+
+import java.util.List;
+
+/**
+ * Per-shard view of a {@link StripedPacketAllocator}: aggregate counters plus the
+ * region breakdown when the shard is slab-based (empty otherwise).
+ */
+public record ShardStats(int shard, AllocatorStats stats, List<RegionStats> regions) {
+    public ShardStats {
+        regions = List.copyOf(regions);
+    }
+}
@@ -0,0 +1,80 @@
+package com.acme.finops.gateway.memory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * Source of the off-heap memory behind a {@link SlabPacketAllocator}.
+ *
+ * <p>{@link #ANONYMOUS} uses {@code Arena.allocate} (anonymous memory, zero-filled by the
+ * JDK at allocation). {@link #fileBacked(Path)} maps an unlinked file under a directory,
+ * typically a hugetlbfs or tmpfs mount, via {@code FileChannel.map}. The mapping is tied
+ * to the slab's {@code Arena} and released when the slab closes. If the file cannot be
+ * created or mapped, the slab falls back to anonymous memory with a warning.
+ */
+public final class SlabBacking {
+    private static final Logger LOG = Logger.getLogger(SlabBacking.class.getName());
+
+    /** hugetlbfs requires mapping lengths that are a multiple of the huge page size. */
+    static final long FILE_SIZE_ALIGNMENT = 2L * 1024 * 1024;
+
+    public static final SlabBacking ANONYMOUS = new SlabBacking(null);
+
+    private final Path directory;
+
+    private SlabBacking(Path directory) {
+        this.directory = directory;
+    }
+
+    public static SlabBacking fileBacked(Path directory) {
+        return new SlabBacking(Objects.requireNonNull(directory, "directory"));
+    }
+
+    public boolean isFileBacked() {
+        return directory != null;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    MemorySegment allocate(Arena arena, long bytes) {
+        if (directory == null) {
+            return arena.allocate(bytes, 8);
+        }
+        try {
+            return map(arena, bytes);
+        } catch (IOException | RuntimeException e) {
+            LOG.warning("File-backed slab unavailable under " + directory + " ("
+                + e.getClass().getSimpleName() + ": " + e.getMessage() + "), using anonymous memory");
+            return arena.allocate(bytes, 8);
+        }
+    }
+
+    private MemorySegment map(Arena arena, long bytes) throws IOException {
+        long fileBytes = (bytes + FILE_SIZE_ALIGNMENT - 1) & -FILE_SIZE_ALIGNMENT;
+        Path file = Files.createTempFile(directory, "gateway-slab-", ".bin");
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            // ftruncate rather than write(): hugetlbfs does not support write(2).
+            raf.setLength(fileBytes);
+            FileChannel channel = raf.getChannel();
+            MemorySegment mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes, arena);
+            return mapped.asSlice(0, bytes);
+        } finally {
+            // The mapping outlives the name; unlinking now means nothing leaks on crash.
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return directory == null ? "anonymous" : "file:" + directory;
+    }
+}
@@ -0,0 +1,101 @@
+package com.acme.finops.gateway.memory;
+
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Periodically compacts a relocatable {@link StripedPacketAllocator} on a daemon thread
+ * and keeps cumulative counters for metrics.
+ *
+ * <p>Each pass copies at most {@code maxCopyBytesPerRun} bytes, so the worst-case cost of
+ * fragmentation is a bounded memcpy per interval instead of a region held hostage by a
+ * handful of slow exports: queued packets and exports waiting for a connection are moved,
+ * and exports awaiting a response no longer hold their packet at all.
+ */
+public final class SlabCompactor implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(SlabCompactor.class.getName());
+
+    private final StripedPacketAllocator allocator;
+    private final long maxCopyBytesPerRun;
+    private final int maxLivePercent;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong regionsFreed = new AtomicLong();
+    private final AtomicLong packetsMoved = new AtomicLong();
+    private final AtomicLong bytesCopied = new AtomicLong();
+    private final AtomicLong pinnedSkips = new AtomicLong();
+    private final AtomicLong leakSkips = new AtomicLong();
+
+    /**
+     * @param allocator          relocatable allocator to compact
+     * @param maxCopyBytesPerRun copy budget per pass
+     * @param maxLivePercent     live-to-cursor threshold for a DRAINING region to be a candidate
+     * @param intervalMillis     delay between passes; {@code <= 0} disables the background
+     *                           thread (call {@link #runOnce()} directly)
+     */
+    public SlabCompactor(StripedPacketAllocator allocator, long maxCopyBytesPerRun,
+                         int maxLivePercent, long intervalMillis) {
+        this.allocator = Objects.requireNonNull(allocator, "allocator");
+        if (maxCopyBytesPerRun <= 0 || maxLivePercent <= 0 || maxLivePercent > 100) {
+            throw new IllegalArgumentException("maxCopyBytesPerRun must be positive and maxLivePercent in (0, 100]");
+        }
+        this.maxCopyBytesPerRun = maxCopyBytesPerRun;
+        this.maxLivePercent = maxLivePercent;
+        if (intervalMillis > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "gateway-slab-compaction");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.scheduleWithFixedDelay(this::runSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /** Runs one compaction pass and folds its result into the cumulative counters. */
+    public CompactionResult runOnce() {
+        CompactionResult result = allocator.compact(maxCopyBytesPerRun, maxLivePercent);
+        runs.incrementAndGet();
+        regionsFreed.addAndGet(result.regionsFreed());
+        packetsMoved.addAndGet(result.packetsMoved());
+        bytesCopied.addAndGet(result.bytesCopied());
+        pinnedSkips.addAndGet(result.pinnedSkips());
+        leakSkips.addAndGet(result.leakSkips());
+        return result;
+    }
+
+    private void runSafely() {
+        try {
+            runOnce();
+        } catch (RuntimeException e) {
+            LOG.warning("Slab compaction failed: " + e.getMessage());
+        }
+    }
+
+    public long runs() {
+        return runs.get();
+    }
+
+    /** Cumulative totals across all passes. */
+    public CompactionResult totals() {
+        return new CompactionResult(regionsFreed.get(), packetsMoved.get(), bytesCopied.get(), pinnedSkips.get(), leakSkips.get());
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
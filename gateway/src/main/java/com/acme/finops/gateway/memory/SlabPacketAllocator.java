@@ -5,6 +5,15 @@ import com.acme.finops.gateway.util.GatewayStatusCodes;
 
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -44,6 +53,46 @@ import java.util.logging.Logger;
  *       {@code DRAINING→FREE} CAS so no thread can activate the region before the
  *       cursor is zeroed.</li>
  * </ul>
+ *
+ * <h3>Quotas</h3>
+ * When constructed with {@link AllocationQuotas}, every allocation is charged against the
+ * tag's tenant and signal accounts before the bump. Denials return the quota's reason code
+ * ({@code TENANT_QUOTA_EXCEEDED} / {@code SIGNAL_QUOTA_EXCEEDED}); the charge is refunded
+ * when no region can serve the request or when the packet is finally released.
+ *
+ * <h3>Retirement</h3>
+ * {@link #retire()} stops new allocations and defers {@link #close()} until the last live
+ * packet is released, so an owner (see {@link ElasticSlabPacketAllocator}) can drop an
+ * arena without invalidating segments still held downstream. An allocation racing with
+ * {@code retire()} re-checks the flag AFTER its bump has incremented
+ * {@code activeAllocations}; the retirer sets the flag BEFORE summing
+ * {@code activeAllocations}. One of the two always observes the other, so the arena is
+ * never closed under a granted packet.
+ *
+ * <h3>Compaction</h3>
+ * A region pinned in DRAINING by a few long-held packets wastes its whole capacity. When
+ * constructed {@code relocatable}, each region keeps a set of its live refs and
+ * {@link #compact} copies the live packets of sparse DRAINING regions into the ACTIVE
+ * region (the compaction target), swapping the segment behind each ref so the source
+ * region can return to FREE. The copy cost is bounded per pass. Movable are queued packets,
+ * exports waiting for a pooled connection and the reframed copies behind them; a packet is
+ * pinned only while a worker processes it or its request is written, and an export
+ * awaiting the upstream's response has already released it.
+ *
+ * <p>The live sets hold refs weakly, so a ref dropped without its final release still
+ * becomes unreachable and is reported by the {@link PacketLeakDetector}. Its bytes stay
+ * charged to the region, which therefore can never drain; compaction skips such a region,
+ * and one holding a packet older than the installed detector's LONG_LIVED threshold,
+ * instead of copying a presumed leak from region to region on every pass.</p>
+ * <ul>
+ *   <li>Each ref has a pin count, created at 1. A relocation CASes it {@code 0 → RELOCATING},
+ *       so only unpinned refs move. {@code pin()} spins while a relocation is in flight.</li>
+ *   <li>The new segment and region are published before the pin count returns to 0, so a
+ *       subsequent {@code pin()} observes them.</li>
+ *   <li>Final release CASes the pin count to {@code RELEASED} (waiting out a relocation)
+ *       before reading the ref's region, so the release is charged to the region that
+ *       actually holds the bytes.</li>
+ * </ul>
  */
 public final class SlabPacketAllocator implements PacketAllocator {
     private static final Logger LOG = Logger.getLogger(SlabPacketAllocator.class.getName());
@@ -52,6 +101,24 @@ public final class SlabPacketAllocator implements PacketAllocator {
     private static final int STATE_ACTIVE = 1;
     private static final int STATE_DRAINING = 2;
 
+    private static final int PIN_RELOCATING = -1;
+    private static final int PIN_RELEASED = -2;
+    private static final VarHandle PINS;
+    private static final VarHandle REFS;
+
+    /** Carriers retained per allocator; beyond this, released carriers are left to the GC. */
+    static final int REF_POOL_CAPACITY = 1024;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            PINS = lookup.findVarHandle(TrackedPacketRef.class, "pins", int.class);
+            REFS = lookup.findVarHandle(TrackedPacketRef.class, "refCount", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     /** Minimum region size in bytes for auto-clamping in the default constructor. */
     private static final long MIN_REGION_BYTES = 4096;
 
@@ -59,12 +126,17 @@ public final class SlabPacketAllocator implements PacketAllocator {
     private final MemorySegment slab;
     private final long capacity;
     private final AtomicBoolean closed = new AtomicBoolean(false);
+    private volatile boolean retiring;
 
     private final Region[] regions;
     private final int regionCount;
     private final AtomicInteger activeRegionIndex = new AtomicInteger(0);
 
     private final AtomicLong seq = new AtomicLong(1);
+    private final AllocationQuotas quotas;
+    private final boolean relocatable;
+    private final Object compactionLock = new Object();
+    private final ObjectPool<TrackedPacketRef> refPool = new ObjectPool<>(REF_POOL_CAPACITY, TrackedPacketRef::new);
 
     private final AtomicLong allocCount = new AtomicLong();
     private final AtomicLong releaseCount = new AtomicLong();
@@ -85,6 +157,43 @@ public final class SlabPacketAllocator implements PacketAllocator {
      * @param regionCount   number of regions (must be a power of two, >= 1)
      */
     public SlabPacketAllocator(long capacityBytes, int regionCount) {
+        this(capacityBytes, regionCount, null);
+    }
+
+    /**
+     * Creates a quota-enforcing slab allocator.
+     *
+     * @param capacityBytes total slab size in bytes
+     * @param regionCount   number of regions (must be a power of two, >= 1)
+     * @param quotas        shared quota accounting, or {@code null} to disable quotas
+     */
+    public SlabPacketAllocator(long capacityBytes, int regionCount, AllocationQuotas quotas) {
+        this(capacityBytes, regionCount, quotas, SlabBacking.ANONYMOUS);
+    }
+
+    /**
+     * Creates a slab allocator over the given memory backing.
+     *
+     * @param capacityBytes total slab size in bytes
+     * @param regionCount   number of regions (must be a power of two, >= 1)
+     * @param quotas        shared quota accounting, or {@code null} to disable quotas
+     * @param backing       anonymous or file-backed memory source
+     */
+    public SlabPacketAllocator(long capacityBytes, int regionCount, AllocationQuotas quotas, SlabBacking backing) {
+        this(capacityBytes, regionCount, quotas, backing, false);
+    }
+
+    /**
+     * Creates a slab allocator whose packets can be moved by {@link #compact}.
+     *
+     * @param capacityBytes total slab size in bytes
+     * @param regionCount   number of regions (must be a power of two, >= 1)
+     * @param quotas        shared quota accounting, or {@code null} to disable quotas
+     * @param backing       anonymous or file-backed memory source
+     * @param relocatable   track live refs per region so DRAINING regions can be compacted
+     */
+    public SlabPacketAllocator(long capacityBytes, int regionCount, AllocationQuotas quotas,
+                               SlabBacking backing, boolean relocatable) {
         if (regionCount <= 0 || (regionCount & (regionCount - 1)) != 0) {
             throw new IllegalArgumentException("regionCount must be a power of two, got " + regionCount);
         }
@@ -94,9 +203,11 @@ public final class SlabPacketAllocator implements PacketAllocator {
         }
 
         this.arena = Arena.ofShared();
-        this.slab = arena.allocate(capacityBytes, 8);
+        this.slab = backing.allocate(arena, capacityBytes);
         this.capacity = capacityBytes;
         this.regionCount = regionCount;
+        this.quotas = quotas;
+        this.relocatable = relocatable;
 
         // Align region capacity down to 8 bytes so every baseOffset is 8-aligned.
         // Critical for Panama MemorySegment slicing and SIMD mask operations.
@@ -104,7 +215,7 @@ public final class SlabPacketAllocator implements PacketAllocator {
         this.regions = new Region[regionCount];
         for (int i = 0; i < regionCount; i++) {
             long baseOffset = i * regionCapacity;
-            regions[i] = new Region(i, baseOffset, regionCapacity);
+            regions[i] = new Region(i, baseOffset, regionCapacity, relocatable);
         }
         // First region starts as ACTIVE
         regions[0].state.set(STATE_ACTIVE);
@@ -113,7 +224,7 @@ public final class SlabPacketAllocator implements PacketAllocator {
     /**
      * Reduces region count (power-of-two) so each region is >= MIN_REGION_BYTES.
      */
-    private static int clampRegions(int requested, long capacityBytes) {
+    static int clampRegions(int requested, long capacityBytes) {
         int r = requested;
         while (r > 1 && capacityBytes / r < MIN_REGION_BYTES) {
             r >>>= 1;
@@ -123,7 +234,7 @@ public final class SlabPacketAllocator implements PacketAllocator {
 
     @Override
     public LeaseResult allocate(int minBytes, AllocationTag tag) {
-        if (closed.get()) {
+        if (retiring || closed.get()) {
             return new LeaseResult.Denied(GatewayStatusCodes.SERVICE_UNAVAILABLE);
         }
         if (minBytes <= 0) {
@@ -132,6 +243,15 @@ public final class SlabPacketAllocator implements PacketAllocator {
 
         final long size = align8(minBytes);
 
+        AllocationQuotas.Charge charge = null;
+        if (quotas != null) {
+            charge = quotas.charge(tag, size);
+            if (!charge.granted()) {
+                failedAllocations.incrementAndGet();
+                return new LeaseResult.Denied(charge.reasonCode());
+            }
+        }
+
         // Fast path: try the current ACTIVE region; slow path: rotate
         for (int attempt = 0; attempt < regionCount * 2 + 1; attempt++) {
             int idx = activeRegionIndex.get();
@@ -141,7 +261,17 @@ public final class SlabPacketAllocator implements PacketAllocator {
             if (s == STATE_ACTIVE) {
                 long start = region.tryBump(size);
                 if (start >= 0) {
-                    return createPacketRef(region, start, size, minBytes, tag);
+                    if (retiring) {
+                        // Lost the race with retire(): undo before touching slab memory.
+                        region.releaseOne();
+                        if (charge != null) {
+                            quotas.refund(charge);
+                        }
+                        failedAllocations.incrementAndGet();
+                        tryCloseIfDrained();
+                        return new LeaseResult.Denied(GatewayStatusCodes.SERVICE_UNAVAILABLE);
+                    }
+                    return createPacketRef(region, start, size, minBytes, tag, charge);
                 }
                 // Region full — transition ACTIVE → DRAINING and rotate
                 rotateFromFull(idx);
@@ -157,6 +287,9 @@ public final class SlabPacketAllocator implements PacketAllocator {
         }
 
         // No FREE region found after full scan
+        if (charge != null) {
+            quotas.refund(charge);
+        }
         failedAllocations.incrementAndGet();
         return new LeaseResult.Denied(GatewayStatusCodes.INSUFFICIENT_STORAGE);
     }
@@ -193,26 +326,23 @@ public final class SlabPacketAllocator implements PacketAllocator {
     }
 
     private LeaseResult.Granted createPacketRef(Region region, long regionLocalStart,
-                                                 long size, int minBytes, AllocationTag tag) {
+                                                 long size, int minBytes, AllocationTag tag,
+                                                 AllocationQuotas.Charge charge) {
         long globalOffset = region.baseOffset + regionLocalStart;
         MemorySegment slice = slab.asSlice(globalOffset, size);
         long packetId = seq.getAndIncrement();
 
-        PacketDescriptor descriptor = new PacketDescriptor(
-            packetId,
-            0L,
-            signalKindFromCode(tag == null ? 0 : tag.signalTypeCode()),
-            null,
-            0,
-            minBytes,
-            System.nanoTime()
-        );
-
-        PacketRefImpl ref = new PacketRefImpl(packetId, descriptor, slice, 0, minBytes);
-        PacketRef tracked = new TrackedPacketRef(ref, region);
+        TrackedPacketRef tracked = refPool.acquire();
+        tracked.init(packetId, slice, minBytes, region, charge,
+            signalKindFromCode(tag == null ? 0 : tag.signalTypeCode()), tag == null ? 0L : tag.deadlineNanos(),
+            tag == null ? null : tag.tenantId());
+        if (relocatable) {
+            tracked.live = new LiveRef(tracked);
+            region.liveRefs.add(tracked.live);
+        }
 
         allocCount.incrementAndGet();
-        return new LeaseResult.Granted(tracked);
+        return tracked.granted;
     }
 
     @Override
@@ -235,6 +365,243 @@ public final class SlabPacketAllocator implements PacketAllocator {
         );
     }
 
+    /**
+     * Relocates the live packets of sparse DRAINING regions into the ACTIVE region so the
+     * source regions can return to FREE. Regions are taken cheapest first; a region is
+     * moved only if all of its live packets fit in the remaining budget and none is pinned.
+     * A no-op unless the allocator was built {@code relocatable}.
+     *
+     * @param maxCopyBytes   copy budget for this pass
+     * @param maxLivePercent only regions whose live bytes are at most this share of their
+     *                       cursor are candidates
+     */
+    public CompactionResult compact(long maxCopyBytes, int maxLivePercent) {
+        if (!relocatable || maxCopyBytes <= 0 || retiring || closed.get()) {
+            return CompactionResult.NONE;
+        }
+        synchronized (compactionLock) {
+            List<Region> candidates = new ArrayList<>();
+            for (Region r : regions) {
+                if (r.state.get() == STATE_DRAINING && r.activeAllocations.get() > 0) {
+                    r.compactionLiveBytes = liveBytesOf(r);
+                    if (r.compactionLiveBytes * 100 <= r.cursor.get() * (long) maxLivePercent) {
+                        candidates.add(r);
+                    }
+                }
+            }
+            candidates.sort(Comparator.comparingLong(r -> r.compactionLiveBytes));
+
+            PacketLeakDetector detector = PacketLeakDetector.installed();
+            long leakAgeNanos = detector == null ? Long.MAX_VALUE : detector.maxAgeNanos();
+            long now = System.nanoTime();
+            long budget = maxCopyBytes;
+            long freed = 0;
+            long moved = 0;
+            long copied = 0;
+            long pinnedSkips = 0;
+            long leakSkips = 0;
+            for (Region source : candidates) {
+                if (source.compactionLiveBytes > budget) {
+                    continue;
+                }
+                if (hasLeakedRef(source, now, leakAgeNanos)) {
+                    leakSkips++;
+                    continue;
+                }
+                if (hasPinnedRef(source)) {
+                    pinnedSkips++;
+                    continue;
+                }
+                for (LiveRef live : source.liveRefs) {
+                    TrackedPacketRef ref = live.get();
+                    if (ref == null) {
+                        continue;
+                    }
+                    if (ref.size > budget) {
+                        break;
+                    }
+                    int outcome = relocate(ref, source);
+                    if (outcome == RELOCATE_TARGET_FULL) {
+                        return new CompactionResult(freed, moved, copied, pinnedSkips, leakSkips);
+                    }
+                    if (outcome == RELOCATE_MOVED) {
+                        moved++;
+                        copied += ref.size;
+                        budget -= ref.size;
+                    }
+                }
+                if (source.state.get() == STATE_FREE) {
+                    freed++;
+                }
+            }
+            return new CompactionResult(freed, moved, copied, pinnedSkips, leakSkips);
+        }
+    }
+
+    private static final int RELOCATE_MOVED = 0;
+    private static final int RELOCATE_SKIPPED = 1;
+    private static final int RELOCATE_TARGET_FULL = 2;
+
+    /**
+     * Copies one unpinned ref from {@code source} into the ACTIVE region. Runs under
+     * {@code compactionLock}, which is the only place refs change region.
+     */
+    private int relocate(TrackedPacketRef ref, Region source) {
+        if (!PINS.compareAndSet(ref, 0, PIN_RELOCATING)) {
+            return RELOCATE_SKIPPED;
+        }
+        boolean moved = false;
+        try {
+            if (ref.region != source || retiring || closed.get()) {
+                return RELOCATE_SKIPPED;
+            }
+            Region target = regions[activeRegionIndex.get()];
+            if (target == source || target.state.get() != STATE_ACTIVE) {
+                return RELOCATE_TARGET_FULL;
+            }
+            long start = target.tryBump(ref.size);
+            if (start < 0) {
+                return RELOCATE_TARGET_FULL;
+            }
+            MemorySegment dst = slab.asSlice(target.baseOffset + start, ref.size);
+            MemorySegment.copy(ref.segment, 0, dst, 0, ref.size);
+            target.liveRefs.add(ref.live);
+            ref.segment = dst;
+            ref.region = target;
+            moved = true;
+            return RELOCATE_MOVED;
+        } finally {
+            PINS.setVolatile(ref, 0);
+            if (moved) {
+                source.liveRefs.remove(ref.live);
+                source.releaseOne();
+            }
+        }
+    }
+
+    private static long liveBytesOf(Region region) {
+        long bytes = 0;
+        for (LiveRef live : region.liveRefs) {
+            bytes += live.size;
+        }
+        return bytes;
+    }
+
+    /** A ref collected without release, or one older than {@code leakAgeNanos}. */
+    private static boolean hasLeakedRef(Region region, long now, long leakAgeNanos) {
+        for (LiveRef live : region.liveRefs) {
+            if (live.refersTo(null) || now - live.createdNanos > leakAgeNanos) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasPinnedRef(Region region) {
+        for (LiveRef live : region.liveRefs) {
+            TrackedPacketRef ref = live.get();
+            if (ref != null && (int) PINS.getVolatile(ref) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Per-region breakdown for diagnostics. Reads a handful of atomics per region and
+     * allocates only the result list, so it is cheap enough for every metrics scrape.
+     */
+    public List<RegionStats> regionStats() {
+        long now = System.nanoTime();
+        List<RegionStats> out = new ArrayList<>(regionCount);
+        for (Region r : regions) {
+            long live = r.activeAllocations.get();
+            long cursorBytes = r.cursor.get();
+            long epochStart = r.epochStartNanos;
+            long ageMillis = live > 0 && epochStart != 0
+                ? TimeUnit.NANOSECONDS.toMillis(Math.max(0L, now - epochStart))
+                : 0L;
+            out.add(new RegionStats(
+                0,
+                r.index,
+                stateName(r.state.get()),
+                cursorBytes,
+                r.regionCapacity,
+                live,
+                live > 0 ? cursorBytes : 0L,
+                ageMillis
+            ));
+        }
+        return out;
+    }
+
+    private static String stateName(int state) {
+        return switch (state) {
+            case STATE_ACTIVE -> RegionStats.ACTIVE;
+            case STATE_DRAINING -> RegionStats.DRAINING;
+            default -> RegionStats.FREE;
+        };
+    }
+
+    /**
+     * Writes one byte per page so the kernel maps the whole slab up front.
+     * Must run before the allocator serves traffic: it overwrites slab contents.
+     *
+     * @param parallelism worker threads, {@code <= 0} for one per available processor
+     */
+    public SlabPreTouch.Result preTouch(int parallelism) {
+        return SlabPreTouch.touch(List.of(slab), parallelism);
+    }
+
+    void collectSegments(List<MemorySegment> out) {
+        if (!closed.get()) {
+            out.add(slab);
+        }
+    }
+
+    /** Total slab bytes owned by this allocator. */
+    public long capacityBytes() {
+        return capacity;
+    }
+
+    /** Number of packets granted and not yet finally released. */
+    public long liveAllocations() {
+        long total = 0;
+        for (Region r : regions) {
+            total += r.activeAllocations.get();
+        }
+        return total;
+    }
+
+    /**
+     * Stops accepting allocations and closes the slab once every live packet has been
+     * released. Idempotent; safe to call while packets are still in flight.
+     */
+    public void retire() {
+        retiring = true;
+        tryCloseIfDrained();
+    }
+
+    public boolean isRetiring() {
+        return retiring;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Closes a retiring slab if no packets are live.
+     *
+     * @return {@code true} if the slab is closed after this call
+     */
+    boolean tryCloseIfDrained() {
+        if (retiring && !closed.get() && liveAllocations() == 0) {
+            close();
+        }
+        return closed.get();
+    }
+
     private static long align8(int n) {
         return (n + 7L) & ~7L;
     }
@@ -251,11 +618,18 @@ public final class SlabPacketAllocator implements PacketAllocator {
         final AtomicLong cursor = new AtomicLong(0);
         final AtomicLong activeAllocations = new AtomicLong(0);
         final AtomicInteger state = new AtomicInteger(STATE_FREE);
-
-        Region(int index, long baseOffset, long regionCapacity) {
+        /** {@code System.nanoTime()} of the first bump since the last cursor reset; 0 when empty. */
+        volatile long epochStartNanos;
+        /** Live refs of a relocatable allocator, held weakly; {@code null} otherwise. */
+        final Set<LiveRef> liveRefs;
+        /** Scratch for {@link #compact}; only touched under {@code compactionLock}. */
+        long compactionLiveBytes;
+
+        Region(int index, long baseOffset, long regionCapacity, boolean trackRefs) {
             this.index = index;
             this.baseOffset = baseOffset;
             this.regionCapacity = regionCapacity;
+            this.liveRefs = trackRefs ? ConcurrentHashMap.newKeySet() : null;
         }
 
         /**
@@ -277,6 +651,9 @@ public final class SlabPacketAllocator implements PacketAllocator {
                 }
                 if (cursor.compareAndSet(start, end)) {
                     activeAllocations.incrementAndGet();
+                    if (start == 0) {
+                        epochStartNanos = System.nanoTime();
+                    }
                     return start;
                 }
                 // CAS failed — another thread bumped; retry (no counter side-effect)
@@ -300,12 +677,14 @@ public final class SlabPacketAllocator implements PacketAllocator {
             if (remaining == 0) {
                 int s = state.get();
                 if (s == STATE_DRAINING) {
+                    epochStartNanos = 0;
                     cursor.set(0);
                     state.compareAndSet(STATE_DRAINING, STATE_FREE);
                 } else if (s == STATE_ACTIVE) {
                     // Re-confirm still zero: a concurrent tryBump may have
                     // CAS-bumped the cursor and is about to increment the counter.
                     if (activeAllocations.get() == 0) {
+                        epochStartNanos = 0;
                         cursor.set(0);
                     }
                 }
@@ -313,66 +692,205 @@ public final class SlabPacketAllocator implements PacketAllocator {
         }
     }
 
+    /**
+     * Entry of a region's live set. Size and age outlive the ref, so a region holding a
+     * collected leak still accounts for its bytes.
+     */
+    private static final class LiveRef extends WeakReference<TrackedPacketRef> {
+        final long size;
+        final long createdNanos;
+
+        LiveRef(TrackedPacketRef ref) {
+            super(ref);
+            this.size = ref.size;
+            this.createdNanos = System.nanoTime();
+        }
+    }
+
     // ---- TrackedPacketRef ----
 
+    /**
+     * Pooled per-packet carrier: ref count, descriptor, pin state and the {@code Granted}
+     * wrapper live in one object that is reinitialized by {@link #init} and returned to
+     * {@code refPool} on final release. A stale handle used after release fails fast
+     * ({@code PIN_RELEASED}, ref count 0) until the carrier is handed out again. While a
+     * {@link PacketLeakDetector} is installed carriers are not recycled, so a stale
+     * {@code release()} or {@code retain()} always throws instead of acting on another packet.
+     */
     private final class TrackedPacketRef implements PacketRef {
-        private final PacketRefImpl delegate;
-        private final Region region;
+        private final PacketDescriptor descriptor = new PacketDescriptor(0L, 0L, null, null, 0, 0, 0L);
+        private final LeaseResult.Granted granted = new LeaseResult.Granted(this);
+        private long packetId;
+        private int length;
+        private long size;
+        private AllocationQuotas.Charge charge;
+        private PacketLeakDetector.Tracker leak;
+        /** Entry in the holding region's live set; only in a relocatable allocator. */
+        private LiveRef live;
+        private volatile MemorySegment segment;
+        private volatile Region region;
+        @SuppressWarnings("unused") // accessed through REFS
+        private volatile int refCount;
+        /** Pin count (created pinned), or {@code PIN_RELOCATING} / {@code PIN_RELEASED}. */
+        @SuppressWarnings("unused") // accessed through PINS
+        private volatile int pins;
+
+        private TrackedPacketRef() {
+        }
 
-        private TrackedPacketRef(PacketRefImpl delegate, Region region) {
-            this.delegate = delegate;
+        /** Reinitializes the carrier for a new packet. Publishes through the final volatile writes. */
+        private void init(long packetId, MemorySegment segment, int length, Region region,
+                          AllocationQuotas.Charge charge, SignalKind signalKind, long deadlineNanos, String tenantId) {
+            this.packetId = packetId;
+            this.length = length;
+            this.size = segment.byteSize();
+            this.charge = charge;
+            this.descriptor.set(packetId, 0L, signalKind, null, 0, length, System.nanoTime(), deadlineNanos, tenantId);
+            this.segment = segment;
             this.region = region;
+            this.leak = PacketLeakDetector.trackIfSampled(this, packetId);
+            this.refCount = 1;
+            this.pins = 1;
         }
 
         @Override
         public long packetId() {
-            return delegate.packetId();
+            return packetId;
         }
 
         @Override
         public PacketDescriptor descriptor() {
-            return delegate.descriptor();
+            return descriptor;
         }
 
         @Override
         public MemorySegment segment() {
-            return delegate.segment();
+            return segment;
         }
 
         @Override
         public int offset() {
-            return delegate.offset();
+            return 0;
         }
 
         @Override
         public int length() {
-            return delegate.length();
+            return length;
         }
 
         @Override
         public int refCount() {
-            return delegate.refCount();
+            return refCount;
         }
 
         @Override
         public boolean isExclusiveOwner() {
-            return delegate.isExclusiveOwner();
+            return refCount == 1;
         }
 
         @Override
         public PacketRef retain() {
-            delegate.retain();
+            while (true) {
+                int current = refCount;
+                if (current <= 0) {
+                    throw new IllegalStateException("Retain after release for packetId=" + packetId);
+                }
+                if (REFS.compareAndSet(this, current, current + 1)) {
+                    return this;
+                }
+            }
+        }
+
+        @Override
+        public PacketRef pin() {
+            while (true) {
+                int p = pins;
+                if (p == PIN_RELOCATING) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                if (p < 0) {
+                    throw new IllegalStateException("Pin after release for packetId=" + packetId);
+                }
+                if (PINS.compareAndSet(this, p, p + 1)) {
+                    return this;
+                }
+            }
+        }
+
+        @Override
+        public void unpin() {
+            while (true) {
+                int p = pins;
+                if (p <= 0) {
+                    throw new IllegalStateException("Unbalanced unpin for packetId=" + packetId);
+                }
+                if (PINS.compareAndSet(this, p, p - 1)) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public PacketRef touch(String hint) {
+            PacketLeakDetector.Tracker tracker = leak;
+            if (tracker != null) {
+                tracker.touch(hint);
+            }
             return this;
         }
 
         @Override
         public boolean release() {
-            boolean done = delegate.release();
-            if (done) {
-                releaseCount.incrementAndGet();
-                region.releaseOne();
+            while (true) {
+                int current = refCount;
+                if (current <= 0) {
+                    throw new IllegalStateException("Double release for packetId=" + packetId);
+                }
+                if (REFS.compareAndSet(this, current, current - 1)) {
+                    if (current == 1) {
+                        releaseFinal();
+                        return true;
+                    }
+                    return false;
+                }
+            }
+        }
+
+        private void releaseFinal() {
+            if (leak != null) {
+                leak.close();
+                leak = null;
+            }
+            releaseCount.incrementAndGet();
+            if (charge != null) {
+                quotas.refund(charge);
+                charge = null;
+            }
+            Region owner = markReleased();
+            if (relocatable) {
+                owner.liveRefs.remove(live);
+                live = null;
+            }
+            owner.releaseOne();
+            if (retiring) {
+                tryCloseIfDrained();
+            }
+            if (PacketLeakDetector.installed() == null) {
+                refPool.release(this);
+            }
+        }
+
+        /** Fences off relocation for good and returns the region that holds the bytes. */
+        private Region markReleased() {
+            while (true) {
+                int p = pins;
+                if (p == PIN_RELOCATING) {
+                    Thread.onSpinWait();
+                } else if (PINS.compareAndSet(this, p, PIN_RELEASED)) {
+                    return region;
+                }
             }
-            return done;
         }
     }
 
@@ -399,6 +917,7 @@ public final class SlabPacketAllocator implements PacketAllocator {
                 + " active allocations still in flight — potential use-after-free risk");
         }
         for (Region r : regions) {
+            r.epochStartNanos = 0;
             r.cursor.set(0);
             r.activeAllocations.set(0);
             r.state.set(STATE_FREE);
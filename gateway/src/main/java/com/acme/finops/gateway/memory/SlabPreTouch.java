@@ -0,0 +1,117 @@
+package com.acme.finops.gateway.memory;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Faults in slab pages before traffic arrives by writing one byte per page.
+ *
+ * <p>Pages are split into contiguous per-thread ranges across all segments so each
+ * worker touches its own part of the address space. Intended for startup only: the
+ * pool is created and shut down per call.
+ */
+public final class SlabPreTouch {
+    static final long PAGE_SIZE = 4096;
+
+    private SlabPreTouch() {
+    }
+
+    /**
+     * @param bytes       total bytes covered
+     * @param pages       pages written
+     * @param threads     worker threads used
+     * @param durationNanos wall-clock time of the touch
+     */
+    public record Result(long bytes, long pages, int threads, long durationNanos) {
+        public static final Result NONE = new Result(0, 0, 0, 0);
+
+        public long durationMillis() {
+            return durationNanos / 1_000_000L;
+        }
+    }
+
+    /**
+     * Touches every page of {@code segments} using up to {@code parallelism} threads
+     * ({@code <= 0} means one per available processor).
+     */
+    static Result touch(List<MemorySegment> segments, int parallelism) {
+        long totalPages = 0;
+        long totalBytes = 0;
+        for (MemorySegment s : segments) {
+            totalPages += pagesOf(s);
+            totalBytes += s.byteSize();
+        }
+        if (totalPages == 0) {
+            return Result.NONE;
+        }
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        threads = (int) Math.max(1, Math.min(threads, totalPages));
+
+        long started = System.nanoTime();
+        if (threads == 1) {
+            touchRange(segments, 0, totalPages);
+        } else {
+            runParallel(segments, totalPages, threads);
+        }
+        return new Result(totalBytes, totalPages, threads, System.nanoTime() - started);
+    }
+
+    private static void runParallel(List<MemorySegment> segments, long totalPages, int threads) {
+        AtomicInteger ids = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "gateway-slab-pretouch-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            long perThread = (totalPages + threads - 1) / threads;
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                long from = i * perThread;
+                long to = Math.min(totalPages, from + perThread);
+                if (from >= to) {
+                    break;
+                }
+                futures.add(pool.submit(() -> touchRange(segments, from, to)));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("slab pre-touch interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("slab pre-touch failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Touches global page indexes {@code [fromPage, toPage)} across the concatenated segments. */
+    private static void touchRange(List<MemorySegment> segments, long fromPage, long toPage) {
+        long base = 0;
+        for (MemorySegment s : segments) {
+            long pages = pagesOf(s);
+            long lo = Math.max(fromPage, base);
+            long hi = Math.min(toPage, base + pages);
+            for (long p = lo; p < hi; p++) {
+                s.set(ValueLayout.JAVA_BYTE, (p - base) * PAGE_SIZE, (byte) 0);
+            }
+            base += pages;
+            if (base >= toPage) {
+                return;
+            }
+        }
+    }
+
+    private static long pagesOf(MemorySegment s) {
+        return (s.byteSize() + PAGE_SIZE - 1) / PAGE_SIZE;
+    }
+}
@@ -1,5 +1,8 @@
 package com.acme.finops.gateway.memory;
 
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Logger;
 
 /**
@@ -10,18 +13,52 @@ import java.util.logging.Logger;
  * <p>Each shard owns {@code totalCapacityBytes / shardCount} bytes of off-heap
  * memory. If the preferred shard is full, the allocator tries all remaining
  * shards before denying the allocation.
+ *
+ * <p>When {@link AllocationQuotas} are supplied, the same instance is shared by every
+ * shard so limits are node-wide. A quota denial is returned immediately without the
+ * cross-shard fallback, since every shard would deny it the same way.
  */
 public final class StripedPacketAllocator implements PacketAllocator {
     private static final Logger LOG = Logger.getLogger(StripedPacketAllocator.class.getName());
 
-    private final SlabPacketAllocator[] shards;
+    private final PacketAllocator[] shards;
     private final int mask;
 
+    /**
+     * Stripes over caller-built shards (e.g. {@link ElasticSlabPacketAllocator}s).
+     * The allocator takes ownership and closes them on {@link #close()}.
+     */
+    public StripedPacketAllocator(PacketAllocator[] shards) {
+        if (shards.length == 0 || (shards.length & (shards.length - 1)) != 0) {
+            throw new IllegalArgumentException("shardCount must be a power of two, got " + shards.length);
+        }
+        this.shards = shards.clone();
+        this.mask = shards.length - 1;
+    }
+
     public StripedPacketAllocator(long totalCapacityBytes, int shardCount) {
         this(totalCapacityBytes, shardCount, -1);
     }
 
     public StripedPacketAllocator(long totalCapacityBytes, int shardCount, int regionsPerSlab) {
+        this(totalCapacityBytes, shardCount, regionsPerSlab, null);
+    }
+
+    public StripedPacketAllocator(long totalCapacityBytes, int shardCount, int regionsPerSlab,
+                                  AllocationQuotas quotas) {
+        this(totalCapacityBytes, shardCount, regionsPerSlab, quotas, SlabBacking.ANONYMOUS);
+    }
+
+    public StripedPacketAllocator(long totalCapacityBytes, int shardCount, int regionsPerSlab,
+                                  AllocationQuotas quotas, SlabBacking backing) {
+        this(totalCapacityBytes, shardCount, regionsPerSlab, quotas, backing, false);
+    }
+
+    /**
+     * @param relocatable build shards whose DRAINING regions can be compacted, see {@link #compact}
+     */
+    public StripedPacketAllocator(long totalCapacityBytes, int shardCount, int regionsPerSlab,
+                                  AllocationQuotas quotas, SlabBacking backing, boolean relocatable) {
         if (shardCount <= 0) {
             throw new IllegalArgumentException("shardCount must be positive, got " + shardCount);
         }
@@ -37,11 +74,10 @@ public final class StripedPacketAllocator implements PacketAllocator {
         this.shards = new SlabPacketAllocator[shardCount];
         long perShard = totalCapacityBytes / shardCount;
         for (int i = 0; i < shardCount; i++) {
-            if (regionsPerSlab <= 0) {
-                shards[i] = new SlabPacketAllocator(perShard);
-            } else {
-                shards[i] = new SlabPacketAllocator(perShard, regionsPerSlab);
-            }
+            int regions = regionsPerSlab <= 0
+                ? SlabPacketAllocator.clampRegions(8, perShard)
+                : regionsPerSlab;
+            shards[i] = new SlabPacketAllocator(perShard, regions, quotas, backing, relocatable);
         }
     }
 
@@ -49,7 +85,7 @@ public final class StripedPacketAllocator implements PacketAllocator {
     public LeaseResult allocate(int minBytes, AllocationTag tag) {
         int preferred = (int) (Thread.currentThread().threadId() & mask);
         LeaseResult result = shards[preferred].allocate(minBytes, tag);
-        if (result instanceof LeaseResult.Granted) {
+        if (result instanceof LeaseResult.Granted || isQuotaDenial(result)) {
             return result;
         }
 
@@ -65,13 +101,78 @@ public final class StripedPacketAllocator implements PacketAllocator {
         return result; // last Denied
     }
 
+    private static boolean isQuotaDenial(LeaseResult result) {
+        return result instanceof LeaseResult.Denied denied
+            && AllocationDeniedException.isQuotaReason(denied.reasonCode());
+    }
+
+    /**
+     * Pre-touches every shard's slab pages in one parallel pass. Must run before traffic.
+     *
+     * @param parallelism worker threads, {@code <= 0} for one per available processor
+     */
+    public SlabPreTouch.Result preTouch(int parallelism) {
+        List<MemorySegment> segments = new ArrayList<>();
+        for (PacketAllocator shard : shards) {
+            if (shard instanceof SlabPacketAllocator slab) {
+                slab.collectSegments(segments);
+            } else if (shard instanceof ElasticSlabPacketAllocator elastic) {
+                elastic.collectSegments(segments);
+            }
+        }
+        return SlabPreTouch.touch(segments, parallelism);
+    }
+
+    /**
+     * Runs one compaction pass over every slab-based shard, sharing one copy budget.
+     *
+     * @param maxCopyBytes   copy budget for the whole pass
+     * @param maxLivePercent live-to-cursor threshold for a DRAINING region to be a candidate
+     */
+    public CompactionResult compact(long maxCopyBytes, int maxLivePercent) {
+        CompactionResult total = CompactionResult.NONE;
+        for (PacketAllocator shard : shards) {
+            long remaining = maxCopyBytes - total.bytesCopied();
+            if (remaining <= 0) {
+                break;
+            }
+            if (shard instanceof SlabPacketAllocator slab) {
+                total = total.plus(slab.compact(remaining, maxLivePercent));
+            } else if (shard instanceof ElasticSlabPacketAllocator elastic) {
+                total = total.plus(elastic.compact(remaining, maxLivePercent));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Per-shard counters with a region breakdown for slab-based shards. Served by the
+     * {@code /debug/allocator} dump and exported as per-shard/per-region gauges.
+     */
+    public List<ShardStats> shardStats() {
+        List<ShardStats> out = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            PacketAllocator shard = shards[i];
+            List<RegionStats> regions;
+            if (shard instanceof SlabPacketAllocator slab) {
+                regions = slab.regionStats();
+            } else if (shard instanceof ElasticSlabPacketAllocator elastic) {
+                regions = elastic.regionStats();
+            } else {
+                regions = List.of();
+            }
+            out.add(new ShardStats(i, shard.stats(), regions));
+        }
+        return out;
+    }
+
     @Override
     public AllocatorStats stats() {
         long totalAlloc = 0;
         long totalRelease = 0;
         long totalInUse = 0;
         long totalFailed = 0;
-        for (SlabPacketAllocator shard : shards) {
+        for (PacketAllocator shard : shards) {
             AllocatorStats s = shard.stats();
             totalAlloc += s.allocCount();
             totalRelease += s.releaseCount();
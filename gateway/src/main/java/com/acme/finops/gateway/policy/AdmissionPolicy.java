@@ -3,4 +3,12 @@ package com.acme.finops.gateway.policy;
 public interface AdmissionPolicy {
     PolicyMode mode();
     PolicyDecision evaluate(PolicyContext context);
+
+    /**
+     * Gives back what {@link #evaluate} charged for a request it admitted but the gateway
+     * then refused, e.g. because the ingress queue was full. {@code context} carries the same
+     * tenant and envelope as the admitting call. No-op by default.
+     */
+    default void refund(PolicyContext context) {
+    }
 }
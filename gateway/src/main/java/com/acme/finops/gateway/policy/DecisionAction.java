@@ -3,5 +3,7 @@ package com.acme.finops.gateway.policy;
 public enum DecisionAction {
     PASS,
     DROP,
-    ROUTE_DEFAULT
+    ROUTE_DEFAULT,
+    /** Refuse without processing; the client should retry after {@link PolicyDecision#retryAfterMillis()}. */
+    THROTTLE
 }
@@ -2,9 +2,12 @@ package com.acme.finops.gateway.policy;
 
 import com.acme.finops.gateway.memory.PacketRef;
 
+/**
+ * @param tenantId the ingress tenant (tenant header or the adapter's allocation tag), or {@code null}
+ */
 public record PolicyContext(
     long requestId,
-    long tenantId,
+    String tenantId,
     PacketRef envelope,
     long nowNanos
 ) {}
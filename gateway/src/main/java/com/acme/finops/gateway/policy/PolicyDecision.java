@@ -2,15 +2,23 @@ package com.acme.finops.gateway.policy;
 
 import java.util.Objects;
 
+/**
+ * @param retryAfterMillis retry hint for {@link DecisionAction#THROTTLE}, {@code 0} otherwise
+ */
 public record PolicyDecision(
     long requestId,
     DecisionAction action,
-    int reasonCode
+    int reasonCode,
+    long retryAfterMillis
 ) {
     public PolicyDecision {
         Objects.requireNonNull(action, "action");
     }
 
+    public PolicyDecision(long requestId, DecisionAction action, int reasonCode) {
+        this(requestId, action, reasonCode, 0L);
+    }
+
     public static PolicyDecision pass(long requestId) {
         return new PolicyDecision(requestId, DecisionAction.PASS, 0);
     }
@@ -22,4 +30,8 @@ public record PolicyDecision(
     public static PolicyDecision drop(long requestId, int reasonCode) {
         return new PolicyDecision(requestId, DecisionAction.DROP, reasonCode);
     }
+
+    public static PolicyDecision throttle(long requestId, int reasonCode, long retryAfterMillis) {
+        return new PolicyDecision(requestId, DecisionAction.THROTTLE, reasonCode, Math.max(1L, retryAfterMillis));
+    }
 }
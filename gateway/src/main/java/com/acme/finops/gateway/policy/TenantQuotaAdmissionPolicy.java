@@ -0,0 +1,222 @@
+package com.acme.finops.gateway.policy;
+
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.util.GatewayStatusCodes;
+import com.acme.finops.gateway.util.TenantRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Per-tenant rate limits in requests per second and bytes per second.
+ *
+ * <p>Each tenant has two token buckets, one for requests and one for payload bytes, each
+ * holding {@code burstSeconds} worth of its rate. A request is admitted when both buckets
+ * can pay for it; otherwise it is throttled ({@link DecisionAction#THROTTLE}) with
+ * {@link GatewayStatusCodes#TENANT_RATE_LIMITED} and a retry hint for when the emptier
+ * bucket will have refilled enough. A payload larger than a whole byte burst is admitted
+ * from a full bucket, so no request size is refused forever.</p>
+ *
+ * <p>The tenant comes from {@code tenantOf}, by default {@link PolicyContext#tenantId()}
+ * (the tenant header or the adapter's allocation tag). Buckets live in a
+ * {@link TenantRegistry}: the first {@code maxTrackedTenants} distinct tenants get their own
+ * buckets and counters, later ones share the {@value TenantRegistry#OVERFLOW_TENANT} buckets,
+ * and requests without a tenant are limited as {@value TenantRegistry#UNKNOWN_TENANT}.</p>
+ *
+ * <h3>Concurrency Protocol</h3>
+ * <ul>
+ *   <li>A bucket is one {@link AtomicLong}: the time at which it will be full again
+ *       (GCRA's theoretical arrival time), or {@code UNSET} until first charged. Refill is implicit in the clock, and taking
+ *       tokens is one CAS that pushes that time forward by the cost; there is no lock and
+ *       no refill thread.</li>
+ *   <li>The request bucket is charged first; if the byte bucket then refuses, the request
+ *       charge is given back with one atomic add.</li>
+ *   <li>{@link #refund} pulls both times back by the costs {@link #evaluate} charged, with
+ *       one atomic add each, and takes the request out of the admitted counters.</li>
+ *   <li>{@link #chargeRemote} pushes the same times forward without checking, for usage
+ *       admitted by cluster peers; it runs on the peer exchange thread.</li>
+ * </ul>
+ */
+public final class TenantQuotaAdmissionPolicy implements AdmissionPolicy {
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0d;
+    /** Bucket time of a bucket never charged: full as of any clock reading. */
+    private static final long UNSET = Long.MIN_VALUE;
+
+    private final Function<PolicyContext, String> tenantOf;
+    /** Bucket cost of one request; {@code 0} when requests are unlimited. */
+    private final long nanosPerRequest;
+    /** Bucket cost of one byte; {@code 0} when bytes are unlimited. */
+    private final double nanosPerByte;
+    private final long burstNanos;
+    private final TenantRegistry<TenantBuckets> buckets;
+
+    /**
+     * @param requestsPerSecond per-tenant request rate, {@code 0} for unlimited
+     * @param bytesPerSecond    per-tenant payload byte rate, {@code 0} for unlimited
+     * @param burstSeconds      bucket depth, in seconds of each rate
+     * @param maxTrackedTenants tenants with their own buckets before the overflow slot is used
+     * @param tenantOf          tenant of a request, or {@code null} if it has none
+     */
+    public TenantQuotaAdmissionPolicy(double requestsPerSecond,
+                                      long bytesPerSecond,
+                                      double burstSeconds,
+                                      int maxTrackedTenants,
+                                      Function<PolicyContext, String> tenantOf) {
+        if (requestsPerSecond < 0.0d || bytesPerSecond < 0L) {
+            throw new IllegalArgumentException("rates must be >= 0");
+        }
+        if (!(burstSeconds > 0.0d)) {
+            throw new IllegalArgumentException("burstSeconds must be > 0");
+        }
+        this.tenantOf = Objects.requireNonNull(tenantOf, "tenantOf");
+        this.nanosPerRequest = requestsPerSecond == 0.0d ? 0L : Math.max(1L, Math.round(NANOS_PER_SECOND / requestsPerSecond));
+        this.nanosPerByte = bytesPerSecond == 0L ? 0.0d : NANOS_PER_SECOND / bytesPerSecond;
+        this.burstNanos = (long) Math.min(Long.MAX_VALUE / 4, burstSeconds * NANOS_PER_SECOND);
+        this.buckets = new TenantRegistry<>(maxTrackedTenants, (tenant, slot) -> new TenantBuckets(tenant));
+    }
+
+    public TenantQuotaAdmissionPolicy(double requestsPerSecond, long bytesPerSecond, double burstSeconds, int maxTrackedTenants) {
+        this(requestsPerSecond, bytesPerSecond, burstSeconds, maxTrackedTenants, PolicyContext::tenantId);
+    }
+
+    @Override
+    public PolicyMode mode() {
+        return PolicyMode.FAIL_OPEN;
+    }
+
+    @Override
+    public PolicyDecision evaluate(PolicyContext context) {
+        long now = context.nowNanos();
+        TenantBuckets buckets = this.buckets.entryFor(tenantOf.apply(context));
+        PacketRef envelope = context.envelope();
+        long bytes = envelope == null ? 0L : envelope.length();
+
+        long requestCost = nanosPerRequest;
+        long waitNanos = requestCost == 0L ? 0L : tryAcquire(buckets.requests, requestCost, now);
+        if (waitNanos == 0L && nanosPerByte != 0.0d) {
+            waitNanos = tryAcquire(buckets.bytes, byteCost(bytes), now);
+            if (waitNanos != 0L && requestCost != 0L) {
+                buckets.requests.addAndGet(-requestCost);
+            }
+        }
+        if (waitNanos == 0L) {
+            buckets.admitted.increment();
+            buckets.admittedBytes.add(bytes);
+            return PolicyDecision.routeDefault(context.requestId());
+        }
+        buckets.denied.increment();
+        buckets.deniedBytes.add(bytes);
+        return PolicyDecision.throttle(context.requestId(), GatewayStatusCodes.TENANT_RATE_LIMITED,
+            (waitNanos + 999_999L) / 1_000_000L);
+    }
+
+    /**
+     * Returns the request and byte tokens of an admitted request that was refused downstream,
+     * so a client retrying on the 429 is not throttled a second time for it. The admitted
+     * counters shrink with it, and peers are not charged for it.
+     */
+    @Override
+    public void refund(PolicyContext context) {
+        TenantBuckets buckets = this.buckets.entryFor(tenantOf.apply(context));
+        PacketRef envelope = context.envelope();
+        long bytes = envelope == null ? 0L : envelope.length();
+        if (nanosPerRequest != 0L) {
+            buckets.requests.addAndGet(-nanosPerRequest);
+        }
+        if (nanosPerByte != 0.0d) {
+            buckets.bytes.addAndGet(-byteCost(bytes));
+        }
+        buckets.admitted.decrement();
+        buckets.admittedBytes.add(-bytes);
+    }
+
+    private long byteCost(long bytes) {
+        return (long) Math.min(Long.MAX_VALUE / 4, bytes * nanosPerByte);
+    }
+
+    /**
+     * Takes {@code costNanos} from a bucket.
+     *
+     * @return {@code 0} if taken, else how long until the bucket could pay for it
+     */
+    private long tryAcquire(AtomicLong fullAt, long costNanos, long now) {
+        long capacity = Math.max(burstNanos, costNanos);
+        while (true) {
+            long current = fullAt.get();
+            long next = (current != UNSET && current - now > 0L ? current : now) + costNanos;
+            long excess = next - now - capacity;
+            if (excess > 0L) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Charges requests and bytes admitted by another node to a tenant's buckets without
+     * checking them, so local admissions see the cluster-wide consumption and the cluster
+     * as a whole converges to this node's rates. Debt is capped at one burst past empty, so
+     * a burst of late reports cannot shut a tenant out for longer than one burst.
+     */
+    public void chargeRemote(String tenant, long requests, long bytes, long nowNanos) {
+        TenantBuckets buckets = this.buckets.entryFor(tenant);
+        if (nanosPerRequest != 0L && requests > 0L) {
+            charge(buckets.requests, saturatingCost(requests, nanosPerRequest), nowNanos);
+        }
+        if (nanosPerByte != 0.0d && bytes > 0L) {
+            charge(buckets.bytes, byteCost(bytes), nowNanos);
+        }
+    }
+
+    private void charge(AtomicLong fullAt, long costNanos, long now) {
+        long limit = now + 2L * burstNanos;
+        while (true) {
+            long current = fullAt.get();
+            long next = (current != UNSET && current - now > 0L ? current : now) + costNanos;
+            if (next - limit > 0L) {
+                next = current != UNSET && current - limit > 0L ? current : limit;
+            }
+            if (next == current || fullAt.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private static long saturatingCost(long units, long nanosPerUnit) {
+        return units > (Long.MAX_VALUE / 4) / nanosPerUnit ? Long.MAX_VALUE / 4 : units * nanosPerUnit;
+    }
+
+    /** Per-tenant counters: the overflow bucket first once it has seen traffic, then tenants in first-seen order. */
+    public List<TenantQuotaStats> stats() {
+        List<TenantBuckets> all = buckets.entries();
+        List<TenantQuotaStats> out = new ArrayList<>(all.size());
+        for (TenantBuckets b : all) {
+            if (b == buckets.overflow() && b.admitted.sum() == 0L && b.denied.sum() == 0L) {
+                continue;
+            }
+            out.add(new TenantQuotaStats(b.tenant, b.admitted.sum(), b.admittedBytes.sum(), b.denied.sum(), b.deniedBytes.sum()));
+        }
+        return out;
+    }
+
+    private static final class TenantBuckets {
+        final String tenant;
+        /** Start full: nothing owed until the first charge. */
+        final AtomicLong requests = new AtomicLong(UNSET);
+        final AtomicLong bytes = new AtomicLong(UNSET);
+        final LongAdder admitted = new LongAdder();
+        final LongAdder admittedBytes = new LongAdder();
+        final LongAdder denied = new LongAdder();
+        final LongAdder deniedBytes = new LongAdder();
+
+        TenantBuckets(String tenant) {
+            this.tenant = tenant;
+        }
+    }
+}
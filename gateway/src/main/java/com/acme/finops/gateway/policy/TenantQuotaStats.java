@@ -0,0 +1,19 @@
+package com.acme.finops.gateway.policy;
+
+/**
+ * Point-in-time counters for one tenant of {@link TenantQuotaAdmissionPolicy}.
+ *
+ * @param tenant        tenant key, or {@link com.acme.finops.gateway.util.TenantRegistry#OVERFLOW_TENANT} for untracked tenants
+ * @param admitted      requests within quota
+ * @param admittedBytes payload bytes of admitted requests
+ * @param denied        requests throttled over quota
+ * @param deniedBytes   payload bytes of throttled requests
+ */
+public record TenantQuotaStats(
+    String tenant,
+    long admitted,
+    long admittedBytes,
+    long denied,
+    long deniedBytes
+) {
+}
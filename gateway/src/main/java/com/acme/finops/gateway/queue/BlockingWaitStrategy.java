@@ -0,0 +1,30 @@
+package com.acme.finops.gateway.queue;
+
+/**
+ * Parks on the first empty pass and relies on the producer's signal to wake up. The
+ * {@link Waiter}'s sleeping flag limits producers to one unpark per sleep instead of one
+ * per enqueue. {@code maxParkNanos} only bounds how late a consumer notices work nobody
+ * signalled it for, such as another consumer's shard it may steal from.
+ */
+public final class BlockingWaitStrategy implements WaitStrategy {
+    private final long maxParkNanos;
+
+    public BlockingWaitStrategy(long maxParkNanos) {
+        this.maxParkNanos = Math.max(1L, maxParkNanos);
+    }
+
+    @Override
+    public void idle(Waiter waiter, int idleRounds) {
+        waiter.parkUntilSignalled(maxParkNanos);
+    }
+
+    @Override
+    public void signal(Waiter waiter) {
+        waiter.wake();
+    }
+
+    @Override
+    public String name() {
+        return "blocking";
+    }
+}
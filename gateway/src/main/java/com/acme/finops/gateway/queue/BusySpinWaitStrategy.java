@@ -0,0 +1,26 @@
+package com.acme.finops.gateway.queue;
+
+/**
+ * Never leaves the core: idle passes are separated by {@link Thread#onSpinWait()} only.
+ * Producers have nothing to signal. Use with dedicated, isolated cores.
+ */
+public final class BusySpinWaitStrategy implements WaitStrategy {
+    public static final BusySpinWaitStrategy INSTANCE = new BusySpinWaitStrategy();
+
+    private BusySpinWaitStrategy() {
+    }
+
+    @Override
+    public void idle(Waiter waiter, int idleRounds) {
+        Thread.onSpinWait();
+    }
+
+    @Override
+    public void signal(Waiter waiter) {
+    }
+
+    @Override
+    public String name() {
+        return "busy_spin";
+    }
+}
@@ -0,0 +1,50 @@
+package com.acme.finops.gateway.queue;
+
+/**
+ * Spins for {@code spinNanos} of an idle streak, yields until {@code spinNanos + yieldNanos},
+ * then blocks like {@link BlockingWaitStrategy}. Short gaps between requests are absorbed
+ * by the spin/yield phases without a park/unpark round trip; a consumer idle for longer
+ * stops burning CPU and is woken by the producer's signal.
+ */
+public final class PhasedBackoffWaitStrategy implements WaitStrategy {
+    private final long spinNanos;
+    private final long yieldNanos;
+    private final long maxParkNanos;
+
+    /**
+     * @param spinNanos    length of the spin phase
+     * @param yieldNanos   length of the yield phase that follows it
+     * @param maxParkNanos upper bound on one park in the blocking phase
+     */
+    public PhasedBackoffWaitStrategy(long spinNanos, long yieldNanos, long maxParkNanos) {
+        this.spinNanos = Math.max(0L, spinNanos);
+        this.yieldNanos = Math.max(0L, yieldNanos);
+        this.maxParkNanos = Math.max(1L, maxParkNanos);
+    }
+
+    @Override
+    public void idle(Waiter waiter, int idleRounds) {
+        long now = System.nanoTime();
+        if (idleRounds == 0) {
+            waiter.idleSinceNanos = now;
+        }
+        long idleFor = now - waiter.idleSinceNanos;
+        if (idleFor < spinNanos) {
+            Thread.onSpinWait();
+        } else if (idleFor < spinNanos + yieldNanos) {
+            Thread.yield();
+        } else {
+            waiter.parkUntilSignalled(maxParkNanos);
+        }
+    }
+
+    @Override
+    public void signal(Waiter waiter) {
+        waiter.wake();
+    }
+
+    @Override
+    public String name() {
+        return "phased";
+    }
+}
@@ -2,11 +2,103 @@ package com.acme.finops.gateway.queue;
 
 import com.acme.finops.gateway.transport.api.InboundPacket;
 
-public record QueueEnvelope(
-    InboundPacket packet,
-    long packetId,
-    long requestId,
-    int shardId,
-    long enqueueSeq,
-    long enqueueNanos
-) {}
+/**
+ * Queue slot carrying one inbound packet from the ingress thread to a dispatcher worker.
+ *
+ * <p>Mutable so a {@link StripedMpscRing} built with {@code QueueEnvelope::new} as its slot
+ * factory can reuse one instance per slot: the producer fills it with {@link #set} inside
+ * {@link StripedMpscRing#offerInPlace}, the consumer reads it inside
+ * {@link StripedMpscRing#drain} and calls {@link #clear()} so the slot does not keep the
+ * packet reachable. Instances are only safe to read while the ring holds the slot claimed.
+ */
+public final class QueueEnvelope {
+    /** {@link #flow()} of an envelope not tracked by a fair-queuing scheduler. */
+    public static final int NO_FLOW = -1;
+
+    private InboundPacket packet;
+    private long packetId;
+    private long requestId;
+    private int shardId;
+    private long enqueueSeq;
+    private long enqueueNanos;
+    private int flow = NO_FLOW;
+
+    /** Empty slot, filled later via {@link #set}. */
+    public QueueEnvelope() {
+    }
+
+    public QueueEnvelope(InboundPacket packet,
+                         long packetId,
+                         long requestId,
+                         int shardId,
+                         long enqueueSeq,
+                         long enqueueNanos) {
+        set(packet, packetId, requestId, shardId, enqueueSeq, enqueueNanos);
+    }
+
+    public void set(InboundPacket packet,
+                    long packetId,
+                    long requestId,
+                    int shardId,
+                    long enqueueSeq,
+                    long enqueueNanos) {
+        set(packet, packetId, requestId, shardId, enqueueSeq, enqueueNanos, NO_FLOW);
+    }
+
+    /** As {@link #set(InboundPacket, long, long, int, long, long)}, tagged with a fair-queuing flow. */
+    public void set(InboundPacket packet,
+                    long packetId,
+                    long requestId,
+                    int shardId,
+                    long enqueueSeq,
+                    long enqueueNanos,
+                    int flow) {
+        this.packet = packet;
+        this.packetId = packetId;
+        this.requestId = requestId;
+        this.shardId = shardId;
+        this.enqueueSeq = enqueueSeq;
+        this.enqueueNanos = enqueueNanos;
+        this.flow = flow;
+    }
+
+    /** Drops the packet reference once the consumer is done with the slot. */
+    public void clear() {
+        this.packet = null;
+    }
+
+    public InboundPacket packet() {
+        return packet;
+    }
+
+    public long packetId() {
+        return packetId;
+    }
+
+    public long requestId() {
+        return requestId;
+    }
+
+    public int shardId() {
+        return shardId;
+    }
+
+    public long enqueueSeq() {
+        return enqueueSeq;
+    }
+
+    public long enqueueNanos() {
+        return enqueueNanos;
+    }
+
+    /** Fair-queuing flow slot assigned at enqueue, or {@link #NO_FLOW}. */
+    public int flow() {
+        return flow;
+    }
+
+    @Override
+    public String toString() {
+        return "QueueEnvelope[packetId=" + packetId + ", requestId=" + requestId + ", shardId=" + shardId
+            + ", enqueueSeq=" + enqueueSeq + ", enqueueNanos=" + enqueueNanos + ", flow=" + flow + "]";
+    }
+}
@@ -1,9 +1,58 @@
 package com.acme.finops.gateway.queue;
 
+/**
+ * Point-in-time queue state handed to drop policies.
+ *
+ * <p>With priority lanes, {@code depth}/{@code capacity}/{@code queuedBytes} describe the
+ * packet's own lane, {@code lane}/{@code priority} identify it, and
+ * {@code totalDepth}/{@code totalCapacity} cover all lanes. A single queue is lane
+ * {@code 0} with totals equal to its own.</p>
+ *
+ * <p>{@code queuedBytes} is the payload waiting in the lane; {@code totalBytes} is the
+ * byte load for overall decisions: the payload waiting in all lanes, or the allocator's
+ * in-use bytes when the dispatcher samples them and they are larger.</p>
+ */
 public record QueueSnapshot(
     int depth,
     int capacity,
     long headSeq,
     long tailSeq,
-    long tsNanos
-) {}
+    long tsNanos,
+    int lane,
+    int priority,
+    int totalDepth,
+    int totalCapacity,
+    long queuedBytes,
+    long totalBytes
+) {
+    public QueueSnapshot(int depth, int capacity, long headSeq, long tailSeq, long tsNanos) {
+        this(depth, capacity, headSeq, tailSeq, tsNanos, 0L);
+    }
+
+    public QueueSnapshot(int depth, int capacity, long headSeq, long tailSeq, long tsNanos, long queuedBytes) {
+        this(depth, capacity, headSeq, tailSeq, tsNanos, 0, 0, depth, capacity, queuedBytes, queuedBytes);
+    }
+
+    /** Lane state without byte accounting. */
+    public QueueSnapshot(int depth, int capacity, long headSeq, long tailSeq, long tsNanos,
+                         int lane, int priority, int totalDepth, int totalCapacity) {
+        this(depth, capacity, headSeq, tailSeq, tsNanos, lane, priority, totalDepth, totalCapacity, 0L, 0L);
+    }
+
+    /** Same queue state, placed in a lane of a multi-lane dispatcher. */
+    public QueueSnapshot inLane(int lane, int priority, int totalDepth, int totalCapacity) {
+        return inLane(lane, priority, totalDepth, totalCapacity, queuedBytes);
+    }
+
+    /** Same queue state, placed in a lane of a multi-lane dispatcher with an overall byte load. */
+    public QueueSnapshot inLane(int lane, int priority, int totalDepth, int totalCapacity, long totalBytes) {
+        return new QueueSnapshot(depth, capacity, headSeq, tailSeq, tsNanos, lane, priority,
+            totalDepth, totalCapacity, queuedBytes, totalBytes);
+    }
+
+    /** Same queue state with a different overall byte load. */
+    public QueueSnapshot withTotalBytes(long totalBytes) {
+        return new QueueSnapshot(depth, capacity, headSeq, tailSeq, tsNanos, lane, priority,
+            totalDepth, totalCapacity, queuedBytes, totalBytes);
+    }
+}
@@ -6,6 +6,8 @@ import java.util.Objects;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Lock-free bounded multi-producer single-consumer sharded ring buffer using
@@ -19,10 +21,35 @@ import java.util.concurrent.atomic.AtomicLong;
  * <p>Per-shard capacity is rounded up to the next power-of-two for fast
  * index masking.</p>
  *
+ * <p>Sequences are per shard: {@link OfferResult.Ok#seq()} is the 1-based position
+ * within its shard, and {@link #snapshot()} sums the shard indices instead of bumping
+ * shared counters on every offer and poll.</p>
+ *
+ * <p><b>Pre-allocated slots:</b> when built with a slot factory, every slot holds a
+ * long-lived mutable element. Producers fill it in place through
+ * {@link #offerInPlace(int, SlotWriter, Object)} and consumers read it through
+ * {@link #drain(int, Consumer, int)}, which keeps the slot claimed until the consumer
+ * returns. Neither side allocates. {@link #offer(int, Object)} and
+ * {@link #pollShard(int)} are unsupported in this mode.</p>
+ *
+ * <p><b>Queued bytes:</b> producers may attach a byte size to each offer
+ * ({@link #offerInPlace(int, SlotWriter, Object, long)}); consumers return it with
+ * {@link #releaseBytes(int, long)} once the element is taken. The ring only sums what it
+ * is told, per shard, so byte-based backpressure can see how much payload is waiting
+ * rather than how many elements.</p>
+ *
+ * <p><b>Shared consumers:</b> {@link #tryDrain(int, Consumer, int)} lets several threads
+ * consume the same shard. A consumer claims a run of filled slots by CAS-advancing the
+ * shard's {@code consumerIndex}, processes the run, then hands each slot back to
+ * producers. Every slot still has exactly one consumer, but runs of one shard may be
+ * processed concurrently, so FIFO holds only within a run. A shard consumed through
+ * {@code tryDrain} must not also be consumed through {@code pollShard} or {@code drain}.</p>
+ *
  * <p><b>Contract:</b> {@link #pollShard(int)} must be called by at most one
  * thread per shard at any time. Concurrent calls for the same shard corrupt
- * the queue. {@link #poll()} polls all shards and must only be called by a
- * single consumer thread.</p>
+ * the queue. The same applies to {@link #drain(int, Consumer, int)}, which shares
+ * the per-shard consumer role with {@code pollShard}. {@link #poll()} polls all
+ * shards and must only be called by a single consumer thread.</p>
  */
 public final class StripedMpscRing<E> implements BoundedRing<E> {
 
@@ -30,16 +57,46 @@ public final class StripedMpscRing<E> implements BoundedRing<E> {
 
     private static final VarHandle SEQ_HANDLE =
             MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle CONSUMER_INDEX;
+
+    static {
+        try {
+            CONSUMER_INDEX = MethodHandles.lookup().findVarHandle(Shard.class, "consumerIndex", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     private final Shard<E>[] shards;
     private final int shardCount;
     private final int perShardCapacity;
-    private final AtomicLong globalSequence = new AtomicLong(1);
-    private final AtomicLong globalHeadSeq = new AtomicLong(0);
+    private final boolean preallocated;
     private final AtomicBoolean closed = new AtomicBoolean(false);
 
-    @SuppressWarnings("unchecked")
+    /** {@link #offerInPlace} result: the shard is full. */
+    public static final long OFFER_FULL = -1L;
+    /** {@link #offerInPlace} result: the ring is closed. */
+    public static final long OFFER_CLOSED = -2L;
+
+    /**
+     * Fills a pre-allocated slot in place. Runs after the slot is claimed and before it is
+     * published, so it must not throw and must not block.
+     */
+    @FunctionalInterface
+    public interface SlotWriter<E, A> {
+        void write(E slot, A arg, int shardId, long seq);
+    }
+
     public StripedMpscRing(int totalCapacity, int shardCount) {
+        this(totalCapacity, shardCount, null);
+    }
+
+    /**
+     * @param slotFactory creates one long-lived element per slot, or {@code null} for a
+     *                    regular ring of caller-supplied elements
+     */
+    @SuppressWarnings("unchecked")
+    public StripedMpscRing(int totalCapacity, int shardCount, Supplier<? extends E> slotFactory) {
         int normalizedShards = Math.max(1, shardCount);
         int normalizedCapacity = Math.max(normalizedShards, totalCapacity);
         int rawPerShard = Math.max(1, normalizedCapacity / normalizedShards);
@@ -50,7 +107,14 @@ public final class StripedMpscRing<E> implements BoundedRing<E> {
         this.shards = new Shard[normalizedShards];
         for (int i = 0; i < normalizedShards; i++) {
             this.shards[i] = new Shard<>(pow2PerShard);
+            if (slotFactory != null) {
+                Object[] buffer = this.shards[i].buffer;
+                for (int j = 0; j < pow2PerShard; j++) {
+                    buffer[j] = Objects.requireNonNull(slotFactory.get(), "slotFactory returned null");
+                }
+            }
         }
+        this.preallocated = slotFactory != null;
     }
 
     @Override
@@ -77,14 +141,86 @@ public final class StripedMpscRing<E> implements BoundedRing<E> {
 
     public OfferResult offer(int shardId, E e) {
         Objects.requireNonNull(e, "e");
+        if (preallocated) {
+            throw new IllegalStateException("ring has pre-allocated slots; use offerInPlace");
+        }
         if (closed.get()) {
             return new OfferResult.Closed();
         }
+        Shard<E> shard = shards[normalizeShard(shardId)];
+        long pos = claim(shard);
+        if (pos < 0) {
+            return new OfferResult.Full(sizeApprox(), capacity());
+        }
+        int slot = (int) (pos & shard.mask);
+        shard.buffer[slot] = e;
+        SEQ_HANDLE.setRelease(shard.sequences, slot, pos + 1);
+        return new OfferResult.Ok(pos + 1);
+    }
+
+    /**
+     * Claims the next slot of a pre-allocated shard and lets {@code writer} fill it with
+     * {@code arg} before publishing. Allocation-free.
+     *
+     * @return the 1-based per-shard sequence of the published slot, or {@link #OFFER_FULL}
+     *         / {@link #OFFER_CLOSED}
+     */
+    public <A> long offerInPlace(int shardId, SlotWriter<? super E, ? super A> writer, A arg) {
+        return offerInPlace(shardId, writer, arg, 0L);
+    }
+
+    /**
+     * {@link #offerInPlace(int, SlotWriter, Object)} that also adds {@code bytes} to the
+     * shard's queued bytes, before the slot is published so a consumer's
+     * {@link #releaseBytes} cannot run first. Nothing is added if the offer fails.
+     */
+    @SuppressWarnings("unchecked")
+    public <A> long offerInPlace(int shardId, SlotWriter<? super E, ? super A> writer, A arg, long bytes) {
+        if (!preallocated) {
+            throw new IllegalStateException("ring has no pre-allocated slots; use offer");
+        }
+        if (closed.get()) {
+            return OFFER_CLOSED;
+        }
         int idx = normalizeShard(shardId);
         Shard<E> shard = shards[idx];
+        long pos = claim(shard);
+        if (pos < 0) {
+            return OFFER_FULL;
+        }
+        int slot = (int) (pos & shard.mask);
+        writer.write((E) shard.buffer[slot], arg, idx, pos + 1);
+        if (bytes != 0L) {
+            shard.queuedBytes.addAndGet(bytes);
+        }
+        SEQ_HANDLE.setRelease(shard.sequences, slot, pos + 1);
+        return pos + 1;
+    }
+
+    /** Subtracts the bytes of a consumed element from its shard's queued bytes. */
+    public void releaseBytes(int shardId, long bytes) {
+        if (bytes != 0L) {
+            shards[normalizeShard(shardId)].queuedBytes.addAndGet(-bytes);
+        }
+    }
+
+    /** Bytes attached to elements still queued, summed over shards. */
+    public long queuedBytes() {
+        long sum = 0L;
+        for (int i = 0; i < shardCount; i++) {
+            sum += shards[i].queuedBytes.get();
+        }
+        return Math.max(0L, sum);
+    }
+
+    public long shardQueuedBytes(int shardId) {
+        return Math.max(0L, shards[normalizeShard(shardId)].queuedBytes.get());
+    }
+
+    /** CAS-claims the producer position of the next free slot, or returns -1 when full. */
+    private static long claim(Shard<?> shard) {
         int mask = shard.mask;
         long[] sequences = shard.sequences;
-
         for (;;) {
             long pos = shard.producerIndex.get();
             int slot = (int) (pos & mask);
@@ -93,10 +229,7 @@ public final class StripedMpscRing<E> implements BoundedRing<E> {
             if (seq == pos) {
                 // Slot is free — try to claim it
                 if (shard.producerIndex.compareAndSet(pos, pos + 1)) {
-                    shard.buffer[slot] = e;
-                    SEQ_HANDLE.setRelease(sequences, slot, pos + 1);
-                    long globalSeq = globalSequence.getAndIncrement();
-                    return new OfferResult.Ok(globalSeq);
+                    return pos;
                 }
                 // CAS failed, another producer won — retry immediately
             } else if (seq < pos) {
@@ -106,7 +239,7 @@ public final class StripedMpscRing<E> implements BoundedRing<E> {
                 Thread.onSpinWait();
                 long seqRecheck = (long) SEQ_HANDLE.getAcquire(sequences, slot);
                 if (seqRecheck < pos) {
-                    return new OfferResult.Full(sizeApprox(), capacity());
+                    return -1L;
                 }
                 // Producer committed during spin — retry
             }
@@ -132,6 +265,9 @@ public final class StripedMpscRing<E> implements BoundedRing<E> {
      */
     @SuppressWarnings("unchecked")
     public E pollShard(int shardId) {
+        if (preallocated) {
+            throw new IllegalStateException("ring has pre-allocated slots; use drain");
+        }
         int idx = normalizeShard(shardId);
         Shard<E> shard = shards[idx];
         long pos = shard.consumerIndex;
@@ -149,20 +285,161 @@ public final class StripedMpscRing<E> implements BoundedRing<E> {
         // volatile write — must remain after setRelease to preserve ordering;
         // producers read consumerIndex in sizeApprox()/shardDepth()
         shard.consumerIndex = pos + 1;
-        globalHeadSeq.incrementAndGet();
         return value;
     }
 
+    /**
+     * Hands up to {@code maxBatch} consecutive elements of a shard to {@code consumer}
+     * in FIFO order and returns how many were taken.
+     *
+     * <p>The run of filled slots is claimed up front. Once the consumer has seen the run,
+     * each slot is handed back to producers with a release store of its sequence, and the
+     * shard's {@code consumerIndex} is advanced once for the whole run, instead of once per
+     * element as with {@link #pollShard(int)}. No ring-wide counter is touched.</p>
+     *
+     * <p>With pre-allocated slots the element is the slot itself and is only valid
+     * until {@code consumer} returns.</p>
+     *
+     * <p>If {@code consumer} throws, the element it was given and all earlier ones count
+     * as consumed; the remaining claimed slots stay queued and the exception propagates.</p>
+     *
+     * <b>Contract: same single-consumer-per-shard rule as {@link #pollShard(int)}.</b>
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(int shardId, Consumer<? super E> consumer, int maxBatch) {
+        Objects.requireNonNull(consumer, "consumer");
+        int idx = normalizeShard(shardId);
+        Shard<E> shard = shards[idx];
+        long pos = shard.consumerIndex;
+        int mask = shard.mask;
+        long[] sequences = shard.sequences;
+        int limit = Math.min(Math.max(1, maxBatch), shard.capacity);
+
+        int claimed = 0;
+        while (claimed < limit) {
+            long seq = (long) SEQ_HANDLE.getAcquire(sequences, (int) ((pos + claimed) & mask));
+            if (seq != pos + claimed + 1) {
+                break;
+            }
+            claimed++;
+        }
+        if (claimed == 0) {
+            return 0;
+        }
+
+        Object[] buffer = shard.buffer;
+        int taken = 0;
+        try {
+            while (taken < claimed) {
+                int slot = (int) ((pos + taken) & mask);
+                E value = (E) buffer[slot];
+                if (!preallocated) {
+                    buffer[slot] = null;
+                }
+                taken++;
+                consumer.accept(value);
+            }
+        } finally {
+            for (int i = 0; i < taken; i++) {
+                long p = pos + i;
+                SEQ_HANDLE.setRelease(sequences, (int) (p & mask), p + shard.capacity);
+            }
+            // volatile write after the setRelease run, same ordering as pollShard()
+            shard.consumerIndex = pos + taken;
+        }
+        return taken;
+    }
+
+    /**
+     * {@link #drain(int, Consumer, int)} for shards shared between consumer threads. Claims
+     * up to {@code maxBatch} filled slots by CAS on {@code consumerIndex} (retrying if
+     * another consumer advanced it first), then processes them. Safe to call concurrently
+     * for the same shard.
+     *
+     * <p>A claimed run cannot be handed back, so if {@code consumer} throws, the rest of
+     * the run is still delivered and the first exception is rethrown afterwards.</p>
+     *
+     * @return elements processed, 0 if the shard had nothing claimable
+     */
+    @SuppressWarnings("unchecked")
+    public int tryDrain(int shardId, Consumer<? super E> consumer, int maxBatch) {
+        Objects.requireNonNull(consumer, "consumer");
+        Shard<E> shard = shards[normalizeShard(shardId)];
+        int mask = shard.mask;
+        long[] sequences = shard.sequences;
+        int limit = Math.min(Math.max(1, maxBatch), shard.capacity);
+
+        long pos;
+        int claimed;
+        do {
+            pos = shard.consumerIndex;
+            claimed = 0;
+            while (claimed < limit) {
+                long seq = (long) SEQ_HANDLE.getAcquire(sequences, (int) ((pos + claimed) & mask));
+                if (seq != pos + claimed + 1) {
+                    break;
+                }
+                claimed++;
+            }
+            if (claimed == 0) {
+                return 0;
+            }
+        } while (!CONSUMER_INDEX.compareAndSet(shard, pos, pos + claimed));
+
+        Object[] buffer = shard.buffer;
+        RuntimeException firstFailure = null;
+        for (int i = 0; i < claimed; i++) {
+            long p = pos + i;
+            int slot = (int) (p & mask);
+            E value = (E) buffer[slot];
+            if (!preallocated) {
+                buffer[slot] = null;
+            }
+            try {
+                consumer.accept(value);
+            } catch (RuntimeException e) {
+                if (firstFailure == null) {
+                    firstFailure = e;
+                }
+            } finally {
+                SEQ_HANDLE.setRelease(sequences, slot, p + shard.capacity);
+            }
+        }
+        if (firstFailure != null) {
+            throw firstFailure;
+        }
+        return claimed;
+    }
+
     public QueueSnapshot snapshot() {
+        long depth = 0;
+        long head = 0;
+        long tail = 0;
+        long bytes = 0;
+        for (int i = 0; i < shardCount; i++) {
+            Shard<E> s = shards[i];
+            long consumed = s.consumerIndex;
+            long produced = s.producerIndex.get();
+            depth += Math.max(0, produced - consumed);
+            head += consumed;
+            tail += produced;
+            bytes += s.queuedBytes.get();
+        }
         return new QueueSnapshot(
-            sizeApprox(),
+            (int) Math.min(depth, Integer.MAX_VALUE),
             capacity(),
-            globalHeadSeq.get(),
-            Math.max(0, globalSequence.get() - 1),
-            System.nanoTime()
+            head,
+            tail,
+            System.nanoTime(),
+            Math.max(0L, bytes)
         );
     }
 
+    /** Whether this ring was built with a slot factory (see class docs). */
+    public boolean hasPreallocatedSlots() {
+        return preallocated;
+    }
+
     public int shardCount() {
         return shardCount;
     }
@@ -233,14 +510,17 @@ public final class StripedMpscRing<E> implements BoundedRing<E> {
         final Object[] buffer;
         final long[] sequences;
         final AtomicLong producerIndex;
+        /** Producer-added, consumer-subtracted; shares the producer side of the padding. */
+        final AtomicLong queuedBytes = new AtomicLong();
 
         // ---- cache-line padding between producerIndex and consumerIndex ----
         @SuppressWarnings("unused")
         long p1, p2, p3, p4, p5, p6, p7, p8;
 
         // volatile is required: producers read this field in sizeApprox()/shardDepth()
-        // to estimate queue depth. The volatile write in pollShard() must remain after
-        // the setRelease on sequences[] to preserve ordering.
+        // to estimate queue depth. The volatile write in pollShard()/drain() must remain
+        // after the setRelease on sequences[] to preserve ordering; tryDrain() instead
+        // CAS-advances it through CONSUMER_INDEX before processing the claimed run.
         volatile long consumerIndex;
 
         Shard(int capacity) {
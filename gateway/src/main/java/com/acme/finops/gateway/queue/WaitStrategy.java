@@ -0,0 +1,33 @@
+package com.acme.finops.gateway.queue;
+
+/**
+ * How a queue consumer waits when it finds no work, and how producers wake it.
+ *
+ * <p>Modelled on the LMAX Disruptor wait strategies. The trade-off is wake-up latency
+ * against CPU burned while idle:
+ * <ul>
+ *   <li>{@link BusySpinWaitStrategy} — lowest latency, one core per idle consumer.</li>
+ *   <li>{@link YieldingWaitStrategy} — spins, then yields the core between checks.</li>
+ *   <li>{@link PhasedBackoffWaitStrategy} — spins, then yields, then blocks; the default.</li>
+ *   <li>{@link BlockingWaitStrategy} — parks immediately; lowest CPU, highest latency.</li>
+ * </ul>
+ *
+ * <p>Implementations are stateless and shared by all consumers; per-consumer state lives
+ * in {@link Waiter}.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Called by a consumer after a pass that found no work.
+     *
+     * @param waiter     the calling consumer's state
+     * @param idleRounds consecutive empty passes before this one, {@code 0} on the first
+     */
+    void idle(Waiter waiter, int idleRounds);
+
+    /** Called by a producer after publishing work for {@code waiter}'s consumer. */
+    void signal(Waiter waiter);
+
+    /** Config name, as accepted by {@code GATEWAY_QUEUE_WAIT_STRATEGY}. */
+    String name();
+}
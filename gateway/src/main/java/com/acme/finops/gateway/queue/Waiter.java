@@ -0,0 +1,81 @@
+package com.acme.finops.gateway.queue;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Per-consumer-thread state shared between a {@link WaitStrategy} and the producers that
+ * signal it.
+ *
+ * <h3>Concurrency Protocol</h3>
+ * <ul>
+ *   <li>The consumer sets {@code sleeping} <em>before</em> rechecking
+ *       {@code workAvailable} and parking, and clears it after waking.</li>
+ *   <li>A producer publishes work first, then calls {@link #wake()}: it unparks only if
+ *       {@code sleeping} is set and it wins the CAS that clears it, so concurrent
+ *       producers issue at most one unpark per sleep.</li>
+ *   <li>Either the producer sees {@code sleeping == true} and unparks, or the consumer's
+ *       recheck sees the published work and skips the park; a wake-up cannot be lost.
+ *       {@code LockSupport}'s permit covers an unpark that lands before the park.</li>
+ * </ul>
+ */
+public final class Waiter {
+    private final BooleanSupplier workAvailable;
+    private final AtomicBoolean sleeping = new AtomicBoolean(false);
+    private volatile Thread thread;
+
+    /** Consumer-thread only: start of the current idle streak, for time-phased strategies. */
+    long idleSinceNanos;
+
+    /**
+     * @param workAvailable cheap check for pending work, evaluated on the consumer thread
+     *                      right before it parks
+     */
+    public Waiter(BooleanSupplier workAvailable) {
+        this.workAvailable = Objects.requireNonNull(workAvailable, "workAvailable");
+    }
+
+    /** Binds the consumer thread; call before the thread starts waiting. */
+    public void bind(Thread consumer) {
+        this.thread = Objects.requireNonNull(consumer, "consumer");
+    }
+
+    /**
+     * Parks the calling consumer thread for at most {@code maxNanos}, unless work is
+     * already available. Returns early on {@link #wake()}.
+     */
+    void parkUntilSignalled(long maxNanos) {
+        sleeping.set(true);
+        try {
+            if (!workAvailable.getAsBoolean()) {
+                LockSupport.parkNanos(this, maxNanos);
+            }
+        } finally {
+            sleeping.set(false);
+        }
+    }
+
+    /** Producer side: unparks the consumer only if it is (about to be) parked. */
+    public void wake() {
+        if (sleeping.get() && sleeping.compareAndSet(true, false)) {
+            Thread t = thread;
+            if (t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+    }
+
+    /** Unparks the consumer regardless of the flag, e.g. on shutdown. */
+    public void wakeUnconditionally() {
+        Thread t = thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    public boolean isSleeping() {
+        return sleeping.get();
+    }
+}
@@ -0,0 +1,32 @@
+package com.acme.finops.gateway.queue;
+
+/**
+ * Spins for {@code spinRounds} empty passes, then calls {@link Thread#yield()} between
+ * passes. Never parks, so producers have nothing to signal; an idle consumer still shows
+ * as runnable and uses CPU when nothing else wants it.
+ */
+public final class YieldingWaitStrategy implements WaitStrategy {
+    private final int spinRounds;
+
+    public YieldingWaitStrategy(int spinRounds) {
+        this.spinRounds = Math.max(0, spinRounds);
+    }
+
+    @Override
+    public void idle(Waiter waiter, int idleRounds) {
+        if (idleRounds < spinRounds) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    @Override
+    public void signal(Waiter waiter) {
+    }
+
+    @Override
+    public String name() {
+        return "yielding";
+    }
+}
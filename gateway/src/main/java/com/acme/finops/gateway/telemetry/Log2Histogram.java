@@ -0,0 +1,106 @@
+package com.acme.finops.gateway.telemetry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram with power-of-two bucket bounds.
+ *
+ * <p>Bucket {@code 0} holds values {@code <= 1}, bucket {@code i} holds
+ * {@code (2^(i-1), 2^i]}, and the last bucket also takes everything above its bound.
+ * Recording is two atomic adds and allocates nothing; give each writer thread its own
+ * instance where contention matters and {@link Snapshot#merge merge} snapshots on read.</p>
+ */
+public final class Log2Histogram {
+    private final AtomicLongArray counts;
+    private final AtomicLong sum = new AtomicLong();
+
+    /** @param buckets number of buckets; the largest finite bound is {@code 2^(buckets-2)} */
+    public Log2Histogram(int buckets) {
+        if (buckets < 2 || buckets > 63) {
+            throw new IllegalArgumentException("buckets must be in [2, 63]: " + buckets);
+        }
+        this.counts = new AtomicLongArray(buckets);
+    }
+
+    public void record(long value) {
+        long v = Math.max(0L, value);
+        counts.incrementAndGet(bucketOf(v, counts.length()));
+        sum.addAndGet(v);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, sum.get());
+    }
+
+    static int bucketOf(long value, int buckets) {
+        int bucket = value <= 1L ? 0 : 64 - Long.numberOfLeadingZeros(value - 1L);
+        return Math.min(buckets - 1, bucket);
+    }
+
+    /**
+     * Point-in-time bucket counts.
+     *
+     * @param counts per-bucket counts, not cumulative
+     * @param sum    sum of recorded values
+     */
+    public record Snapshot(long[] counts, long sum) {
+        public static Snapshot empty(int buckets) {
+            return new Snapshot(new long[buckets], 0L);
+        }
+
+        /** Inclusive upper bound of {@code bucket}; the last bucket is unbounded. */
+        public long upperBound(int bucket) {
+            return bucket == counts.length - 1 ? Long.MAX_VALUE : 1L << bucket;
+        }
+
+        public long count() {
+            long total = 0L;
+            for (long c : counts) {
+                total += c;
+            }
+            return total;
+        }
+
+        /**
+         * Upper bound of the bucket holding the {@code quantile} rank, or {@code 0} when
+         * empty. The last bucket reports its nominal bound {@code 2^(buckets-1)}.
+         */
+        public long quantileUpperBound(double quantile) {
+            long total = count();
+            if (total == 0L) {
+                return 0L;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(total * quantile));
+            long seen = 0L;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return 1L << i;
+                }
+            }
+            return 1L << (counts.length - 1);
+        }
+
+        /** Counts recorded after {@code earlier} was taken from the same histogram. */
+        public Snapshot since(Snapshot earlier) {
+            long[] delta = counts.clone();
+            for (int i = 0; i < Math.min(delta.length, earlier.counts.length); i++) {
+                delta[i] = Math.max(0L, delta[i] - earlier.counts[i]);
+            }
+            return new Snapshot(delta, Math.max(0L, sum - earlier.sum));
+        }
+
+        public Snapshot merge(Snapshot other) {
+            long[] merged = counts.clone();
+            for (int i = 0; i < Math.min(merged.length, other.counts.length); i++) {
+                merged[i] += other.counts[i];
+            }
+            return new Snapshot(merged, sum + other.sum);
+        }
+    }
+}
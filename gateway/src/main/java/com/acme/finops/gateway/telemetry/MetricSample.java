@@ -0,0 +1,78 @@
+package com.acme.finops.gateway.telemetry;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Single labeled metric value contributed by a runtime component (allocator, queue, ...).
+ *
+ * <p>Samples sharing a {@code name} are rendered as one metric family; {@code help} and
+ * {@code type} are taken from the first sample of the family. Histogram series
+ * ({@code _bucket}, {@code _sum}, {@code _count}) belong to the family named without the
+ * suffix; build them with {@link #histogram}.</p>
+ */
+public record MetricSample(
+    String name,
+    String help,
+    String type,
+    Map<String, String> labels,
+    long value
+) {
+    public static final String GAUGE = "gauge";
+    public static final String COUNTER = "counter";
+    public static final String HISTOGRAM = "histogram";
+    private static final String[] HISTOGRAM_SUFFIXES = {"_bucket", "_sum", "_count"};
+
+    public MetricSample {
+        Objects.requireNonNull(name, "name");
+        help = help == null ? "" : help;
+        type = type == null ? GAUGE : type;
+        labels = labels == null ? Map.of() : labels;
+    }
+
+    public static MetricSample gauge(String name, String help, Map<String, String> labels, long value) {
+        return new MetricSample(name, help, GAUGE, labels, value);
+    }
+
+    public static MetricSample counter(String name, String help, Map<String, String> labels, long value) {
+        return new MetricSample(name, help, COUNTER, labels, value);
+    }
+
+    /**
+     * Prometheus histogram series for {@code snapshot}: one cumulative {@code name_bucket}
+     * per bucket (labelled {@code le}, the last one {@code +Inf}), then {@code name_sum}
+     * and {@code name_count}.
+     */
+    public static List<MetricSample> histogram(String name,
+                                               String help,
+                                               Map<String, String> labels,
+                                               Log2Histogram.Snapshot snapshot) {
+        long[] counts = snapshot.counts();
+        List<MetricSample> out = new ArrayList<>(counts.length + 2);
+        long cumulative = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            Map<String, String> bucketLabels = new LinkedHashMap<>(labels == null ? Map.of() : labels);
+            bucketLabels.put("le", i == counts.length - 1 ? "+Inf" : Long.toString(snapshot.upperBound(i)));
+            out.add(new MetricSample(name + "_bucket", help, HISTOGRAM, bucketLabels, cumulative));
+        }
+        out.add(new MetricSample(name + "_sum", help, HISTOGRAM, labels, snapshot.sum()));
+        out.add(new MetricSample(name + "_count", help, HISTOGRAM, labels, cumulative));
+        return out;
+    }
+
+    /** Metric family this sample renders under. */
+    public String family() {
+        if (HISTOGRAM.equals(type)) {
+            for (String suffix : HISTOGRAM_SUFFIXES) {
+                if (name.endsWith(suffix)) {
+                    return name.substring(0, name.length() - suffix.length());
+                }
+            }
+        }
+        return name;
+    }
+}
@@ -5,12 +5,16 @@ import com.sun.net.httpserver.HttpServer;
 
 import com.acme.finops.gateway.util.GatewayDefaults;
 import com.acme.finops.gateway.util.GatewayStatusCodes;
+import com.acme.finops.gateway.util.JsonCodec;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Objects;
 import java.util.concurrent.Executors;
 import java.util.function.Supplier;
@@ -29,6 +33,7 @@ public final class MetricsHttpEndpoint implements AutoCloseable {
     private final String path;
     private final Supplier<Map<String, Long>> additionalCountersSupplier;
     private final Supplier<MaskingRuntimeInfo> maskingRuntimeInfoSupplier;
+    private final Supplier<List<MetricSample>> samplesSupplier;
     private final HttpServer server;
 
     public MetricsHttpEndpoint(AtomicHotPathMetrics metrics,
@@ -43,6 +48,15 @@ public final class MetricsHttpEndpoint implements AutoCloseable {
                                String path,
                                Supplier<Map<String, Long>> additionalCountersSupplier,
                                Supplier<MaskingRuntimeInfo> maskingRuntimeInfoSupplier) throws IOException {
+        this(metrics, port, path, additionalCountersSupplier, maskingRuntimeInfoSupplier, () -> List.of());
+    }
+
+    public MetricsHttpEndpoint(AtomicHotPathMetrics metrics,
+                               int port,
+                               String path,
+                               Supplier<Map<String, Long>> additionalCountersSupplier,
+                               Supplier<MaskingRuntimeInfo> maskingRuntimeInfoSupplier,
+                               Supplier<List<MetricSample>> samplesSupplier) throws IOException {
         this.metrics = Objects.requireNonNull(metrics, "metrics");
         this.port = port;
         this.path = normalizePath(path);
@@ -50,6 +64,7 @@ public final class MetricsHttpEndpoint implements AutoCloseable {
         this.maskingRuntimeInfoSupplier = maskingRuntimeInfoSupplier == null
             ? (() -> MaskingRuntimeInfo.UNKNOWN)
             : maskingRuntimeInfoSupplier;
+        this.samplesSupplier = samplesSupplier == null ? (() -> List.of()) : samplesSupplier;
         this.server = HttpServer.create(new InetSocketAddress(port), 0);
         this.server.createContext(this.path, this::handle);
         this.server.setExecutor(Executors.newSingleThreadExecutor(r -> {
@@ -59,6 +74,25 @@ public final class MetricsHttpEndpoint implements AutoCloseable {
         }));
     }
 
+    /**
+     * Serves {@code supplier}'s value as JSON on {@code dumpPath} (GET only), next to the
+     * metrics path on the same listener. Intended for on-demand diagnostic dumps.
+     */
+    public void registerJsonDump(String dumpPath, Supplier<?> supplier) {
+        Objects.requireNonNull(supplier, "supplier");
+        server.createContext(normalizePath(dumpPath), exchange -> {
+            try {
+                if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                    write(exchange, GatewayStatusCodes.METHOD_NOT_ALLOWED, "method not allowed\n");
+                    return;
+                }
+                write(exchange, GatewayStatusCodes.OK, JsonCodec.writeString(supplier.get()), "application/json");
+            } catch (Throwable t) {
+                write(exchange, GatewayStatusCodes.INTERNAL_ERROR, "internal error\n");
+            }
+        });
+    }
+
     public void start() {
         server.start();
         LOG.info("Metrics endpoint started on :" + port + path);
@@ -73,7 +107,8 @@ public final class MetricsHttpEndpoint implements AutoCloseable {
             AtomicHotPathMetrics.Snapshot s = metrics.snapshot();
             Map<String, Long> extra = additionalCountersSupplier.get();
             MaskingRuntimeInfo maskingInfo = maskingRuntimeInfoSupplier.get();
-            String body = renderPrometheus(s, extra == null ? Map.of() : extra, maskingInfo);
+            List<MetricSample> samples = samplesSupplier.get();
+            String body = renderPrometheus(s, extra == null ? Map.of() : extra, maskingInfo, samples);
             write(exchange, GatewayStatusCodes.OK, body);
         } catch (Throwable t) {
             write(exchange, GatewayStatusCodes.INTERNAL_ERROR, "internal error\n");
@@ -81,8 +116,12 @@ public final class MetricsHttpEndpoint implements AutoCloseable {
     }
 
     private static void write(HttpExchange exchange, int status, String body) throws IOException {
+        write(exchange, status, body, "text/plain; version=0.0.4; charset=utf-8");
+    }
+
+    private static void write(HttpExchange exchange, int status, String body, String contentType) throws IOException {
         byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
-        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.getResponseHeaders().set("Content-Type", contentType);
         exchange.sendResponseHeaders(status, bytes.length);
         try (OutputStream out = exchange.getResponseBody()) {
             out.write(bytes);
@@ -103,6 +142,13 @@ public final class MetricsHttpEndpoint implements AutoCloseable {
     static String renderPrometheus(AtomicHotPathMetrics.Snapshot snapshot,
                                    Map<String, Long> additionalCounters,
                                    MaskingRuntimeInfo maskingRuntimeInfo) {
+        return renderPrometheus(snapshot, additionalCounters, maskingRuntimeInfo, List.of());
+    }
+
+    static String renderPrometheus(AtomicHotPathMetrics.Snapshot snapshot,
+                                   Map<String, Long> additionalCounters,
+                                   MaskingRuntimeInfo maskingRuntimeInfo,
+                                   List<MetricSample> samples) {
         StringBuilder sb = new StringBuilder(GatewayDefaults.DEFAULT_METRICS_RENDER_BUFFER);
         MaskingRuntimeInfo info = maskingRuntimeInfo == null ? MaskingRuntimeInfo.UNKNOWN : maskingRuntimeInfo;
 
@@ -125,6 +171,11 @@ public final class MetricsHttpEndpoint implements AutoCloseable {
             appendMetric(sb, "gateway_dropped_total", Map.of("reason_code", Integer.toString(e.getKey())), e.getValue());
         }
 
+        appendHelpType(sb, "gateway_deadline_expired_total",
+            "Requests and packets skipped because the client deadline had passed", "counter");
+        appendMetric(sb, "gateway_deadline_expired_total", Map.of(),
+            snapshot.droppedByReason().getOrDefault(GatewayStatusCodes.DEADLINE_EXPIRED, 0L));
+
         appendHelpType(sb, "gateway_parse_errors_total", "Parse errors by code", "counter");
         for (Map.Entry<Integer, Long> e : snapshot.parseErrorsByCode().entrySet()) {
             appendMetric(sb, "gateway_parse_errors_total", Map.of("error_code", Integer.toString(e.getKey())), e.getValue());
@@ -164,9 +215,31 @@ public final class MetricsHttpEndpoint implements AutoCloseable {
                 appendMetric(sb, metricName, Map.of(), e.getValue());
             }
         }
+
+        if (samples != null && !samples.isEmpty()) {
+            appendSamples(sb, samples);
+        }
         return sb.toString();
     }
 
+    private static void appendSamples(StringBuilder sb, List<MetricSample> samples) {
+        // Emit each family contiguously: HELP/TYPE once, then every sample of that name.
+        Set<String> rendered = new HashSet<>();
+        for (int i = 0; i < samples.size(); i++) {
+            String family = toMetricName(samples.get(i).family());
+            if (!rendered.add(family)) {
+                continue;
+            }
+            appendHelpType(sb, family, samples.get(i).help(), samples.get(i).type());
+            for (int j = i; j < samples.size(); j++) {
+                MetricSample sample = samples.get(j);
+                if (family.equals(toMetricName(sample.family()))) {
+                    appendMetric(sb, toMetricName(sample.name()), sample.labels(), sample.value());
+                }
+            }
+        }
+    }
+
     private static String toMetricName(String raw) {
         String normalized = METRIC_NAME_SANITIZER.matcher(raw).replaceAll("_");
         if (normalized.isBlank()) {
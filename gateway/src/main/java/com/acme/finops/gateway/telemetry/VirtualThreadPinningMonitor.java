@@ -0,0 +1,96 @@
+package com.acme.finops.gateway.telemetry;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Counts virtual-thread pinning from the JFR {@code jdk.VirtualThreadPinned} event.
+ *
+ * <p>A virtual thread that parks while holding a monitor (or inside a native frame) keeps
+ * its carrier thread blocked; enough of them stall every virtual thread in the JVM. The
+ * event fires for pins lasting at least {@code threshold}. Each one is counted, and the
+ * first {@code maxLoggedStacks} are logged with their top frames so the offending
+ * {@code synchronized} block can be found. For one-off investigation,
+ * {@code -Djdk.tracePinnedThreads=full} prints the same information to stdout.</p>
+ *
+ * <p>Events arrive on the stream's own thread, in chunks flushed about once a second.</p>
+ */
+public final class VirtualThreadPinningMonitor implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(VirtualThreadPinningMonitor.class.getName());
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Duration threshold;
+    private final int maxLoggedStacks;
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final AtomicInteger loggedStacks = new AtomicInteger();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(Duration threshold, int maxLoggedStacks) {
+        this.threshold = Objects.requireNonNull(threshold, "threshold");
+        this.maxLoggedStacks = Math.max(0, maxLoggedStacks);
+    }
+
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        RecordingStream rs = new RecordingStream();
+        rs.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        rs.onEvent(PINNED_EVENT, this::onPinned);
+        rs.startAsync();
+        stream = rs;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.increment();
+        pinnedNanos.add(event.getDuration().toNanos());
+        if (loggedStacks.getAndIncrement() < maxLoggedStacks) {
+            LOG.warning("Virtual thread pinned for " + event.getDuration().toMillis() + "ms"
+                + topFrames(event.getStackTrace()));
+        }
+    }
+
+    private static String topFrames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+            RecordedFrame f = frames.get(i);
+            sb.append("\n\tat ").append(f.getMethod().getType().getName())
+                .append('.').append(f.getMethod().getName())
+                .append(':').append(f.getLineNumber());
+        }
+        return sb.toString();
+    }
+
+    /** Pin events at or above the threshold seen so far. */
+    public long pinnedEvents() {
+        return pinnedEvents.sum();
+    }
+
+    /** Total duration of those pins. */
+    public long pinnedNanos() {
+        return pinnedNanos.sum();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.acme.finops.gateway.telemetry;
+
+import java.util.Objects;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Quantile of the values a cumulative {@link Log2Histogram} recorded since the previous
+ * call, so a slow period ages out instead of weighing on the quantile forever.
+ *
+ * <p>Each call reads one snapshot and answers the bucket upper bound of the quantile over
+ * the difference to the last one, or {@code 0} when nothing was recorded in between.
+ * Not thread-safe: meant for a single periodic sampler such as
+ * {@link com.acme.finops.gateway.backpressure.SampledPressure}.</p>
+ */
+public final class WindowedQuantile implements DoubleSupplier {
+    private final Supplier<Log2Histogram.Snapshot> source;
+    private final double quantile;
+    private Log2Histogram.Snapshot previous;
+
+    public WindowedQuantile(Supplier<Log2Histogram.Snapshot> source, double quantile) {
+        if (!(quantile > 0.0d && quantile <= 1.0d)) {
+            throw new IllegalArgumentException("quantile must be in (0, 1]: " + quantile);
+        }
+        this.source = Objects.requireNonNull(source, "source");
+        this.quantile = quantile;
+    }
+
+    @Override
+    public double getAsDouble() {
+        Log2Histogram.Snapshot current = source.get();
+        Log2Histogram.Snapshot window = previous == null ? current : current.since(previous);
+        previous = current;
+        return window.quantileUpperBound(quantile);
+    }
+}
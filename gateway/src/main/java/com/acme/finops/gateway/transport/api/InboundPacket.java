@@ -7,12 +7,21 @@ public record InboundPacket(
     ProtocolKind protocol,
     SignalKind signalKind,
     PacketRef packetRef,
-    String contentType
+    String contentType,
+    String tenantId
 ) {
     public InboundPacket(long requestId,
                          ProtocolKind protocol,
                          SignalKind signalKind,
                          PacketRef packetRef) {
-        this(requestId, protocol, signalKind, packetRef, null);
+        this(requestId, protocol, signalKind, packetRef, null, null);
+    }
+
+    public InboundPacket(long requestId,
+                         ProtocolKind protocol,
+                         SignalKind signalKind,
+                         PacketRef packetRef,
+                         String contentType) {
+        this(requestId, protocol, signalKind, packetRef, contentType, null);
     }
 }
@@ -0,0 +1,18 @@
+package com.acme.finops.gateway.transport.api;
+
+/**
+ * Extracts the tenant an inbound packet is queued and accounted under.
+ *
+ * <p>Called on the ingress thread for every enqueued packet when tenant fair queuing is
+ * enabled, so implementations must be thread-safe and cheap.
+ */
+@FunctionalInterface
+public interface TenantKeyResolver {
+    /** The adapter's tenant, from its {@code AllocationTag}. */
+    TenantKeyResolver FROM_PACKET = InboundPacket::tenantId;
+
+    /**
+     * @return the tenant key, or {@code null} if the packet carries none
+     */
+    String tenantOf(InboundPacket packet);
+}
@@ -12,9 +12,12 @@ import com.acme.finops.gateway.transport.api.TransportAck;
 import com.acme.finops.gateway.transport.api.TransportAdapter;
 import com.acme.finops.gateway.transport.api.TransportNack;
 import com.acme.finops.gateway.transport.netty.NettyPacketRefImpl;
+import com.acme.finops.gateway.util.GatewayDefaults;
 import com.acme.finops.gateway.util.GrpcProtocolConstants;
 import com.acme.finops.gateway.util.OtlpContentTypes;
 import com.acme.finops.gateway.util.OtlpEndpoints;
+import com.acme.finops.gateway.util.RequestDeadlines;
+import com.acme.finops.gateway.util.TenantHeaderCache;
 import com.acme.finops.gateway.telemetry.HotPathMetrics;
 import com.acme.finops.gateway.telemetry.NoopHotPathMetrics;
 import io.netty.bootstrap.ServerBootstrap;
@@ -40,6 +43,7 @@ import io.netty.util.ReferenceCountUtil;
 
 import java.lang.foreign.MemorySegment;
 import java.nio.ByteBuffer;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
@@ -59,6 +63,10 @@ public final class NettyOtlpGrpcAdapter implements OtlpGrpcAdapter {
     private final AtomicLong requestIds = new AtomicLong(1);
 
     private volatile InboundHandler inboundHandler = _ -> new TransportAck(200, null);
+    /** Lower-case request header naming the tenant; {@code null} to always use the allocation tag's tenant. */
+    private volatile String tenantHeader;
+    /** When set, direct payloads are copied into the allocator too, so allocator quotas see every request. */
+    private volatile boolean copyToAllocator;
 
     private volatile EventLoopGroup bossGroup;
     private volatile EventLoopGroup workerGroup;
@@ -187,9 +195,31 @@ public final class NettyOtlpGrpcAdapter implements OtlpGrpcAdapter {
         this.inboundHandler = Objects.requireNonNull(handler, "handler");
     }
 
+    /**
+     * Takes each request's tenant from {@code headerName} (gRPC metadata key) when present,
+     * instead of the allocation tag's; {@code null} or empty turns this off.
+     */
+    public void setTenantHeader(String headerName) {
+        this.tenantHeader = headerName == null || headerName.isBlank() ? null : headerName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Copies every payload into the packet allocator under the request's tenant, instead of
+     * wrapping direct buffers in place; turn on when the allocator enforces tenant quotas.
+     */
+    public void setCopyToAllocator(boolean copyToAllocator) {
+        this.copyToAllocator = copyToAllocator;
+    }
+
+    /** One instance per connection. */
     private final class GrpcStreamHandler extends ChannelInboundHandlerAdapter {
+        private final TenantHeaderCache tenantHeaders = new TenantHeaderCache();
         private Http2Headers requestHeaders;
         private ByteBuf requestBody;
+        /** From {@code grpc-timeout}, fixed when the headers arrive; {@code 0} for none. */
+        private long deadlineNanos;
+        /** From the tenant header, fixed when the headers arrive. */
+        private String tenant;
         private boolean responseSent;
 
         @Override
@@ -203,6 +233,12 @@ public final class NettyOtlpGrpcAdapter implements OtlpGrpcAdapter {
                 try {
                     if (requestHeaders == null) {
                         requestHeaders = new DefaultHttp2Headers().setAll(headersFrame.headers());
+                        deadlineNanos = RequestDeadlines.deadlineFrom(RequestDeadlines.parseGrpcTimeoutNanos(
+                            requestHeaders.get(GrpcProtocolConstants.HEADER_GRPC_TIMEOUT)), System.nanoTime());
+                        String header = tenantHeader;
+                        tenant = header == null
+                            ? allocationTag.tenantId()
+                            : tenantHeaders.tenantOf(requestHeaders.get(header), allocationTag.tenantId());
                     }
                     if (headersFrame.isEndStream()) {
                         handleRequest(ctx);
@@ -267,6 +303,7 @@ public final class NettyOtlpGrpcAdapter implements OtlpGrpcAdapter {
 
             int grpcStatus;
             String grpcMessage;
+            long pushbackMillis = 0L;
             try {
                 if (requestHeaders == null) {
                     grpcStatus = 3;
@@ -281,6 +318,7 @@ public final class NettyOtlpGrpcAdapter implements OtlpGrpcAdapter {
                     GrpcOutcome outcome = processGrpcMessages(requestBody, resolveSignalKind(requestHeaders));
                     grpcStatus = outcome.grpcStatus();
                     grpcMessage = outcome.grpcMessage();
+                    pushbackMillis = outcome.pushbackMillis();
                 }
             } catch (Throwable t) {
                 LOG.log(Level.SEVERE, "gRPC request processing failed", t);
@@ -293,9 +331,11 @@ public final class NettyOtlpGrpcAdapter implements OtlpGrpcAdapter {
                     requestBody = null;
                 }
                 requestHeaders = null;
+                deadlineNanos = 0L;
+                tenant = null;
             }
 
-            writeGrpcResponse(ctx, grpcStatus, grpcMessage);
+            writeGrpcResponse(ctx, grpcStatus, grpcMessage, pushbackMillis);
         }
 
         private GrpcOutcome processGrpcMessages(ByteBuf grpcBody, SignalKind signalKind) {
@@ -344,7 +384,7 @@ public final class NettyOtlpGrpcAdapter implements OtlpGrpcAdapter {
         private GrpcOutcome dispatchToIngress(ByteBuf payload, SignalKind signalKind) {
             PacketRef packetRef = null;
             try {
-                packetRef = toPacketRef(payload, signalKind);
+                packetRef = toPacketRef(payload, signalKind, tenant, deadlineNanos);
 
                 long requestId = requestIds.getAndIncrement();
                 var response = inboundHandler.onPacket(new InboundPacket(
@@ -352,11 +392,13 @@ public final class NettyOtlpGrpcAdapter implements OtlpGrpcAdapter {
                     ProtocolKind.OTLP_GRPC,
                     signalKind,
                     packetRef,
-                    OtlpContentTypes.PROTOBUF
+                    OtlpContentTypes.PROTOBUF,
+                    tenant
                 ));
 
                 if (response instanceof TransportNack nack) {
-                    return new GrpcOutcome(grpcStatusMapper.toGrpcStatus(nack.errorCode()), "nack-" + nack.errorCode());
+                    return new GrpcOutcome(grpcStatusMapper.toGrpcStatus(nack.errorCode()), "nack-" + nack.errorCode(),
+                        nack.retryable() ? nack.retryAfterMillis() : 0L);
                 }
                 if (response instanceof TransportAck ack && ack.responsePayload() != null) {
                     ack.responsePayload().release();
@@ -364,7 +406,9 @@ public final class NettyOtlpGrpcAdapter implements OtlpGrpcAdapter {
                 return new GrpcOutcome(0, "");
             } catch (AllocationDeniedException ade) {
                 metrics.incParseErrors(1L, ade.reasonCode());
-                return new GrpcOutcome(14, "slab_allocation_denied");
+                return ade.isQuotaExceeded()
+                    ? new GrpcOutcome(14, "allocation_quota_exceeded", GatewayDefaults.RETRY_ALLOCATION_QUOTA_MS)
+                    : new GrpcOutcome(14, "slab_allocation_denied");
             } catch (Throwable t) {
                 LOG.log(Level.WARNING, "ingress dispatch failed", t);
                 metrics.incParseErrors(1L, 13);
@@ -380,6 +424,11 @@ public final class NettyOtlpGrpcAdapter implements OtlpGrpcAdapter {
         }
 
         private void writeGrpcResponse(ChannelHandlerContext ctx, int grpcStatus, String grpcMessage) {
+            writeGrpcResponse(ctx, grpcStatus, grpcMessage, 0L);
+        }
+
+        /** @param pushbackMillis retry delay sent as {@code grpc-retry-pushback-ms}, {@code 0} for none */
+        private void writeGrpcResponse(ChannelHandlerContext ctx, int grpcStatus, String grpcMessage, long pushbackMillis) {
             Http2Headers headers = new DefaultHttp2Headers()
                 .status(GrpcProtocolConstants.VALUE_HTTP2_STATUS_OK)
                 .set(GrpcProtocolConstants.HEADER_CONTENT_TYPE, GrpcProtocolConstants.VALUE_GRPC_CONTENT_TYPE);
@@ -397,6 +446,9 @@ public final class NettyOtlpGrpcAdapter implements OtlpGrpcAdapter {
             if (grpcMessage != null && !grpcMessage.isEmpty()) {
                 trailers.set(GrpcProtocolConstants.HEADER_GRPC_MESSAGE, grpcMessage);
             }
+            if (grpcStatus != 0 && pushbackMillis > 0L) {
+                trailers.set(GrpcProtocolConstants.HEADER_GRPC_RETRY_PUSHBACK_MS, Long.toString(pushbackMillis));
+            }
             ctx.writeAndFlush(new DefaultHttp2HeadersFrame(trailers, true));
             responseSent = true;
         }
@@ -420,16 +472,16 @@ public final class NettyOtlpGrpcAdapter implements OtlpGrpcAdapter {
         }
     }
 
-    private PacketRef toPacketRef(ByteBuf buf, SignalKind signalKind) {
-        if (buf.isDirect() && buf.hasMemoryAddress()) {
-            return new NettyPacketRefImpl(buf, signalKind, ProtocolKind.OTLP_GRPC);
+    private PacketRef toPacketRef(ByteBuf buf, SignalKind signalKind, String tenant, long deadlineNanos) {
+        if (!copyToAllocator && buf.isDirect() && buf.hasMemoryAddress()) {
+            return new NettyPacketRefImpl(buf, signalKind, ProtocolKind.OTLP_GRPC, deadlineNanos, tenant);
         }
-        return copyHeapToAllocator(buf, signalKind);
+        return copyToAllocator(buf, signalKind, tenant, deadlineNanos);
     }
 
-    private PacketRef copyHeapToAllocator(ByteBuf buf, SignalKind signalKind) {
+    private PacketRef copyToAllocator(ByteBuf buf, SignalKind signalKind, String tenant, long deadlineNanos) {
         int readable = buf.readableBytes();
-        LeaseResult lease = packetAllocator.allocate(readable, allocationTagFor(signalKind));
+        LeaseResult lease = packetAllocator.allocate(readable, allocationTagFor(signalKind, tenant, deadlineNanos));
 
         PacketRef ref = switch (lease) {
             case LeaseResult.Granted granted -> granted.packetRef();
@@ -452,11 +504,12 @@ public final class NettyOtlpGrpcAdapter implements OtlpGrpcAdapter {
         }
     }
 
-    private AllocationTag allocationTagFor(SignalKind signalKind) {
+    private AllocationTag allocationTagFor(SignalKind signalKind, String tenant, long deadlineNanos) {
         return new AllocationTag(
             allocationTag.pipeline(),
-            allocationTag.tenantId(),
-            signalTypeCode(signalKind)
+            tenant == null ? allocationTag.tenantId() : tenant,
+            signalTypeCode(signalKind),
+            deadlineNanos
         );
     }
 
@@ -478,6 +531,9 @@ public final class NettyOtlpGrpcAdapter implements OtlpGrpcAdapter {
         if (gatewayErrorCode == 429) {
             return 14;
         }
+        if (gatewayErrorCode == 504) {
+            return 4;
+        }
         if (gatewayErrorCode >= 400 && gatewayErrorCode < 500) {
             return 3;
         }
@@ -487,5 +543,9 @@ public final class NettyOtlpGrpcAdapter implements OtlpGrpcAdapter {
         return 13;
     }
 
-    private record GrpcOutcome(int grpcStatus, String grpcMessage) {}
+    private record GrpcOutcome(int grpcStatus, String grpcMessage, long pushbackMillis) {
+        GrpcOutcome(int grpcStatus, String grpcMessage) {
+            this(grpcStatus, grpcMessage, 0L);
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.acme.finops.gateway.transport.http;
 
 import com.acme.finops.gateway.memory.AllocationDeniedException;
 import com.acme.finops.gateway.memory.AllocationTag;
+import com.acme.finops.gateway.memory.LeaseResult;
 import com.acme.finops.gateway.memory.PacketAllocator;
 import com.acme.finops.gateway.memory.PacketRef;
 import com.acme.finops.gateway.transport.api.InboundPacket;
@@ -15,8 +16,11 @@ import com.acme.finops.gateway.telemetry.HotPathMetrics;
 import com.acme.finops.gateway.telemetry.NoopHotPathMetrics;
 import com.acme.finops.gateway.util.GatewayDefaults;
 import com.acme.finops.gateway.util.GatewayStatusCodes;
+import com.acme.finops.gateway.util.GrpcProtocolConstants;
 import com.acme.finops.gateway.util.OtlpContentTypes;
 import com.acme.finops.gateway.util.OtlpEndpoints;
+import com.acme.finops.gateway.util.RequestDeadlines;
+import com.acme.finops.gateway.util.TenantHeaderCache;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -42,6 +46,8 @@ import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
 
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
@@ -61,6 +67,10 @@ public final class NettyOtlpHttpAdapter implements OtlpHttpProtobufAdapter {
     private final AtomicLong requestIds = new AtomicLong(1);
 
     private volatile InboundHandler inboundHandler = packet -> new TransportAck(GatewayStatusCodes.OK, null);
+    /** Request header naming the tenant; {@code null} to always use the allocation tag's tenant. */
+    private volatile String tenantHeader;
+    /** When set, payloads are copied into the allocator rather than Netty's pool, so allocator quotas see every request. */
+    private volatile boolean copyToAllocator;
 
     private volatile EventLoopGroup bossGroup;
     private volatile EventLoopGroup workerGroup;
@@ -184,7 +194,26 @@ public final class NettyOtlpHttpAdapter implements OtlpHttpProtobufAdapter {
         this.inboundHandler = Objects.requireNonNull(handler, "handler");
     }
 
+    /**
+     * Takes each request's tenant from {@code headerName} when present, instead of the
+     * allocation tag's; {@code null} or empty turns this off.
+     */
+    public void setTenantHeader(String headerName) {
+        this.tenantHeader = headerName == null || headerName.isBlank() ? null : headerName.trim();
+    }
+
+    /**
+     * Copies every payload into the packet allocator under the request's tenant, instead of
+     * wrapping or copying it with Netty's pool; turn on when the allocator enforces tenant quotas.
+     */
+    public void setCopyToAllocator(boolean copyToAllocator) {
+        this.copyToAllocator = copyToAllocator;
+    }
+
+    /** One instance per connection. */
     private final class OtlpHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+        private final TenantHeaderCache tenantHeaders = new TenantHeaderCache();
+
         @Override
         protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest req) {
             if (!req.decoderResult().isSuccess()) {
@@ -216,7 +245,8 @@ public final class NettyOtlpHttpAdapter implements OtlpHttpProtobufAdapter {
             ByteBuf payload = req.content().retainedSlice();
             PacketRef packetRef = null;
             try {
-                packetRef = toPacketRef(payload, signalKind);
+                String tenant = tenantOf(req);
+                packetRef = toPacketRef(payload, signalKind, tenant, requestDeadline(req));
                 long requestId = requestIds.getAndIncrement();
 
                 var result = inboundHandler.onPacket(new InboundPacket(
@@ -224,13 +254,15 @@ public final class NettyOtlpHttpAdapter implements OtlpHttpProtobufAdapter {
                     ProtocolKind.OTLP_HTTP_PROTO,
                     signalKind,
                     packetRef,
-                    contentType
+                    contentType,
+                    tenant
                 ));
 
                 if (result instanceof TransportNack nack) {
                     int statusCode = nack.statusCode() > 0 ? nack.statusCode() : httpStatusMapper.toHttpStatus(nack.errorCode());
                     writeResponse(ctx, req, HttpResponseStatus.valueOf(statusCode),
-                        "nack errorCode=" + nack.errorCode(), "text/plain");
+                        "nack errorCode=" + nack.errorCode(), "text/plain",
+                        nack.retryable() ? nack.retryAfterMillis() : 0L);
                 } else if (result instanceof TransportAck ack) {
                     ByteBuf body = null;
                     try {
@@ -259,8 +291,13 @@ public final class NettyOtlpHttpAdapter implements OtlpHttpProtobufAdapter {
                 }
             } catch (AllocationDeniedException ade) {
                 metrics.incParseErrors(1L, ade.reasonCode());
-                writeResponse(ctx, req, HttpResponseStatus.SERVICE_UNAVAILABLE,
-                    "slab allocation denied", "text/plain");
+                if (ade.isQuotaExceeded()) {
+                    writeResponse(ctx, req, HttpResponseStatus.TOO_MANY_REQUESTS,
+                        "allocation quota exceeded", "text/plain", GatewayDefaults.RETRY_ALLOCATION_QUOTA_MS);
+                } else {
+                    writeResponse(ctx, req, HttpResponseStatus.SERVICE_UNAVAILABLE,
+                        "slab allocation denied", "text/plain");
+                }
             } catch (Throwable t) {
                 LOG.log(Level.WARNING, "HTTP ingest failure", t);
                 metrics.incParseErrors(1L, GatewayStatusCodes.INTERNAL_ERROR);
@@ -284,16 +321,26 @@ public final class NettyOtlpHttpAdapter implements OtlpHttpProtobufAdapter {
             LOG.log(Level.SEVERE, "HTTP pipeline failure", cause);
             ctx.close();
         }
+
+        private String tenantOf(FullHttpRequest req) {
+            String header = tenantHeader;
+            return header == null
+                ? allocationTag.tenantId()
+                : tenantHeaders.tenantOf(req.headers().get(header), allocationTag.tenantId());
+        }
     }
 
-    private PacketRef toPacketRef(ByteBuf buf, SignalKind signalKind) {
+    private PacketRef toPacketRef(ByteBuf buf, SignalKind signalKind, String tenant, long deadlineNanos) {
+        if (copyToAllocator) {
+            return copyToAllocator(buf, signalKind, tenant, deadlineNanos);
+        }
         if (buf.isDirect() && buf.hasMemoryAddress()) {
-            return new NettyPacketRefImpl(buf, signalKind, ProtocolKind.OTLP_HTTP_PROTO);
+            return new NettyPacketRefImpl(buf, signalKind, ProtocolKind.OTLP_HTTP_PROTO, deadlineNanos, tenant);
         }
-        return copyToDirect(buf, signalKind);
+        return copyToDirect(buf, signalKind, tenant, deadlineNanos);
     }
 
-    private PacketRef copyToDirect(ByteBuf buf, SignalKind signalKind) {
+    private PacketRef copyToDirect(ByteBuf buf, SignalKind signalKind, String tenant, long deadlineNanos) {
         int readable = buf.readableBytes();
         if (readable == 0) {
             throw new IllegalArgumentException("empty payload");
@@ -302,17 +349,43 @@ public final class NettyOtlpHttpAdapter implements OtlpHttpProtobufAdapter {
         try {
             direct.writeBytes(buf, buf.readerIndex(), readable);
             // NettyPacketRefImpl retains the ByteBuf; finally releases our allocation ref
-            return new NettyPacketRefImpl(direct, signalKind, ProtocolKind.OTLP_HTTP_PROTO);
+            return new NettyPacketRefImpl(direct, signalKind, ProtocolKind.OTLP_HTTP_PROTO, deadlineNanos, tenant);
         } finally {
             direct.release();
         }
     }
 
-    private AllocationTag allocationTagFor(SignalKind signalKind) {
+    private PacketRef copyToAllocator(ByteBuf buf, SignalKind signalKind, String tenant, long deadlineNanos) {
+        int readable = buf.readableBytes();
+        LeaseResult lease = packetAllocator.allocate(readable, allocationTagFor(signalKind, tenant, deadlineNanos));
+
+        PacketRef ref = switch (lease) {
+            case LeaseResult.Granted granted -> granted.packetRef();
+            case LeaseResult.Denied denied -> throw new AllocationDeniedException(denied.reasonCode());
+        };
+
+        try {
+            MemorySegment dst = ref.segment().asSlice(ref.offset(), readable);
+            ByteBuffer nio = dst.asByteBuffer();
+            nio.clear();
+            nio.limit(readable);
+            buf.getBytes(buf.readerIndex(), nio);
+            return ref;
+        } catch (Throwable t) {
+            try {
+                ref.release();
+            } catch (Throwable ignored) {
+            }
+            throw t;
+        }
+    }
+
+    private AllocationTag allocationTagFor(SignalKind signalKind, String tenant, long deadlineNanos) {
         return new AllocationTag(
             allocationTag.pipeline(),
-            allocationTag.tenantId(),
-            signalTypeCode(signalKind)
+            tenant == null ? allocationTag.tenantId() : tenant,
+            signalTypeCode(signalKind),
+            deadlineNanos
         );
     }
 
@@ -349,16 +422,40 @@ public final class NettyOtlpHttpAdapter implements OtlpHttpProtobufAdapter {
         return GatewayStatusCodes.INTERNAL_ERROR;
     }
 
+    /**
+     * Deadline from the request headers: {@code grpc-timeout} (as sent through gRPC
+     * transcoding proxies), else the remaining route timeout of an Envoy front proxy.
+     * The aggregated request is complete by now, so its upload time already counts.
+     */
+    private static long requestDeadline(FullHttpRequest req) {
+        long timeoutNanos = RequestDeadlines.parseGrpcTimeoutNanos(req.headers().get(GrpcProtocolConstants.HEADER_GRPC_TIMEOUT));
+        if (timeoutNanos == RequestDeadlines.NO_TIMEOUT) {
+            timeoutNanos = RequestDeadlines.parseMillisTimeoutNanos(
+                req.headers().get(RequestDeadlines.HEADER_ENVOY_EXPECTED_TIMEOUT_MS));
+        }
+        return RequestDeadlines.deadlineFrom(timeoutNanos, System.nanoTime());
+    }
+
     private static void writeResponse(ChannelHandlerContext ctx,
                                       FullHttpRequest req,
                                       HttpResponseStatus status,
                                       String message,
                                       String contentType) {
+        writeResponse(ctx, req, status, message, contentType, 0L);
+    }
+
+    /** @param retryAfterMillis sent as {@code Retry-After} in whole seconds, {@code 0} for none */
+    private static void writeResponse(ChannelHandlerContext ctx,
+                                      FullHttpRequest req,
+                                      HttpResponseStatus status,
+                                      String message,
+                                      String contentType,
+                                      long retryAfterMillis) {
         byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
         ByteBuf buf = ctx.alloc().buffer(bytes.length);
         buf.writeBytes(bytes);
         try {
-            writeResponse(ctx, req, status, buf, contentType);
+            writeResponse(ctx, req, status, buf, contentType, retryAfterMillis);
         } finally {
             buf.release();
         }
@@ -369,8 +466,20 @@ public final class NettyOtlpHttpAdapter implements OtlpHttpProtobufAdapter {
                                       HttpResponseStatus status,
                                       ByteBuf body,
                                       String contentType) {
+        writeResponse(ctx, req, status, body, contentType, 0L);
+    }
+
+    private static void writeResponse(ChannelHandlerContext ctx,
+                                      FullHttpRequest req,
+                                      HttpResponseStatus status,
+                                      ByteBuf body,
+                                      String contentType,
+                                      long retryAfterMillis) {
         FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status, body.retainedDuplicate());
         response.headers().set(HttpHeaderNames.CONTENT_TYPE, contentType);
+        if (retryAfterMillis > 0L) {
+            response.headers().set(HttpHeaderNames.RETRY_AFTER, RequestDeadlines.retryAfterSeconds(retryAfterMillis));
+        }
         response.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
 
         boolean keepAlive = HttpUtil.isKeepAlive(req);
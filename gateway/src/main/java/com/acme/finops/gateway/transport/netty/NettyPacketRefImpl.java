@@ -1,6 +1,7 @@
 package com.acme.finops.gateway.transport.netty;
 
 import com.acme.finops.gateway.memory.PacketDescriptor;
+import com.acme.finops.gateway.memory.PacketLeakDetector;
 import com.acme.finops.gateway.memory.PacketRef;
 import com.acme.finops.gateway.transport.api.ProtocolKind;
 import com.acme.finops.gateway.transport.api.SignalKind;
@@ -21,12 +22,24 @@ public final class NettyPacketRefImpl implements PacketRef {
     private final int offset;
     private final int length;
     private final AtomicInteger refCount = new AtomicInteger(1);
+    private final PacketLeakDetector.Tracker leak;
 
     public NettyPacketRefImpl(ByteBuf byteBuf) {
         this(byteBuf, null, null);
     }
 
     public NettyPacketRefImpl(ByteBuf byteBuf, SignalKind signalKind, ProtocolKind protocolKind) {
+        this(byteBuf, signalKind, protocolKind, 0L);
+    }
+
+    /** @param deadlineNanos the client deadline, {@code 0} for none */
+    public NettyPacketRefImpl(ByteBuf byteBuf, SignalKind signalKind, ProtocolKind protocolKind, long deadlineNanos) {
+        this(byteBuf, signalKind, protocolKind, deadlineNanos, null);
+    }
+
+    /** @param tenantId the request tenant, recorded on the descriptor; {@code null} if unknown */
+    public NettyPacketRefImpl(ByteBuf byteBuf, SignalKind signalKind, ProtocolKind protocolKind, long deadlineNanos,
+                              String tenantId) {
         Objects.requireNonNull(byteBuf, "byteBuf");
         if (!byteBuf.isDirect() || !byteBuf.hasMemoryAddress()) {
             throw new IllegalArgumentException("NettyPacketRefImpl requires direct ByteBuf with memory address");
@@ -52,8 +65,11 @@ public final class NettyPacketRefImpl implements PacketRef {
             protocolKind,
             0,
             this.length,
-            System.nanoTime()
+            System.nanoTime(),
+            deadlineNanos,
+            tenantId
         );
+        this.leak = PacketLeakDetector.trackIfSampled(this, packetId);
     }
 
     @Override
@@ -104,6 +120,14 @@ public final class NettyPacketRefImpl implements PacketRef {
         }
     }
 
+    @Override
+    public PacketRef touch(String hint) {
+        if (leak != null) {
+            leak.touch(hint);
+        }
+        return this;
+    }
+
     @Override
     public boolean release() {
         while (true) {
@@ -116,6 +140,9 @@ public final class NettyPacketRefImpl implements PacketRef {
                 continue;
             }
             if (next == 0) {
+                if (leak != null) {
+                    leak.close();
+                }
                 byteBuf.release();
                 return true;
             }
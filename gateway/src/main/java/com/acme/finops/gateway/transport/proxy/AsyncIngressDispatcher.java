@@ -2,47 +2,156 @@ package com.acme.finops.gateway.transport.proxy;
 
 import com.acme.finops.gateway.backpressure.DropDecision;
 import com.acme.finops.gateway.backpressure.DropPolicy;
+import com.acme.finops.gateway.backpressure.DropReasonCode;
+import com.acme.finops.gateway.backpressure.DrainRateEstimator;
+import com.acme.finops.gateway.backpressure.PriorityLane;
 import com.acme.finops.gateway.backpressure.ThrottleDecision;
 import com.acme.finops.gateway.backpressure.ThrottleMode;
 import com.acme.finops.gateway.backpressure.ThrottleStrategy;
 import com.acme.finops.gateway.backpressure.Watermarks;
-import com.acme.finops.gateway.queue.OfferResult;
+import com.acme.finops.gateway.memory.AllocatorStats;
+import com.acme.finops.gateway.memory.PacketDescriptor;
 import com.acme.finops.gateway.queue.QueueEnvelope;
 import com.acme.finops.gateway.queue.QueueSnapshot;
+import com.acme.finops.gateway.queue.PhasedBackoffWaitStrategy;
 import com.acme.finops.gateway.queue.StripedMpscRing;
+import com.acme.finops.gateway.queue.WaitStrategy;
+import com.acme.finops.gateway.queue.Waiter;
 import com.acme.finops.gateway.telemetry.HotPathMetrics;
+import com.acme.finops.gateway.telemetry.Log2Histogram;
 import com.acme.finops.gateway.telemetry.NoopHotPathMetrics;
 import com.acme.finops.gateway.transport.api.InboundPacket;
 import com.acme.finops.gateway.transport.api.IngestResult;
+import com.acme.finops.gateway.transport.api.ProtocolKind;
+import com.acme.finops.gateway.transport.api.SignalKind;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import com.acme.finops.gateway.util.GatewayDefaults;
 import com.acme.finops.gateway.util.GatewayStatusCodes;
 
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Async ingress queue + worker dispatcher.
+ *
+ * <p>Workers drain their shards in batches of up to {@code drainBatch} envelopes. Each
+ * batch shares one {@link QueueSnapshot} and one clock read for drop decisions, and the
+ * queue-depth gauge is updated once per pass over the worker's shards.</p>
+ *
+ * <p>Worker {@code w} owns shards {@code w, w + workers, ...} of every lane. A worker that finds all of
+ * its shards empty steals one batch from the deepest shard owned by another worker, if
+ * that shard holds at least {@code stealMinDepth} envelopes ({@code 0} disables stealing).
+ * All consumption goes through {@link StripedMpscRing#tryDrain}, whose per-shard claim
+ * keeps each batch single-consumer. Envelopes of one shard may then be processed out of
+ * order across batches.</p>
+ *
+ * <p>Packets are routed by signal to {@link DispatchLane}s, each with its own ring, watermarks
+ * and throttle, so a flooded lane pauses ingress for its own signals only. Workers visit
+ * lanes in priority order and give each a quantum of {@code weight * drainBatch} envelopes
+ * per pass (deficit round robin with unit cost), so under saturation lanes share worker
+ * time by weight and an idle lane's share goes to the others. Drop decisions see the
+ * lane's depth and the total (see {@link QueueSnapshot#inLane}). A dispatcher built from
+ * a single queue is one lane that takes every signal.</p>
+ *
+ * <p>Queues carry each packet's payload length as queued bytes, and throttles see both
+ * depth and bytes ({@link ThrottleStrategy#onLoad}), so lanes with byte watermarks pause on
+ * pinned payload as well as on item count. With an allocator stats source, the byte load
+ * for overall decisions (and for a single lane's own throttle) is the larger of the
+ * queued bytes and the allocator's in-use bytes, which also counts payload held
+ * downstream of the queue. Allocator stats are sampled at most once per
+ * {@value #SLAB_SAMPLE_INTERVAL_NANOS} ns.</p>
+ *
+ * <p>Each worker records the sojourn time (enqueue to drain) of every envelope it drains
+ * in a per-lane histogram, and passes the enqueue time to
+ * {@link DropPolicy#decide(com.acme.finops.gateway.memory.PacketRef, QueueSnapshot, long, long)},
+ * so sojourn-based policies see the time the envelope actually spent queued.</p>
+ *
+ * <p>Workers report every drained batch to a per-lane {@link DrainRateEstimator}. With a
+ * {@link RetryAfterPolicy}, a refusal caused by lane load carries the time the lane needs at
+ * its measured drain rate to fall back below its low watermark (depth and, with byte
+ * watermarks, bytes), clamped and jittered by the policy, instead of a fixed per-mode
+ * interval. Until a lane has a measured rate the fixed interval is used.</p>
+ *
+ * <p>An idle worker waits according to the configured {@link WaitStrategy}; enqueue
+ * signals the owning worker through its {@link Waiter}, which only unparks a worker that
+ * is actually parked.</p>
+ *
+ * <p>With a {@link VirtualThreadExecution}, workers still drain and make drop decisions,
+ * but hand kept envelopes (or whole batches) to semaphore-bounded virtual threads that run
+ * the core processor, so it may block. Ownership of the queue's packet reference moves
+ * with the hand-off; the envelope slot is cleared as soon as it is drained.</p>
+ *
+ * <p>With {@link TenantFairQueuing}, a packet's shard is chosen by its tenant rather than its
+ * request id, so each tenant queues in one shard per lane and the per-shard drain quantum
+ * shares workers between tenants. Enqueue first reserves a unit of the tenant's bounded
+ * depth and answers {@code 429} once it is used up; dequeue returns it and records the
+ * tenant's queue delay.</p>
+ *
+ * <p>Every lane's queue must be built with {@code QueueEnvelope::new} as its slot factory. Enqueue
+ * fills the slot's envelope in place, so without tenant fair queuing the accepted path
+ * allocates nothing except the returned {@link EnqueueResult.Accepted}.</p>
  */
 public final class AsyncIngressDispatcher implements AutoCloseable {
     private static final Logger LOG = Logger.getLogger(AsyncIngressDispatcher.class.getName());
-    private static final long MIN_IDLE_PARK_NANOS = 1_000L;
-    private static final long MAX_IDLE_PARK_NANOS = 1_000_000L;
 
-    private final StripedMpscRing<QueueEnvelope> queue;
+    /** Non-capturing, so enqueue passes a shared instance and the packet as the argument. */
+    private static final StripedMpscRing.SlotWriter<QueueEnvelope, InboundPacket> ENVELOPE_WRITER =
+        (envelope, packet, shardId, seq) -> envelope.set(
+            packet, packet.packetRef().packetId(), packet.requestId(), shardId, seq, System.nanoTime());
+
+    private static final StripedMpscRing.SlotWriter<QueueEnvelope, FlowPacket> FLOW_ENVELOPE_WRITER =
+        (envelope, flowPacket, shardId, seq) -> envelope.set(
+            flowPacket.packet(), flowPacket.packet().packetRef().packetId(), flowPacket.packet().requestId(),
+            shardId, seq, System.nanoTime(), flowPacket.flow());
+
+    private static final long SLAB_SAMPLE_INTERVAL_NANOS = 1_000_000L;
+
+    /** Writer argument in fair-queuing mode: the packet and its tenant's flow slot. */
+    private record FlowPacket(InboundPacket packet, int flow) {}
+
+    private final DispatchLane[] lanes;
+    /** Lane indexes, most important first. */
+    private final int[] drainOrder;
+    /** Lane index per {@link SignalKind#ordinal()}. */
+    private final int[] laneBySignal;
+    /** Lane for packets without a signal, or whose signal no lane lists: the least important. */
+    private final int fallbackLane;
+    private final int totalCapacity;
+    private final LongAdder[] laneDequeued;
     private final int workers;
-    private final ThrottleStrategy throttleStrategy;
-    private final Watermarks watermarks;
     private final DropPolicy dropPolicy;
     private final Function<InboundPacket, IngestResult> coreProcessor;
     private final HotPathMetrics metrics;
+    private final int drainBatch;
+    private final int stealMinDepth;
+    private final WaitStrategy waitStrategy;
+    /** {@code null}: process inline on the platform workers. */
+    private final VirtualThreadExecution virtualExecution;
+    /** {@code null}: shard by request id, no per-tenant bound. */
+    private final TenantFairQueuing fairQueuing;
+    /** {@code null}: byte load is queued bytes only. */
+    private final Supplier<AllocatorStats> allocatorStats;
+    /** Per lane. */
+    private final DrainRateEstimator[] drainRates;
+    /** {@code null}: fixed retry intervals per throttle mode. */
+    private final RetryAfterPolicy retryAfter;
+    private volatile long slabInUseBytes;
+    private volatile long slabSampledNanos;
+    private volatile Waiter[] waiters = new Waiter[0];
+    private volatile WorkerCounters[] workerCounters = new WorkerCounters[0];
     private final AtomicBoolean running = new AtomicBoolean(false);
     private volatile List<Thread> workerThreads = List.of();
 
@@ -53,13 +162,172 @@ public final class AsyncIngressDispatcher implements AutoCloseable {
                                   DropPolicy dropPolicy,
                                   Function<InboundPacket, IngestResult> coreProcessor,
                                   HotPathMetrics metrics) {
-        this.queue = Objects.requireNonNull(queue, "queue");
-        this.workers = Math.max(1, workers);
-        this.throttleStrategy = Objects.requireNonNull(throttleStrategy, "throttleStrategy");
-        this.watermarks = Objects.requireNonNull(watermarks, "watermarks");
-        this.dropPolicy = Objects.requireNonNull(dropPolicy, "dropPolicy");
-        this.coreProcessor = Objects.requireNonNull(coreProcessor, "coreProcessor");
-        this.metrics = metrics == null ? NoopHotPathMetrics.INSTANCE : metrics;
+        this(new Builder(queue, throttleStrategy, watermarks, dropPolicy, coreProcessor)
+            .workers(workers)
+            .metrics(metrics));
+    }
+
+    private AsyncIngressDispatcher(Builder builder) {
+        this.lanes = builder.lanes.toArray(new DispatchLane[0]);
+        if (this.lanes.length == 0) {
+            throw new IllegalArgumentException("at least one lane is required");
+        }
+        int capacity = 0;
+        for (DispatchLane lane : this.lanes) {
+            if (!lane.queue().hasPreallocatedSlots()) {
+                throw new IllegalArgumentException("queue must be built with a QueueEnvelope slot factory");
+            }
+            capacity += lane.queue().capacity();
+        }
+        this.totalCapacity = capacity;
+        this.drainOrder = IntStream.range(0, this.lanes.length).boxed()
+            .sorted(Comparator.comparingInt(i -> this.lanes[i].config().priority()))
+            .mapToInt(Integer::intValue)
+            .toArray();
+        this.fallbackLane = drainOrder[drainOrder.length - 1];
+        this.laneBySignal = new int[SignalKind.values().length];
+        Arrays.fill(laneBySignal, -1);
+        for (int i = 0; i < this.lanes.length; i++) {
+            for (SignalKind signal : this.lanes[i].config().signals()) {
+                if (laneBySignal[signal.ordinal()] < 0) {
+                    laneBySignal[signal.ordinal()] = i;
+                }
+            }
+        }
+        for (int i = 0; i < laneBySignal.length; i++) {
+            if (laneBySignal[i] < 0) {
+                laneBySignal[i] = fallbackLane;
+            }
+        }
+        this.laneDequeued = new LongAdder[this.lanes.length];
+        for (int i = 0; i < this.lanes.length; i++) {
+            laneDequeued[i] = new LongAdder();
+        }
+        this.workers = Math.max(1, builder.workers);
+        this.dropPolicy = Objects.requireNonNull(builder.dropPolicy, "dropPolicy");
+        this.coreProcessor = Objects.requireNonNull(builder.coreProcessor, "coreProcessor");
+        this.metrics = builder.metrics == null ? NoopHotPathMetrics.INSTANCE : builder.metrics;
+        this.drainBatch = Math.max(1, builder.drainBatch);
+        this.stealMinDepth = Math.max(0, builder.stealMinDepth);
+        this.waitStrategy = builder.waitStrategy;
+        this.virtualExecution = builder.virtualExecution;
+        this.fairQueuing = builder.fairQueuing;
+        this.allocatorStats = builder.allocatorStats;
+        this.retryAfter = builder.retryAfter;
+        long halfLifeNanos = retryAfter == null
+            ? GatewayDefaults.DEFAULT_DRAIN_RATE_HALF_LIFE_MS * 1_000_000L
+            : retryAfter.rateHalfLifeNanos();
+        long nowNanos = System.nanoTime();
+        this.drainRates = new DrainRateEstimator[this.lanes.length];
+        for (int i = 0; i < this.lanes.length; i++) {
+            drainRates[i] = new DrainRateEstimator(this.lanes[i].queue().shardCount(), halfLifeNanos, nowNanos);
+        }
+    }
+
+    /**
+     * Dispatcher settings. Lanes, drop policy and core processor are required; everything
+     * else defaults to one platform worker, no metrics, the default drain batch, steal depth
+     * and phased back-off, and no virtual threads, fair queuing, allocator byte load or
+     * drain-rate retry hints.
+     */
+    public static final class Builder {
+        private final List<DispatchLane> lanes;
+        private final DropPolicy dropPolicy;
+        private final Function<InboundPacket, IngestResult> coreProcessor;
+        private int workers = 1;
+        private HotPathMetrics metrics;
+        private int drainBatch = GatewayDefaults.DEFAULT_QUEUE_DRAIN_BATCH;
+        private int stealMinDepth = GatewayDefaults.DEFAULT_QUEUE_STEAL_MIN_DEPTH;
+        private WaitStrategy waitStrategy = new PhasedBackoffWaitStrategy(GatewayDefaults.DEFAULT_QUEUE_WAIT_SPIN_NANOS,
+            GatewayDefaults.DEFAULT_QUEUE_WAIT_YIELD_NANOS, GatewayDefaults.DEFAULT_QUEUE_WAIT_MAX_PARK_NANOS);
+        private VirtualThreadExecution virtualExecution;
+        private TenantFairQueuing fairQueuing;
+        private Supplier<AllocatorStats> allocatorStats;
+        private RetryAfterPolicy retryAfter;
+
+        public Builder(List<DispatchLane> lanes,
+                       DropPolicy dropPolicy,
+                       Function<InboundPacket, IngestResult> coreProcessor) {
+            this.lanes = List.copyOf(Objects.requireNonNull(lanes, "lanes"));
+            this.dropPolicy = dropPolicy;
+            this.coreProcessor = coreProcessor;
+        }
+
+        /** A single lane over {@code queue} that takes every signal. */
+        public Builder(StripedMpscRing<QueueEnvelope> queue,
+                       ThrottleStrategy throttleStrategy,
+                       Watermarks watermarks,
+                       DropPolicy dropPolicy,
+                       Function<InboundPacket, IngestResult> coreProcessor) {
+            this(List.of(singleLane(queue, throttleStrategy, watermarks)), dropPolicy, coreProcessor);
+        }
+
+        public Builder workers(int value) {
+            this.workers = value;
+            return this;
+        }
+
+        /** {@code null} for no metrics. */
+        public Builder metrics(HotPathMetrics value) {
+            this.metrics = value;
+            return this;
+        }
+
+        public Builder drainBatch(int value) {
+            this.drainBatch = value;
+            return this;
+        }
+
+        public Builder stealMinDepth(int value) {
+            this.stealMinDepth = value;
+            return this;
+        }
+
+        public Builder waitStrategy(WaitStrategy value) {
+            this.waitStrategy = Objects.requireNonNull(value, "waitStrategy");
+            return this;
+        }
+
+        /** Run the core processor on virtual threads, or {@code null} to run it on the workers. */
+        public Builder virtualExecution(VirtualThreadExecution value) {
+            this.virtualExecution = value;
+            return this;
+        }
+
+        /** Shard by tenant with a per-tenant depth bound, or {@code null} to shard by request id. */
+        public Builder fairQueuing(TenantFairQueuing value) {
+            this.fairQueuing = value;
+            return this;
+        }
+
+        /**
+         * Source of the allocator's in-use bytes for byte watermarks, or {@code null} to
+         * throttle on queued bytes only.
+         */
+        public Builder allocatorStats(Supplier<AllocatorStats> value) {
+            this.allocatorStats = value;
+            return this;
+        }
+
+        /** Drain-rate based retry hints, or {@code null} for fixed intervals. */
+        public Builder retryAfter(RetryAfterPolicy value) {
+            this.retryAfter = value;
+            return this;
+        }
+
+        public AsyncIngressDispatcher build() {
+            return new AsyncIngressDispatcher(this);
+        }
+    }
+
+    private static DispatchLane singleLane(StripedMpscRing<QueueEnvelope> queue,
+                                           ThrottleStrategy throttleStrategy,
+                                           Watermarks watermarks) {
+        return new DispatchLane(
+            new PriorityLane("default", EnumSet.allOf(SignalKind.class), 0, 1,
+                Objects.requireNonNull(watermarks, "watermarks"),
+                Objects.requireNonNull(throttleStrategy, "throttleStrategy")),
+            Objects.requireNonNull(queue, "queue"));
     }
 
     public void start() {
@@ -67,14 +335,26 @@ public final class AsyncIngressDispatcher implements AutoCloseable {
             return;
         }
         List<Thread> started = new ArrayList<>(workers);
+        WorkerCounters[] counters = new WorkerCounters[workers];
+        for (int i = 0; i < workers; i++) {
+            counters[i] = new WorkerCounters(lanes.length);
+        }
+        workerCounters = counters;
+        Waiter[] workerWaiters = new Waiter[workers];
         for (int i = 0; i < workers; i++) {
             final int workerId = i;
-            Thread t = new Thread(() -> workerLoop(workerId), "ingress-dispatcher-" + workerId);
+            workerWaiters[i] = new Waiter(() -> hasWork(workerId));
+            Thread t = new Thread(() -> workerLoop(workerId, counters[workerId], workerWaiters[workerId]),
+                "ingress-dispatcher-" + workerId);
             t.setDaemon(true);
-            t.start();
+            workerWaiters[i].bind(t);
             started.add(t);
         }
+        waiters = workerWaiters;
         workerThreads = List.copyOf(started);
+        for (Thread t : started) {
+            t.start();
+        }
     }
 
     public EnqueueResult enqueue(InboundPacket packet) {
@@ -82,42 +362,69 @@ public final class AsyncIngressDispatcher implements AutoCloseable {
             metrics.incDropped(1L, GatewayStatusCodes.BAD_REQUEST);
             return new EnqueueResult.Rejected(GatewayStatusCodes.BAD_REQUEST, false);
         }
+        long nowNanos = System.nanoTime();
+        PacketDescriptor descriptor = packet.packetRef().descriptor();
+        if (descriptor != null && descriptor.deadlineExpired(nowNanos)) {
+            // The client has given up and will retry; accepting would ack a request nobody waits for.
+            metrics.incDropped(1L, GatewayStatusCodes.DEADLINE_EXPIRED);
+            return new EnqueueResult.Rejected(GatewayStatusCodes.GATEWAY_TIMEOUT, false);
+        }
+        int laneIndex = laneFor(packet.signalKind());
+        DispatchLane lane = lanes[laneIndex];
+        StripedMpscRing<QueueEnvelope> queue = lane.queue();
         if (!running.get() || queue.isClosed()) {
             metrics.incDropped(1L, GatewayStatusCodes.SERVICE_UNAVAILABLE);
             return new EnqueueResult.Busy(GatewayDefaults.RETRY_PAUSE_INGRESS_MS, GatewayStatusCodes.SERVICE_UNAVAILABLE);
         }
 
-        QueueSnapshot snapshot = queue.snapshot();
-        metrics.setQueueDepth(snapshot.depth());
-        ThrottleDecision throttle = throttleStrategy.onDepth(snapshot.depth(), watermarks, System.nanoTime());
+        int depth = queue.sizeApprox();
+        metrics.setQueueDepth(gaugeDepth(depth));
+        long bytes = queue.queuedBytes();
+        if (lanes.length == 1) {
+            bytes = Math.max(bytes, slabInUseBytes(nowNanos));
+        }
+        ThrottleDecision throttle = lane.config().throttle().onLoad(depth, bytes, lane.config().watermarks(), nowNanos);
         if (throttle.mode() == ThrottleMode.PAUSE_INGRESS) {
             metrics.incDropped(1L, GatewayStatusCodes.TOO_MANY_REQUESTS);
-            return new EnqueueResult.Busy(retryAfterMillis(throttle), GatewayStatusCodes.TOO_MANY_REQUESTS);
+            return new EnqueueResult.Busy(retryAfterMillis(packet, laneIndex, throttle, depth, bytes, nowNanos),
+                GatewayStatusCodes.TOO_MANY_REQUESTS);
         }
 
-        int shardId = shardFor(packet.requestId());
-        packet.packetRef().retain();
-        QueueEnvelope envelope = null;
+        int flow = QueueEnvelope.NO_FLOW;
+        int shardId;
+        if (fairQueuing == null) {
+            shardId = shardFor(packet.requestId(), queue);
+        } else {
+            flow = fairQueuing.admit(packet);
+            if (flow < 0) {
+                metrics.incDropped(1L, GatewayStatusCodes.TOO_MANY_REQUESTS);
+                return new EnqueueResult.Busy(GatewayDefaults.RETRY_SHED_AGGRESSIVE_MS, GatewayStatusCodes.TOO_MANY_REQUESTS);
+            }
+            shardId = fairQueuing.shardFor(flow, queue.shardCount());
+        }
+        boolean queued = false;
+        packet.packetRef().retain().touch("enqueue");
         try {
-            envelope = new QueueEnvelope(
-                packet,
-                packet.packetRef().packetId(),
-                packet.requestId(),
-                shardId,
-                0L,
-                System.nanoTime()
-            );
-            OfferResult offer = queue.offer(shardId, envelope);
-            if (offer instanceof OfferResult.Ok ok) {
-                metrics.setQueueDepth(queue.sizeApprox());
-                unparkWorkerForShard(shardId);
-                return new EnqueueResult.Accepted(ok.seq(), shardId, queue.sizeApprox());
+            long payloadBytes = packet.packetRef().length();
+            long seq = flow == QueueEnvelope.NO_FLOW
+                ? queue.offerInPlace(shardId, ENVELOPE_WRITER, packet, payloadBytes)
+                : queue.offerInPlace(shardId, FLOW_ENVELOPE_WRITER, new FlowPacket(packet, flow), payloadBytes);
+            if (seq > 0L) {
+                queued = true;
+                // Parked: drop the creation pin so the allocator may relocate the payload
+                // while it waits. The worker re-pins before touching it.
+                packet.packetRef().unpin();
+                depth = gaugeDepth(queue.sizeApprox());
+                metrics.setQueueDepth(depth);
+                signalWorkerForShard(shardId);
+                return new EnqueueResult.Accepted(seq, shardId, depth);
             }
             packet.packetRef().release();
-            if (offer instanceof OfferResult.Full full) {
-                metrics.setQueueDepth(full.depth());
+            if (seq == StripedMpscRing.OFFER_FULL) {
+                metrics.setQueueDepth(gaugeDepth(queue.sizeApprox()));
                 metrics.incDropped(1L, GatewayStatusCodes.TOO_MANY_REQUESTS);
-                return new EnqueueResult.Busy(retryAfterMillis(throttle), GatewayStatusCodes.TOO_MANY_REQUESTS);
+                return new EnqueueResult.Busy(retryAfterMillis(packet, laneIndex, throttle, queue.sizeApprox(),
+                    queue.queuedBytes(), nowNanos), GatewayStatusCodes.TOO_MANY_REQUESTS);
             }
             metrics.incDropped(1L, GatewayStatusCodes.SERVICE_UNAVAILABLE);
             return new EnqueueResult.Busy(GatewayDefaults.RETRY_CLOSED_MS, GatewayStatusCodes.SERVICE_UNAVAILABLE);
@@ -129,54 +436,355 @@ public final class AsyncIngressDispatcher implements AutoCloseable {
             LOG.log(Level.WARNING, "enqueue failed requestId=" + packet.requestId(), t);
             metrics.incDropped(1L, GatewayStatusCodes.INTERNAL_ERROR);
             return new EnqueueResult.Rejected(GatewayStatusCodes.INTERNAL_ERROR, true);
+        } finally {
+            if (!queued && flow != QueueEnvelope.NO_FLOW) {
+                fairQueuing.cancel(flow);
+            }
         }
     }
 
-    private void workerLoop(int workerId) {
-        int shards = queue.shardCount();
-        long idleNanos = MIN_IDLE_PARK_NANOS;
-        while (running.get() || queue.sizeApprox() > 0) {
-            boolean progressed = false;
-            for (int shard = workerId; shard < shards; shard += workers) {
-                QueueEnvelope envelope = queue.pollShard(shard);
-                if (envelope == null) {
+    private void workerLoop(int workerId, WorkerCounters counters, Waiter waiter) {
+        BatchProcessor batch = new BatchProcessor(counters.sojournMicros);
+        int idleRounds = 0;
+        while (running.get() || totalDepth() > 0) {
+            long iterationStart = System.nanoTime();
+            int processed = 0;
+            for (int laneIndex : drainOrder) {
+                processed += drainLane(laneIndex, workerId, batch);
+            }
+            if (processed == 0 && stealMinDepth > 0) {
+                int stolen = stealOnce(workerId, batch);
+                if (stolen > 0) {
+                    counters.stolen += stolen;
+                    counters.stealBatches++;
+                    processed = stolen;
+                }
+            }
+            if (processed == 0) {
+                waitStrategy.idle(waiter, idleRounds++);
+                counters.idleNanos += System.nanoTime() - iterationStart;
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            } else {
+                idleRounds = 0;
+                metrics.setQueueDepth(totalDepth());
+                counters.processed += processed;
+                counters.busyNanos += System.nanoTime() - iterationStart;
+            }
+        }
+    }
+
+    /**
+     * One DRR visit: sweeps the worker's shards of the lane until it has drained the lane's
+     * quantum ({@code weight * drainBatch}) or a sweep finds them empty. Envelopes cost one
+     * unit each, so no deficit is left over: the quantum is either spent or the lane is
+     * empty, and an empty lane forfeits its remainder. A spent quantum leaves the sweep
+     * position after the last shard served, so the next visit starts there and a deep
+     * shard cannot starve the shards behind it.
+     */
+    private int drainLane(int laneIndex, int workerId, BatchProcessor batch) {
+        StripedMpscRing<QueueEnvelope> queue = lanes[laneIndex].queue();
+        int owned = (queue.shardCount() - workerId + workers - 1) / workers;
+        if (owned <= 0) {
+            return 0;
+        }
+        long deficit = (long) lanes[laneIndex].config().weight() * drainBatch;
+        int position = batch.sweepStart[laneIndex] % owned;
+        int drained = 0;
+        int swept;
+        do {
+            swept = 0;
+            for (int k = 0; k < owned && deficit > 0; k++) {
+                int shard = workerId + position * workers;
+                position = position + 1 == owned ? 0 : position + 1;
+                batch.begin(laneIndex, shard);
+                int n = queue.tryDrain(shard, batch, (int) Math.min(deficit, drainBatch));
+                batch.end();
+                deficit -= n;
+                swept += n;
+            }
+            drained += swept;
+        } while (swept > 0 && deficit > 0);
+        batch.sweepStart[laneIndex] = position;
+        if (drained > 0) {
+            laneDequeued[laneIndex].add(drained);
+        }
+        return drained;
+    }
+
+    /** Pre-park recheck: own shards non-empty, or a shard deep enough to steal from. */
+    private boolean hasWork(int workerId) {
+        for (DispatchLane lane : lanes) {
+            StripedMpscRing<QueueEnvelope> queue = lane.queue();
+            int shards = queue.shardCount();
+            for (int shard = 0; shard < shards; shard++) {
+                int depth = queue.shardDepth(shard);
+                if (shard % workers == workerId ? depth > 0 : stealMinDepth > 0 && depth >= stealMinDepth) {
+                    return true;
+                }
+            }
+        }
+        return !running.get();
+    }
+
+    /** Drains one batch from the deepest shard, in any lane, owned by another worker, if deep enough. */
+    private int stealOnce(int workerId, BatchProcessor batch) {
+        int victimLane = -1;
+        int victim = -1;
+        int victimDepth = stealMinDepth - 1;
+        for (int laneIndex = 0; laneIndex < lanes.length; laneIndex++) {
+            StripedMpscRing<QueueEnvelope> queue = lanes[laneIndex].queue();
+            int shards = queue.shardCount();
+            for (int shard = 0; shard < shards; shard++) {
+                if (shard % workers == workerId) {
                     continue;
                 }
-                progressed = true;
-                metrics.setQueueDepth(queue.sizeApprox());
-                try {
-                    DropDecision drop = dropPolicy.decide(envelope.packet().packetRef(), queue.snapshot(), System.nanoTime());
-                    if (drop instanceof DropDecision.Drop) {
-                        metrics.incDropped(1L, GatewayStatusCodes.TOO_MANY_REQUESTS);
-                        continue;
+                int depth = queue.shardDepth(shard);
+                if (depth > victimDepth) {
+                    victimLane = laneIndex;
+                    victim = shard;
+                    victimDepth = depth;
+                }
+            }
+        }
+        if (victim < 0) {
+            return 0;
+        }
+        batch.begin(victimLane, victim);
+        int stolen = lanes[victimLane].queue().tryDrain(victim, batch, drainBatch);
+        batch.end();
+        if (stolen > 0) {
+            laneDequeued[victimLane].add(stolen);
+        }
+        return stolen;
+    }
+
+    /** Per-lane depth, dequeue counts and sojourn times, in lane order. */
+    public List<DispatchLaneStats> laneStats() {
+        WorkerCounters[] counters = workerCounters;
+        List<DispatchLaneStats> out = new ArrayList<>(lanes.length);
+        for (int i = 0; i < lanes.length; i++) {
+            PriorityLane config = lanes[i].config();
+            StripedMpscRing<QueueEnvelope> queue = lanes[i].queue();
+            Log2Histogram.Snapshot sojourn = Log2Histogram.Snapshot.empty(GatewayDefaults.QUEUE_SOJOURN_HISTOGRAM_BUCKETS);
+            for (WorkerCounters c : counters) {
+                sojourn = sojourn.merge(c.sojournMicros[i].snapshot());
+            }
+            DrainRateEstimator rates = drainRates[i];
+            rates.tick(System.nanoTime());
+            int depth = queue.sizeApprox();
+            long queuedBytes = queue.queuedBytes();
+            out.add(new DispatchLaneStats(i, config.name(), config.priority(), config.weight(),
+                depth, queue.capacity(), queuedBytes, laneDequeued[i].sum(), sojourn,
+                Math.round(rates.itemsPerSecond()), Math.round(rates.bytesPerSecond()),
+                millisToLow(i, depth, queuedBytes)));
+        }
+        return out;
+    }
+
+    /** Per-worker counter snapshot, in worker order. Empty before {@link #start()}. */
+    public List<DispatcherWorkerStats> workerStats() {
+        WorkerCounters[] counters = workerCounters;
+        List<DispatcherWorkerStats> out = new ArrayList<>(counters.length);
+        for (int i = 0; i < counters.length; i++) {
+            WorkerCounters c = counters[i];
+            out.add(new DispatcherWorkerStats(i, c.processed, c.stolen, c.stealBatches, c.busyNanos, c.idleNanos));
+        }
+        return out;
+    }
+
+    /**
+     * Written only by the owning worker thread; volatile so scrapes see recent values.
+     * Read-modify-write without atomics is safe because there is a single writer.
+     */
+    private static final class WorkerCounters {
+        volatile long processed;
+        volatile long stolen;
+        volatile long stealBatches;
+        volatile long busyNanos;
+        volatile long idleNanos;
+        /** Per lane, sojourn of drained envelopes in microseconds. */
+        final Log2Histogram[] sojournMicros;
+
+        WorkerCounters(int lanes) {
+            sojournMicros = new Log2Histogram[lanes];
+            for (int i = 0; i < lanes; i++) {
+                sojournMicros[i] = new Log2Histogram(GatewayDefaults.QUEUE_SOJOURN_HISTOGRAM_BUCKETS);
+            }
+        }
+    }
+
+    /**
+     * Per-worker drain callback. Reused across batches; the queue snapshot and clock
+     * are read lazily on the first envelope of a batch and shared by the rest of it.
+     * Never throws, so a drained run is always fully processed or handed off.
+     */
+    private final class BatchProcessor implements Consumer<QueueEnvelope> {
+        /** Kept packets of the current batch; only in {@link VirtualThreadExecution.Granularity#BATCH} mode. */
+        private final List<InboundPacket> pending = virtualExecution != null
+            && virtualExecution.granularity() == VirtualThreadExecution.Granularity.BATCH
+            ? new ArrayList<>(drainBatch) : null;
+        /** Per lane, the position among this worker's shards where the next DRR visit starts. */
+        final int[] sweepStart = new int[lanes.length];
+        private final Log2Histogram[] sojournMicros;
+        private int lane;
+        private int shard;
+        private int drainedItems;
+        private long drainedBytes;
+        private QueueSnapshot snapshot;
+        private long nowNanos;
+
+        BatchProcessor(Log2Histogram[] sojournMicros) {
+            this.sojournMicros = sojournMicros;
+        }
+
+        void begin(int lane, int shard) {
+            this.lane = lane;
+            this.shard = shard;
+            drainedItems = 0;
+            drainedBytes = 0L;
+            snapshot = null;
+        }
+
+        /**
+         * Reports the batch to the lane's drain rate and, in batch mode, hands its kept
+         * packets to one virtual thread.
+         */
+        void end() {
+            if (drainedItems > 0) {
+                drainRates[lane].onDrained(shard, drainedItems, drainedBytes, nowNanos);
+            }
+            if (pending == null || pending.isEmpty()) {
+                return;
+            }
+            List<InboundPacket> owned = List.copyOf(pending);
+            pending.clear();
+            try {
+                virtualExecution.submit(() -> {
+                    for (InboundPacket packet : owned) {
+                        processOwned(packet);
                     }
-                    coreProcessor.apply(envelope.packet());
-                } catch (Throwable t) {
-                    LOG.log(Level.WARNING, "dispatcher worker failure requestId=" + envelope.requestId(), t);
+                });
+            } catch (Throwable t) {
+                LOG.log(Level.WARNING, "virtual thread hand-off failed for " + owned.size() + " packets", t);
+                for (InboundPacket packet : owned) {
                     metrics.incDropped(1L, GatewayStatusCodes.INTERNAL_ERROR);
-                } finally {
-                    try {
-                        envelope.packet().packetRef().release();
-                    } catch (Throwable releaseError) {
-                        LOG.log(Level.WARNING, "Failed to release queue-owned packetRef requestId=" + envelope.requestId(), releaseError);
-                    }
+                    releaseQueueRef(packet);
                 }
             }
-            if (!progressed) {
-                LockSupport.parkNanos(idleNanos);
-                idleNanos = Math.min(idleNanos << 1, MAX_IDLE_PARK_NANOS);
-                if (Thread.currentThread().isInterrupted()) {
+        }
+
+        @Override
+        public void accept(QueueEnvelope envelope) {
+            if (snapshot == null) {
+                snapshot = laneSnapshot(lane);
+                nowNanos = System.nanoTime();
+            }
+            InboundPacket packet = envelope.packet();
+            long payloadBytes = packet.packetRef().length();
+            lanes[lane].queue().releaseBytes(envelope.shardId(), payloadBytes);
+            drainedItems++;
+            drainedBytes += payloadBytes;
+            long sojournNanos = nowNanos - envelope.enqueueNanos();
+            sojournMicros[lane].record(sojournNanos / 1_000L);
+            if (envelope.flow() != QueueEnvelope.NO_FLOW) {
+                fairQueuing.onDequeue(envelope.flow(), sojournNanos);
+            }
+            boolean handedOff = false;
+            try {
+                packet.packetRef().pin();
+                DropDecision drop = dropPolicy.decide(packet.packetRef(), snapshot, nowNanos, envelope.enqueueNanos());
+                if (drop instanceof DropDecision.Drop dropped) {
+                    metrics.incDropped(1L, dropped.reason() == DropReasonCode.DEADLINE_EXPIRED
+                        ? GatewayStatusCodes.DEADLINE_EXPIRED
+                        : GatewayStatusCodes.TOO_MANY_REQUESTS);
                     return;
                 }
-            } else {
-                idleNanos = MIN_IDLE_PARK_NANOS;
+                if (virtualExecution == null) {
+                    coreProcessor.apply(packet);
+                } else if (pending != null) {
+                    pending.add(packet);
+                    handedOff = true;
+                } else {
+                    virtualExecution.submit(() -> processOwned(packet));
+                    handedOff = true;
+                }
+            } catch (Throwable t) {
+                LOG.log(Level.WARNING, "dispatcher worker failure requestId=" + envelope.requestId(), t);
+                metrics.incDropped(1L, GatewayStatusCodes.INTERNAL_ERROR);
+            } finally {
+                try {
+                    if (!handedOff) {
+                        releaseQueueRef(packet);
+                    }
+                } finally {
+                    envelope.clear();
+                }
             }
         }
     }
 
+    private QueueSnapshot laneSnapshot(int laneIndex) {
+        QueueSnapshot snapshot = lanes[laneIndex].queue().snapshot();
+        if (lanes.length == 1) {
+            return allocatorStats == null
+                ? snapshot
+                : snapshot.withTotalBytes(Math.max(snapshot.queuedBytes(), slabInUseBytes(snapshot.tsNanos())));
+        }
+        long totalBytes = 0L;
+        for (DispatchLane lane : lanes) {
+            totalBytes += lane.queue().queuedBytes();
+        }
+        return snapshot.inLane(laneIndex, lanes[laneIndex].config().priority(), totalDepth(), totalCapacity,
+            Math.max(totalBytes, slabInUseBytes(snapshot.tsNanos())));
+    }
+
+    /** Allocator in-use bytes, re-read when the cached sample is older than the sample interval. */
+    private long slabInUseBytes(long nowNanos) {
+        if (allocatorStats == null) {
+            return 0L;
+        }
+        if (nowNanos - slabSampledNanos >= SLAB_SAMPLE_INTERVAL_NANOS) {
+            slabSampledNanos = nowNanos;
+            try {
+                slabInUseBytes = allocatorStats.get().inUseBytes();
+            } catch (RuntimeException e) {
+                LOG.log(Level.FINE, "allocator stats unavailable", e);
+            }
+        }
+        return slabInUseBytes;
+    }
+
+    /** Virtual-thread side of a hand-off: owns the packet's queue reference and pin. */
+    private void processOwned(InboundPacket packet) {
+        try {
+            coreProcessor.apply(packet);
+        } catch (Throwable t) {
+            LOG.log(Level.WARNING, "virtual thread processing failure requestId=" + packet.requestId(), t);
+            metrics.incDropped(1L, GatewayStatusCodes.INTERNAL_ERROR);
+        } finally {
+            releaseQueueRef(packet);
+        }
+    }
+
+    private static void releaseQueueRef(InboundPacket packet) {
+        try {
+            packet.packetRef().unpin();
+            packet.packetRef().release();
+        } catch (Throwable releaseError) {
+            LOG.log(Level.WARNING, "Failed to release queue-owned packetRef requestId=" + packet.requestId(), releaseError);
+        }
+    }
+
     public void stopAndDrain(Duration timeout) {
         running.set(false);
-        queue.close();
+        for (DispatchLane lane : lanes) {
+            lane.queue().close();
+        }
+        for (Waiter waiter : waiters) {
+            waiter.wakeUnconditionally();
+        }
         long deadlineNanos = System.nanoTime() + Math.max(1L, timeout.toNanos());
         List<Thread> threads = workerThreads;
         for (Thread t : threads) {
@@ -191,27 +799,49 @@ public final class AsyncIngressDispatcher implements AutoCloseable {
                 break;
             }
         }
-        if (!queue.isDrained() || !queue.validateInvariants()) {
-            LOG.warning("dispatcher drain completed with non-empty or inconsistent queue state"
-                + " depth=" + queue.sizeApprox()
-                + " invariants=" + queue.validateInvariants());
+        if (virtualExecution != null
+            && !virtualExecution.awaitQuiescence(deadlineNanos - System.nanoTime())) {
+            LOG.warning("dispatcher drain timed out with virtual threads still running"
+                + " inFlight=" + virtualExecution.stats().inFlight());
+        }
+        for (DispatchLane lane : lanes) {
+            StripedMpscRing<QueueEnvelope> queue = lane.queue();
+            if (!queue.isDrained() || !queue.validateInvariants()) {
+                LOG.warning("dispatcher drain completed with non-empty or inconsistent queue state"
+                    + " lane=" + lane.config().name()
+                    + " depth=" + queue.sizeApprox()
+                    + " invariants=" + queue.validateInvariants());
+            }
+        }
+    }
+
+    private int laneFor(SignalKind signal) {
+        return signal == null ? fallbackLane : laneBySignal[signal.ordinal()];
+    }
+
+    private int totalDepth() {
+        int depth = 0;
+        for (DispatchLane lane : lanes) {
+            depth += lane.queue().sizeApprox();
         }
+        return depth;
     }
 
-    private int shardFor(long requestId) {
+    /** Depth reported to the queue-depth gauge: the lane's own when it is the only one. */
+    private int gaugeDepth(int laneDepth) {
+        return lanes.length == 1 ? laneDepth : totalDepth();
+    }
+
+    private static int shardFor(long requestId, StripedMpscRing<QueueEnvelope> queue) {
         return Math.floorMod(Long.hashCode(requestId), queue.shardCount());
     }
 
-    private void unparkWorkerForShard(int shardId) {
-        List<Thread> threads = workerThreads;
-        int size = threads.size();
-        if (size == 0) {
+    private void signalWorkerForShard(int shardId) {
+        Waiter[] current = waiters;
+        if (current.length == 0) {
             return;
         }
-        Thread worker = threads.get(Math.floorMod(shardId, size));
-        if (worker != null) {
-            LockSupport.unpark(worker);
-        }
+        waitStrategy.signal(current[Math.floorMod(shardId, current.length)]);
     }
 
     @Override
@@ -219,6 +849,30 @@ public final class AsyncIngressDispatcher implements AutoCloseable {
         stopAndDrain(Duration.ofSeconds(5));
     }
 
+    /**
+     * Retry hint for a refusal on lane load: the expected time to drain below the low
+     * watermark under the {@link RetryAfterPolicy}, or the fixed interval without one or
+     * before the lane has a measured rate. HTTP hints are jittered in whole seconds, the
+     * resolution of {@code Retry-After}.
+     */
+    private long retryAfterMillis(InboundPacket packet, int laneIndex, ThrottleDecision throttle,
+                                  int depth, long bytes, long nowNanos) {
+        if (retryAfter == null) {
+            return retryAfterMillis(throttle);
+        }
+        drainRates[laneIndex].tick(nowNanos);
+        long estimate = millisToLow(laneIndex, depth, bytes);
+        return retryAfter.retryAfterMillis(estimate < 0L ? retryAfterMillis(throttle) : estimate,
+            packet.protocol() == ProtocolKind.OTLP_HTTP_PROTO);
+    }
+
+    /** Expected milliseconds for the lane to drain below its low watermark, {@code -1} if unknown. */
+    private long millisToLow(int laneIndex, int depth, long bytes) {
+        Watermarks watermarks = lanes[laneIndex].config().watermarks();
+        long excessBytes = watermarks.lowBytes() == Watermarks.NO_BYTE_LIMIT ? 0L : bytes - watermarks.lowBytes();
+        return drainRates[laneIndex].millisToDrain((long) depth - watermarks.low(), excessBytes);
+    }
+
     private static long retryAfterMillis(ThrottleDecision throttleDecision) {
         if (throttleDecision.mode() == ThrottleMode.PAUSE_INGRESS) {
             return Math.max(1L, throttleDecision.pauseNanos() / 1_000_000L);
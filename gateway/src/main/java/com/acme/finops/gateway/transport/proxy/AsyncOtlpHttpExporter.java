@@ -1,6 +1,7 @@
 package com.acme.finops.gateway.transport.proxy;
 
 import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.telemetry.Log2Histogram;
 import com.acme.finops.gateway.transport.api.SignalKind;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
@@ -43,6 +44,21 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Asynchronous OTLP/HTTP client with a bounded number of in-flight exports over pooled
+ * keep-alive connections.
+ *
+ * <p>With {@code dropExpired}, packets whose client deadline
+ * ({@link com.acme.finops.gateway.memory.PacketDescriptor#deadlineNanos()}) has passed are
+ * not sent: the export fails with {@link ExportDeadlineExceededException}, checked before
+ * taking an in-flight permit and again once a pooled connection is acquired.</p>
+ *
+ * <p>A {@link PacketRef} payload is retained from {@code exportAsync} until its request has
+ * been written, and pinned only while it is written: an export waiting for a pooled
+ * connection does not keep the packet in place, and one waiting for a slow upstream's
+ * response does not hold the packet at all. A relocatable slab can therefore compact or
+ * free the regions behind in-flight exports.</p>
+ */
 public final class AsyncOtlpHttpExporter implements AutoCloseable {
     private static final int RESPONSE_LIMIT = GatewayDefaults.EXPORTER_RESPONSE_LIMIT;
     private static final int DEFAULT_RESPONSE_TIMEOUT_MILLIS = GatewayDefaults.DEFAULT_RESPONSE_TIMEOUT_MS;
@@ -56,8 +72,11 @@ public final class AsyncOtlpHttpExporter implements AutoCloseable {
     private final Bootstrap bootstrap;
     private final SslContext sslContext;
     private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final Log2Histogram latencyMicros = new Log2Histogram(GatewayDefaults.EXPORTER_LATENCY_HISTOGRAM_BUCKETS);
     private final int responseTimeoutMillis;
     private final int poolSize;
+    private final boolean dropExpired;
     private final ConcurrentHashMap<String, SimpleChannelPool> pools = new ConcurrentHashMap<>();
 
     public AsyncOtlpHttpExporter(URI tracesUri,
@@ -98,13 +117,30 @@ public final class AsyncOtlpHttpExporter implements AutoCloseable {
                                  int responseTimeoutMillis,
                                  int ioThreads,
                                  int poolSize) {
+        this(tracesUri, metricsUri, logsUri, staticHeaders, maxInFlight, responseTimeoutMillis, ioThreads, poolSize, false);
+    }
+
+    /**
+     * @param dropExpired skip packets whose client deadline has passed instead of sending them
+     */
+    public AsyncOtlpHttpExporter(URI tracesUri,
+                                 URI metricsUri,
+                                 URI logsUri,
+                                 Map<String, String> staticHeaders,
+                                 int maxInFlight,
+                                 int responseTimeoutMillis,
+                                 int ioThreads,
+                                 int poolSize,
+                                 boolean dropExpired) {
         this.tracesUri = Objects.requireNonNull(tracesUri, "tracesUri");
         this.metricsUri = Objects.requireNonNull(metricsUri, "metricsUri");
         this.logsUri = Objects.requireNonNull(logsUri, "logsUri");
         this.staticHeaders = Map.copyOf(staticHeaders == null ? Map.of() : staticHeaders);
-        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.inFlight = new Semaphore(this.maxInFlight);
         this.responseTimeoutMillis = Math.max(1, responseTimeoutMillis);
         this.poolSize = Math.max(1, poolSize);
+        this.dropExpired = dropExpired;
 
         int threads = ioThreads > 0 ? ioThreads : Math.max(2, Runtime.getRuntime().availableProcessors());
         this.ioGroup = new NioEventLoopGroup(threads);
@@ -124,61 +160,73 @@ public final class AsyncOtlpHttpExporter implements AutoCloseable {
     }
 
     public CompletableFuture<Integer> exportAsync(SignalKind signalKind, byte[] payload, String contentType) {
-        return exportAsync(signalKind, Unpooled.wrappedBuffer(payload), payload.length, contentType, () -> { });
+        return exportAsync(signalKind, new ExportBody(Unpooled.wrappedBuffer(payload), payload.length), contentType, 0L);
     }
 
     public CompletableFuture<Integer> exportAsync(SignalKind signalKind, PacketRef packetRef, String contentType) {
         Objects.requireNonNull(packetRef, "packetRef");
-        packetRef.retain();
-        try {
-            ByteBuf payload = Unpooled.wrappedBuffer(
-                packetRef.segment().asSlice(packetRef.offset(), packetRef.length()).asByteBuffer()
-            );
-            return exportAsync(signalKind, payload, packetRef.length(), contentType, packetRef::release);
-        } catch (Throwable t) {
-            packetRef.release();
-            throw t;
+        long deadlineNanos = dropExpired && packetRef.descriptor() != null ? packetRef.descriptor().deadlineNanos() : 0L;
+        if (deadlineNanos != 0L && System.nanoTime() - deadlineNanos >= 0L) {
+            return CompletableFuture.failedFuture(new ExportDeadlineExceededException());
         }
+        packetRef.retain().touch("export");
+        return exportAsync(signalKind, new ExportBody(packetRef), contentType, deadlineNanos);
     }
 
     private CompletableFuture<Integer> exportAsync(SignalKind signalKind,
-                                                   ByteBuf payload,
-                                                   int payloadLength,
+                                                   ExportBody body,
                                                    String contentType,
-                                                   Runnable completionCleanup) {
-        URI target = resolveTarget(signalKind);
+                                                   long deadlineNanos) {
+        URI target;
+        SimpleChannelPool pool;
+        try {
+            target = resolveTarget(signalKind);
+            String host = Objects.requireNonNull(target.getHost(), "target host required");
+            pool = poolFor(host, resolvePort(target), isHttps(target));
+        } catch (Throwable t) {
+            body.close();
+            throw t;
+        }
 
         CompletableFuture<Integer> result = new CompletableFuture<>();
         if (!inFlight.tryAcquire()) {
-            payload.release();
-            completionCleanup.run();
+            body.close();
             result.completeExceptionally(new IllegalStateException("too many in-flight exports"));
             return result;
         }
         AtomicReference<ScheduledFuture<?>> timeoutFutureRef = new AtomicReference<>();
-        String host = Objects.requireNonNull(target.getHost(), "target host required");
-        int port = resolvePort(target);
-        boolean https = isHttps(target);
-
-        SimpleChannelPool pool = poolFor(host, port, https);
 
+        long startNanos = System.nanoTime();
         result.whenComplete((ignored, error) -> {
+            latencyMicros.record((System.nanoTime() - startNanos) / 1_000L);
             ScheduledFuture<?> timeoutFuture = timeoutFutureRef.getAndSet(null);
             if (timeoutFuture != null) {
                 timeoutFuture.cancel(false);
             }
             inFlight.release();
-            completionCleanup.run();
+            body.close();
         });
 
         pool.acquire().addListener((FutureListener<Channel>) acquireFuture -> {
             if (!acquireFuture.isSuccess()) {
-                payload.release();
                 result.completeExceptionally(acquireFuture.cause());
                 return;
             }
 
             Channel ch = acquireFuture.getNow();
+            if (deadlineNanos != 0L && System.nanoTime() - deadlineNanos >= 0L) {
+                // Expired while waiting for a connection.
+                pool.release(ch);
+                result.completeExceptionally(new ExportDeadlineExceededException());
+                return;
+            }
+
+            ByteBuf payload = body.open();
+            if (payload == null) {
+                // The export ended (e.g. was cancelled) while waiting for the connection.
+                pool.release(ch);
+                return;
+            }
 
             // Add per-request response handler
             ch.pipeline().addLast("export-response", new ExportResponseHandler(result, pool, ch));
@@ -203,12 +251,14 @@ public final class AsyncOtlpHttpExporter implements AutoCloseable {
             req.headers().set(HttpHeaderNames.HOST, hostHeader(target));
             req.headers().set(HttpHeaderNames.CONNECTION, "keep-alive");
             req.headers().set(HttpHeaderNames.CONTENT_TYPE, contentType);
-            req.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, payloadLength);
+            req.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, body.length());
             req.headers().set(HttpHeaderNames.USER_AGENT, "otel-gateway-proxy/1");
             for (Map.Entry<String, String> e : staticHeaders.entrySet()) {
                 req.headers().set(e.getKey(), e.getValue());
             }
             ch.writeAndFlush(req).addListener((ChannelFutureListener) writeFuture -> {
+                // Written or failed, Netty is done with the buffer: the packet can go.
+                body.close();
                 if (!writeFuture.isSuccess()) {
                     // Netty's pipeline already releases the message on write failure,
                     // so do NOT call ReferenceCountUtil.safeRelease(req) here — that
@@ -222,6 +272,11 @@ public final class AsyncOtlpHttpExporter implements AutoCloseable {
         return result;
     }
 
+    /** In-flight usage and completion latency, for metrics and upstream-aware throttling. */
+    public ExporterStats stats() {
+        return new ExporterStats(maxInFlight - inFlight.availablePermits(), maxInFlight, latencyMicros.snapshot());
+    }
+
     private SimpleChannelPool poolFor(String host, int port, boolean https) {
         String key = host + ":" + port;
         return pools.computeIfAbsent(key, k -> {
@@ -251,6 +306,73 @@ public final class AsyncOtlpHttpExporter implements AutoCloseable {
         ioGroup.shutdownGracefully().syncUninterruptibly();
     }
 
+    /**
+     * Request body of one export: a heap buffer, or a retained packet that is pinned and
+     * wrapped only once a connection is ready to write it. {@link #close()} runs once, after
+     * the write or when the export ends without one, and drops whatever is still held.
+     */
+    private static final class ExportBody {
+        private static final int NEW = 0;
+        private static final int OPEN = 1;
+        private static final int CLOSED = 2;
+
+        private final PacketRef packetRef;
+        private final ByteBuf heap;
+        private final int length;
+        private int state = NEW;
+
+        ExportBody(PacketRef packetRef) {
+            this.packetRef = packetRef;
+            this.heap = null;
+            this.length = packetRef.length();
+        }
+
+        ExportBody(ByteBuf heap, int length) {
+            this.packetRef = null;
+            this.heap = heap;
+            this.length = length;
+        }
+
+        int length() {
+            return length;
+        }
+
+        /**
+         * The buffer to write, owned by the request from here on, or {@code null} if the
+         * export has already ended.
+         */
+        synchronized ByteBuf open() {
+            if (state != NEW) {
+                return null;
+            }
+            state = OPEN;
+            if (packetRef == null) {
+                return heap;
+            }
+            // The wrapped ByteBuf aliases the segment, so it must not move until written.
+            packetRef.pin();
+            return Unpooled.wrappedBuffer(packetRef.segment().asSlice(packetRef.offset(), length).asByteBuffer());
+        }
+
+        synchronized void close() {
+            int previous = state;
+            state = CLOSED;
+            if (previous == CLOSED) {
+                return;
+            }
+            if (packetRef == null) {
+                if (previous == NEW) {
+                    heap.release();
+                }
+                return;
+            }
+            if (previous == OPEN) {
+                packetRef.unpin();
+            }
+            packetRef.release();
+        }
+    }
+
     private final class ExporterChannelPoolHandler implements ChannelPoolHandler {
         private final String host;
         private final int port;
@@ -0,0 +1,20 @@
+package com.acme.finops.gateway.transport.proxy;
+
+import com.acme.finops.gateway.backpressure.PriorityLane;
+import com.acme.finops.gateway.queue.QueueEnvelope;
+import com.acme.finops.gateway.queue.StripedMpscRing;
+
+import java.util.Objects;
+
+/**
+ * A {@link PriorityLane} bound to the queue that holds its envelopes.
+ *
+ * @param config lane routing, weight and watermarks
+ * @param queue  the lane's own ring, built with a {@code QueueEnvelope::new} slot factory
+ */
+public record DispatchLane(PriorityLane config, StripedMpscRing<QueueEnvelope> queue) {
+    public DispatchLane {
+        Objects.requireNonNull(config, "config");
+        Objects.requireNonNull(queue, "queue");
+    }
+}
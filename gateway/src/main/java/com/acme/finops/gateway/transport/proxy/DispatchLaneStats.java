@@ -0,0 +1,36 @@
+package com.acme.finops.gateway.transport.proxy;
+
+import com.acme.finops.gateway.telemetry.Log2Histogram;
+
+/**
+ * Point-in-time counters for one {@link AsyncIngressDispatcher} lane.
+ *
+ * @param lane      lane index
+ * @param name      configured lane name
+ * @param priority  shedding priority, {@code 0} most important
+ * @param weight    scheduling weight
+ * @param depth     envelopes currently queued
+ * @param capacity  lane queue capacity
+ * @param queuedBytes payload bytes of the queued envelopes
+ * @param dequeued  envelopes drained by workers, kept or dropped
+ * @param sojournMicros time drained envelopes spent queued, in microseconds
+ * @param drainPerSecond      EWMA of envelopes drained per second
+ * @param drainBytesPerSecond EWMA of payload bytes drained per second
+ * @param millisToLow expected time to drain below the low watermark at the current rate,
+ *                    {@code 0} when already below, {@code -1} before a rate is known
+ */
+public record DispatchLaneStats(
+    int lane,
+    String name,
+    int priority,
+    int weight,
+    int depth,
+    int capacity,
+    long queuedBytes,
+    long dequeued,
+    Log2Histogram.Snapshot sojournMicros,
+    long drainPerSecond,
+    long drainBytesPerSecond,
+    long millisToLow
+) {
+}
@@ -0,0 +1,26 @@
+package com.acme.finops.gateway.transport.proxy;
+
+/**
+ * Point-in-time counters for one {@link AsyncIngressDispatcher} worker.
+ *
+ * @param worker        worker index
+ * @param processed     envelopes processed, own and stolen
+ * @param stolen        envelopes taken from shards owned by other workers
+ * @param stealBatches  successful steal attempts
+ * @param busyNanos     time spent in loop iterations that processed work
+ * @param idleNanos     time spent in iterations that found nothing, including the park
+ */
+public record DispatcherWorkerStats(
+    int worker,
+    long processed,
+    long stolen,
+    long stealBatches,
+    long busyNanos,
+    long idleNanos
+) {
+    /** Busy share of the worker's lifetime so far, {@code [0, 1]}. */
+    public double utilization() {
+        long total = busyNanos + idleNanos;
+        return total == 0 ? 0.0d : (double) busyNanos / total;
+    }
+}
@@ -0,0 +1,10 @@
+package com.acme.finops.gateway.transport.proxy;
+
+/**
+ * Export skipped because the packet's client deadline passed before it was sent.
+ */
+public final class ExportDeadlineExceededException extends RuntimeException {
+    public ExportDeadlineExceededException() {
+        super("client deadline expired before export", null, false, false);
+    }
+}
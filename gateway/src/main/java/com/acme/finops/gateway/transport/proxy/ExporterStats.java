@@ -0,0 +1,17 @@
+package com.acme.finops.gateway.transport.proxy;
+
+import com.acme.finops.gateway.telemetry.Log2Histogram;
+
+/**
+ * Point-in-time view of an {@link AsyncOtlpHttpExporter}.
+ *
+ * @param inFlight       exports holding an in-flight permit
+ * @param maxInFlight    in-flight limit
+ * @param latencyMicros  time from taking a permit to completion, in microseconds, cumulative
+ */
+public record ExporterStats(int inFlight, int maxInFlight, Log2Histogram.Snapshot latencyMicros) {
+    /** Share of the in-flight limit in use, in {@code [0, 1]}. */
+    public double inFlightRatio() {
+        return maxInFlight <= 0 ? 0.0d : (double) inFlight / maxInFlight;
+    }
+}
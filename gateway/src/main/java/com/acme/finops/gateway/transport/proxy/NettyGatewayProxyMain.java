@@ -3,31 +3,70 @@ package com.acme.finops.gateway.transport.proxy;
 import com.acme.finops.gateway.audit.AsyncFileAuditSink;
 import com.acme.finops.gateway.audit.AuditSink;
 import com.acme.finops.gateway.audit.NoopAuditSink;
+import com.acme.finops.gateway.backpressure.CoDelDropPolicy;
+import com.acme.finops.gateway.backpressure.DeadlineDropPolicy;
+import com.acme.finops.gateway.backpressure.CoDelLaneStats;
+import com.acme.finops.gateway.backpressure.CompositeThrottleStats;
+import com.acme.finops.gateway.backpressure.CompositeThrottleStrategy;
+import com.acme.finops.gateway.backpressure.DropPolicy;
+import com.acme.finops.gateway.backpressure.PriorityLane;
+import com.acme.finops.gateway.backpressure.PriorityLaneSpec;
+import com.acme.finops.gateway.backpressure.PressureInput;
+import com.acme.finops.gateway.backpressure.PressureLevels;
+import com.acme.finops.gateway.backpressure.PressureSource;
 import com.acme.finops.gateway.backpressure.QueueAwareDropPolicy;
+import com.acme.finops.gateway.backpressure.SampledPressure;
 import com.acme.finops.gateway.backpressure.ThrottleStrategy;
 import com.acme.finops.gateway.backpressure.WatermarkThrottleStrategy;
 import com.acme.finops.gateway.backpressure.Watermarks;
+import com.acme.finops.gateway.cluster.QuotaExchangeStats;
+import com.acme.finops.gateway.cluster.QuotaPeerExchange;
+import com.acme.finops.gateway.memory.AllocationQuotaConfig;
+import com.acme.finops.gateway.memory.AllocationQuotas;
 import com.acme.finops.gateway.memory.AllocationTag;
+import com.acme.finops.gateway.memory.CompactionResult;
+import com.acme.finops.gateway.memory.ElasticSlabConfig;
+import com.acme.finops.gateway.memory.ElasticSlabPacketAllocator;
 import com.acme.finops.gateway.memory.PacketAllocator;
+import com.acme.finops.gateway.memory.PacketLeakDetector;
 import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.memory.QuotaUsage;
+import com.acme.finops.gateway.memory.RegionStats;
+import com.acme.finops.gateway.memory.ShardStats;
+import com.acme.finops.gateway.memory.SlabBacking;
+import com.acme.finops.gateway.memory.SlabCompactor;
+import com.acme.finops.gateway.memory.SlabPreTouch;
 import com.acme.finops.gateway.memory.SlabPacketAllocator;
 import com.acme.finops.gateway.memory.StripedPacketAllocator;
+import com.acme.finops.gateway.policy.AdmissionPolicy;
 import com.acme.finops.gateway.policy.CompileResult;
 import com.acme.finops.gateway.policy.CompiledPath;
 import com.acme.finops.gateway.policy.OtlpPathCompiler;
 import com.acme.finops.gateway.policy.PathStringPool;
+import com.acme.finops.gateway.policy.PolicyContext;
 import com.acme.finops.gateway.policy.PolicyDecision;
+import com.acme.finops.gateway.policy.TenantQuotaAdmissionPolicy;
+import com.acme.finops.gateway.policy.TenantQuotaStats;
 import com.acme.finops.gateway.queue.QueueEnvelope;
+import com.acme.finops.gateway.queue.BlockingWaitStrategy;
+import com.acme.finops.gateway.queue.BusySpinWaitStrategy;
+import com.acme.finops.gateway.queue.PhasedBackoffWaitStrategy;
 import com.acme.finops.gateway.queue.StripedMpscRing;
+import com.acme.finops.gateway.queue.WaitStrategy;
+import com.acme.finops.gateway.queue.YieldingWaitStrategy;
 import com.acme.finops.gateway.telemetry.AtomicHotPathMetrics;
 import com.acme.finops.gateway.telemetry.HotPathMetrics;
 import com.acme.finops.gateway.telemetry.MaskingRuntimeInfo;
+import com.acme.finops.gateway.telemetry.MetricSample;
 import com.acme.finops.gateway.telemetry.MetricsHttpEndpoint;
 import com.acme.finops.gateway.telemetry.NoopHotPathMetrics;
 import com.acme.finops.gateway.telemetry.PeriodicMetricsReporter;
+import com.acme.finops.gateway.telemetry.VirtualThreadPinningMonitor;
+import com.acme.finops.gateway.telemetry.WindowedQuantile;
 import com.acme.finops.gateway.transport.api.TransportAdapter;
 import com.acme.finops.gateway.transport.api.SignalKind;
 import com.acme.finops.gateway.transport.api.IngestResult;
+import com.acme.finops.gateway.transport.api.TenantKeyResolver;
 import com.acme.finops.gateway.transport.grpc.NettyOtlpGrpcAdapter;
 import com.acme.finops.gateway.transport.http.NettyOtlpHttpAdapter;
 import com.acme.finops.gateway.util.EnvVars;
@@ -49,22 +88,34 @@ import com.acme.finops.gateway.wire.mutate.MutationPlanValidator;
 import com.acme.finops.gateway.wire.mutate.MutationPlanner;
 import com.acme.finops.gateway.wire.mutate.PolicyDrivenMutationPlanner;
 import com.acme.finops.gateway.wire.mutate.ReframeWriter;
+import com.acme.finops.gateway.wire.mutate.ResourceAttributeTenantResolver;
 
 import com.acme.finops.gateway.util.GatewayDefaults;
 import com.acme.finops.gateway.util.GatewayStatusCodes;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.URI;
+import java.nio.channels.UnresolvedAddressException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 public final class NettyGatewayProxyMain {
     private static final Logger LOG = Logger.getLogger(NettyGatewayProxyMain.class.getName());
+    private static final String GATEWAY_LEAK_DUMP_PATH = "/debug/packet-leaks";
+    private static final String GATEWAY_ALLOCATOR_DUMP_PATH = "/debug/allocator";
 
     private NettyGatewayProxyMain() {}
 
@@ -147,6 +198,74 @@ public final class NettyGatewayProxyMain {
                 "auditFsyncErrors", sink.fsyncErrorCount()
             );
         }
+        int allocatorShards = Integer.highestOneBit(
+            EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_ALLOCATOR_SHARDS,
+                GatewayDefaults.DEFAULT_ALLOCATOR_SHARDS, 1, 64));
+        long slabSizeBytes = EnvVars.getLongClamped(GatewayEnvKeys.GATEWAY_SLAB_SIZE_BYTES,
+            GatewayDefaults.DEFAULT_SLAB_SIZE_BYTES, 64L * 1024 * 1024, 8L * 1024 * 1024 * 1024);
+        int slabRegions = Integer.highestOneBit(
+            EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_SLAB_REGIONS,
+                GatewayDefaults.DEFAULT_SLAB_REGIONS, 1, 64));
+        AllocationQuotas allocationQuotas = null;
+        if (EnvVars.getBoolean(GatewayEnvKeys.GATEWAY_ALLOCATOR_QUOTAS_ENABLED, false)) {
+            AllocationQuotaConfig quotaConfig = AllocationQuotaConfig.parse(
+                EnvVars.getOrDefault(GatewayEnvKeys.GATEWAY_ALLOCATOR_TENANT_QUOTAS, ""),
+                EnvVars.getOrDefault(GatewayEnvKeys.GATEWAY_ALLOCATOR_SIGNAL_QUOTAS, ""));
+            allocationQuotas = new AllocationQuotas(quotaConfig, slabSizeBytes);
+            LOG.info("Allocator quotas enabled: tenants=" + quotaConfig.tenantLimits().size()
+                + ", signals=" + quotaConfig.signalLimits().size());
+        }
+        String slabBackingDir = EnvVars.getOrDefault(GatewayEnvKeys.GATEWAY_SLAB_BACKING_DIR, "").trim();
+        SlabBacking slabBacking = slabBackingDir.isEmpty()
+            ? SlabBacking.ANONYMOUS
+            : SlabBacking.fileBacked(Path.of(slabBackingDir));
+        boolean compactionEnabled = EnvVars.getBoolean(GatewayEnvKeys.GATEWAY_SLAB_COMPACTION_ENABLED, false);
+        List<ElasticSlabPacketAllocator> elasticShards = new ArrayList<>();
+        StripedPacketAllocator allocator = buildAllocator(
+            slabSizeBytes, allocatorShards, slabRegions, allocationQuotas, slabBacking, compactionEnabled, elasticShards);
+        SlabPreTouch.Result slabPreTouch = SlabPreTouch.Result.NONE;
+        if (EnvVars.getBoolean(GatewayEnvKeys.GATEWAY_SLAB_PRETOUCH_ENABLED, false)) {
+            int preTouchThreads = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_SLAB_PRETOUCH_THREADS, 0, 0, 256);
+            slabPreTouch = allocator.preTouch(preTouchThreads);
+            LOG.info("Slab pre-touch: bytes=" + slabPreTouch.bytes() + ", pages=" + slabPreTouch.pages()
+                + ", threads=" + slabPreTouch.threads() + ", tookMs=" + slabPreTouch.durationMillis());
+        }
+        SlabPreTouch.Result preTouchRef = slabPreTouch;
+        AllocationQuotas quotasRef = allocationQuotas;
+        List<Supplier<List<MetricSample>>> metricSampleSources = new ArrayList<>();
+        metricSampleSources.add(() -> allocatorSamples(quotasRef, elasticShards, preTouchRef, slabBacking));
+        metricSampleSources.add(() -> shardSamples(allocator.shardStats()));
+        SlabCompactor slabCompactor = null;
+        if (compactionEnabled) {
+            long compactionIntervalMs = EnvVars.getLongClamped(GatewayEnvKeys.GATEWAY_SLAB_COMPACTION_INTERVAL_MS,
+                GatewayDefaults.DEFAULT_SLAB_COMPACTION_INTERVAL_MS, 10L, 3_600_000L);
+            long compactionMaxBytes = EnvVars.getLongClamped(GatewayEnvKeys.GATEWAY_SLAB_COMPACTION_MAX_BYTES,
+                GatewayDefaults.DEFAULT_SLAB_COMPACTION_MAX_BYTES, 4096L, 1024L * 1024 * 1024);
+            int compactionMaxLivePercent = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_SLAB_COMPACTION_MAX_LIVE_PERCENT,
+                GatewayDefaults.DEFAULT_SLAB_COMPACTION_MAX_LIVE_PERCENT, 1, 100);
+            slabCompactor = new SlabCompactor(allocator, compactionMaxBytes, compactionMaxLivePercent, compactionIntervalMs);
+            SlabCompactor compactorRef = slabCompactor;
+            metricSampleSources.add(() -> compactionSamples(compactorRef));
+            LOG.info("Slab compaction enabled: intervalMs=" + compactionIntervalMs + ", maxBytesPerRun="
+                + compactionMaxBytes + ", maxLivePercent=" + compactionMaxLivePercent);
+        }
+
+        double leakSampleRate = EnvVars.getDoubleClamped(GatewayEnvKeys.GATEWAY_LEAK_DETECTION_SAMPLE_RATE, 0.0d, 0.0d, 1.0d);
+        PacketLeakDetector leakDetector = null;
+        if (leakSampleRate > 0.0d) {
+            leakDetector = new PacketLeakDetector(
+                leakSampleRate,
+                EnvVars.getLongClamped(GatewayEnvKeys.GATEWAY_LEAK_DETECTION_MAX_AGE_MS,
+                    GatewayDefaults.DEFAULT_LEAK_DETECTION_MAX_AGE_MS, 100L, 86_400_000L),
+                EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_LEAK_DETECTION_MAX_TRACKED,
+                    GatewayDefaults.DEFAULT_LEAK_DETECTION_MAX_TRACKED, 1, 1_000_000)
+            );
+            PacketLeakDetector.install(leakDetector);
+            PacketLeakDetector detectorRef = leakDetector;
+            metricSampleSources.add(() -> leakSamples(detectorRef));
+            LOG.info("PacketRef leak detection enabled: sampleRate=" + leakSampleRate);
+        }
+
         PeriodicMetricsReporter metricsReporter = null;
         MetricsHttpEndpoint metricsEndpoint = null;
         if (metricsEnabled && hotPathMetrics instanceof AtomicHotPathMetrics atomicMetrics) {
@@ -162,8 +281,13 @@ public final class NettyGatewayProxyMain {
                         metricsPort,
                         metricsPath,
                         additionalMetrics,
-                        () -> maskingRuntimeInfo
+                        () -> maskingRuntimeInfo,
+                        () -> collectSamples(metricSampleSources)
                     );
+                    metricsEndpoint.registerJsonDump(GATEWAY_ALLOCATOR_DUMP_PATH, allocator::shardStats);
+                    if (leakDetector != null) {
+                        metricsEndpoint.registerJsonDump(GATEWAY_LEAK_DUMP_PATH, leakDetector::snapshot);
+                    }
                 } catch (Exception e) {
                     LOG.warning("Metrics endpoint init failed: " + e.getClass().getSimpleName());
                 }
@@ -177,6 +301,7 @@ public final class NettyGatewayProxyMain {
         int exporterIoThreads = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_EXPORTER_IO_THREADS,
             GatewayDefaults.DEFAULT_EXPORTER_IO_THREADS, 0, 64);
 
+        boolean dropExpired = EnvVars.getBoolean(GatewayEnvKeys.GATEWAY_DEADLINE_DROP_EXPIRED, false);
         AsyncOtlpHttpExporter exporter = new AsyncOtlpHttpExporter(
             tracesUri,
             metricsUri,
@@ -185,8 +310,10 @@ public final class NettyGatewayProxyMain {
             maxInFlight,
             GatewayDefaults.DEFAULT_RESPONSE_TIMEOUT_MS,
             exporterIoThreads,
-            exporterPoolSize
+            exporterPoolSize,
+            dropExpired
         );
+        metricSampleSources.add(() -> exporterSamples(exporter.stats()));
         boolean reframeEnabled = EnvVars.getBoolean(GatewayEnvKeys.GATEWAY_ENABLE_REFRAME, true);
         ReframeWriter reframeWriter = new DefaultReframeWriter(
             new LenCascadeRecalculator(),
@@ -194,16 +321,6 @@ public final class NettyGatewayProxyMain {
             maskWriter
         );
 
-        int allocatorShards = Integer.highestOneBit(
-            EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_ALLOCATOR_SHARDS,
-                GatewayDefaults.DEFAULT_ALLOCATOR_SHARDS, 1, 64));
-        long slabSizeBytes = EnvVars.getLongClamped(GatewayEnvKeys.GATEWAY_SLAB_SIZE_BYTES,
-            GatewayDefaults.DEFAULT_SLAB_SIZE_BYTES, 64L * 1024 * 1024, 8L * 1024 * 1024 * 1024);
-        int slabRegions = Integer.highestOneBit(
-            EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_SLAB_REGIONS,
-                GatewayDefaults.DEFAULT_SLAB_REGIONS, 1, 64));
-        PacketAllocator allocator = new StripedPacketAllocator(
-            slabSizeBytes, allocatorShards, slabRegions);
         NettyOtlpGrpcAdapter grpcAdapter = new NettyOtlpGrpcAdapter(
             grpcPort,
             allocator,
@@ -217,6 +334,16 @@ public final class NettyGatewayProxyMain {
             new AllocationTag("proxy-http", OtlpEndpoints.ALLOCATION_SCOPE_DEFAULT, 1),
             hotPathMetrics
         );
+        String tenantHeader = EnvVars.getOrDefault(GatewayEnvKeys.GATEWAY_TENANT_HEADER, "").trim();
+        if (!tenantHeader.isEmpty()) {
+            grpcAdapter.setTenantHeader(tenantHeader);
+            httpAdapter.setTenantHeader(tenantHeader);
+            LOG.info("Tenant header: " + tenantHeader);
+        }
+        if (allocationQuotas != null) {
+            grpcAdapter.setCopyToAllocator(true);
+            httpAdapter.setCopyToAllocator(true);
+        }
 
         MutationPlanner mutationPlanner = buildMutationPlanner();
         boolean queueEnabled = EnvVars.getBoolean(GatewayEnvKeys.GATEWAY_QUEUE_ENABLED, false);
@@ -225,6 +352,7 @@ public final class NettyGatewayProxyMain {
                 + "Not recommended for production use at high RPS.");
         }
         AsyncIngressDispatcher dispatcher = null;
+        VirtualThreadPinningMonitor pinningMonitor = null;
         AtomicReference<OtlpProcessingPipeline> pipelineRef = new AtomicReference<>();
         if (queueEnabled) {
             int queueCapacity = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_QUEUE_CAPACITY,
@@ -233,37 +361,135 @@ public final class NettyGatewayProxyMain {
                 GatewayDefaults.DEFAULT_QUEUE_SHARDS, 1, 128);
             int queueWorkers = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_QUEUE_WORKERS,
                 GatewayDefaults.DEFAULT_QUEUE_WORKERS, 1, 256);
+            int drainBatch = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_QUEUE_DRAIN_BATCH,
+                GatewayDefaults.DEFAULT_QUEUE_DRAIN_BATCH, 1, 4096);
+            int stealMinDepth = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_QUEUE_STEAL_MIN_DEPTH,
+                GatewayDefaults.DEFAULT_QUEUE_STEAL_MIN_DEPTH, 0, queueCapacity);
+            WaitStrategy waitStrategy = resolveWaitStrategy();
+            LOG.info("Dispatcher wait strategy: " + waitStrategy.name());
+            VirtualThreadExecution virtualExecution = resolveVirtualExecution();
+            if (virtualExecution != null) {
+                LOG.info("Dispatcher processing on virtual threads: granularity=" + virtualExecution.granularity()
+                    + " maxInFlight=" + virtualExecution.maxInFlight());
+                VirtualThreadExecution executionRef = virtualExecution;
+                metricSampleSources.add(() -> virtualThreadSamples(executionRef.stats()));
+                if (EnvVars.getBoolean(GatewayEnvKeys.GATEWAY_QUEUE_VIRTUAL_PIN_DIAGNOSTICS, false)) {
+                    int thresholdMs = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_QUEUE_VIRTUAL_PIN_THRESHOLD_MS,
+                        GatewayDefaults.DEFAULT_QUEUE_VIRTUAL_PIN_THRESHOLD_MS, 0, 60_000);
+                    pinningMonitor = new VirtualThreadPinningMonitor(java.time.Duration.ofMillis(thresholdMs),
+                        GatewayDefaults.QUEUE_VIRTUAL_PIN_LOGGED_STACKS);
+                    VirtualThreadPinningMonitor monitorRef = pinningMonitor;
+                    metricSampleSources.add(() -> pinningSamples(monitorRef));
+                }
+            }
             int low = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_BACKPRESSURE_LOW, queueCapacity / 2, 1, queueCapacity);
             int high = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_BACKPRESSURE_HIGH, Math.max(low, (queueCapacity * 3) / 4), low, queueCapacity);
             int critical = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_BACKPRESSURE_CRITICAL, Math.max(high, (queueCapacity * 9) / 10), high, queueCapacity);
+            // Byte watermarks are off unless set; an unset lower level follows the next one up.
+            long criticalBytes = EnvVars.getLongClamped(GatewayEnvKeys.GATEWAY_BACKPRESSURE_CRITICAL_BYTES,
+                Watermarks.NO_BYTE_LIMIT, 1L, Watermarks.NO_BYTE_LIMIT);
+            long highBytes = Math.min(criticalBytes, EnvVars.getLongClamped(GatewayEnvKeys.GATEWAY_BACKPRESSURE_HIGH_BYTES,
+                Watermarks.NO_BYTE_LIMIT, 1L, Watermarks.NO_BYTE_LIMIT));
+            long lowBytes = Math.min(highBytes, EnvVars.getLongClamped(GatewayEnvKeys.GATEWAY_BACKPRESSURE_LOW_BYTES,
+                Watermarks.NO_BYTE_LIMIT, 1L, Watermarks.NO_BYTE_LIMIT));
             int maxQueueWaitMs = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_BACKPRESSURE_MAX_QUEUE_WAIT_MS, 500, 1, 60_000);
             double shedLightRatio = EnvVars.getDoubleClamped(GatewayEnvKeys.GATEWAY_BACKPRESSURE_SHED_LIGHT_RATIO, 0.05d, 0.0d, 1.0d);
             double shedAggressiveRatio = EnvVars.getDoubleClamped(GatewayEnvKeys.GATEWAY_BACKPRESSURE_SHED_AGGRESSIVE_RATIO, 0.25d, 0.0d, 1.0d);
 
-            StripedMpscRing<QueueEnvelope> queue = new StripedMpscRing<>(queueCapacity, queueShards);
-            Watermarks watermarks = new Watermarks(low, high, critical);
-            ThrottleStrategy throttle = new WatermarkThrottleStrategy(shedLightRatio, shedAggressiveRatio, GatewayDefaults.DEFAULT_THROTTLE_PAUSE_NANOS);
-            dispatcher = new AsyncIngressDispatcher(
-                queue,
-                queueWorkers,
-                throttle,
-                watermarks,
-                new QueueAwareDropPolicy(throttle, watermarks, maxQueueWaitMs * 1_000_000L),
+            Watermarks watermarks = new Watermarks(low, high, critical, lowBytes, highBytes, criticalBytes);
+            Supplier<ThrottleStrategy> throttles = resolveThrottleStrategy(shedLightRatio, shedAggressiveRatio,
+                allocator, slabSizeBytes, exporter);
+            ThrottleStrategy throttle = throttles.get();
+            List<PriorityLaneSpec> laneSpecs = PriorityLaneSpec.parse(System.getenv(GatewayEnvKeys.GATEWAY_QUEUE_LANES));
+            List<DispatchLane> lanes = new ArrayList<>();
+            List<PriorityLane> laneConfigs = new ArrayList<>();
+            if (laneSpecs.isEmpty()) {
+                laneConfigs.add(new PriorityLane("default", EnumSet.allOf(SignalKind.class), 0, 1, watermarks, throttle));
+                lanes.add(new DispatchLane(laneConfigs.get(0),
+                    new StripedMpscRing<>(queueCapacity, queueShards, QueueEnvelope::new)));
+            } else {
+                // Lanes split the capacity by weight; each keeps the overall watermark ratios.
+                int totalWeight = laneSpecs.stream().mapToInt(PriorityLaneSpec::weight).sum();
+                for (PriorityLaneSpec spec : laneSpecs) {
+                    int laneCapacity = Math.max(256, (int) ((long) queueCapacity * spec.weight() / totalWeight));
+                    Watermarks laneWatermarks = new Watermarks(
+                        Math.max(1, (int) ((long) low * laneCapacity / queueCapacity)),
+                        Math.max(1, (int) ((long) high * laneCapacity / queueCapacity)),
+                        Math.max(1, (int) ((long) critical * laneCapacity / queueCapacity)),
+                        scaleBytes(lowBytes, laneCapacity, queueCapacity),
+                        scaleBytes(highBytes, laneCapacity, queueCapacity),
+                        scaleBytes(criticalBytes, laneCapacity, queueCapacity));
+                    PriorityLane lane = new PriorityLane(spec.name(), spec.signals(), spec.priority(), spec.weight(),
+                        laneWatermarks,
+                        throttles.get());
+                    laneConfigs.add(lane);
+                    lanes.add(new DispatchLane(lane, new StripedMpscRing<>(laneCapacity, queueShards, QueueEnvelope::new)));
+                    LOG.info("Dispatcher lane " + spec.name() + ": signals=" + spec.signals() + " priority=" + spec.priority()
+                        + " weight=" + spec.weight() + " capacity=" + laneCapacity + " watermarks=" + laneWatermarks);
+                }
+            }
+            for (PriorityLane lane : laneConfigs) {
+                if (lane.throttle() instanceof CompositeThrottleStrategy composite) {
+                    metricSampleSources.add(() -> throttleSamples(lane.name(), composite.stats()));
+                }
+            }
+            if (laneConfigs.size() > 1 && throttle instanceof CompositeThrottleStrategy overall) {
+                metricSampleSources.add(() -> throttleSamples("all", overall.stats()));
+            }
+            TenantFairQueuing fairQueuing = resolveTenantFairQueuing(queueCapacity);
+            if (fairQueuing != null) {
+                TenantFairQueuing fairQueuingRef = fairQueuing;
+                metricSampleSources.add(() -> tenantQueueSamples(fairQueuingRef.stats()));
+            }
+            DropPolicy dropPolicy = resolveDropPolicy(throttle, watermarks, maxQueueWaitMs,
+                laneConfigs.size() > 1 ? laneConfigs : List.of());
+            if (dropPolicy instanceof CoDelDropPolicy codel) {
+                metricSampleSources.add(() -> codelSamples(codel.stats(), laneConfigs));
+            }
+            if (dropExpired) {
+                dropPolicy = new DeadlineDropPolicy(dropPolicy);
+            }
+            dispatcher = new AsyncIngressDispatcher.Builder(
+                lanes,
+                dropPolicy,
                 inbound -> {
                     OtlpProcessingPipeline p = pipelineRef.get();
                     if (p == null) {
                         return new IngestResult.Rejected(inbound.requestId(), GatewayStatusCodes.SERVICE_UNAVAILABLE, true);
                     }
-                    return p.processCore(inbound);
-                },
-                hotPathMetrics
-            );
+                    return p.processAdmitted(inbound);
+                })
+                .workers(queueWorkers)
+                .metrics(hotPathMetrics)
+                .drainBatch(drainBatch)
+                .stealMinDepth(stealMinDepth)
+                .waitStrategy(waitStrategy)
+                .virtualExecution(virtualExecution)
+                .fairQueuing(fairQueuing)
+                .allocatorStats(watermarks.hasByteLimits() ? allocator::stats : null)
+                .retryAfter(resolveRetryAfterPolicy())
+                .build();
+            AsyncIngressDispatcher workersRef = dispatcher;
+            metricSampleSources.add(() -> dispatcherWorkerSamples(workersRef.workerStats()));
+            metricSampleSources.add(() -> dispatcherLaneSamples(workersRef.laneStats()));
         }
 
+        AdmissionPolicy admissionPolicy = OtlpProcessingPipeline.allowAllPolicy();
+        TenantQuotaAdmissionPolicy tenantQuotas = resolveTenantQuotaPolicy();
+        QuotaPeerExchange quotaExchange = null;
+        if (tenantQuotas != null) {
+            admissionPolicy = tenantQuotas;
+            metricSampleSources.add(() -> tenantQuotaSamples(tenantQuotas.stats()));
+            quotaExchange = resolveQuotaPeerExchange(tenantQuotas);
+            if (quotaExchange != null) {
+                QuotaPeerExchange exchangeRef = quotaExchange;
+                metricSampleSources.add(() -> quotaExchangeSamples(exchangeRef.stats()));
+            }
+        }
         OtlpProcessingPipeline pipeline = new OtlpProcessingPipeline(
             exporter,
             allocator,
-            OtlpProcessingPipeline.allowAllPolicy(),
+            admissionPolicy,
             mutationPlanner,
             reframeWriter,
             new MutationPlanValidator(),
@@ -283,8 +509,17 @@ public final class NettyGatewayProxyMain {
         PeriodicMetricsReporter reporterRef = metricsReporter;
         MetricsHttpEndpoint metricsEndpointRef = metricsEndpoint;
         AsyncFileAuditSink auditRef = asyncAuditSink;
+        SlabCompactor compactorRef = slabCompactor;
+        VirtualThreadPinningMonitor pinningMonitorRef = pinningMonitor;
+        QuotaPeerExchange quotaExchangeRef = quotaExchange;
         Runnable stopAndSignal = () -> {
             try {
+                if (pinningMonitorRef != null) {
+                    pinningMonitorRef.close();
+                }
+                if (quotaExchangeRef != null) {
+                    quotaExchangeRef.close();
+                }
                 stopAll(
                     httpAdapter,
                     grpcAdapter,
@@ -293,6 +528,7 @@ public final class NettyGatewayProxyMain {
                     reporterRef,
                     metricsEndpointRef,
                     auditRef,
+                    compactorRef,
                     allocator,
                     stopped
                 );
@@ -310,6 +546,13 @@ public final class NettyGatewayProxyMain {
             if (metricsEndpoint != null) {
                 metricsEndpoint.start();
             }
+            if (pinningMonitor != null) {
+                pinningMonitor.start();
+            }
+            if (quotaExchange != null) {
+                quotaExchange.start(QuotaPeerExchange.parsePeers(
+                    EnvVars.getOrDefault(GatewayEnvKeys.GATEWAY_TENANT_QUOTA_PEERS, "")));
+            }
             if (dispatcher != null) {
                 dispatcher.start();
             }
@@ -361,8 +604,11 @@ public final class NettyGatewayProxyMain {
         boolean maskingEnabled = EnvVars.getBoolean(GatewayEnvKeys.GATEWAY_MASKING_ENABLED, false);
         if (maskingEnabled) {
             int maxOps = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_MASKING_MAX_OPS_PER_PACKET, 128, 1, 4096);
-            LOG.info("Masking planner enabled: source=control-plane-env maxOpsPerPacket=" + maxOps);
-            return new PolicyDrivenMutationPlanner(EnvControlPlanePolicyProvider.fromEnvironment(), maxOps);
+            boolean singlePass = EnvVars.getBoolean(GatewayEnvKeys.GATEWAY_MASKING_SINGLE_PASS, true);
+            boolean validateOnce = EnvVars.getBoolean(GatewayEnvKeys.GATEWAY_MASKING_VALIDATE_ONCE, false);
+            LOG.info("Masking planner enabled: source=control-plane-env maxOpsPerPacket=" + maxOps
+                + " singlePass=" + singlePass + " validateOnce=" + validateOnce);
+            return new PolicyDrivenMutationPlanner(EnvControlPlanePolicyProvider.fromEnvironment(), maxOps, singlePass, validateOnce);
         }
         return buildHealthcheckPlanner();
     }
@@ -390,6 +636,573 @@ public final class NettyGatewayProxyMain {
         }
     }
 
+    private static StripedPacketAllocator buildAllocator(long slabSizeBytes,
+                                                         int allocatorShards,
+                                                         int slabRegions,
+                                                         AllocationQuotas quotas,
+                                                         SlabBacking backing,
+                                                         boolean relocatable,
+                                                         List<ElasticSlabPacketAllocator> elasticShards) {
+        if (!EnvVars.getBoolean(GatewayEnvKeys.GATEWAY_SLAB_ELASTIC_ENABLED, false)) {
+            return new StripedPacketAllocator(slabSizeBytes, allocatorShards, slabRegions, quotas, backing, relocatable);
+        }
+        // GATEWAY_SLAB_SIZE_BYTES becomes the hard cap; each shard grows in arena-sized steps.
+        long perShardCap = slabSizeBytes / allocatorShards;
+        long arenaBytes = Math.min(perShardCap, EnvVars.getLongClamped(GatewayEnvKeys.GATEWAY_SLAB_ARENA_BYTES,
+            GatewayDefaults.DEFAULT_SLAB_ARENA_BYTES, 1024L * 1024, perShardCap));
+        int maxArenas = (int) Math.max(1L, perShardCap / arenaBytes);
+        int minArenas = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_SLAB_MIN_ARENAS,
+            GatewayDefaults.DEFAULT_SLAB_MIN_ARENAS, 1, maxArenas);
+        long cooldownMs = EnvVars.getLongClamped(GatewayEnvKeys.GATEWAY_SLAB_IDLE_COOLDOWN_MS,
+            GatewayDefaults.DEFAULT_SLAB_IDLE_COOLDOWN_MS, 0L, 3_600_000L);
+        long growAfterMs = EnvVars.getLongClamped(GatewayEnvKeys.GATEWAY_SLAB_GROW_AFTER_MS,
+            GatewayDefaults.DEFAULT_SLAB_GROW_AFTER_MS, 0L, 60_000L);
+        ElasticSlabConfig config = new ElasticSlabConfig(
+            arenaBytes,
+            slabRegions,
+            minArenas,
+            maxArenas,
+            cooldownMs,
+            growAfterMs,
+            GatewayDefaults.DEFAULT_SLAB_MAINTENANCE_INTERVAL_MS
+        );
+        PacketAllocator[] shards = new PacketAllocator[allocatorShards];
+        for (int i = 0; i < allocatorShards; i++) {
+            ElasticSlabPacketAllocator shard = new ElasticSlabPacketAllocator(config, quotas, backing, relocatable);
+            elasticShards.add(shard);
+            shards[i] = shard;
+        }
+        LOG.info("Elastic slab enabled: shards=" + allocatorShards + ", arenaBytes=" + arenaBytes
+            + ", arenas=" + minArenas + ".." + maxArenas + " per shard, growAfterMs=" + growAfterMs
+            + ", idleCooldownMs=" + cooldownMs);
+        return new StripedPacketAllocator(shards);
+    }
+
+    private static List<MetricSample> collectSamples(List<Supplier<List<MetricSample>>> sources) {
+        List<MetricSample> out = new ArrayList<>();
+        for (Supplier<List<MetricSample>> source : sources) {
+            out.addAll(source.get());
+        }
+        return out;
+    }
+
+    private static List<MetricSample> leakSamples(PacketLeakDetector detector) {
+        PacketLeakDetector.Snapshot s = detector.snapshot();
+        return List.of(
+            MetricSample.counter("gateway_packet_leak_sampled_total", "PacketRefs tracked by the leak detector",
+                Map.of(), s.sampledTotal()),
+            MetricSample.gauge("gateway_packet_leak_tracked", "Tracked PacketRefs not yet released",
+                Map.of(), s.tracked()),
+            MetricSample.gauge("gateway_packet_leak_long_lived", "Tracked PacketRefs alive past the age threshold",
+                Map.of(), s.longLived()),
+            MetricSample.counter("gateway_packet_leak_gc_unreleased_total", "Tracked PacketRefs garbage-collected without release",
+                Map.of(), s.gcUnreleasedTotal())
+        );
+    }
+
+    private static List<MetricSample> allocatorSamples(AllocationQuotas quotas,
+                                                       List<ElasticSlabPacketAllocator> elasticShards,
+                                                       SlabPreTouch.Result preTouch,
+                                                       SlabBacking backing) {
+        List<MetricSample> samples = quotaSamples(quotas);
+        samples.add(MetricSample.gauge("gateway_slab_file_backed", "1 if slab memory is mapped from GATEWAY_SLAB_BACKING_DIR",
+            Map.of(), backing.isFileBacked() ? 1 : 0));
+        samples.add(MetricSample.gauge("gateway_slab_pretouch_duration_ms", "Startup slab pre-touch wall time",
+            Map.of(), preTouch.durationMillis()));
+        samples.add(MetricSample.gauge("gateway_slab_pretouch_bytes", "Slab bytes pre-touched at startup",
+            Map.of(), preTouch.bytes()));
+        if (elasticShards.isEmpty()) {
+            return samples;
+        }
+        long live = 0;
+        long retiring = 0;
+        long committed = 0;
+        long grows = 0;
+        long shrinks = 0;
+        for (ElasticSlabPacketAllocator shard : elasticShards) {
+            live += shard.arenaCount();
+            retiring += shard.retiringArenaCount();
+            committed += shard.committedBytes();
+            grows += shard.growCount();
+            shrinks += shard.shrinkCount();
+        }
+        List<MetricSample> out = new ArrayList<>(samples.size() + 5);
+        out.addAll(samples);
+        out.add(MetricSample.gauge("gateway_slab_arenas", "Slab arenas by lifecycle state",
+            Map.of("state", "live"), live));
+        out.add(MetricSample.gauge("gateway_slab_arenas", "Slab arenas by lifecycle state",
+            Map.of("state", "retiring"), retiring));
+        out.add(MetricSample.gauge("gateway_slab_committed_bytes", "Off-heap bytes held by slab arenas",
+            Map.of(), committed));
+        out.add(MetricSample.counter("gateway_slab_arena_grow_total", "Slab arenas added under pressure",
+            Map.of(), grows));
+        out.add(MetricSample.counter("gateway_slab_arena_shrink_total", "Idle slab arenas retired",
+            Map.of(), shrinks));
+        return out;
+    }
+
+    private static List<MetricSample> compactionSamples(SlabCompactor compactor) {
+        CompactionResult totals = compactor.totals();
+        return List.of(
+            MetricSample.counter("gateway_slab_compaction_runs_total", "Slab compaction passes",
+                Map.of(), compactor.runs()),
+            MetricSample.counter("gateway_slab_compaction_regions_freed_total", "DRAINING regions returned to FREE by compaction",
+                Map.of(), totals.regionsFreed()),
+            MetricSample.counter("gateway_slab_compaction_packets_moved_total", "Live packets relocated by compaction",
+                Map.of(), totals.packetsMoved()),
+            MetricSample.counter("gateway_slab_compaction_bytes_copied_total", "Payload bytes copied by compaction",
+                Map.of(), totals.bytesCopied()),
+            MetricSample.counter("gateway_slab_compaction_pinned_skips_total", "Candidate regions skipped because a packet was pinned",
+                Map.of(), totals.pinnedSkips()),
+            MetricSample.counter("gateway_slab_compaction_leak_skips_total", "Candidate regions skipped because a packet looked leaked",
+                Map.of(), totals.leakSkips())
+        );
+    }
+
+    private static List<MetricSample> dispatcherWorkerSamples(List<DispatcherWorkerStats> workers) {
+        List<MetricSample> out = new ArrayList<>(workers.size() * 5);
+        for (DispatcherWorkerStats w : workers) {
+            Map<String, String> labels = Map.of("worker", Integer.toString(w.worker()));
+            out.add(MetricSample.counter("gateway_dispatcher_worker_processed_total", "Envelopes processed per dispatcher worker",
+                labels, w.processed()));
+            out.add(MetricSample.counter("gateway_dispatcher_worker_stolen_total", "Envelopes stolen from other workers' shards",
+                labels, w.stolen()));
+            out.add(MetricSample.counter("gateway_dispatcher_worker_busy_ms_total", "Worker time spent processing",
+                labels, w.busyNanos() / 1_000_000L));
+            out.add(MetricSample.counter("gateway_dispatcher_worker_idle_ms_total", "Worker time spent finding no work",
+                labels, w.idleNanos() / 1_000_000L));
+            out.add(MetricSample.gauge("gateway_dispatcher_worker_utilization_percent", "Busy share of worker lifetime",
+                labels, Math.round(w.utilization() * 100.0d)));
+        }
+        return out;
+    }
+
+    private static List<MetricSample> dispatcherLaneSamples(List<DispatchLaneStats> lanes) {
+        List<MetricSample> out = new ArrayList<>(lanes.size() * (7 + GatewayDefaults.QUEUE_SOJOURN_HISTOGRAM_BUCKETS + 2));
+        for (DispatchLaneStats lane : lanes) {
+            Map<String, String> labels = Map.of("lane", lane.name());
+            out.add(MetricSample.gauge("gateway_dispatcher_lane_depth", "Envelopes queued per dispatcher lane",
+                labels, lane.depth()));
+            out.add(MetricSample.gauge("gateway_dispatcher_lane_capacity", "Queue capacity per dispatcher lane",
+                labels, lane.capacity()));
+            out.add(MetricSample.gauge("gateway_dispatcher_lane_queued_bytes", "Payload bytes queued per dispatcher lane",
+                labels, lane.queuedBytes()));
+            out.add(MetricSample.counter("gateway_dispatcher_lane_dequeued_total", "Envelopes drained per dispatcher lane",
+                labels, lane.dequeued()));
+            out.add(MetricSample.gauge("gateway_dispatcher_lane_drain_rate", "EWMA of envelopes drained per second per lane",
+                labels, lane.drainPerSecond()));
+            out.add(MetricSample.gauge("gateway_dispatcher_lane_drain_bytes_rate", "EWMA of payload bytes drained per second per lane",
+                labels, lane.drainBytesPerSecond()));
+            out.add(MetricSample.gauge("gateway_dispatcher_lane_drain_eta_ms",
+                "Expected time to drain below the low watermark at the current rate, -1 before a rate is known",
+                labels, lane.millisToLow()));
+            out.addAll(MetricSample.histogram("gateway_dispatcher_sojourn_us", "Time drained envelopes spent queued, in microseconds",
+                labels, lane.sojournMicros()));
+        }
+        return out;
+    }
+
+    private static List<MetricSample> exporterSamples(ExporterStats stats) {
+        List<MetricSample> out = new ArrayList<>(3 + GatewayDefaults.EXPORTER_LATENCY_HISTOGRAM_BUCKETS + 2);
+        out.add(MetricSample.gauge("gateway_exporter_in_flight", "Exports holding an in-flight permit",
+            Map.of(), stats.inFlight()));
+        out.add(MetricSample.gauge("gateway_exporter_max_in_flight", "Exporter in-flight limit",
+            Map.of(), stats.maxInFlight()));
+        out.addAll(MetricSample.histogram("gateway_exporter_latency_us", "Upstream export latency, in microseconds",
+            Map.of(), stats.latencyMicros()));
+        return out;
+    }
+
+    private static List<MetricSample> throttleSamples(String lane, CompositeThrottleStats stats) {
+        List<MetricSample> out = new ArrayList<>(2 + PressureInput.values().length * 2);
+        Map<String, String> laneLabels = Map.of("lane", lane);
+        out.add(MetricSample.gauge("gateway_throttle_mode",
+            "Composite throttle mode: 0 pass, 1 shed light, 2 shed aggressive, 3 pause ingress",
+            laneLabels, stats.mode().ordinal()));
+        out.add(MetricSample.gauge("gateway_throttle_score_permille",
+            "Composite pressure score, 1000 = pause; shedding starts at 500",
+            laneLabels, Math.round(stats.score() * 1_000.0d)));
+        for (PressureInput input : PressureInput.values()) {
+            Map<String, String> labels = Map.of("lane", lane, "input", input.label());
+            out.add(MetricSample.gauge("gateway_throttle_pressure_permille",
+                "Pressure per throttle input on the shared scale, 1000 = that input's critical level",
+                labels, Math.round(stats.pressures().get(input) * 1_000.0d)));
+            out.add(MetricSample.counter("gateway_throttle_shed_decisions_total",
+                "Non-pass throttle decisions by the input with the highest pressure",
+                labels, stats.throttled().get(input)));
+        }
+        return out;
+    }
+
+    private static List<MetricSample> codelSamples(List<CoDelLaneStats> lanes, List<PriorityLane> laneConfigs) {
+        List<MetricSample> out = new ArrayList<>(lanes.size() * 3);
+        for (CoDelLaneStats lane : lanes) {
+            Map<String, String> labels = Map.of("lane", lane.lane() < laneConfigs.size()
+                ? laneConfigs.get(lane.lane()).name() : Integer.toString(lane.lane()));
+            out.add(MetricSample.gauge("gateway_codel_dropping", "1 while the lane is in the CoDel dropping state",
+                labels, lane.dropping() ? 1L : 0L));
+            out.add(MetricSample.gauge("gateway_codel_drop_count", "Drops in the current CoDel dropping state (rate ~ sqrt(count))",
+                labels, lane.count()));
+            out.add(MetricSample.counter("gateway_codel_drops_total", "Packets dropped at dequeue for sojourn above target",
+                labels, lane.drops()));
+        }
+        return out;
+    }
+
+    private static List<MetricSample> quotaExchangeSamples(QuotaExchangeStats stats) {
+        return List.of(
+            MetricSample.gauge("gateway_tenant_quota_peers", "Quota peers heard from recently",
+                Map.of(), stats.peers()),
+            MetricSample.counter("gateway_tenant_quota_gossip_sent_total", "Quota reports sent, once per peer",
+                Map.of(), stats.datagramsSent()),
+            MetricSample.counter("gateway_tenant_quota_gossip_received_total", "Quota reports received from peers",
+                Map.of(), stats.datagramsReceived()),
+            MetricSample.counter("gateway_tenant_quota_gossip_malformed_total", "Datagrams on the quota port that were not reports",
+                Map.of(), stats.datagramsMalformed()),
+            MetricSample.counter("gateway_tenant_quota_gossip_rejected_total", "Datagrams on the quota port from addresses that are not peers",
+                Map.of(), stats.datagramsRejected()),
+            MetricSample.counter("gateway_tenant_quota_remote_requests_total", "Requests admitted by peers and charged to local buckets",
+                Map.of(), stats.remoteRequests()),
+            MetricSample.counter("gateway_tenant_quota_remote_bytes_total", "Payload bytes admitted by peers and charged to local buckets",
+                Map.of(), stats.remoteBytes())
+        );
+    }
+
+    private static List<MetricSample> tenantQuotaSamples(List<TenantQuotaStats> tenants) {
+        List<MetricSample> out = new ArrayList<>(tenants.size() * 4);
+        for (TenantQuotaStats tenant : tenants) {
+            Map<String, String> labels = Map.of("tenant", tenant.tenant());
+            out.add(MetricSample.counter("gateway_tenant_admitted_total", "Requests within the tenant's rate quota",
+                labels, tenant.admitted()));
+            out.add(MetricSample.counter("gateway_tenant_admitted_bytes_total", "Payload bytes within the tenant's rate quota",
+                labels, tenant.admittedBytes()));
+            out.add(MetricSample.counter("gateway_tenant_denied_total", "Requests throttled over the tenant's rate quota",
+                labels, tenant.denied()));
+            out.add(MetricSample.counter("gateway_tenant_denied_bytes_total", "Payload bytes throttled over the tenant's rate quota",
+                labels, tenant.deniedBytes()));
+        }
+        return out;
+    }
+
+    private static List<MetricSample> tenantQueueSamples(List<TenantQueueStats> tenants) {
+        List<MetricSample> out = new ArrayList<>(tenants.size() * 5);
+        for (TenantQueueStats tenant : tenants) {
+            Map<String, String> labels = Map.of("tenant", tenant.tenant());
+            out.add(MetricSample.gauge("gateway_dispatcher_tenant_depth", "Envelopes queued per tenant",
+                labels, tenant.depth()));
+            out.add(MetricSample.counter("gateway_dispatcher_tenant_rejected_total", "Enqueues refused at the per-tenant depth bound",
+                labels, tenant.rejected()));
+            out.add(MetricSample.counter("gateway_dispatcher_tenant_dequeued_total", "Envelopes drained per tenant",
+                labels, tenant.dequeued()));
+            out.add(MetricSample.counter("gateway_dispatcher_tenant_queue_delay_us_total", "Queue delay of drained envelopes per tenant",
+                labels, tenant.delayNanosTotal() / 1_000L));
+            out.add(MetricSample.gauge("gateway_dispatcher_tenant_queue_delay_p99_us", "99th-percentile queue delay per tenant (power-of-two bucket bound)",
+                labels, tenant.delayP99Nanos() / 1_000L));
+        }
+        return out;
+    }
+
+    private static List<MetricSample> virtualThreadSamples(VirtualThreadStats stats) {
+        return List.of(
+            MetricSample.gauge("gateway_dispatcher_virtual_in_flight", "Virtual threads currently processing",
+                Map.of(), stats.inFlight()),
+            MetricSample.gauge("gateway_dispatcher_virtual_max_in_flight", "Semaphore bound on processing virtual threads",
+                Map.of(), stats.maxInFlight()),
+            MetricSample.counter("gateway_dispatcher_virtual_started_total", "Tasks handed to processing virtual threads",
+                Map.of(), stats.started()),
+            MetricSample.counter("gateway_dispatcher_virtual_threads_created_total", "Pooled processing virtual threads created",
+                Map.of(), stats.threadsCreated()),
+            MetricSample.counter("gateway_dispatcher_virtual_permit_waits_total", "Hand-offs that blocked a worker on the in-flight bound",
+                Map.of(), stats.permitWaits()),
+            MetricSample.counter("gateway_dispatcher_virtual_permit_wait_ms_total", "Worker time blocked on the in-flight bound",
+                Map.of(), stats.permitWaitNanos() / 1_000_000L)
+        );
+    }
+
+    private static List<MetricSample> pinningSamples(VirtualThreadPinningMonitor monitor) {
+        return List.of(
+            MetricSample.counter("gateway_virtual_thread_pinned_total", "Virtual thread pins at or above the diagnostic threshold",
+                Map.of(), monitor.pinnedEvents()),
+            MetricSample.counter("gateway_virtual_thread_pinned_ms_total", "Time carriers spent pinned by those events",
+                Map.of(), monitor.pinnedNanos() / 1_000_000L)
+        );
+    }
+
+    private static List<MetricSample> shardSamples(List<ShardStats> shards) {
+        List<MetricSample> out = new ArrayList<>();
+        for (ShardStats shard : shards) {
+            Map<String, String> labels = Map.of("shard", Integer.toString(shard.shard()));
+            out.add(MetricSample.gauge("gateway_allocator_shard_in_use_bytes", "Slab bytes held by live packets per shard",
+                labels, shard.stats().inUseBytes()));
+            out.add(MetricSample.counter("gateway_allocator_shard_failed_total", "Denied allocations per shard",
+                labels, shard.stats().failedAllocations()));
+        }
+        for (ShardStats shard : shards) {
+            for (RegionStats r : shard.regions()) {
+                Map<String, String> labels = regionLabels(shard.shard(), r);
+                out.add(MetricSample.gauge("gateway_slab_region_state", "Region state: 0=FREE, 1=ACTIVE, 2=DRAINING",
+                    labels, r.stateCode()));
+                out.add(MetricSample.gauge("gateway_slab_region_cursor_bytes", "Region bump cursor",
+                    labels, r.cursorBytes()));
+                out.add(MetricSample.gauge("gateway_slab_region_live_packets", "Unreleased packets per region",
+                    labels, r.livePackets()));
+                out.add(MetricSample.gauge("gateway_slab_region_pinned_bytes", "Region bytes pinned by live packets",
+                    labels, r.pinnedBytes()));
+                out.add(MetricSample.gauge("gateway_slab_region_oldest_live_age_ms",
+                    "Age of the region's current epoch while packets are live (upper bound on oldest packet)",
+                    labels, r.oldestLiveAgeMillis()));
+            }
+        }
+        return out;
+    }
+
+    private static Map<String, String> regionLabels(int shard, RegionStats region) {
+        Map<String, String> labels = new LinkedHashMap<>(3);
+        labels.put("shard", Integer.toString(shard));
+        labels.put("arena", Integer.toString(region.arena()));
+        labels.put("region", Integer.toString(region.region()));
+        return labels;
+    }
+
+    private static List<MetricSample> quotaSamples(AllocationQuotas quotas) {
+        if (quotas == null) {
+            return new ArrayList<>();
+        }
+        List<QuotaUsage> usage = quotas.usage();
+        List<MetricSample> samples = new ArrayList<>(usage.size() * 2);
+        for (QuotaUsage u : usage) {
+            samples.add(MetricSample.gauge("gateway_allocator_quota_in_use_bytes",
+                "Slab bytes currently held per quota key",
+                quotaLabels(u), u.inUseBytes()));
+        }
+        for (QuotaUsage u : usage) {
+            samples.add(MetricSample.counter("gateway_allocator_quota_denied_total",
+                "Allocations denied by quota per key",
+                quotaLabels(u), u.deniedAllocations()));
+        }
+        return samples;
+    }
+
+    private static Map<String, String> quotaLabels(QuotaUsage usage) {
+        Map<String, String> labels = new LinkedHashMap<>(2);
+        labels.put("dimension", usage.dimension());
+        labels.put("key", usage.key());
+        return labels;
+    }
+
+    private static WaitStrategy resolveWaitStrategy() {
+        String name = EnvVars.getOrDefault(GatewayEnvKeys.GATEWAY_QUEUE_WAIT_STRATEGY,
+            GatewayDefaults.DEFAULT_QUEUE_WAIT_STRATEGY).trim().toLowerCase(Locale.ROOT);
+        long spinNanos = 1_000L * EnvVars.getLongClamped(GatewayEnvKeys.GATEWAY_QUEUE_WAIT_SPIN_US,
+            GatewayDefaults.DEFAULT_QUEUE_WAIT_SPIN_NANOS / 1_000L, 0L, 1_000_000L);
+        long yieldNanos = 1_000L * EnvVars.getLongClamped(GatewayEnvKeys.GATEWAY_QUEUE_WAIT_YIELD_US,
+            GatewayDefaults.DEFAULT_QUEUE_WAIT_YIELD_NANOS / 1_000L, 0L, 1_000_000L);
+        long maxParkNanos = 1_000L * EnvVars.getLongClamped(GatewayEnvKeys.GATEWAY_QUEUE_WAIT_MAX_PARK_US,
+            GatewayDefaults.DEFAULT_QUEUE_WAIT_MAX_PARK_NANOS / 1_000L, 1L, 10_000_000L);
+        return switch (name) {
+            case "busy_spin" -> BusySpinWaitStrategy.INSTANCE;
+            case "yielding" -> new YieldingWaitStrategy(GatewayDefaults.QUEUE_WAIT_YIELDING_SPIN_ROUNDS);
+            case "blocking" -> new BlockingWaitStrategy(maxParkNanos);
+            case "phased" -> new PhasedBackoffWaitStrategy(spinNanos, yieldNanos, maxParkNanos);
+            default -> {
+                LOG.warning("Unknown " + GatewayEnvKeys.GATEWAY_QUEUE_WAIT_STRATEGY + "=" + name + ", using phased");
+                yield new PhasedBackoffWaitStrategy(spinNanos, yieldNanos, maxParkNanos);
+            }
+        };
+    }
+
+    /** {@code null} for the default platform mode, where workers process inline. */
+    private static VirtualThreadExecution resolveVirtualExecution() {
+        String mode = EnvVars.getOrDefault(GatewayEnvKeys.GATEWAY_QUEUE_EXECUTION_MODE,
+            GatewayDefaults.DEFAULT_QUEUE_EXECUTION_MODE).trim().toLowerCase(Locale.ROOT);
+        int maxInFlight = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_QUEUE_VIRTUAL_MAX_IN_FLIGHT,
+            GatewayDefaults.DEFAULT_QUEUE_VIRTUAL_MAX_IN_FLIGHT, 1, 65_536);
+        return switch (mode) {
+            case "virtual_request" -> new VirtualThreadExecution(VirtualThreadExecution.Granularity.REQUEST, maxInFlight);
+            case "virtual_batch" -> new VirtualThreadExecution(VirtualThreadExecution.Granularity.BATCH, maxInFlight);
+            case "platform" -> null;
+            default -> {
+                LOG.warning("Unknown " + GatewayEnvKeys.GATEWAY_QUEUE_EXECUTION_MODE + "=" + mode + ", using platform");
+                yield null;
+            }
+        };
+    }
+
+    private static DropPolicy resolveDropPolicy(ThrottleStrategy throttle,
+                                                Watermarks watermarks,
+                                                int maxQueueWaitMs,
+                                                List<PriorityLane> lanes) {
+        String name = EnvVars.getOrDefault(GatewayEnvKeys.GATEWAY_BACKPRESSURE_DROP_POLICY,
+            GatewayDefaults.DEFAULT_DROP_POLICY).trim().toLowerCase(Locale.ROOT);
+        return switch (name) {
+            case "codel" -> {
+                int targetMs = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_BACKPRESSURE_CODEL_TARGET_MS,
+                    GatewayDefaults.DEFAULT_CODEL_TARGET_MS, 1, 60_000);
+                int intervalMs = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_BACKPRESSURE_CODEL_INTERVAL_MS,
+                    GatewayDefaults.DEFAULT_CODEL_INTERVAL_MS, targetMs, 600_000);
+                LOG.info("Dispatcher drop policy: codel target=" + targetMs + "ms interval=" + intervalMs + "ms");
+                yield new CoDelDropPolicy(targetMs * 1_000_000L, intervalMs * 1_000_000L, Math.max(1, lanes.size()));
+            }
+            case "watermark" -> new QueueAwareDropPolicy(throttle, watermarks, maxQueueWaitMs * 1_000_000L, lanes);
+            default -> {
+                LOG.warning("Unknown " + GatewayEnvKeys.GATEWAY_BACKPRESSURE_DROP_POLICY + "=" + name + ", using watermark");
+                yield new QueueAwareDropPolicy(throttle, watermarks, maxQueueWaitMs * 1_000_000L, lanes);
+            }
+        };
+    }
+
+    /** Scales a byte watermark to a lane's share of the queue; {@link Watermarks#NO_BYTE_LIMIT} stays unset. */
+    private static long scaleBytes(long bytes, int laneCapacity, int queueCapacity) {
+        if (bytes == Watermarks.NO_BYTE_LIMIT) {
+            return bytes;
+        }
+        return Math.max(1L, (long) ((double) bytes * laneCapacity / queueCapacity));
+    }
+
+    /** {@code null} unless tenant fair queuing is enabled. */
+    private static TenantFairQueuing resolveTenantFairQueuing(int queueCapacity) {
+        if (!EnvVars.getBoolean(GatewayEnvKeys.GATEWAY_QUEUE_TENANT_FAIRNESS, false)) {
+            return null;
+        }
+        int maxDepth = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_QUEUE_TENANT_MAX_DEPTH,
+            GatewayDefaults.DEFAULT_QUEUE_TENANT_MAX_DEPTH, 1, queueCapacity);
+        int maxTracked = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_QUEUE_TENANT_MAX_TRACKED,
+            GatewayDefaults.DEFAULT_QUEUE_TENANT_MAX_TRACKED, 0, 65_536);
+        String attribute = EnvVars.getOrDefault(GatewayEnvKeys.GATEWAY_QUEUE_TENANT_ATTRIBUTE, "").trim();
+        TenantKeyResolver resolver = attribute.isEmpty()
+            ? TenantKeyResolver.FROM_PACKET
+            : new ResourceAttributeTenantResolver(attribute);
+        LOG.info("Dispatcher tenant fair queuing: maxDepth=" + maxDepth + " maxTracked=" + maxTracked
+            + " tenantSource=" + (attribute.isEmpty() ? "allocation-tag" : "resource." + attribute));
+        return new TenantFairQueuing(resolver, maxDepth, maxTracked);
+    }
+
+    /** {@code null} unless per-tenant rate quotas are enabled. */
+    private static TenantQuotaAdmissionPolicy resolveTenantQuotaPolicy() {
+        if (!EnvVars.getBoolean(GatewayEnvKeys.GATEWAY_TENANT_QUOTA_ENABLED, false)) {
+            return null;
+        }
+        double rps = EnvVars.getDoubleClamped(GatewayEnvKeys.GATEWAY_TENANT_QUOTA_RPS,
+            GatewayDefaults.DEFAULT_TENANT_QUOTA_RPS, 0.0d, 1_000_000_000.0d);
+        long bytesPerSecond = EnvVars.getLongClamped(GatewayEnvKeys.GATEWAY_TENANT_QUOTA_BYTES_PER_SEC,
+            GatewayDefaults.DEFAULT_TENANT_QUOTA_BYTES_PER_SEC, 0L, Long.MAX_VALUE);
+        double burstSeconds = EnvVars.getDoubleClamped(GatewayEnvKeys.GATEWAY_TENANT_QUOTA_BURST_SECONDS,
+            GatewayDefaults.DEFAULT_TENANT_QUOTA_BURST_SECONDS, 0.001d, 3_600.0d);
+        int maxTracked = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_TENANT_QUOTA_MAX_TRACKED,
+            GatewayDefaults.DEFAULT_TENANT_QUOTA_MAX_TRACKED, 0, 65_536);
+        String attribute = EnvVars.getOrDefault(GatewayEnvKeys.GATEWAY_TENANT_QUOTA_ATTRIBUTE, "").trim();
+        Function<PolicyContext, String> tenantOf = PolicyContext::tenantId;
+        if (!attribute.isEmpty()) {
+            ResourceAttributeTenantResolver resolver = new ResourceAttributeTenantResolver(attribute);
+            tenantOf = context -> resolver.tenantOf(context.envelope(), context.tenantId());
+        }
+        LOG.info("Tenant quotas: rps=" + (rps == 0.0d ? "unlimited" : rps)
+            + " bytesPerSec=" + (bytesPerSecond == 0L ? "unlimited" : bytesPerSecond)
+            + " burstSeconds=" + burstSeconds + " maxTracked=" + maxTracked
+            + " tenantSource=" + (attribute.isEmpty() ? "header-or-allocation-tag" : "resource." + attribute));
+        return new TenantQuotaAdmissionPolicy(rps, bytesPerSecond, burstSeconds, maxTracked, tenantOf);
+    }
+
+    /** {@code null} unless quota peers are configured and the gossip port could be bound. */
+    private static QuotaPeerExchange resolveQuotaPeerExchange(TenantQuotaAdmissionPolicy policy) {
+        String peers = EnvVars.getOrDefault(GatewayEnvKeys.GATEWAY_TENANT_QUOTA_PEERS, "").trim();
+        if (peers.isEmpty()) {
+            return null;
+        }
+        int port = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_TENANT_QUOTA_GOSSIP_PORT,
+            GatewayDefaults.DEFAULT_TENANT_QUOTA_GOSSIP_PORT, 1, 65_535);
+        String bindHost = EnvVars.getOrDefault(GatewayEnvKeys.GATEWAY_TENANT_QUOTA_GOSSIP_BIND_ADDRESS,
+            GatewayDefaults.DEFAULT_TENANT_QUOTA_GOSSIP_BIND_ADDRESS).trim();
+        int intervalMs = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_TENANT_QUOTA_GOSSIP_INTERVAL_MS,
+            GatewayDefaults.DEFAULT_TENANT_QUOTA_GOSSIP_INTERVAL_MS, 5, 60_000);
+        try {
+            QuotaPeerExchange exchange = QuotaPeerExchange.bind(policy, new InetSocketAddress(bindHost, port), intervalMs * 1_000_000L);
+            LOG.info("Tenant quota peers: " + peers + " gossipBind=" + bindHost + ":" + port + " intervalMs=" + intervalMs);
+            return exchange;
+        } catch (IOException | UnresolvedAddressException e) {
+            LOG.warning("Tenant quota peer exchange disabled, cannot bind UDP " + bindHost + ":" + port + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Throttle factory: one instance per lane (and one overall), since throttles keep their
+     * mode for hysteresis. Composite throttles share one sampler of the allocator and exporter.
+     */
+    private static Supplier<ThrottleStrategy> resolveThrottleStrategy(double shedLightRatio,
+                                                                      double shedAggressiveRatio,
+                                                                      PacketAllocator allocator,
+                                                                      long slabCapacityBytes,
+                                                                      AsyncOtlpHttpExporter exporter) {
+        String name = EnvVars.getOrDefault(GatewayEnvKeys.GATEWAY_THROTTLE_STRATEGY,
+            GatewayDefaults.DEFAULT_THROTTLE_STRATEGY).trim().toLowerCase(Locale.ROOT);
+        if (!name.equals("composite")) {
+            if (!name.equals("watermark")) {
+                LOG.warning("Unknown " + GatewayEnvKeys.GATEWAY_THROTTLE_STRATEGY + "=" + name + ", using watermark");
+            }
+            return () -> new WatermarkThrottleStrategy(shedLightRatio, shedAggressiveRatio,
+                GatewayDefaults.DEFAULT_THROTTLE_PAUSE_NANOS);
+        }
+        int memoryLow = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_THROTTLE_MEMORY_LOW_PERCENT,
+            GatewayDefaults.DEFAULT_THROTTLE_MEMORY_LOW_PERCENT, 1, 100);
+        int memoryCritical = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_THROTTLE_MEMORY_CRITICAL_PERCENT,
+            GatewayDefaults.DEFAULT_THROTTLE_MEMORY_CRITICAL_PERCENT, memoryLow, 100);
+        int inFlightLow = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_THROTTLE_INFLIGHT_LOW_PERCENT,
+            GatewayDefaults.DEFAULT_THROTTLE_INFLIGHT_LOW_PERCENT, 1, 100);
+        int inFlightCritical = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_THROTTLE_INFLIGHT_CRITICAL_PERCENT,
+            GatewayDefaults.DEFAULT_THROTTLE_INFLIGHT_CRITICAL_PERCENT, inFlightLow, 100);
+        int latencyLowMs = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_THROTTLE_UPSTREAM_P99_LOW_MS,
+            GatewayDefaults.DEFAULT_THROTTLE_UPSTREAM_P99_LOW_MS, 1, 600_000);
+        int latencyCriticalMs = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_THROTTLE_UPSTREAM_P99_CRITICAL_MS,
+            GatewayDefaults.DEFAULT_THROTTLE_UPSTREAM_P99_CRITICAL_MS, latencyLowMs, 600_000);
+        int hysteresisPercent = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_THROTTLE_HYSTERESIS_PERCENT,
+            GatewayDefaults.DEFAULT_THROTTLE_HYSTERESIS_PERCENT, 0, 50);
+        int sampleIntervalMs = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_THROTTLE_SAMPLE_INTERVAL_MS,
+            GatewayDefaults.DEFAULT_THROTTLE_SAMPLE_INTERVAL_MS, 1, 60_000);
+
+        double capacity = Math.max(1L, slabCapacityBytes);
+        SampledPressure sampled = new SampledPressure(List.of(
+            new PressureSource(PressureInput.MEMORY,
+                () -> allocator.stats().inUseBytes() / capacity,
+                PressureLevels.of(memoryLow / 100.0d, memoryCritical / 100.0d)),
+            new PressureSource(PressureInput.EXPORTER_IN_FLIGHT,
+                () -> exporter.stats().inFlightRatio(),
+                PressureLevels.of(inFlightLow / 100.0d, inFlightCritical / 100.0d)),
+            new PressureSource(PressureInput.UPSTREAM_LATENCY,
+                new WindowedQuantile(() -> exporter.stats().latencyMicros(), 0.99d),
+                PressureLevels.of(latencyLowMs * 1_000.0d, latencyCriticalMs * 1_000.0d))
+        ), sampleIntervalMs * 1_000_000L);
+        LOG.info("Dispatcher throttle: composite memory=" + memoryLow + ".." + memoryCritical + "%"
+            + " inFlight=" + inFlightLow + ".." + inFlightCritical + "%"
+            + " upstreamP99=" + latencyLowMs + ".." + latencyCriticalMs + "ms"
+            + " hysteresis=" + hysteresisPercent + "% sampleInterval=" + sampleIntervalMs + "ms");
+        return () -> new CompositeThrottleStrategy(sampled, shedLightRatio, shedAggressiveRatio,
+            GatewayDefaults.DEFAULT_THROTTLE_PAUSE_NANOS, hysteresisPercent / 100.0d);
+    }
+
+    private static RetryAfterPolicy resolveRetryAfterPolicy() {
+        String mode = EnvVars.getOrDefault(GatewayEnvKeys.GATEWAY_RETRY_AFTER_MODE,
+            GatewayDefaults.DEFAULT_RETRY_AFTER_MODE).trim().toLowerCase(Locale.ROOT);
+        if (mode.equals("fixed")) {
+            LOG.info("Dispatcher retry hints: fixed per throttle mode");
+            return null;
+        }
+        if (!mode.equals("drain_rate")) {
+            LOG.warning("Unknown " + GatewayEnvKeys.GATEWAY_RETRY_AFTER_MODE + "=" + mode + ", using drain_rate");
+        }
+        int minMs = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_RETRY_AFTER_MIN_MS,
+            GatewayDefaults.DEFAULT_RETRY_AFTER_MIN_MS, 1, 600_000);
+        int maxMs = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_RETRY_AFTER_MAX_MS,
+            GatewayDefaults.DEFAULT_RETRY_AFTER_MAX_MS, minMs, 600_000);
+        int jitter = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_RETRY_AFTER_JITTER_PERCENT,
+            GatewayDefaults.DEFAULT_RETRY_AFTER_JITTER_PERCENT, 0, 100);
+        int halfLifeMs = EnvVars.getIntClamped(GatewayEnvKeys.GATEWAY_DRAIN_RATE_HALF_LIFE_MS,
+            GatewayDefaults.DEFAULT_DRAIN_RATE_HALF_LIFE_MS, 10, 60_000);
+        LOG.info("Dispatcher retry hints: drain_rate min=" + minMs + "ms max=" + maxMs + "ms jitter=" + jitter
+            + "% halfLife=" + halfLifeMs + "ms");
+        return new RetryAfterPolicy(minMs, maxMs, jitter, halfLifeMs * 1_000_000L);
+    }
+
     private static IntegrityRepair resolveIntegrityRepair() {
         String mode = EnvVars.getOrDefault(GatewayEnvKeys.GATEWAY_REFRAME_INTEGRITY_MODE, "none").trim().toLowerCase();
         return switch (mode) {
@@ -406,6 +1219,7 @@ public final class NettyGatewayProxyMain {
                                 PeriodicMetricsReporter metricsReporter,
                                 MetricsHttpEndpoint metricsEndpoint,
                                 AsyncFileAuditSink auditSink,
+                                SlabCompactor slabCompactor,
                                 PacketAllocator allocator,
                                 AtomicBoolean stopped) {
         if (!stopped.compareAndSet(false, true)) {
@@ -454,6 +1268,9 @@ public final class NettyGatewayProxyMain {
         } catch (Exception e) {
             LOG.fine("Shutdown: exporter stop failed: " + e.getClass().getSimpleName());
         }
+        if (slabCompactor != null) {
+            slabCompactor.close();
+        }
         if (allocator != null) {
             try {
                 allocator.close();
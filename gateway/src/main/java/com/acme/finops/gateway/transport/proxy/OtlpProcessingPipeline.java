@@ -169,6 +169,18 @@ public final class OtlpProcessingPipeline implements IngressPort, TransportAdapt
     }
 
     IngestResult processCore(InboundPacket packet) {
+        return process(packet, true);
+    }
+
+    /**
+     * Dispatcher worker entry point: like {@link #processCore} but without the admission
+     * policy, which {@link #onPacket} already applied before the enqueue ack.
+     */
+    IngestResult processAdmitted(InboundPacket packet) {
+        return process(packet, false);
+    }
+
+    private IngestResult process(InboundPacket packet, boolean evaluateAdmission) {
         long nowNanos = System.nanoTime();
         metrics.incPacketsIn(1L);
         if (packet == null || packet.packetRef() == null) {
@@ -186,36 +198,19 @@ public final class OtlpProcessingPipeline implements IngressPort, TransportAdapt
             return new IngestResult.Rejected(packet.requestId(), GatewayStatusCodes.BAD_REQUEST, false);
         }
 
-        PolicyDecision decision;
-        try {
-            decision = admissionPolicy.evaluate(new PolicyContext(
-                packet.requestId(),
-                0L,
-                packet.packetRef(),
-                nowNanos
-            ));
-        } catch (RuntimeException e) {
-            LOG.log(Level.WARNING, "Policy evaluation failed requestId=" + packet.requestId(), e);
-            if (admissionPolicy.mode() == PolicyMode.FAIL_OPEN) {
-                decision = PolicyDecision.routeDefault(packet.requestId());
-                appendAudit("POLICY_ALLOW_FAIL_OPEN", packet, "allow_fail_open", Map.of("error", e.getClass().getSimpleName()));
-            } else {
-                appendAudit("POLICY_DENY", packet, "policy_eval_failed", Map.of());
-                metrics.incDropped(1L, GatewayStatusCodes.INTERNAL_ERROR);
-                return new IngestResult.Rejected(packet.requestId(), GatewayStatusCodes.INTERNAL_ERROR, true);
+        PolicyDecision decision = PolicyDecision.routeDefault(packet.requestId());
+        if (evaluateAdmission) {
+            decision = admit(packet, nowNanos);
+            IngestResult refused = refusal(packet, decision);
+            if (refused != null) {
+                return refused;
             }
         }
 
-        if (decision.action() == DecisionAction.DROP) {
-            appendAudit("POLICY_DROP", packet, Integer.toString(decision.reasonCode()), Map.of());
-            metrics.incDropped(1L, decision.reasonCode());
-            return new IngestResult.Accepted(decision.requestId(), 0L);
-        }
-
         PacketRef outbound = packet.packetRef();
         boolean releaseOutbound = false;
         try {
-            MutationPlan plan = mutationPlanner.plan(outbound, decision);
+            MutationPlan plan = mutationPlanner.plan(outbound.touch("plan"), decision);
             if (plan == null) {
                 metrics.incDropped(1L, GatewayStatusCodes.INTERNAL_ERROR);
                 return new IngestResult.Rejected(packet.requestId(), GatewayStatusCodes.INTERNAL_ERROR, true);
@@ -261,6 +256,10 @@ public final class OtlpProcessingPipeline implements IngressPort, TransportAdapt
                 try {
                     exportFuture.join();
                 } catch (CompletionException immediateFailure) {
+                    if (immediateFailure.getCause() instanceof ExportDeadlineExceededException) {
+                        metrics.incDropped(1L, GatewayStatusCodes.DEADLINE_EXPIRED);
+                        return new IngestResult.Rejected(packet.requestId(), GatewayStatusCodes.GATEWAY_TIMEOUT, false);
+                    }
                     LOG.log(Level.WARNING, "Export backpressure requestId=" + packet.requestId(), immediateFailure.getCause());
                     return new IngestResult.Busy(packet.requestId(), 100L);
                 }
@@ -268,6 +267,12 @@ public final class OtlpProcessingPipeline implements IngressPort, TransportAdapt
 
             exportFuture
                 .whenComplete((status, error) -> {
+                    if (error instanceof ExportDeadlineExceededException
+                        || error instanceof CompletionException && error.getCause() instanceof ExportDeadlineExceededException) {
+                        appendAudit("EXPORT_SKIPPED", packet, "deadline_expired", Map.of());
+                        metrics.incDropped(1L, GatewayStatusCodes.DEADLINE_EXPIRED);
+                        return;
+                    }
                     if (error != null) {
                         LOG.log(Level.WARNING, "Export failed requestId=" + packet.requestId(), error);
                         appendAudit("EXPORT_FAILED", packet, "export_exception", Map.of("error", error.getClass().getSimpleName()));
@@ -293,6 +298,8 @@ public final class OtlpProcessingPipeline implements IngressPort, TransportAdapt
         } finally {
             if (releaseOutbound) {
                 try {
+                    // Created pinned; an export still holding it pins it only while writing.
+                    outbound.unpin();
                     outbound.release();
                 } catch (RuntimeException releaseError) {
                     LOG.log(Level.WARNING, "Failed to release reframed packet requestId=" + packet.requestId(), releaseError);
@@ -301,6 +308,59 @@ public final class OtlpProcessingPipeline implements IngressPort, TransportAdapt
         }
     }
 
+    /** The admission policy's decision; {@code null} if evaluation failed and the policy fails closed. */
+    private PolicyDecision admit(InboundPacket packet, long nowNanos) {
+        try {
+            return admissionPolicy.evaluate(new PolicyContext(
+                packet.requestId(),
+                packet.tenantId(),
+                packet.packetRef(),
+                nowNanos
+            ));
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Policy evaluation failed requestId=" + packet.requestId(), e);
+            if (admissionPolicy.mode() == PolicyMode.FAIL_OPEN) {
+                appendAudit("POLICY_ALLOW_FAIL_OPEN", packet, "allow_fail_open", Map.of("error", e.getClass().getSimpleName()));
+                return PolicyDecision.routeDefault(packet.requestId());
+            }
+            appendAudit("POLICY_DENY", packet, "policy_eval_failed", Map.of());
+            metrics.incDropped(1L, GatewayStatusCodes.INTERNAL_ERROR);
+            return null;
+        }
+    }
+
+    /** Returns the quota an admitted request was charged when the dispatcher then refuses it. */
+    private void refundAdmission(InboundPacket packet) {
+        try {
+            admissionPolicy.refund(new PolicyContext(
+                packet.requestId(),
+                packet.tenantId(),
+                packet.packetRef(),
+                System.nanoTime()
+            ));
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Policy refund failed requestId=" + packet.requestId(), e);
+        }
+    }
+
+    /** The result for a request the admission decision ends here, or {@code null} if it is admitted. */
+    private IngestResult refusal(InboundPacket packet, PolicyDecision decision) {
+        if (decision == null) {
+            return new IngestResult.Rejected(packet.requestId(), GatewayStatusCodes.INTERNAL_ERROR, true);
+        }
+        if (decision.action() == DecisionAction.DROP) {
+            appendAudit("POLICY_DROP", packet, Integer.toString(decision.reasonCode()), Map.of());
+            metrics.incDropped(1L, decision.reasonCode());
+            return new IngestResult.Accepted(decision.requestId(), 0L);
+        }
+        if (decision.action() == DecisionAction.THROTTLE) {
+            appendAudit("POLICY_THROTTLE", packet, Integer.toString(decision.reasonCode()), Map.of());
+            metrics.incDropped(1L, decision.reasonCode());
+            return new IngestResult.Busy(decision.requestId(), decision.retryAfterMillis());
+        }
+        return null;
+    }
+
     @Override
     public Set<ProtocolKind> supportedProtocols() {
         return SUPPORTED;
@@ -309,10 +369,22 @@ public final class OtlpProcessingPipeline implements IngressPort, TransportAdapt
     @Override
     public TransportResponse onPacket(InboundPacket packet) {
         if (dispatcher != null) {
+            // The client is acked at enqueue, so admission has to be decided before it.
+            boolean admitted = false;
+            if (packet != null && packet.packetRef() != null) {
+                IngestResult refused = refusal(packet, admit(packet, System.nanoTime()));
+                if (refused != null) {
+                    return toTransportResponse(refused);
+                }
+                admitted = true;
+            }
             EnqueueResult enqueueResult = dispatcher.enqueue(packet);
             if (enqueueResult instanceof EnqueueResult.Accepted) {
                 return new TransportAck(GatewayStatusCodes.OK, null);
             }
+            if (admitted) {
+                refundAdmission(packet);
+            }
             if (enqueueResult instanceof EnqueueResult.Busy busy) {
                 return new TransportNack(GatewayStatusCodes.TOO_MANY_REQUESTS, busy.reasonCode(), true, busy.retryAfterMillis());
             }
@@ -320,7 +392,35 @@ public final class OtlpProcessingPipeline implements IngressPort, TransportAdapt
             return new TransportNack(statusFromErrorCode(rejected.errorCode()), rejected.errorCode(), rejected.retryable(), 0L);
         }
 
-        IngestResult result = processCore(packet);
+        if (packet != null && packet.packetRef() != null && packet.packetRef().descriptor() != null
+            && packet.packetRef().descriptor().deadlineExpired(System.nanoTime())) {
+            metrics.incDropped(1L, GatewayStatusCodes.DEADLINE_EXPIRED);
+            return new TransportNack(GatewayStatusCodes.GATEWAY_TIMEOUT, GatewayStatusCodes.GATEWAY_TIMEOUT, false, 0L);
+        }
+        try {
+            return toTransportResponse(processCore(packet));
+        } finally {
+            dropCreationPin(packet);
+        }
+    }
+
+    /**
+     * Drops the pin a fresh ref is created with once processing is done with the payload, as
+     * the dispatcher does at enqueue: an export still holding the packet pins it only while
+     * writing, so the allocator may relocate it in the meantime.
+     */
+    private static void dropCreationPin(InboundPacket packet) {
+        if (packet == null || packet.packetRef() == null) {
+            return;
+        }
+        try {
+            packet.packetRef().unpin();
+        } catch (RuntimeException unpinError) {
+            LOG.log(Level.WARNING, "Failed to unpin packetRef requestId=" + packet.requestId(), unpinError);
+        }
+    }
+
+    private static TransportResponse toTransportResponse(IngestResult result) {
         if (result instanceof IngestResult.Accepted) {
             return new TransportAck(GatewayStatusCodes.OK, null);
         }
@@ -0,0 +1,63 @@
+package com.acme.finops.gateway.transport.proxy;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How {@link AsyncIngressDispatcher} turns a lane's expected drain time into a retry hint.
+ *
+ * <p>The estimate is clamped to {@code [minMillis, maxMillis]} and then stretched by a
+ * random {@code 0..jitterPercent} percent, so clients refused together spread their retries
+ * over a window that starts when the backlog is expected to be gone rather than all
+ * coming back at once.</p>
+ *
+ * <p>HTTP's {@code Retry-After} only carries whole seconds, which would round most
+ * jittered hints to the same value. {@link #retryAfterMillis(long, boolean)} therefore
+ * rounds the estimate up to seconds first and spreads the jitter over whole seconds.</p>
+ *
+ * @param minMillis         shortest hint, also used when the lane is already below its low watermark
+ * @param maxMillis         longest hint, before jitter
+ * @param jitterPercent     upper bound of the random stretch, in percent of the clamped estimate
+ * @param rateHalfLifeNanos half life of the drain-rate EWMA
+ */
+public record RetryAfterPolicy(long minMillis, long maxMillis, int jitterPercent, long rateHalfLifeNanos) {
+    public RetryAfterPolicy {
+        if (minMillis < 1L || maxMillis < minMillis) {
+            throw new IllegalArgumentException("require 1 <= minMillis <= maxMillis");
+        }
+        if (jitterPercent < 0 || jitterPercent > 100) {
+            throw new IllegalArgumentException("jitterPercent must be in [0, 100]");
+        }
+        if (rateHalfLifeNanos <= 0L) {
+            throw new IllegalArgumentException("rateHalfLifeNanos must be > 0");
+        }
+    }
+
+    /** Clamped and jittered hint for an expected drain time of {@code estimateMillis}. */
+    public long retryAfterMillis(long estimateMillis) {
+        long clamped = Math.min(maxMillis, Math.max(minMillis, estimateMillis));
+        if (jitterPercent == 0) {
+            return clamped;
+        }
+        long spread = clamped * jitterPercent / 100L;
+        return spread <= 0L ? clamped : clamped + ThreadLocalRandom.current().nextLong(spread + 1L);
+    }
+
+    /**
+     * @param wholeSeconds {@code true} when the hint is sent in whole seconds: the result is
+     *                     then a multiple of one second, drawn from {@code [s, s + max(1, s * jitterPercent / 100)]}
+     *                     for the clamped estimate rounded up to {@code s} seconds
+     */
+    public long retryAfterMillis(long estimateMillis, boolean wholeSeconds) {
+        if (!wholeSeconds) {
+            return retryAfterMillis(estimateMillis);
+        }
+        long clamped = Math.min(maxMillis, Math.max(minMillis, estimateMillis));
+        long seconds = (clamped + 999L) / 1_000L;
+        if (jitterPercent == 0) {
+            return seconds * 1_000L;
+        }
+        // A window under one second would collapse to a single value; widen it to two.
+        long spread = Math.max(1L, (seconds * jitterPercent + 99L) / 100L);
+        return (seconds + ThreadLocalRandom.current().nextLong(spread + 1L)) * 1_000L;
+    }
+}
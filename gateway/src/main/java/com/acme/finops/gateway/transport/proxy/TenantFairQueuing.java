@@ -0,0 +1,134 @@
+package com.acme.finops.gateway.transport.proxy;
+
+import com.acme.finops.gateway.telemetry.Log2Histogram;
+import com.acme.finops.gateway.transport.api.InboundPacket;
+import com.acme.finops.gateway.transport.api.TenantKeyResolver;
+import com.acme.finops.gateway.util.GatewayDefaults;
+import com.acme.finops.gateway.util.TenantRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-tenant fair queuing for {@link AsyncIngressDispatcher}.
+ *
+ * <p>Stochastic fair queuing over the dispatcher's existing shards: each tenant is hashed
+ * (with a per-instance salt) onto one shard of its lane, so a tenant's packets form one
+ * sub-queue, and workers already visit shards round robin with a {@code drainBatch}
+ * quantum each, which is deficit round robin between sub-queues. A tenant sending a burst
+ * therefore fills at most its own shard and its own {@code maxTenantDepth}, and tenants
+ * hashed elsewhere keep their queue delay. Tenants that share a shard share its quantum.
+ * A deep tenant shard is still drained by more than one worker through work stealing.</p>
+ *
+ * <p>Counters live in a {@link TenantRegistry}, whose slot doubles as the envelope's flow:
+ * the first {@code maxTrackedTenants} distinct tenants get their own counters, later ones
+ * share the {@value TenantRegistry#OVERFLOW_TENANT} counters and depth bound, and packets
+ * without a tenant are queued as {@value TenantRegistry#UNKNOWN_TENANT}.</p>
+ *
+ * <h3>Concurrency Protocol</h3>
+ * <ul>
+ *   <li>{@link #admit} and {@link #cancel} run on ingress threads; {@link #onDequeue} on
+ *       dispatcher workers. Depth is one atomic counter per tenant, incremented by a
+ *       successful {@code admit} and decremented by {@code cancel} or {@code onDequeue}.</li>
+ *   <li>Slots are assigned once and never reused, so an envelope's flow slot stays valid
+ *       until it is dequeued.</li>
+ * </ul>
+ */
+public final class TenantFairQueuing {
+    private final TenantKeyResolver resolver;
+    private final int maxTenantDepth;
+    private final TenantRegistry<TenantCounters> counters;
+
+    public TenantFairQueuing(TenantKeyResolver resolver, int maxTenantDepth, int maxTrackedTenants) {
+        this(resolver, maxTenantDepth, maxTrackedTenants, ThreadLocalRandom.current().nextLong());
+    }
+
+    /** @param salt hash salt; fixed in tests so tenant-to-shard placement is reproducible */
+    TenantFairQueuing(TenantKeyResolver resolver, int maxTenantDepth, int maxTrackedTenants, long salt) {
+        this.resolver = Objects.requireNonNull(resolver, "resolver");
+        this.maxTenantDepth = Math.max(1, maxTenantDepth);
+        this.counters = new TenantRegistry<>(maxTrackedTenants, (tenant, slot) -> new TenantCounters(tenant, slot,
+            slot == TenantRegistry.OVERFLOW_SLOT ? salt : tenant.hashCode() ^ salt));
+    }
+
+    public int maxTenantDepth() {
+        return maxTenantDepth;
+    }
+
+    /**
+     * Reserves one unit of the packet's tenant depth.
+     *
+     * @return the tenant's flow slot, or {@code -1} if the tenant is at its depth bound
+     */
+    int admit(InboundPacket packet) {
+        TenantCounters counters = this.counters.entryFor(resolver.tenantOf(packet));
+        if (counters.depth.incrementAndGet() > maxTenantDepth) {
+            counters.depth.decrementAndGet();
+            counters.rejected.increment();
+            return -1;
+        }
+        counters.enqueued.increment();
+        return counters.slot;
+    }
+
+    /** Shard of a {@code shardCount}-shard lane that holds the flow's sub-queue. */
+    int shardFor(int flow, int shardCount) {
+        return Math.floorMod(counters.entry(flow).shardHash, shardCount);
+    }
+
+    /** Undoes an {@link #admit} whose packet was not queued after all. */
+    void cancel(int flow) {
+        TenantCounters counters = this.counters.entry(flow);
+        counters.depth.decrementAndGet();
+        counters.enqueued.decrement();
+    }
+
+    /** Records that a queued packet of {@code flow} left the queue after {@code delayNanos}. */
+    void onDequeue(int flow, long delayNanos) {
+        TenantCounters counters = this.counters.entry(flow);
+        counters.depth.decrementAndGet();
+        counters.dequeued.increment();
+        long delay = Math.max(0L, delayNanos);
+        counters.delayNanos.add(delay);
+        counters.delayMicros.record(delay / 1_000L);
+    }
+
+    /** Per-tenant counters, overflow slot first, then tenants in first-seen order. */
+    public List<TenantQueueStats> stats() {
+        List<TenantCounters> all = counters.entries();
+        List<TenantQueueStats> out = new ArrayList<>(all.size());
+        for (TenantCounters c : all) {
+            out.add(new TenantQueueStats(c.tenant, c.depth.get(), c.enqueued.sum(), c.rejected.sum(),
+                c.dequeued.sum(), c.delayNanos.sum(), c.delayMicros.snapshot().quantileUpperBound(0.99d) * 1_000L));
+        }
+        return out;
+    }
+
+    private static final class TenantCounters {
+        final String tenant;
+        final int slot;
+        final int shardHash;
+        final AtomicInteger depth = new AtomicInteger();
+        final LongAdder enqueued = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder dequeued = new LongAdder();
+        final LongAdder delayNanos = new LongAdder();
+        final Log2Histogram delayMicros = new Log2Histogram(GatewayDefaults.QUEUE_SOJOURN_HISTOGRAM_BUCKETS);
+
+        TenantCounters(String tenant, int slot, long seed) {
+            this.tenant = tenant;
+            this.slot = slot;
+            this.shardHash = (int) mix64(seed);
+        }
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
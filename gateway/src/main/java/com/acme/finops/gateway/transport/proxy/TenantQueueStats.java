@@ -0,0 +1,23 @@
+package com.acme.finops.gateway.transport.proxy;
+
+/**
+ * Point-in-time counters for one tenant of {@link TenantFairQueuing}.
+ *
+ * @param tenant          tenant key, or {@link com.acme.finops.gateway.util.TenantRegistry#OVERFLOW_TENANT} for untracked tenants
+ * @param depth           envelopes currently queued
+ * @param enqueued        envelopes accepted into the queue
+ * @param rejected        enqueues refused because the tenant was at its depth bound
+ * @param dequeued        envelopes drained by workers, kept or dropped
+ * @param delayNanosTotal total queue delay of dequeued envelopes
+ * @param delayP99Nanos   99th-percentile queue delay, rounded up to a power-of-two microsecond bound
+ */
+public record TenantQueueStats(
+    String tenant,
+    int depth,
+    long enqueued,
+    long rejected,
+    long dequeued,
+    long delayNanosTotal,
+    long delayP99Nanos
+) {
+}
@@ -0,0 +1,135 @@
+package com.acme.finops.gateway.transport.proxy;
+
+import java.util.Objects;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs {@link AsyncIngressDispatcher} processing on virtual threads instead of inline on
+ * the platform workers.
+ *
+ * <p>Workers still drain the queue and make drop decisions; each kept envelope
+ * ({@link Granularity#REQUEST}) or each drained batch ({@link Granularity#BATCH}) is then
+ * handed to a virtual thread. A semaphore bounds the number of in-flight tasks:
+ * when every permit is taken, the handing-off worker blocks, the queue backs up and the
+ * usual watermark throttling applies. Processing code may therefore block (a synchronous
+ * policy lookup, a disk spill) without stalling a dispatcher worker or a carrier thread,
+ * provided it does not block while holding a monitor: on JDK 21 that pins the carrier.
+ * See {@link com.acme.finops.gateway.telemetry.VirtualThreadPinningMonitor}.</p>
+ *
+ * <p>The virtual threads are pooled, at most {@link #maxInFlight()} of them, and retire
+ * after {@value #IDLE_KEEP_ALIVE_SECONDS} s without work. A thread per task would be cheap
+ * to start, but the pipeline keeps its cursors, evaluation scratch and span collectors in
+ * {@link ThreadLocal}s, and those would be rebuilt for every request.</p>
+ *
+ * <h3>Concurrency Protocol</h3>
+ * <ul>
+ *   <li>{@link #submit} is called by dispatcher workers only. It takes a permit before
+ *       handing the task to the pool; the task returns it when it finishes. With a permit
+ *       held, fewer than {@link #maxInFlight()} tasks are running, so the pool always has
+ *       a thread for it, idle or new.</li>
+ *   <li>If the hand-off fails, the permit is returned and the exception propagates to the
+ *       caller, which still owns the task's resources.</li>
+ *   <li>{@link #awaitQuiescence} takes every permit, so it returns {@code true} only once
+ *       no task is running.</li>
+ * </ul>
+ */
+public final class VirtualThreadExecution {
+    static final long IDLE_KEEP_ALIVE_SECONDS = 30L;
+
+    /** What one virtual thread processes. */
+    public enum Granularity {
+        /** One task per kept envelope. */
+        REQUEST,
+        /** One task per drained batch, processed sequentially. */
+        BATCH
+    }
+
+    private final Granularity granularity;
+    private final int maxInFlight;
+    private final Semaphore permits;
+    private final ThreadPoolExecutor pool;
+    private final LongAdder threadsCreated = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder permitWaits = new LongAdder();
+    private final LongAdder permitWaitNanos = new LongAdder();
+
+    public VirtualThreadExecution(Granularity granularity, int maxInFlight) {
+        this.granularity = Objects.requireNonNull(granularity, "granularity");
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.permits = new Semaphore(this.maxInFlight);
+        ThreadFactory virtualThreads = Thread.ofVirtual().name("ingress-vt-", 0L).factory();
+        this.pool = new ThreadPoolExecutor(
+            this.maxInFlight, this.maxInFlight, IDLE_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            task -> {
+                threadsCreated.increment();
+                return virtualThreads.newThread(task);
+            });
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    public Granularity granularity() {
+        return granularity;
+    }
+
+    public int maxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Runs {@code task} on a pooled virtual thread, first waiting for a permit if
+     * {@link #maxInFlight()} tasks are already running. The wait is uninterruptible:
+     * permits always come back as running tasks finish.
+     */
+    void submit(Runnable task) {
+        if (!permits.tryAcquire()) {
+            long waitStart = System.nanoTime();
+            permits.acquireUninterruptibly();
+            permitWaits.increment();
+            permitWaitNanos.add(System.nanoTime() - waitStart);
+        }
+        try {
+            pool.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (Throwable t) {
+            permits.release();
+            throw t;
+        }
+        started.increment();
+    }
+
+    /** Waits up to {@code timeoutNanos} for all running tasks to finish. */
+    boolean awaitQuiescence(long timeoutNanos) {
+        try {
+            if (permits.tryAcquire(maxInFlight, Math.max(0L, timeoutNanos), TimeUnit.NANOSECONDS)) {
+                permits.release(maxInFlight);
+                return true;
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public VirtualThreadStats stats() {
+        return new VirtualThreadStats(
+            maxInFlight,
+            maxInFlight - permits.availablePermits(),
+            started.sum(),
+            threadsCreated.sum(),
+            permitWaits.sum(),
+            permitWaitNanos.sum()
+        );
+    }
+}
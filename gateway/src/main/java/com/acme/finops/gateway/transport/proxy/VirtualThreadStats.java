@@ -0,0 +1,21 @@
+package com.acme.finops.gateway.transport.proxy;
+
+/**
+ * Point-in-time counters for {@link VirtualThreadExecution}.
+ *
+ * @param maxInFlight      semaphore bound on concurrently running tasks
+ * @param inFlight         tasks currently running
+ * @param started          tasks handed to virtual threads
+ * @param threadsCreated   pooled virtual threads created, including ones that have since retired
+ * @param permitWaits      hand-offs that found every permit taken and blocked the worker
+ * @param permitWaitNanos  total time workers spent blocked on a permit
+ */
+public record VirtualThreadStats(
+    int maxInFlight,
+    int inFlight,
+    long started,
+    long threadsCreated,
+    long permitWaits,
+    long permitWaitNanos
+) {
+}
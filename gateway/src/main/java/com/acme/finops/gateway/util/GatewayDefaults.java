@@ -11,6 +11,16 @@ public final class GatewayDefaults {
     public static final long DEFAULT_SLAB_SIZE_BYTES = 1024L * 1024 * 1024;
     public static final int DEFAULT_ALLOCATOR_SHARDS = 4;
     public static final int DEFAULT_SLAB_REGIONS = 8;
+    public static final long DEFAULT_SLAB_ARENA_BYTES = 128L * 1024 * 1024;
+    public static final int DEFAULT_SLAB_MIN_ARENAS = 1;
+    public static final long DEFAULT_SLAB_IDLE_COOLDOWN_MS = 60_000L;
+    public static final long DEFAULT_SLAB_GROW_AFTER_MS = 200L;
+    public static final long DEFAULT_SLAB_MAINTENANCE_INTERVAL_MS = 1_000L;
+    public static final long DEFAULT_SLAB_COMPACTION_INTERVAL_MS = 1_000L;
+    public static final long DEFAULT_SLAB_COMPACTION_MAX_BYTES = 4L * 1024 * 1024;
+    public static final int DEFAULT_SLAB_COMPACTION_MAX_LIVE_PERCENT = 10;
+    public static final long DEFAULT_LEAK_DETECTION_MAX_AGE_MS = 30_000L;
+    public static final int DEFAULT_LEAK_DETECTION_MAX_TRACKED = 4_096;
 
     // ---- Exporter ----
     public static final int DEFAULT_MAX_INFLIGHT = 16_384;
@@ -25,6 +35,30 @@ public final class GatewayDefaults {
     public static final int DEFAULT_QUEUE_CAPACITY = 65_536;
     public static final int DEFAULT_QUEUE_SHARDS = 16;
     public static final int DEFAULT_QUEUE_WORKERS = 16;
+    public static final int DEFAULT_QUEUE_DRAIN_BATCH = 64;
+    public static final int DEFAULT_QUEUE_STEAL_MIN_DEPTH = 64;
+    public static final String DEFAULT_QUEUE_WAIT_STRATEGY = "phased";
+    public static final long DEFAULT_QUEUE_WAIT_SPIN_NANOS = 20_000L;
+    public static final long DEFAULT_QUEUE_WAIT_YIELD_NANOS = 100_000L;
+    public static final long DEFAULT_QUEUE_WAIT_MAX_PARK_NANOS = 10_000_000L;
+    public static final int QUEUE_WAIT_YIELDING_SPIN_ROUNDS = 100;
+    public static final String DEFAULT_QUEUE_EXECUTION_MODE = "platform";
+    public static final int DEFAULT_QUEUE_VIRTUAL_MAX_IN_FLIGHT = 256;
+    public static final int DEFAULT_QUEUE_VIRTUAL_PIN_THRESHOLD_MS = 20;
+    public static final int QUEUE_VIRTUAL_PIN_LOGGED_STACKS = 10;
+    public static final int DEFAULT_QUEUE_TENANT_MAX_DEPTH = 4096;
+    public static final int DEFAULT_QUEUE_TENANT_MAX_TRACKED = 1024;
+    public static final double DEFAULT_TENANT_QUOTA_RPS = 1_000.0d;
+    public static final long DEFAULT_TENANT_QUOTA_BYTES_PER_SEC = 0L;
+    public static final double DEFAULT_TENANT_QUOTA_BURST_SECONDS = 1.0d;
+    public static final int DEFAULT_TENANT_QUOTA_MAX_TRACKED = 1024;
+    public static final int DEFAULT_TENANT_QUOTA_GOSSIP_PORT = 7947;
+    public static final String DEFAULT_TENANT_QUOTA_GOSSIP_BIND_ADDRESS = "0.0.0.0";
+    public static final int DEFAULT_TENANT_QUOTA_GOSSIP_INTERVAL_MS = 100;
+    /** Sojourn histogram buckets: {@code <= 1us} up to {@code <= 2^22us} (~4.2 s), then {@code +Inf}. */
+    public static final int QUEUE_SOJOURN_HISTOGRAM_BUCKETS = 24;
+    /** Exporter latency histogram buckets: {@code <= 1us} up to {@code <= 2^24us} (~16.8 s), then {@code +Inf}. */
+    public static final int EXPORTER_LATENCY_HISTOGRAM_BUCKETS = 26;
 
     // ---- Netty transport ----
     public static final int DEFAULT_SO_BACKLOG = 1024;
@@ -36,9 +70,30 @@ public final class GatewayDefaults {
     public static final long RETRY_CLOSED_MS = 100L;
     public static final long RETRY_SHED_AGGRESSIVE_MS = 150L;
     public static final long RETRY_PAUSE_INGRESS_MS = 250L;
+    /** Hint sent with allocator quota denials; charges are refunded as soon as in-flight packets are released. */
+    public static final long RETRY_ALLOCATION_QUOTA_MS = 250L;
+
+    // ---- Drain-rate retry hints ----
+    public static final String DEFAULT_RETRY_AFTER_MODE = "drain_rate";
+    public static final int DEFAULT_RETRY_AFTER_MIN_MS = 25;
+    public static final int DEFAULT_RETRY_AFTER_MAX_MS = 5_000;
+    public static final int DEFAULT_RETRY_AFTER_JITTER_PERCENT = 20;
+    public static final int DEFAULT_DRAIN_RATE_HALF_LIFE_MS = 1_000;
 
     // ---- Throttle ----
     public static final long DEFAULT_THROTTLE_PAUSE_NANOS = 5_000_000L;
+    public static final String DEFAULT_DROP_POLICY = "watermark";
+    public static final int DEFAULT_CODEL_TARGET_MS = 5;
+    public static final int DEFAULT_CODEL_INTERVAL_MS = 100;
+    public static final String DEFAULT_THROTTLE_STRATEGY = "watermark";
+    public static final int DEFAULT_THROTTLE_MEMORY_LOW_PERCENT = 70;
+    public static final int DEFAULT_THROTTLE_MEMORY_CRITICAL_PERCENT = 95;
+    public static final int DEFAULT_THROTTLE_INFLIGHT_LOW_PERCENT = 60;
+    public static final int DEFAULT_THROTTLE_INFLIGHT_CRITICAL_PERCENT = 100;
+    public static final int DEFAULT_THROTTLE_UPSTREAM_P99_LOW_MS = 250;
+    public static final int DEFAULT_THROTTLE_UPSTREAM_P99_CRITICAL_MS = 2_000;
+    public static final int DEFAULT_THROTTLE_HYSTERESIS_PERCENT = 10;
+    public static final int DEFAULT_THROTTLE_SAMPLE_INTERVAL_MS = 100;
 
     // ---- Exporter response aggregator ----
     public static final int EXPORTER_RESPONSE_LIMIT = 2 * 1024 * 1024;
@@ -18,6 +18,8 @@ public final class GatewayEnvKeys {
     public static final String GATEWAY_MASKING_RULES = "GATEWAY_MASKING_RULES";
     public static final String GATEWAY_MASKING_SIMD = "GATEWAY_MASKING_SIMD";
     public static final String GATEWAY_MASKING_MAX_OPS_PER_PACKET = "GATEWAY_MASKING_MAX_OPS_PER_PACKET";
+    public static final String GATEWAY_MASKING_SINGLE_PASS = "GATEWAY_MASKING_SINGLE_PASS";
+    public static final String GATEWAY_MASKING_VALIDATE_ONCE = "GATEWAY_MASKING_VALIDATE_ONCE";
 
     public static final String GATEWAY_QUEUE_ENABLED = "GATEWAY_QUEUE_ENABLED";
     public static final String GATEWAY_QUEUE_CAPACITY = "GATEWAY_QUEUE_CAPACITY";
@@ -25,7 +27,48 @@ public final class GatewayEnvKeys {
     public static final String GATEWAY_ALLOCATOR_SHARDS = "GATEWAY_ALLOCATOR_SHARDS";
     public static final String GATEWAY_SLAB_SIZE_BYTES = "GATEWAY_SLAB_SIZE_BYTES";
     public static final String GATEWAY_SLAB_REGIONS = "GATEWAY_SLAB_REGIONS";
+    public static final String GATEWAY_SLAB_ELASTIC_ENABLED = "GATEWAY_SLAB_ELASTIC_ENABLED";
+    public static final String GATEWAY_SLAB_ARENA_BYTES = "GATEWAY_SLAB_ARENA_BYTES";
+    public static final String GATEWAY_SLAB_MIN_ARENAS = "GATEWAY_SLAB_MIN_ARENAS";
+    public static final String GATEWAY_SLAB_IDLE_COOLDOWN_MS = "GATEWAY_SLAB_IDLE_COOLDOWN_MS";
+    public static final String GATEWAY_SLAB_GROW_AFTER_MS = "GATEWAY_SLAB_GROW_AFTER_MS";
+    public static final String GATEWAY_SLAB_PRETOUCH_ENABLED = "GATEWAY_SLAB_PRETOUCH_ENABLED";
+    public static final String GATEWAY_SLAB_PRETOUCH_THREADS = "GATEWAY_SLAB_PRETOUCH_THREADS";
+    public static final String GATEWAY_SLAB_BACKING_DIR = "GATEWAY_SLAB_BACKING_DIR";
+    public static final String GATEWAY_SLAB_COMPACTION_ENABLED = "GATEWAY_SLAB_COMPACTION_ENABLED";
+    public static final String GATEWAY_SLAB_COMPACTION_INTERVAL_MS = "GATEWAY_SLAB_COMPACTION_INTERVAL_MS";
+    public static final String GATEWAY_SLAB_COMPACTION_MAX_BYTES = "GATEWAY_SLAB_COMPACTION_MAX_BYTES";
+    public static final String GATEWAY_SLAB_COMPACTION_MAX_LIVE_PERCENT = "GATEWAY_SLAB_COMPACTION_MAX_LIVE_PERCENT";
+    public static final String GATEWAY_ALLOCATOR_QUOTAS_ENABLED = "GATEWAY_ALLOCATOR_QUOTAS_ENABLED";
+    public static final String GATEWAY_ALLOCATOR_TENANT_QUOTAS = "GATEWAY_ALLOCATOR_TENANT_QUOTAS";
+    public static final String GATEWAY_ALLOCATOR_SIGNAL_QUOTAS = "GATEWAY_ALLOCATOR_SIGNAL_QUOTAS";
     public static final String GATEWAY_QUEUE_WORKERS = "GATEWAY_QUEUE_WORKERS";
+    public static final String GATEWAY_QUEUE_DRAIN_BATCH = "GATEWAY_QUEUE_DRAIN_BATCH";
+    public static final String GATEWAY_QUEUE_STEAL_MIN_DEPTH = "GATEWAY_QUEUE_STEAL_MIN_DEPTH";
+    public static final String GATEWAY_QUEUE_WAIT_STRATEGY = "GATEWAY_QUEUE_WAIT_STRATEGY";
+    public static final String GATEWAY_QUEUE_WAIT_SPIN_US = "GATEWAY_QUEUE_WAIT_SPIN_US";
+    public static final String GATEWAY_QUEUE_WAIT_YIELD_US = "GATEWAY_QUEUE_WAIT_YIELD_US";
+    public static final String GATEWAY_QUEUE_WAIT_MAX_PARK_US = "GATEWAY_QUEUE_WAIT_MAX_PARK_US";
+    public static final String GATEWAY_QUEUE_LANES = "GATEWAY_QUEUE_LANES";
+    public static final String GATEWAY_QUEUE_EXECUTION_MODE = "GATEWAY_QUEUE_EXECUTION_MODE";
+    public static final String GATEWAY_QUEUE_VIRTUAL_MAX_IN_FLIGHT = "GATEWAY_QUEUE_VIRTUAL_MAX_IN_FLIGHT";
+    public static final String GATEWAY_QUEUE_VIRTUAL_PIN_DIAGNOSTICS = "GATEWAY_QUEUE_VIRTUAL_PIN_DIAGNOSTICS";
+    public static final String GATEWAY_QUEUE_VIRTUAL_PIN_THRESHOLD_MS = "GATEWAY_QUEUE_VIRTUAL_PIN_THRESHOLD_MS";
+    public static final String GATEWAY_QUEUE_TENANT_FAIRNESS = "GATEWAY_QUEUE_TENANT_FAIRNESS";
+    public static final String GATEWAY_QUEUE_TENANT_MAX_DEPTH = "GATEWAY_QUEUE_TENANT_MAX_DEPTH";
+    public static final String GATEWAY_QUEUE_TENANT_MAX_TRACKED = "GATEWAY_QUEUE_TENANT_MAX_TRACKED";
+    public static final String GATEWAY_QUEUE_TENANT_ATTRIBUTE = "GATEWAY_QUEUE_TENANT_ATTRIBUTE";
+    public static final String GATEWAY_TENANT_HEADER = "GATEWAY_TENANT_HEADER";
+    public static final String GATEWAY_TENANT_QUOTA_ENABLED = "GATEWAY_TENANT_QUOTA_ENABLED";
+    public static final String GATEWAY_TENANT_QUOTA_RPS = "GATEWAY_TENANT_QUOTA_RPS";
+    public static final String GATEWAY_TENANT_QUOTA_BYTES_PER_SEC = "GATEWAY_TENANT_QUOTA_BYTES_PER_SEC";
+    public static final String GATEWAY_TENANT_QUOTA_BURST_SECONDS = "GATEWAY_TENANT_QUOTA_BURST_SECONDS";
+    public static final String GATEWAY_TENANT_QUOTA_MAX_TRACKED = "GATEWAY_TENANT_QUOTA_MAX_TRACKED";
+    public static final String GATEWAY_TENANT_QUOTA_ATTRIBUTE = "GATEWAY_TENANT_QUOTA_ATTRIBUTE";
+    public static final String GATEWAY_TENANT_QUOTA_PEERS = "GATEWAY_TENANT_QUOTA_PEERS";
+    public static final String GATEWAY_TENANT_QUOTA_GOSSIP_PORT = "GATEWAY_TENANT_QUOTA_GOSSIP_PORT";
+    public static final String GATEWAY_TENANT_QUOTA_GOSSIP_BIND_ADDRESS = "GATEWAY_TENANT_QUOTA_GOSSIP_BIND_ADDRESS";
+    public static final String GATEWAY_TENANT_QUOTA_GOSSIP_INTERVAL_MS = "GATEWAY_TENANT_QUOTA_GOSSIP_INTERVAL_MS";
 
     public static final String GATEWAY_MAX_INFLIGHT = "GATEWAY_MAX_INFLIGHT";
     public static final String GATEWAY_EXPORTER_POOL_SIZE = "GATEWAY_EXPORTER_POOL_SIZE";
@@ -34,9 +77,30 @@ public final class GatewayEnvKeys {
     public static final String GATEWAY_BACKPRESSURE_LOW = "GATEWAY_BACKPRESSURE_LOW";
     public static final String GATEWAY_BACKPRESSURE_HIGH = "GATEWAY_BACKPRESSURE_HIGH";
     public static final String GATEWAY_BACKPRESSURE_CRITICAL = "GATEWAY_BACKPRESSURE_CRITICAL";
+    public static final String GATEWAY_BACKPRESSURE_LOW_BYTES = "GATEWAY_BACKPRESSURE_LOW_BYTES";
+    public static final String GATEWAY_BACKPRESSURE_HIGH_BYTES = "GATEWAY_BACKPRESSURE_HIGH_BYTES";
+    public static final String GATEWAY_BACKPRESSURE_CRITICAL_BYTES = "GATEWAY_BACKPRESSURE_CRITICAL_BYTES";
     public static final String GATEWAY_BACKPRESSURE_MAX_QUEUE_WAIT_MS = "GATEWAY_BACKPRESSURE_MAX_QUEUE_WAIT_MS";
     public static final String GATEWAY_BACKPRESSURE_SHED_LIGHT_RATIO = "GATEWAY_BACKPRESSURE_SHED_LIGHT_RATIO";
     public static final String GATEWAY_BACKPRESSURE_SHED_AGGRESSIVE_RATIO = "GATEWAY_BACKPRESSURE_SHED_AGGRESSIVE_RATIO";
+    public static final String GATEWAY_THROTTLE_STRATEGY = "GATEWAY_THROTTLE_STRATEGY";
+    public static final String GATEWAY_THROTTLE_MEMORY_LOW_PERCENT = "GATEWAY_THROTTLE_MEMORY_LOW_PERCENT";
+    public static final String GATEWAY_THROTTLE_MEMORY_CRITICAL_PERCENT = "GATEWAY_THROTTLE_MEMORY_CRITICAL_PERCENT";
+    public static final String GATEWAY_THROTTLE_INFLIGHT_LOW_PERCENT = "GATEWAY_THROTTLE_INFLIGHT_LOW_PERCENT";
+    public static final String GATEWAY_THROTTLE_INFLIGHT_CRITICAL_PERCENT = "GATEWAY_THROTTLE_INFLIGHT_CRITICAL_PERCENT";
+    public static final String GATEWAY_THROTTLE_UPSTREAM_P99_LOW_MS = "GATEWAY_THROTTLE_UPSTREAM_P99_LOW_MS";
+    public static final String GATEWAY_THROTTLE_UPSTREAM_P99_CRITICAL_MS = "GATEWAY_THROTTLE_UPSTREAM_P99_CRITICAL_MS";
+    public static final String GATEWAY_THROTTLE_HYSTERESIS_PERCENT = "GATEWAY_THROTTLE_HYSTERESIS_PERCENT";
+    public static final String GATEWAY_THROTTLE_SAMPLE_INTERVAL_MS = "GATEWAY_THROTTLE_SAMPLE_INTERVAL_MS";
+    public static final String GATEWAY_RETRY_AFTER_MODE = "GATEWAY_RETRY_AFTER_MODE";
+    public static final String GATEWAY_RETRY_AFTER_MIN_MS = "GATEWAY_RETRY_AFTER_MIN_MS";
+    public static final String GATEWAY_RETRY_AFTER_MAX_MS = "GATEWAY_RETRY_AFTER_MAX_MS";
+    public static final String GATEWAY_RETRY_AFTER_JITTER_PERCENT = "GATEWAY_RETRY_AFTER_JITTER_PERCENT";
+    public static final String GATEWAY_DRAIN_RATE_HALF_LIFE_MS = "GATEWAY_DRAIN_RATE_HALF_LIFE_MS";
+    public static final String GATEWAY_DEADLINE_DROP_EXPIRED = "GATEWAY_DEADLINE_DROP_EXPIRED";
+    public static final String GATEWAY_BACKPRESSURE_DROP_POLICY = "GATEWAY_BACKPRESSURE_DROP_POLICY";
+    public static final String GATEWAY_BACKPRESSURE_CODEL_TARGET_MS = "GATEWAY_BACKPRESSURE_CODEL_TARGET_MS";
+    public static final String GATEWAY_BACKPRESSURE_CODEL_INTERVAL_MS = "GATEWAY_BACKPRESSURE_CODEL_INTERVAL_MS";
 
     public static final String GATEWAY_METRICS_ENABLED = "GATEWAY_METRICS_ENABLED";
     public static final String GATEWAY_METRICS_LOG_INTERVAL_SEC = "GATEWAY_METRICS_LOG_INTERVAL_SEC";
@@ -44,6 +108,10 @@ public final class GatewayEnvKeys {
     public static final String GATEWAY_METRICS_HTTP_PORT = "GATEWAY_METRICS_HTTP_PORT";
     public static final String GATEWAY_METRICS_HTTP_PATH = "GATEWAY_METRICS_HTTP_PATH";
 
+    public static final String GATEWAY_LEAK_DETECTION_SAMPLE_RATE = "GATEWAY_LEAK_DETECTION_SAMPLE_RATE";
+    public static final String GATEWAY_LEAK_DETECTION_MAX_AGE_MS = "GATEWAY_LEAK_DETECTION_MAX_AGE_MS";
+    public static final String GATEWAY_LEAK_DETECTION_MAX_TRACKED = "GATEWAY_LEAK_DETECTION_MAX_TRACKED";
+
     public static final String GATEWAY_AUDIT_ENABLED = "GATEWAY_AUDIT_ENABLED";
     public static final String GATEWAY_AUDIT_DIR = "GATEWAY_AUDIT_DIR";
     public static final String GATEWAY_AUDIT_QUEUE_CAPACITY = "GATEWAY_AUDIT_QUEUE_CAPACITY";
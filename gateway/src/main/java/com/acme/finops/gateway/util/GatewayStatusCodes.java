@@ -24,8 +24,19 @@ public final class GatewayStatusCodes {
     public static final int INTERNAL_ERROR = 500;
     public static final int NOT_IMPLEMENTED = 501;
     public static final int SERVICE_UNAVAILABLE = 503;
+    public static final int GATEWAY_TIMEOUT = 504;
     public static final int INSUFFICIENT_STORAGE = 507;
 
+    // ---- Gateway-internal reason codes (metrics and allocator denials, never sent on the wire) ----
+    /** The allocator refused a tenant more slab bytes than its quota. */
+    public static final int TENANT_QUOTA_EXCEEDED = 1001;
+    /** The allocator refused a signal more slab bytes than its quota. */
+    public static final int SIGNAL_QUOTA_EXCEEDED = 1002;
+    /** The client's deadline passed before the packet was processed or exported. */
+    public static final int DEADLINE_EXPIRED = 1003;
+    /** A tenant's request or byte rate limit throttled the request at admission. */
+    public static final int TENANT_RATE_LIMITED = 1004;
+
     private GatewayStatusCodes() {
     }
 }
@@ -8,6 +8,8 @@ public final class GrpcProtocolConstants {
     public static final String HEADER_GRPC_STATUS = "grpc-status";
     public static final String HEADER_GRPC_MESSAGE = "grpc-message";
     public static final String HEADER_TE = "te";
+    public static final String HEADER_GRPC_TIMEOUT = "grpc-timeout";
+    public static final String HEADER_GRPC_RETRY_PUSHBACK_MS = "grpc-retry-pushback-ms";
 
     public static final String VALUE_GRPC_CONTENT_TYPE = "application/grpc+proto";
     public static final String VALUE_GRPC_CONTENT_PREFIX = "application/grpc";
@@ -0,0 +1,91 @@
+package com.acme.finops.gateway.util;
+
+/**
+ * Client deadline and retry-hint header helpers shared by the gRPC and HTTP adapters.
+ *
+ * <p>Deadlines arrive as a relative timeout, either gRPC's {@code grpc-timeout}
+ * ({@code 1..8} ASCII digits and a unit: {@code H M S m u n}) or a plain millisecond
+ * count, and are turned into an absolute {@link System#nanoTime()} when the request
+ * headers are read. Parsing is branch-only and allocates nothing.</p>
+ */
+public final class RequestDeadlines {
+    /** Header an Envoy front proxy sets to the remaining route timeout, in milliseconds. */
+    public static final String HEADER_ENVOY_EXPECTED_TIMEOUT_MS = "x-envoy-expected-rq-timeout-ms";
+
+    /** Parse result for absent or malformed timeouts. */
+    public static final long NO_TIMEOUT = -1L;
+
+    private static final int GRPC_TIMEOUT_MAX_DIGITS = 8;
+    /** Longer timeouts are treated as none, which keeps {@code now - deadline} comparisons exact. */
+    private static final long MAX_TIMEOUT_NANOS = 1L << 62;
+
+    private RequestDeadlines() {
+    }
+
+    /** {@code grpc-timeout} value in nanoseconds, or {@link #NO_TIMEOUT}. */
+    public static long parseGrpcTimeoutNanos(CharSequence value) {
+        if (value == null) {
+            return NO_TIMEOUT;
+        }
+        int len = value.length();
+        if (len < 2 || len > GRPC_TIMEOUT_MAX_DIGITS + 1) {
+            return NO_TIMEOUT;
+        }
+        long amount = parseDigits(value, len - 1);
+        if (amount < 0L) {
+            return NO_TIMEOUT;
+        }
+        long unitNanos = switch (value.charAt(len - 1)) {
+            case 'H' -> 3_600_000_000_000L;
+            case 'M' -> 60_000_000_000L;
+            case 'S' -> 1_000_000_000L;
+            case 'm' -> 1_000_000L;
+            case 'u' -> 1_000L;
+            case 'n' -> 1L;
+            default -> 0L;
+        };
+        if (unitNanos == 0L || amount > MAX_TIMEOUT_NANOS / unitNanos) {
+            return NO_TIMEOUT;
+        }
+        return amount * unitNanos;
+    }
+
+    /** Plain millisecond timeout in nanoseconds, or {@link #NO_TIMEOUT}. */
+    public static long parseMillisTimeoutNanos(CharSequence value) {
+        if (value == null || value.isEmpty() || value.length() > 12) {
+            return NO_TIMEOUT;
+        }
+        long millis = parseDigits(value, value.length());
+        return millis < 0L || millis > MAX_TIMEOUT_NANOS / 1_000_000L ? NO_TIMEOUT : millis * 1_000_000L;
+    }
+
+    /**
+     * Absolute deadline for a relative timeout read at {@code nowNanos}; {@code 0} when there
+     * is none. A zero timeout is already expired, so it maps to {@code nowNanos} itself
+     * (or {@code 1} when that happens to be {@code 0}).
+     */
+    public static long deadlineFrom(long timeoutNanos, long nowNanos) {
+        if (timeoutNanos < 0L) {
+            return 0L;
+        }
+        long deadline = nowNanos + timeoutNanos;
+        return deadline == 0L ? 1L : deadline;
+    }
+
+    /** {@code Retry-After} value: whole seconds, rounded up, at least one. */
+    public static long retryAfterSeconds(long retryAfterMillis) {
+        return Math.max(1L, (retryAfterMillis + 999L) / 1_000L);
+    }
+
+    private static long parseDigits(CharSequence value, int end) {
+        long amount = 0L;
+        for (int i = 0; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1L;
+            }
+            amount = amount * 10L + (c - '0');
+        }
+        return amount;
+    }
+}
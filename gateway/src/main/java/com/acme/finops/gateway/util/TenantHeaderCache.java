@@ -0,0 +1,46 @@
+package com.acme.finops.gateway.util;
+
+/**
+ * Tenant header value of one connection, shared by the gRPC and HTTP adapters.
+ *
+ * <p>Clients send the same tenant on every request of a connection, so the last value is
+ * kept with its decoded {@link String}: a repeat costs one content comparison and returns
+ * the same instance, whose hash code is already cached for the per-tenant lookups that
+ * follow. Not thread safe; one instance per connection, used from its event loop.</p>
+ */
+public final class TenantHeaderCache {
+    /** Longer values are ignored, so a client cannot grow per-tenant maps with huge keys. */
+    public static final int MAX_TENANT_LENGTH = 256;
+
+    private CharSequence lastValue;
+    private String lastTenant;
+
+    /**
+     * @param value    header value, or {@code null} when absent
+     * @param fallback tenant to use when the header is absent, empty or too long
+     */
+    public String tenantOf(CharSequence value, String fallback) {
+        if (value == null || value.isEmpty() || value.length() > MAX_TENANT_LENGTH) {
+            return fallback;
+        }
+        if (lastTenant != null && contentEquals(lastValue, value)) {
+            return lastTenant;
+        }
+        lastTenant = value.toString();
+        lastValue = lastTenant;
+        return lastTenant;
+    }
+
+    private static boolean contentEquals(CharSequence a, CharSequence b) {
+        int len = a.length();
+        if (len != b.length()) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
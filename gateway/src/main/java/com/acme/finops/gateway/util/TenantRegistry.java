@@ -0,0 +1,105 @@
+package com.acme.finops.gateway.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Per-tenant state with a bound on how many tenants get their own entry.
+ *
+ * <p>The first {@code maxTracked} distinct tenants get their own entry, in slots
+ * {@code 1..maxTracked} in first-seen order; later ones share the {@value #OVERFLOW_TENANT}
+ * entry in slot {@value #OVERFLOW_SLOT}, so a client inventing tenant ids cannot grow the
+ * map; the name {@value #OVERFLOW_TENANT} itself, as reported back by a peer, also maps to
+ * that entry. A {@code null} or empty tenant is keyed as {@value #UNKNOWN_TENANT}. Used by the
+ * tenant rate limits, tenant fair queuing and the allocator's tenant quotas, which
+ * therefore report the same sentinel names.</p>
+ *
+ * <h3>Concurrency Protocol</h3>
+ * <ul>
+ *   <li>A known tenant is one {@link ConcurrentHashMap#get}. A new one is registered inside
+ *       {@code computeIfAbsent}, so the factory runs at most once per tenant.</li>
+ *   <li>The bound is checked before registering and again when the slot is taken; a race
+ *       past it lands in the overflow entry.</li>
+ *   <li>Slots are assigned once and never reused, so a slot number stays valid for the
+ *       registry's lifetime.</li>
+ * </ul>
+ *
+ * @param <T> per-tenant state
+ */
+public final class TenantRegistry<T> {
+    public static final String OVERFLOW_TENANT = "_other";
+    public static final String UNKNOWN_TENANT = "_unknown";
+    public static final int OVERFLOW_SLOT = 0;
+
+    /** Creates the state of a newly seen tenant. */
+    @FunctionalInterface
+    public interface EntryFactory<T> {
+        T create(String tenant, int slot);
+    }
+
+    private final EntryFactory<T> factory;
+    private final int maxTracked;
+    private final ConcurrentHashMap<String, T> byTenant = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<T> bySlot;
+    private final AtomicInteger nextSlot = new AtomicInteger(OVERFLOW_SLOT + 1);
+
+    /**
+     * @param maxTracked tenants with their own entry before the overflow entry is used
+     * @param factory    state of a new tenant; also called once for the overflow entry
+     */
+    public TenantRegistry(int maxTracked, EntryFactory<T> factory) {
+        this.factory = Objects.requireNonNull(factory, "factory");
+        this.maxTracked = Math.max(0, maxTracked);
+        this.bySlot = new AtomicReferenceArray<>(this.maxTracked + 1);
+        bySlot.set(OVERFLOW_SLOT, factory.create(OVERFLOW_TENANT, OVERFLOW_SLOT));
+    }
+
+    /** The tenant's entry, or the overflow entry once {@code maxTracked} tenants are known. */
+    public T entryFor(String tenant) {
+        String key = tenant == null || tenant.isEmpty() ? UNKNOWN_TENANT : tenant;
+        T entry = byTenant.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        if (byTenant.size() >= maxTracked || key.equals(OVERFLOW_TENANT)) {
+            return overflow();
+        }
+        return byTenant.computeIfAbsent(key, this::register);
+    }
+
+    /** The entry in {@code slot}, as passed to the factory. */
+    public T entry(int slot) {
+        return bySlot.get(slot);
+    }
+
+    public T overflow() {
+        return bySlot.get(OVERFLOW_SLOT);
+    }
+
+    /** All entries, overflow first, then tenants in first-seen order. */
+    public List<T> entries() {
+        int slots = Math.min(nextSlot.get(), bySlot.length());
+        List<T> out = new ArrayList<>(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            T entry = bySlot.get(slot);
+            if (entry != null) {
+                out.add(entry);
+            }
+        }
+        return out;
+    }
+
+    private T register(String tenant) {
+        int slot = nextSlot.getAndIncrement();
+        if (slot >= bySlot.length()) {
+            return overflow();
+        }
+        T entry = factory.create(tenant, slot);
+        bySlot.set(slot, entry);
+        return entry;
+    }
+}
@@ -2,6 +2,7 @@ package com.acme.finops.gateway.wire.cursor;
 
 import com.acme.finops.gateway.policy.CompiledPath;
 import com.acme.finops.gateway.policy.PathOp;
+import com.acme.finops.gateway.policy.PathProgram;
 import com.acme.finops.gateway.wire.errors.WireErrorCode;
 
 import java.lang.foreign.MemorySegment;
@@ -11,20 +12,23 @@ import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.IntFunction;
 
+/**
+ * Evaluates {@link CompiledPath} programs over protobuf payloads.
+ *
+ * <p>On first use each {@link PathProgram} is compiled by {@link PathKernelCompiler} into a
+ * hidden class specialised to that program; programs it cannot compile, or every program
+ * when compilation is disabled, run on the interpreter in {@link #executeFrom}. Both give
+ * the same results.</p>
+ */
 public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluator {
     private static final PathOp[] OPS = PathOp.values();
-    private static final int MAX_CURSOR_DEPTH = 32;
+    private static final int MAX_CURSOR_DEPTH = PathRun.MAX_DEPTH;
 
     private final IntFunction<String> mapKeyResolver;
+    private final boolean compileToBytecode;
     private final ConcurrentHashMap<Integer, byte[]> mapKeyUtf8Cache = new ConcurrentHashMap<>();
-    private final ThreadLocal<FastWireCursor[]> cursorPoolTl = ThreadLocal.withInitial(() -> {
-        FastWireCursor[] pool = new FastWireCursor[MAX_CURSOR_DEPTH];
-        for (int i = 0; i < pool.length; i++) {
-            pool[i] = new FastWireCursor();
-        }
-        return pool;
-    });
-    private final ThreadLocal<StopFlag> stopFlagTl = ThreadLocal.withInitial(StopFlag::new);
+    private final ConcurrentHashMap<PathProgram, PathKernel> kernels = new ConcurrentHashMap<>();
+    private final ThreadLocal<PathRun> runTl = ThreadLocal.withInitial(PathRun::new);
 
     @FunctionalInterface
     public interface MatchConsumer {
@@ -35,7 +39,19 @@ public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluato
     }
 
     public BytecodeCompiledPathEvaluator(IntFunction<String> mapKeyResolver) {
+        this(mapKeyResolver, true);
+    }
+
+    /**
+     * @param compileToBytecode {@code false} to interpret every program
+     */
+    public BytecodeCompiledPathEvaluator(IntFunction<String> mapKeyResolver, boolean compileToBytecode) {
         this.mapKeyResolver = Objects.requireNonNull(mapKeyResolver, "mapKeyResolver");
+        this.compileToBytecode = compileToBytecode;
+    }
+
+    public IntFunction<String> mapKeyResolver() {
+        return mapKeyResolver;
     }
 
     @Override
@@ -50,36 +66,18 @@ public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluato
             return new EvalResult.EvalError(RuntimeMismatchCode.SCHEMA_DRIFT_DETECTED, cursor.position());
         }
 
-        StopFlag stop = stopFlagTl.get();
-        stop.stop = false;
+        PathRun run = runTl.get();
+        run.begin(scratch, null, true, path.terminalType().ordinal(), fastCursor.validatedFrames());
         try {
-            int matches = executeFrom(
-                path,
-                opcodes,
-                operands,
-                0,
-                fastCursor.segment(),
-                cursor.position(),
-                cursor.remaining(),
-                false,
-                0,
-                0,
-                0,
-                false,
-                0,
-                0,
-                scratch,
-                null,
-                true,
-                0,
-                stop
-            );
+            int matches = kernelFor(path).run(fastCursor.segment(), cursor.position(), cursor.remaining(), run);
             if (matches > 0) {
                 return new EvalResult.MatchFound(path.terminalType().ordinal());
             }
             return new EvalResult.NoMatch(RuntimeMismatchCode.PATH_NOT_PRESENT);
         } catch (WireException e) {
             return new EvalResult.EvalError(RuntimeMismatchCode.MALFORMED_PROTO, e.position());
+        } finally {
+            run.end();
         }
     }
 
@@ -89,6 +87,20 @@ public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluato
                            int length,
                            EvalScratch scratch,
                            MatchConsumer consumer) {
+        return evaluateAll(path, segment, offset, length, scratch, consumer, null);
+    }
+
+    /**
+     * @param frames validated frames of the payload, walked without bounds checks; may be
+     *               {@code null}
+     */
+    public int evaluateAll(CompiledPath path,
+                           MemorySegment segment,
+                           int offset,
+                           int length,
+                           EvalScratch scratch,
+                           MatchConsumer consumer,
+                           ValidatedFrames frames) {
         Objects.requireNonNull(path, "path");
         Objects.requireNonNull(segment, "segment");
         Objects.requireNonNull(scratch, "scratch");
@@ -99,13 +111,44 @@ public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluato
             return 0;
         }
 
-        StopFlag stop = stopFlagTl.get();
-        stop.stop = false;
+        PathRun run = runTl.get();
+        run.begin(scratch, consumer, false, path.terminalType().ordinal(), frames);
         try {
+            return kernelFor(path).run(segment, offset, length, run);
+        } catch (WireException ignored) {
+            return 0;
+        } finally {
+            run.end();
+        }
+    }
+
+    /** Compiled kernel of the path's program, or the interpreter when it cannot be compiled. */
+    PathKernel kernelFor(CompiledPath path) {
+        PathProgram program = path.program();
+        PathKernel kernel = kernels.get(program);
+        if (kernel != null) {
+            return kernel;
+        }
+        return kernels.computeIfAbsent(program, p -> {
+            PathKernel compiled = compileToBytecode ? PathKernelCompiler.compile(p, mapKeyResolver) : null;
+            return compiled != null ? compiled : new Interpreted(path);
+        });
+    }
+
+    /** Runs one program on {@link #executeFrom}. */
+    private final class Interpreted extends PathKernel {
+        private final CompiledPath path;
+
+        Interpreted(CompiledPath path) {
+            this.path = path;
+        }
+
+        @Override
+        int run(MemorySegment segment, int offset, int length, PathRun run) throws WireException {
             return executeFrom(
                 path,
-                opcodes,
-                operands,
+                path.program().opcodes(),
+                path.program().operands(),
                 0,
                 segment,
                 offset,
@@ -117,14 +160,12 @@ public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluato
                 false,
                 0,
                 0,
-                scratch,
-                consumer,
-                false,
+                run.scratch,
+                run.consumer,
+                run.stopAfterFirst,
                 0,
-                stop
+                run
             );
-        } catch (WireException ignored) {
-            return 0;
         }
     }
 
@@ -146,14 +187,14 @@ public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluato
                             MatchConsumer consumer,
                             boolean stopAfterFirst,
                             int depth,
-                            StopFlag stop) throws WireException {
-        if (stop.stop) {
+                            PathRun run) throws WireException {
+        if (run.stop) {
             return 0;
         }
 
         int matches = 0;
         while (pc < opcodes.length) {
-            if (stop.stop) {
+            if (run.stop) {
                 return matches;
             }
 
@@ -194,9 +235,9 @@ public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluato
                                 consumer,
                                 stopAfterFirst,
                                 depth + 1,
-                                stop
+                                run
                             );
-                            if (stop.stop) {
+                            if (run.stop) {
                                 return matches + localMatches;
                             }
                         }
@@ -340,14 +381,14 @@ public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluato
                     if (!terminalReady) {
                         return matches;
                     }
-                    matches += emitMatch(path, terminalValueOffset, terminalValueLength, consumer, stopAfterFirst, stop);
+                    matches += emitMatch(path, terminalValueOffset, terminalValueLength, consumer, stopAfterFirst, run);
                     return matches;
                 }
             }
         }
 
         if (terminalReady) {
-            matches += emitMatch(path, terminalValueOffset, terminalValueLength, consumer, stopAfterFirst, stop);
+            matches += emitMatch(path, terminalValueOffset, terminalValueLength, consumer, stopAfterFirst, run);
         }
         return matches;
     }
@@ -357,16 +398,16 @@ public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluato
                           int terminalValueLength,
                           MatchConsumer consumer,
                           boolean stopAfterFirst,
-                          StopFlag stop) {
+                          PathRun run) {
         if (consumer != null) {
             boolean keepGoing = consumer.onMatch(terminalValueOffset, terminalValueLength, path.terminalType().ordinal());
             if (!keepGoing) {
-                stop.stop = true;
+                run.stop = true;
                 return 1;
             }
         }
         if (stopAfterFirst) {
-            stop.stop = true;
+            run.stop = true;
         }
         return 1;
     }
@@ -381,7 +422,7 @@ public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluato
                                           EvalScratch scratch,
                                           int depth) throws WireException {
         if (hasSelected && selectedWireType == 2) {
-            if (!copyValue(segment, selectedValueOffset, selectedValueLength, scratch)) {
+            if (!PathKernel.copyValue(segment, selectedValueOffset, selectedValueLength, scratch)) {
                 return false;
             }
             scratch.intStack()[1] = selectedValueOffset;
@@ -395,7 +436,7 @@ public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluato
             if (scanner.wireType() != 2) {
                 continue;
             }
-            if (!copyValue(segment, scanner.valueOffset(), scanner.valueLength(), scratch)) {
+            if (!PathKernel.copyValue(segment, scanner.valueOffset(), scanner.valueLength(), scratch)) {
                 return false;
             }
             scratch.intStack()[1] = scanner.valueOffset();
@@ -415,7 +456,7 @@ public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluato
                                     EvalScratch scratch,
                                     int depth) throws WireException {
         if (hasSelected && selectedWireType == 0) {
-            long value = decodeVarint(segment, selectedValueOffset, selectedValueLength);
+            long value = PathKernel.decodeVarint(segment, selectedValueOffset, selectedValueLength);
             scratch.longStack()[0] = value;
             scratch.intStack()[0] = (int) value;
             scratch.intStack()[1] = selectedValueOffset;
@@ -429,7 +470,7 @@ public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluato
             if (scanner.wireType() != 0) {
                 continue;
             }
-            long value = decodeVarint(segment, scanner.valueOffset(), scanner.valueLength());
+            long value = PathKernel.decodeVarint(segment, scanner.valueOffset(), scanner.valueLength());
             scratch.longStack()[0] = value;
             scratch.intStack()[0] = (int) value;
             scratch.intStack()[1] = scanner.valueOffset();
@@ -443,7 +484,7 @@ public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluato
         if (depth < 0 || depth >= MAX_CURSOR_DEPTH) {
             throw new WireException(WireErrorCode.FRAME_NESTING_LIMIT, depth, "Path traversal depth overflow");
         }
-        return cursorPoolTl.get()[depth];
+        return runTl.get().cursors[depth];
     }
 
     private byte[] resolveMapKeyUtf8(int poolId) {
@@ -471,32 +512,4 @@ public final class BytecodeCompiledPathEvaluator implements CompiledPathEvaluato
         }
         return true;
     }
-
-    private static boolean copyValue(MemorySegment segment, int valueOffset, int valueLength, EvalScratch scratch) {
-        byte[] dst = scratch.tempBytes();
-        if (valueLength > dst.length) {
-            return false;
-        }
-        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, valueOffset, dst, 0, valueLength);
-        scratch.intStack()[0] = valueLength;
-        return true;
-    }
-
-    private static long decodeVarint(MemorySegment segment, int valueOffset, int valueLength) {
-        long result = 0L;
-        int shift = 0;
-        for (int i = 0; i < valueLength; i++) {
-            byte b = segment.get(ValueLayout.JAVA_BYTE, valueOffset + i);
-            result |= ((long) (b & 0x7F)) << shift;
-            if ((b & 0x80) == 0) {
-                return result;
-            }
-            shift += 7;
-        }
-        return result;
-    }
-
-    private static final class StopFlag {
-        private boolean stop;
-    }
 }
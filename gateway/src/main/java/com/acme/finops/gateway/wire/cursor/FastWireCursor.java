@@ -4,16 +4,37 @@ import com.acme.finops.gateway.wire.errors.WireErrorCode;
 
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 
 /**
  * Zero-copy wire cursor over MemorySegment for protobuf payloads.
+ *
+ * <p>Varints, tags and LEN sizes included, are decoded eight bytes at a time while at least
+ * {@value #SWAR_MIN_REMAINING} bytes remain in the frame: one unaligned load, the terminator
+ * found as the lowest clear continuation bit, and the 7-bit groups packed by three
+ * shift-and-mask steps. Frame tails and varints longer than eight bytes take the byte-wise
+ * path, which also owns every error.</p>
+ *
+ * <p>Entered frames are kept on a primitive stack, with the innermost end cached as the
+ * limit every read checks against. Frames listed in the {@link ValidatedFrames} given to
+ * {@link #useValidatedFrames} are walked by {@link #nextField} and {@link #enterMessage}
+ * without bounds checks, as validation already proved each of their fields fits; raw
+ * {@code read*} calls are always checked.</p>
  */
 public final class FastWireCursor implements WireCursor {
+    /** Longest varint; with this much left, an eight-byte load never leaves the frame. */
+    static final int SWAR_MIN_REMAINING = 10;
+    private static final ValueLayout.OfLong LONG_LE = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final long CONTINUATION_BITS = 0x8080808080808080L;
+
     private MemorySegment segment;
     private int offset;
     private int limit;
+    /** End of the innermost frame: {@link #limit} until a message is entered. */
+    private int frameEnd;
+    private boolean trusted;
+    private ValidatedFrames validatedFrames;
 
     private int currentFieldNumber;
     private int currentWireType;
@@ -21,13 +42,18 @@ public final class FastWireCursor implements WireCursor {
     private int currentValueOffset;
     private int currentValueLength;
 
-    private final Deque<Integer> frameEnds = new ArrayDeque<>();
+    /** Ends and trust of the enclosing frames, outermost first. */
+    private int[] frameEnds = new int[8];
+    private boolean[] frameTrusted = new boolean[8];
+    private int frameDepth;
 
     @Override
     public void reset(MemorySegment segment, int offset, int length) {
         this.segment = segment;
         this.offset = offset;
         this.limit = Math.addExact(offset, length);
+        this.frameEnd = limit;
+        this.trusted = validatedFrames != null && validatedFrames.contains(segment, offset, limit);
 
         this.currentFieldNumber = 0;
         this.currentWireType = 0;
@@ -35,7 +61,24 @@ public final class FastWireCursor implements WireCursor {
         this.currentValueOffset = offset;
         this.currentValueLength = 0;
 
-        frameEnds.clear();
+        frameDepth = 0;
+    }
+
+    /**
+     * Trusts the given frames from the next {@link #reset} on; {@code null} checks every read.
+     * Stays in effect across resets, so must be cleared before the payload's memory is reused.
+     */
+    public void useValidatedFrames(ValidatedFrames frames) {
+        this.validatedFrames = frames;
+    }
+
+    public ValidatedFrames validatedFrames() {
+        return validatedFrames;
+    }
+
+    /** Whether the current frame is walked without bounds checks. */
+    boolean trusted() {
+        return trusted;
     }
 
     @Override
@@ -50,7 +93,7 @@ public final class FastWireCursor implements WireCursor {
 
     @Override
     public int remaining() {
-        return activeFrameEnd() - offset;
+        return frameEnd - offset;
     }
 
     /**
@@ -69,9 +112,13 @@ public final class FastWireCursor implements WireCursor {
     public boolean nextField() throws WireException {
         ensureInitialized();
 
-        if (offset >= activeFrameEnd()) {
+        if (offset >= frameEnd) {
             return false;
         }
+        if (trusted) {
+            nextTrustedField();
+            return true;
+        }
 
         currentFieldStart = offset;
         int tag = readVarint32();
@@ -119,6 +166,59 @@ public final class FastWireCursor implements WireCursor {
         return true;
     }
 
+    /** {@link #nextField} in a validated frame: same decoding, no bounds or error checks. */
+    private void nextTrustedField() {
+        currentFieldStart = offset;
+        int tag = (int) readTrustedVarint();
+        currentFieldNumber = tag >>> 3;
+        currentWireType = tag & 0x07;
+        currentValueOffset = offset;
+        switch (currentWireType) {
+            case 0 -> {
+                readTrustedVarint();
+                currentValueLength = offset - currentValueOffset;
+            }
+            case 1 -> {
+                offset += 8;
+                currentValueLength = 8;
+            }
+            case 2 -> {
+                int len = (int) readTrustedVarint();
+                currentValueOffset = offset;
+                currentValueLength = len;
+                offset += len;
+            }
+            default -> { // I32; validation admits no other wire type
+                offset += 4;
+                currentValueLength = 4;
+            }
+        }
+    }
+
+    private long readTrustedVarint() {
+        if (frameEnd - offset >= SWAR_MIN_REMAINING) {
+            long word = segment.get(LONG_LE, offset);
+            if ((word & 0x80L) == 0L) {
+                offset++;
+                return word & 0x7FL;
+            }
+            long stops = ~word & CONTINUATION_BITS;
+            if (stops != 0L) {
+                int stopBit = Long.numberOfTrailingZeros(stops);
+                offset += (stopBit + 1) >>> 3;
+                return packVarint(word & (-1L >>> (63 - stopBit)));
+            }
+        }
+        long result = 0L;
+        for (int shift = 0; ; shift += 7) {
+            byte b = segment.get(ValueLayout.JAVA_BYTE, offset++);
+            result |= ((long) (b & 0x7F)) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+    }
+
     @Override
     public int fieldNumber() {
         return currentFieldNumber;
@@ -145,11 +245,58 @@ public final class FastWireCursor implements WireCursor {
     }
 
     /**
-     * Reads varint32 byte-by-byte directly from MemorySegment.
+     * Reads varint32 directly from MemorySegment; bits above 32 are dropped, as protobuf does
+     * for sign-extended negative int32 values.
      * No arrays/heap decode buffers.
      */
     @Override
     public int readVarint32() throws WireException {
+        if (frameEnd - offset >= SWAR_MIN_REMAINING) {
+            long word = segment.get(LONG_LE, offset);
+            if ((word & 0x80L) == 0L) {
+                offset++;
+                return (int) (word & 0x7FL);
+            }
+            long stops = ~word & CONTINUATION_BITS;
+            if (stops != 0L) {
+                int stopBit = Long.numberOfTrailingZeros(stops);
+                offset += (stopBit + 1) >>> 3;
+                return (int) packVarint(word & (-1L >>> (63 - stopBit)));
+            }
+        }
+        return readVarint32Bytewise();
+    }
+
+    @Override
+    public long readVarint64() throws WireException {
+        if (frameEnd - offset >= SWAR_MIN_REMAINING) {
+            long word = segment.get(LONG_LE, offset);
+            if ((word & 0x80L) == 0L) {
+                offset++;
+                return (word & 0x7FL);
+            }
+            long stops = ~word & CONTINUATION_BITS;
+            if (stops != 0L) {
+                int stopBit = Long.numberOfTrailingZeros(stops);
+                offset += (stopBit + 1) >>> 3;
+                return packVarint(word & (-1L >>> (63 - stopBit)));
+            }
+        }
+        return readVarint64Bytewise();
+    }
+
+    /**
+     * Packs the 7-bit groups of up to eight little-endian varint bytes, the terminator's
+     * included and everything after it cleared, into one value of up to 56 bits.
+     */
+    static long packVarint(long bytes) {
+        long x = bytes & 0x7F7F7F7F7F7F7F7FL;
+        x = (x & 0x007F007F007F007FL) | ((x & 0x7F007F007F007F00L) >>> 1);
+        x = (x & 0x00003FFF00003FFFL) | ((x & 0x3FFF00003FFF0000L) >>> 2);
+        return (x & 0x000000000FFFFFFFL) | ((x & 0x0FFFFFFF00000000L) >>> 4);
+    }
+
+    int readVarint32Bytewise() throws WireException {
         int result = 0;
         int shift = 0;
 
@@ -171,8 +318,7 @@ public final class FastWireCursor implements WireCursor {
         throw new WireException(WireErrorCode.VARINT_OVERFLOW, offset, "Varint32 overflow");
     }
 
-    @Override
-    public long readVarint64() throws WireException {
+    long readVarint64Bytewise() throws WireException {
         long result = 0L;
         int shift = 0;
 
@@ -221,27 +367,34 @@ public final class FastWireCursor implements WireCursor {
                 "enterMessage requires LEN wire type");
         }
         int end = currentValueOffset + currentValueLength;
-        if (end > activeFrameEnd()) {
+        if (!trusted && end > frameEnd) {
             throw new WireException(WireErrorCode.TRUNCATED_FRAME, end, "Nested frame exceeds parent");
         }
-        frameEnds.push(end);
+        if (frameDepth == frameEnds.length) {
+            frameEnds = Arrays.copyOf(frameEnds, frameDepth * 2);
+            frameTrusted = Arrays.copyOf(frameTrusted, frameDepth * 2);
+        }
+        frameEnds[frameDepth] = frameEnd;
+        frameTrusted[frameDepth] = trusted;
+        frameDepth++;
+        frameEnd = end;
+        trusted = validatedFrames != null && validatedFrames.contains(segment, currentValueOffset, end);
         offset = currentValueOffset;
     }
 
     @Override
     public void leaveMessage() throws WireException {
-        if (frameEnds.isEmpty()) {
+        if (frameDepth == 0) {
             throw new WireException(WireErrorCode.FRAME_STACK_UNDERFLOW, offset, "No frame to leave");
         }
-        offset = frameEnds.pop();
-    }
-
-    private int activeFrameEnd() {
-        return frameEnds.isEmpty() ? limit : frameEnds.peek();
+        offset = frameEnd;
+        frameDepth--;
+        frameEnd = frameEnds[frameDepth];
+        trusted = frameTrusted[frameDepth];
     }
 
     private void ensureRemaining(int n) throws WireException {
-        if (offset + n > activeFrameEnd()) {
+        if (offset + n > frameEnd) {
             throw new WireException(WireErrorCode.TRUNCATED_FRAME, offset, "Need " + n + " bytes");
         }
     }
@@ -0,0 +1,89 @@
+package com.acme.finops.gateway.wire.cursor;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * One {@link com.acme.finops.gateway.policy.PathProgram} ready to run: either a class
+ * generated by {@link PathKernelCompiler} or the interpreter in
+ * {@link BytecodeCompiledPathEvaluator}.
+ *
+ * <p>The static helpers are the parts of a step that generated code calls rather than
+ * inlines; they are package-private so hidden classes defined in this package can link
+ * against them.</p>
+ */
+abstract class PathKernel {
+    /** Little-endian regardless of platform, matching how map keys are packed into constants. */
+    static final ValueLayout.OfLong LONG_LE = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfByte BYTE = ValueLayout.JAVA_BYTE;
+
+    /**
+     * Runs the program over one message.
+     *
+     * @return number of matches reported
+     */
+    abstract int run(MemorySegment segment, int offset, int length, PathRun run) throws WireException;
+
+    /** Terminal LEN value: copies it into scratch and records its span. */
+    static boolean readLen(MemorySegment segment, int valueOffset, int valueLength, PathRun run) {
+        EvalScratch scratch = run.scratch;
+        if (!copyValue(segment, valueOffset, valueLength, scratch)) {
+            return false;
+        }
+        scratch.intStack()[1] = valueOffset;
+        scratch.intStack()[2] = valueLength;
+        return true;
+    }
+
+    /** Terminal VARINT value: decodes it into scratch and records its span. */
+    static void readVarint(MemorySegment segment, int valueOffset, int valueLength, PathRun run) {
+        EvalScratch scratch = run.scratch;
+        long value = decodeVarint(segment, valueOffset, valueLength);
+        scratch.longStack()[0] = value;
+        scratch.intStack()[0] = (int) value;
+        scratch.intStack()[1] = valueOffset;
+        scratch.intStack()[2] = valueLength;
+    }
+
+    /**
+     * Reports a match to the consumer and raises the stop flag when traversal should end.
+     *
+     * @return always {@code 1}, the number of matches reported
+     */
+    static int emit(PathRun run, int valueOffset, int valueLength) {
+        BytecodeCompiledPathEvaluator.MatchConsumer consumer = run.consumer;
+        if (consumer != null && !consumer.onMatch(valueOffset, valueLength, run.terminalTypeCode)) {
+            run.stop = true;
+            return 1;
+        }
+        if (run.stopAfterFirst) {
+            run.stop = true;
+        }
+        return 1;
+    }
+
+    static boolean copyValue(MemorySegment segment, int valueOffset, int valueLength, EvalScratch scratch) {
+        byte[] dst = scratch.tempBytes();
+        if (valueLength > dst.length) {
+            return false;
+        }
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, valueOffset, dst, 0, valueLength);
+        scratch.intStack()[0] = valueLength;
+        return true;
+    }
+
+    static long decodeVarint(MemorySegment segment, int valueOffset, int valueLength) {
+        long result = 0L;
+        int shift = 0;
+        for (int i = 0; i < valueLength; i++) {
+            byte b = segment.get(ValueLayout.JAVA_BYTE, valueOffset + i);
+            result |= ((long) (b & 0x7F)) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+        return result;
+    }
+}
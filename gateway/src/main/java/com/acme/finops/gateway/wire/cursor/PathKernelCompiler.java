@@ -0,0 +1,812 @@
+package com.acme.finops.gateway.wire.cursor;
+
+import com.acme.finops.gateway.policy.PathOp;
+import com.acme.finops.gateway.policy.PathProgram;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Turns a {@link PathProgram} into a hidden class whose code is the program itself: no
+ * opcode dispatch, field numbers as immediate operands, map keys compared as inlined
+ * little-endian {@code long} and {@code byte} constants, and one loop per path segment.
+ *
+ * <p>Each {@link PathOp#REPEATED_ANY} segment becomes a loop that calls a static method
+ * holding the rest of the program, so a path with {@code n} wildcards is {@code n + 1}
+ * straight-line methods. Everything the interpreter tracks per step at run time (whether a
+ * field is selected, whether a terminal was read, the cursor depth) is fixed per
+ * instruction and resolved here; only offsets and lengths remain as locals.</p>
+ *
+ * <p>Class files are written by hand at version 49, which needs no stack map frames, so
+ * there is no dependency on a bytecode library or on the {@code java.lang.classfile} API.
+ * {@link #compile} returns {@code null} when a program uses a shape it does not handle or
+ * the generated class fails to load; callers then interpret the program.</p>
+ */
+final class PathKernelCompiler {
+    private static final Logger LOG = Logger.getLogger(PathKernelCompiler.class.getName());
+    private static final PathOp[] OPS = PathOp.values();
+
+    private static final String PKG = "com/acme/finops/gateway/wire/cursor/";
+    private static final String KERNEL = PKG + "PathKernel";
+    private static final String RUN = PKG + "PathRun";
+    private static final String CURSOR = PKG + "FastWireCursor";
+    private static final String SEGMENT = "java/lang/foreign/MemorySegment";
+    private static final String SEGMENT_DESC = "L" + SEGMENT + ";";
+    private static final String STEP_DESC = "(" + SEGMENT_DESC + "IIIII" + "L" + RUN + ";)I";
+
+    // Locals of every generated step method; 0..6 are its parameters.
+    private static final int L_SEGMENT = 0;
+    private static final int L_MSG_OFFSET = 1;
+    private static final int L_MSG_LENGTH = 2;
+    private static final int L_SEL_WIRE_TYPE = 3;
+    private static final int L_SEL_OFFSET = 4;
+    private static final int L_SEL_LENGTH = 5;
+    private static final int L_RUN = 6;
+    private static final int L_MATCHES = 7;
+    private static final int L_SCANNER = 8;
+    private static final int L_ENTRY = 9;
+    private static final int L_KEY_MATCHED = 10;
+    private static final int L_TERMINAL_OFFSET = 11;
+    private static final int L_TERMINAL_LENGTH = 12;
+    private static final int L_VALUE_OFFSET = 13;
+    private static final int L_VALUE_LENGTH = 14;
+    private static final int MAX_LOCALS = 15;
+    private static final int MAX_STACK = 12;
+
+    private final PathProgram program;
+    private final IntFunction<String> mapKeyResolver;
+    private final ClassBytes cls = new ClassBytes(PKG + "PathKernel$Compiled");
+
+    private PathKernelCompiler(PathProgram program, IntFunction<String> mapKeyResolver) {
+        this.program = program;
+        this.mapKeyResolver = mapKeyResolver;
+    }
+
+    /**
+     * @return a kernel equivalent to interpreting {@code program}, or {@code null} if the
+     *         program cannot be compiled and must be interpreted
+     */
+    static PathKernel compile(PathProgram program, IntFunction<String> mapKeyResolver) {
+        try {
+            byte[] bytes = new PathKernelCompiler(program, mapKeyResolver).generate();
+            if (bytes == null) {
+                return null;
+            }
+            return define(bytes);
+        } catch (ReflectiveOperationException | LinkageError | IOException | RuntimeException e) {
+            LOG.log(Level.FINE, "Path program left to the interpreter", e);
+            return null;
+        }
+    }
+
+    static PathKernel define(byte[] classBytes) throws ReflectiveOperationException {
+        Class<?> hidden = MethodHandles.lookup().defineHiddenClass(classBytes, true).lookupClass();
+        return (PathKernel) hidden.getDeclaredConstructor().newInstance();
+    }
+
+    private byte[] generate() throws IOException {
+        short[] opcodes = program.opcodes();
+        int[] operands = program.operands();
+        if (opcodes.length != operands.length) {
+            return null;
+        }
+        for (short opcode : opcodes) {
+            if ((opcode & 0xFFFF) >= OPS.length) {
+                return null;
+            }
+        }
+
+        emitConstructor();
+        emitRun();
+        // Step methods are named after the pc they start at; each wildcard queues the next.
+        Deque<int[]> pending = new ArrayDeque<>();
+        pending.add(new int[] {0, 0, 0});
+        while (!pending.isEmpty()) {
+            int[] step = pending.poll();
+            if (!emitStep(step[0], step[1] != 0, step[2], pending)) {
+                return null;
+            }
+        }
+        return cls.toByteArray();
+    }
+
+    private void emitConstructor() {
+        Code code = new Code();
+        code.aload(0);
+        code.invoke(Code.INVOKESPECIAL, cls.methodRef(KERNEL, "<init>", "()V"));
+        code.op(Code.RETURN);
+        cls.method(ClassBytes.ACC_PUBLIC, "<init>", "()V", code, 1);
+    }
+
+    private void emitRun() {
+        Code code = new Code();
+        code.aload(1);
+        code.iload(2);
+        code.iload(3);
+        code.iconst(0);
+        code.iconst(0);
+        code.iconst(0);
+        code.aload(4);
+        code.invoke(Code.INVOKESTATIC, stepRef(0));
+        code.op(Code.IRETURN);
+        cls.method(ClassBytes.ACC_PUBLIC, "run", "(" + SEGMENT_DESC + "IIL" + RUN + ";)I", code, 5);
+    }
+
+    private int stepRef(int pc) {
+        return cls.methodRef(cls.thisName, "step" + pc, STEP_DESC);
+    }
+
+    /**
+     * Emits the program from {@code entryPc} to its end as one method.
+     *
+     * @return {@code false} if the program has a shape this compiler does not handle
+     */
+    private boolean emitStep(int entryPc, boolean hasSelected, int depth, Deque<int[]> pending) {
+        short[] opcodes = program.opcodes();
+        int[] operands = program.operands();
+        Code code = new Code();
+        boolean terminalReady = false;
+
+        Label start = new Label();
+        code.aload(L_RUN);
+        code.getfield(cls.fieldRef(RUN, "stop", "Z"));
+        code.jump(Code.IFEQ, start);
+        code.returnInt(0);
+        code.bind(start);
+
+        int pc = entryPc;
+        program:
+        while (pc < opcodes.length) {
+            PathOp op = OPS[opcodes[pc] & 0xFFFF];
+            int operand = operands[pc];
+            switch (op) {
+                case ENTER_MSG_FIELD -> {
+                    if (depth >= PathRun.MAX_DEPTH) {
+                        return false;
+                    }
+                    PathOp repeatOp = pc + 1 < opcodes.length ? OPS[opcodes[pc + 1] & 0xFFFF] : null;
+                    if (repeatOp == PathOp.REPEATED_ANY) {
+                        if (terminalReady || depth + 1 >= PathRun.MAX_DEPTH) {
+                            return false;
+                        }
+                        pending.add(new int[] {pc + 2, 1, depth + 1});
+                        emitEachField(code, operand, depth, pc + 2);
+                        break program;
+                    }
+                    emitSelectField(code, operand, depth);
+                    hasSelected = true;
+                    pc += repeatOp == PathOp.REPEATED_FIRST ? 2 : 1;
+                }
+                case ENTER_LEN_DELIMITED -> {
+                    if (!hasSelected) {
+                        code.returnInt(0);
+                        break program;
+                    }
+                    code.iload(L_SEL_WIRE_TYPE);
+                    code.iconst(2);
+                    Label isLen = new Label();
+                    code.jump(Code.IF_ICMPEQ, isLen);
+                    code.returnInt(0);
+                    code.bind(isLen);
+                    code.iload(L_SEL_OFFSET);
+                    code.istore(L_MSG_OFFSET);
+                    code.iload(L_SEL_LENGTH);
+                    code.istore(L_MSG_LENGTH);
+                    hasSelected = false;
+                    pc += 1;
+                }
+                case MAP_SCAN_STRING_KEY -> {
+                    String key = mapKeyResolver.apply(operand);
+                    if (key == null || key.isEmpty() || depth + 1 >= PathRun.MAX_DEPTH) {
+                        return false;
+                    }
+                    emitMapScan(code, key.getBytes(StandardCharsets.UTF_8), depth);
+                    hasSelected = false;
+                    pc += 1;
+                }
+                case MAP_SCAN_ANY_KEY -> {
+                    if (depth >= PathRun.MAX_DEPTH) {
+                        return false;
+                    }
+                    Label loop = emitScanLoop(code, depth);
+                    code.aload(L_SCANNER);
+                    code.invokeCursor("wireType", "()I");
+                    code.iconst(2);
+                    code.jump(Code.IF_ICMPNE, loop);
+                    emitEnterScannerValue(code);
+                    hasSelected = false;
+                    pc += 1;
+                }
+                case REPEATED_FIRST, REPEATED_ANY, ONEOF_EXPECT_FIELD -> pc += 1;
+                case READ_STRING, READ_BYTES, READ_BOOL, READ_ENUM, READ_SCALAR -> {
+                    if (depth >= PathRun.MAX_DEPTH) {
+                        return false;
+                    }
+                    boolean len = op == PathOp.READ_STRING || op == PathOp.READ_BYTES;
+                    emitRead(code, len ? 2 : 0, len, hasSelected, depth);
+                    terminalReady = true;
+                    hasSelected = false;
+                    pc += 1;
+                }
+                case HALT -> {
+                    emitFinish(code, terminalReady);
+                    break program;
+                }
+            }
+        }
+        if (pc >= opcodes.length) {
+            emitFinish(code, terminalReady);
+        }
+        cls.method(ClassBytes.ACC_PRIVATE | ClassBytes.ACC_STATIC, "step" + entryPc, STEP_DESC, code, MAX_LOCALS);
+        return true;
+    }
+
+    /** Every field {@code fieldNumber} runs the rest of the program in {@code step<nextPc>}. */
+    private void emitEachField(Code code, int fieldNumber, int depth, int nextPc) {
+        code.iconst(0);
+        code.istore(L_MATCHES);
+        Label done = new Label();
+        Label loop = emitScanLoop(code, depth, done);
+        code.aload(L_SCANNER);
+        code.invokeCursor("fieldNumber", "()I");
+        code.iconst(fieldNumber);
+        code.jump(Code.IF_ICMPNE, loop);
+
+        code.iload(L_MATCHES);
+        code.aload(L_SEGMENT);
+        code.iload(L_MSG_OFFSET);
+        code.iload(L_MSG_LENGTH);
+        code.aload(L_SCANNER);
+        code.invokeCursor("wireType", "()I");
+        code.aload(L_SCANNER);
+        code.invokeCursor("valueOffset", "()I");
+        code.aload(L_SCANNER);
+        code.invokeCursor("valueLength", "()I");
+        code.aload(L_RUN);
+        code.invoke(Code.INVOKESTATIC, stepRef(nextPc));
+        code.op(Code.IADD);
+        code.istore(L_MATCHES);
+
+        code.aload(L_RUN);
+        code.getfield(cls.fieldRef(RUN, "stop", "Z"));
+        code.jump(Code.IFEQ, loop);
+        code.bind(done);
+        code.iload(L_MATCHES);
+        code.op(Code.IRETURN);
+    }
+
+    /** Selects the first field {@code fieldNumber}, or returns no match. */
+    private void emitSelectField(Code code, int fieldNumber, int depth) {
+        Label loop = emitScanLoop(code, depth);
+        code.aload(L_SCANNER);
+        code.invokeCursor("fieldNumber", "()I");
+        code.iconst(fieldNumber);
+        code.jump(Code.IF_ICMPNE, loop);
+        code.aload(L_SCANNER);
+        code.invokeCursor("wireType", "()I");
+        code.istore(L_SEL_WIRE_TYPE);
+        code.aload(L_SCANNER);
+        code.invokeCursor("valueOffset", "()I");
+        code.istore(L_SEL_OFFSET);
+        code.aload(L_SCANNER);
+        code.invokeCursor("valueLength", "()I");
+        code.istore(L_SEL_LENGTH);
+    }
+
+    /**
+     * Finds the first LEN entry whose field 1 equals {@code keyUtf8} and whose field 2 is
+     * LEN, and makes that value the current message, or returns no match.
+     */
+    private void emitMapScan(Code code, byte[] keyUtf8, int depth) {
+        Label outer = emitScanLoop(code, depth);
+        code.aload(L_SCANNER);
+        code.invokeCursor("wireType", "()I");
+        code.iconst(2);
+        code.jump(Code.IF_ICMPNE, outer);
+
+        loadCursor(code, depth + 1, L_ENTRY);
+        code.aload(L_ENTRY);
+        code.aload(L_SEGMENT);
+        code.aload(L_SCANNER);
+        code.invokeCursor("valueOffset", "()I");
+        code.aload(L_SCANNER);
+        code.invokeCursor("valueLength", "()I");
+        code.invokeCursor("reset", "(" + SEGMENT_DESC + "II)V");
+        code.iconst(0);
+        code.istore(L_KEY_MATCHED);
+
+        Label inner = new Label();
+        Label valueField = new Label();
+        code.bind(inner);
+        code.aload(L_ENTRY);
+        code.invokeCursor("nextField", "()Z");
+        code.jump(Code.IFEQ, outer);
+        code.aload(L_ENTRY);
+        code.invokeCursor("fieldNumber", "()I");
+        code.iconst(1);
+        code.jump(Code.IF_ICMPNE, valueField);
+        code.aload(L_ENTRY);
+        code.invokeCursor("wireType", "()I");
+        code.iconst(2);
+        code.jump(Code.IF_ICMPNE, valueField);
+
+        // Key field: a later key field overrides an earlier one, as in the interpreter.
+        code.iconst(0);
+        code.istore(L_KEY_MATCHED);
+        code.aload(L_ENTRY);
+        code.invokeCursor("valueLength", "()I");
+        code.iconst(keyUtf8.length);
+        code.jump(Code.IF_ICMPNE, inner);
+        code.aload(L_ENTRY);
+        code.invokeCursor("valueOffset", "()I");
+        code.istore(L_VALUE_OFFSET);
+        int i = 0;
+        for (; i + Long.BYTES <= keyUtf8.length; i += Long.BYTES) {
+            code.aload(L_SEGMENT);
+            code.getstatic(cls.fieldRef(KERNEL, "LONG_LE", "Ljava/lang/foreign/ValueLayout$OfLong;"));
+            pushSegmentOffset(code, i);
+            code.invokeInterface(cls.interfaceMethodRef(SEGMENT, "get", "(Ljava/lang/foreign/ValueLayout$OfLong;J)J"), 4);
+            code.ldc2(cls.longConstant(littleEndianLong(keyUtf8, i)));
+            code.op(Code.LCMP);
+            code.jump(Code.IFNE, inner);
+        }
+        for (; i < keyUtf8.length; i++) {
+            code.aload(L_SEGMENT);
+            code.getstatic(cls.fieldRef(KERNEL, "BYTE", "Ljava/lang/foreign/ValueLayout$OfByte;"));
+            pushSegmentOffset(code, i);
+            code.invokeInterface(cls.interfaceMethodRef(SEGMENT, "get", "(Ljava/lang/foreign/ValueLayout$OfByte;J)B"), 4);
+            code.iconst(keyUtf8[i]);
+            code.jump(Code.IF_ICMPNE, inner);
+        }
+        code.iconst(1);
+        code.istore(L_KEY_MATCHED);
+        code.jump(Code.GOTO, inner);
+
+        code.bind(valueField);
+        code.aload(L_ENTRY);
+        code.invokeCursor("fieldNumber", "()I");
+        code.iconst(2);
+        code.jump(Code.IF_ICMPNE, inner);
+        code.aload(L_ENTRY);
+        code.invokeCursor("wireType", "()I");
+        code.iconst(2);
+        code.jump(Code.IF_ICMPNE, inner);
+        code.iload(L_KEY_MATCHED);
+        code.jump(Code.IFEQ, inner);
+        code.aload(L_ENTRY);
+        code.invokeCursor("valueOffset", "()I");
+        code.istore(L_MSG_OFFSET);
+        code.aload(L_ENTRY);
+        code.invokeCursor("valueLength", "()I");
+        code.istore(L_MSG_LENGTH);
+    }
+
+    /**
+     * Terminal read: the selected field when it has {@code wireType}, else the first field
+     * of the current message with that wire type, as the interpreter does.
+     */
+    private void emitRead(Code code, int wireType, boolean len, boolean hasSelected, int depth) {
+        Label done = new Label();
+        if (hasSelected) {
+            Label scan = new Label();
+            code.iload(L_SEL_WIRE_TYPE);
+            code.iconst(wireType);
+            code.jump(Code.IF_ICMPNE, scan);
+            emitReadValue(code, len, L_SEL_OFFSET, L_SEL_LENGTH);
+            code.jump(Code.GOTO, done);
+            code.bind(scan);
+        }
+        Label loop = emitScanLoop(code, depth);
+        code.aload(L_SCANNER);
+        code.invokeCursor("wireType", "()I");
+        code.iconst(wireType);
+        code.jump(Code.IF_ICMPNE, loop);
+        code.aload(L_SCANNER);
+        code.invokeCursor("valueOffset", "()I");
+        code.istore(L_VALUE_OFFSET);
+        code.aload(L_SCANNER);
+        code.invokeCursor("valueLength", "()I");
+        code.istore(L_VALUE_LENGTH);
+        emitReadValue(code, len, L_VALUE_OFFSET, L_VALUE_LENGTH);
+        code.bind(done);
+    }
+
+    private void emitReadValue(Code code, boolean len, int offsetLocal, int lengthLocal) {
+        code.aload(L_SEGMENT);
+        code.iload(offsetLocal);
+        code.iload(lengthLocal);
+        code.aload(L_RUN);
+        if (len) {
+            code.invoke(Code.INVOKESTATIC, cls.methodRef(KERNEL, "readLen", "(" + SEGMENT_DESC + "IIL" + RUN + ";)Z"));
+            Label copied = new Label();
+            code.jump(Code.IFNE, copied);
+            code.returnInt(0);
+            code.bind(copied);
+        } else {
+            code.invoke(Code.INVOKESTATIC, cls.methodRef(KERNEL, "readVarint", "(" + SEGMENT_DESC + "IIL" + RUN + ";)V"));
+        }
+        code.iload(offsetLocal);
+        code.istore(L_TERMINAL_OFFSET);
+        code.iload(lengthLocal);
+        code.istore(L_TERMINAL_LENGTH);
+    }
+
+    private void emitFinish(Code code, boolean terminalReady) {
+        if (!terminalReady) {
+            code.returnInt(0);
+            return;
+        }
+        code.aload(L_RUN);
+        code.iload(L_TERMINAL_OFFSET);
+        code.iload(L_TERMINAL_LENGTH);
+        code.invoke(Code.INVOKESTATIC, cls.methodRef(KERNEL, "emit", "(L" + RUN + ";II)I"));
+        code.op(Code.IRETURN);
+    }
+
+    /** Scanner over the current message; the loop head returns no match when it is exhausted. */
+    private Label emitScanLoop(Code code, int depth) {
+        return emitScanLoop(code, depth, null);
+    }
+
+    /**
+     * Resets the depth's scanner over the current message and binds the loop head.
+     *
+     * @param exhausted where to go when no field is left, or {@code null} to return no match
+     * @return the loop head, to branch back to for the next field
+     */
+    private Label emitScanLoop(Code code, int depth, Label exhausted) {
+        loadCursor(code, depth, L_SCANNER);
+        code.aload(L_SCANNER);
+        code.aload(L_SEGMENT);
+        code.iload(L_MSG_OFFSET);
+        code.iload(L_MSG_LENGTH);
+        code.invokeCursor("reset", "(" + SEGMENT_DESC + "II)V");
+        Label loop = new Label();
+        code.bind(loop);
+        code.aload(L_SCANNER);
+        code.invokeCursor("nextField", "()Z");
+        if (exhausted != null) {
+            code.jump(Code.IFEQ, exhausted);
+        } else {
+            Label next = new Label();
+            code.jump(Code.IFNE, next);
+            code.returnInt(0);
+            code.bind(next);
+        }
+        return loop;
+    }
+
+    private void emitEnterScannerValue(Code code) {
+        code.aload(L_SCANNER);
+        code.invokeCursor("valueOffset", "()I");
+        code.istore(L_MSG_OFFSET);
+        code.aload(L_SCANNER);
+        code.invokeCursor("valueLength", "()I");
+        code.istore(L_MSG_LENGTH);
+    }
+
+    private void loadCursor(Code code, int depth, int local) {
+        code.aload(L_RUN);
+        code.getfield(cls.fieldRef(RUN, "cursors", "[L" + CURSOR + ";"));
+        code.iconst(depth);
+        code.op(Code.AALOAD);
+        code.astore(local);
+    }
+
+    /** Pushes {@code (long) (valueOffset + delta)}. */
+    private static void pushSegmentOffset(Code code, int delta) {
+        code.iload(L_VALUE_OFFSET);
+        if (delta != 0) {
+            code.iconst(delta);
+            code.op(Code.IADD);
+        }
+        code.op(Code.I2L);
+    }
+
+    static long littleEndianLong(byte[] bytes, int from) {
+        long v = 0L;
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            v = (v << 8) | (bytes[from + i] & 0xFFL);
+        }
+        return v;
+    }
+
+    /** Forward or backward branch target inside one method. */
+    static final class Label {
+        int position = -1;
+        final List<int[]> fixups = new ArrayList<>(2);
+    }
+
+    /** Bytecode of one method, with branch fixups. */
+    final class Code {
+        static final int AALOAD = 0x32;
+        static final int IADD = 0x60;
+        static final int I2L = 0x85;
+        static final int LCMP = 0x94;
+        static final int IFEQ = 0x99;
+        static final int IFNE = 0x9a;
+        static final int IF_ICMPEQ = 0x9f;
+        static final int IF_ICMPNE = 0xa0;
+        static final int GOTO = 0xa7;
+        static final int IRETURN = 0xac;
+        static final int RETURN = 0xb1;
+        static final int INVOKEVIRTUAL = 0xb6;
+        static final int INVOKESPECIAL = 0xb7;
+        static final int INVOKESTATIC = 0xb8;
+
+        private byte[] buf = new byte[256];
+        private int size;
+
+        void op(int opcode) {
+            u1(opcode);
+        }
+
+        void iconst(int value) {
+            if (value >= -1 && value <= 5) {
+                u1(0x03 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                u1(0x10);
+                u1(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                u1(0x11);
+                u2(value);
+            } else {
+                u1(0x13);
+                u2(cls.intConstant(value));
+            }
+        }
+
+        void ldc2(int index) {
+            u1(0x14);
+            u2(index);
+        }
+
+        void iload(int local) {
+            u1(0x15);
+            u1(local);
+        }
+
+        void istore(int local) {
+            u1(0x36);
+            u1(local);
+        }
+
+        void aload(int local) {
+            u1(0x19);
+            u1(local);
+        }
+
+        void astore(int local) {
+            u1(0x3a);
+            u1(local);
+        }
+
+        void returnInt(int value) {
+            iconst(value);
+            u1(IRETURN);
+        }
+
+        void getfield(int fieldRef) {
+            u1(0xb4);
+            u2(fieldRef);
+        }
+
+        void getstatic(int fieldRef) {
+            u1(0xb2);
+            u2(fieldRef);
+        }
+
+        void invoke(int opcode, int methodRef) {
+            u1(opcode);
+            u2(methodRef);
+        }
+
+        void invokeCursor(String name, String descriptor) {
+            invoke(INVOKEVIRTUAL, cls.methodRef(CURSOR, name, descriptor));
+        }
+
+        void invokeInterface(int methodRef, int argSlots) {
+            u1(0xb9);
+            u2(methodRef);
+            u1(argSlots);
+            u1(0);
+        }
+
+        void jump(int opcode, Label target) {
+            int at = size;
+            u1(opcode);
+            if (target.position >= 0) {
+                u2(target.position - at);
+            } else {
+                target.fixups.add(new int[] {at, size});
+                u2(0);
+            }
+        }
+
+        void bind(Label label) {
+            label.position = size;
+            for (int[] fixup : label.fixups) {
+                int delta = size - fixup[0];
+                buf[fixup[1]] = (byte) (delta >>> 8);
+                buf[fixup[1] + 1] = (byte) delta;
+            }
+            label.fixups.clear();
+        }
+
+        byte[] bytes() {
+            if (size > 0xFFFF) {
+                throw new IllegalStateException("Method too large: " + size);
+            }
+            return Arrays.copyOf(buf, size);
+        }
+
+        private void u1(int v) {
+            if (size == buf.length) {
+                buf = Arrays.copyOf(buf, size * 2);
+            }
+            buf[size++] = (byte) v;
+        }
+
+        private void u2(int v) {
+            u1(v >>> 8);
+            u1(v);
+        }
+    }
+
+    /** Constant pool and methods of the generated class. */
+    static final class ClassBytes {
+        static final int ACC_PUBLIC = 0x0001;
+        static final int ACC_PRIVATE = 0x0002;
+        static final int ACC_STATIC = 0x0008;
+        private static final int ACC_FINAL_SUPER = 0x0010 | 0x0020;
+        private static final int VERSION_49 = 49;
+
+        final String thisName;
+        private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        private final DataOutputStream poolOut = new DataOutputStream(pool);
+        private final Map<String, Integer> entries = new HashMap<>();
+        private final List<byte[]> methods = new ArrayList<>();
+        private int poolCount = 1;
+
+        ClassBytes(String thisName) {
+            this.thisName = thisName;
+        }
+
+        void method(int access, String name, String descriptor, Code code, int maxLocals) {
+            try {
+                byte[] body = code.bytes();
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeShort(access);
+                out.writeShort(utf8(name));
+                out.writeShort(utf8(descriptor));
+                out.writeShort(1);
+                out.writeShort(utf8("Code"));
+                out.writeInt(2 + 2 + 4 + body.length + 2 + 2);
+                out.writeShort(MAX_STACK);
+                out.writeShort(maxLocals);
+                out.writeInt(body.length);
+                out.write(body);
+                out.writeShort(0);
+                out.writeShort(0);
+                methods.add(bytes.toByteArray());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        byte[] toByteArray() throws IOException {
+            int thisClass = classRef(thisName);
+            int superClass = classRef(KERNEL);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION_49);
+            out.writeShort(poolCount);
+            pool.writeTo(out);
+            out.writeShort(ACC_FINAL_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(methods.size());
+            for (byte[] method : methods) {
+                out.write(method);
+            }
+            out.writeShort(0);
+            return bytes.toByteArray();
+        }
+
+        int utf8(String value) {
+            return entry("U" + value, 1, out -> {
+                out.writeByte(1);
+                out.writeUTF(value);
+            });
+        }
+
+        int classRef(String internalName) {
+            int name = utf8(internalName);
+            return entry("C" + internalName, 1, out -> {
+                out.writeByte(7);
+                out.writeShort(name);
+            });
+        }
+
+        int intConstant(int value) {
+            return entry("I" + value, 1, out -> {
+                out.writeByte(3);
+                out.writeInt(value);
+            });
+        }
+
+        int longConstant(long value) {
+            return entry("J" + value, 2, out -> {
+                out.writeByte(5);
+                out.writeLong(value);
+            });
+        }
+
+        int fieldRef(String owner, String name, String descriptor) {
+            return memberRef(9, owner, name, descriptor);
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            return memberRef(10, owner, name, descriptor);
+        }
+
+        int interfaceMethodRef(String owner, String name, String descriptor) {
+            return memberRef(11, owner, name, descriptor);
+        }
+
+        private int memberRef(int tag, String owner, String name, String descriptor) {
+            int ownerIndex = classRef(owner);
+            int nameIndex = utf8(name);
+            int typeIndex = utf8(descriptor);
+            int nameAndType = entry("N" + name + ' ' + descriptor, 1, out -> {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(typeIndex);
+            });
+            return entry("M" + tag + owner + '.' + name + descriptor, 1, out -> {
+                out.writeByte(tag);
+                out.writeShort(ownerIndex);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        private int entry(String key, int slots, PoolWriter writer) {
+            Integer existing = entries.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            int index = poolCount;
+            try {
+                writer.write(poolOut);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            poolCount += slots;
+            entries.put(key, index);
+            return index;
+        }
+
+        @FunctionalInterface
+        private interface PoolWriter {
+            void write(DataOutputStream out) throws IOException;
+        }
+    }
+}
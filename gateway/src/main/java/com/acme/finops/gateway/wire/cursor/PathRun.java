@@ -0,0 +1,53 @@
+package com.acme.finops.gateway.wire.cursor;
+
+/**
+ * Per-thread state of one path evaluation, shared by the interpreter and generated kernels:
+ * a cursor per nesting depth, the match sink and the early-stop flag.
+ */
+final class PathRun {
+    static final int MAX_DEPTH = 32;
+
+    final FastWireCursor[] cursors = new FastWireCursor[MAX_DEPTH];
+    EvalScratch scratch;
+    BytecodeCompiledPathEvaluator.MatchConsumer consumer;
+    boolean stopAfterFirst;
+    int terminalTypeCode;
+    boolean stop;
+    private ValidatedFrames frames;
+
+    PathRun() {
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = new FastWireCursor();
+        }
+    }
+
+    void begin(EvalScratch scratch,
+               BytecodeCompiledPathEvaluator.MatchConsumer consumer,
+               boolean stopAfterFirst,
+               int terminalTypeCode,
+               ValidatedFrames frames) {
+        useValidatedFrames(frames);
+        this.scratch = scratch;
+        this.consumer = consumer;
+        this.stopAfterFirst = stopAfterFirst;
+        this.terminalTypeCode = terminalTypeCode;
+        this.stop = false;
+    }
+
+    /** Drops references to the caller's objects once the evaluation is over. */
+    void end() {
+        this.scratch = null;
+        this.consumer = null;
+        useValidatedFrames(null);
+    }
+
+    private void useValidatedFrames(ValidatedFrames frames) {
+        if (this.frames == frames) {
+            return;
+        }
+        this.frames = frames;
+        for (FastWireCursor cursor : cursors) {
+            cursor.useValidatedFrames(frames);
+        }
+    }
+}
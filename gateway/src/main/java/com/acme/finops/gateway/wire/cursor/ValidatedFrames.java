@@ -0,0 +1,195 @@
+package com.acme.finops.gateway.wire.cursor;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The message frames of one payload known to parse within their bounds, so cursors can
+ * walk them again without checking each read.
+ *
+ * <p>{@link #validate} parses the payload once, checking every bound, and tries each LEN
+ * value as an embedded message in turn; a frame is recorded by its exact start and end if
+ * all of its fields fit. Whether a byte range parses cleanly depends on those bytes alone,
+ * so a recorded frame stays valid whatever path later reaches it, while values that are
+ * not messages, and a cursor reset to any other range, are still read with checks.</p>
+ *
+ * <p>A cursor given these frames with {@link FastWireCursor#useValidatedFrames} trusts them
+ * only on the same segment. The frames must be detached before the segment's memory is
+ * reused for another payload.</p>
+ *
+ * <h3>Concurrency Protocol</h3>
+ * <ul>
+ *   <li>Immutable after {@link #validate}; may be shared by any number of cursors.</li>
+ * </ul>
+ */
+public final class ValidatedFrames {
+    /** Frames nested deeper are left to checked reads. */
+    static final int MAX_DEPTH = 32;
+    private static final int EMPTY = -1;
+
+    private final MemorySegment segment;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int size;
+
+    private ValidatedFrames(MemorySegment segment) {
+        this.segment = segment;
+        Arrays.fill(starts, EMPTY);
+    }
+
+    /**
+     * @return the payload's validated frames, or {@code null} if the payload itself does not
+     *         parse as a message
+     */
+    public static ValidatedFrames validate(MemorySegment segment, int offset, int length) {
+        Objects.requireNonNull(segment, "segment");
+        if (offset < 0 || length < 0 || (long) offset + length > segment.byteSize()) {
+            return null;
+        }
+        ValidatedFrames frames = new ValidatedFrames(segment);
+        return frames.validateFrame(offset, offset + length, 0) ? frames : null;
+    }
+
+    public MemorySegment segment() {
+        return segment;
+    }
+
+    public int frameCount() {
+        return size;
+    }
+
+    /** Whether {@code [start, end)} of {@code segment} parses as a message within its bounds. */
+    public boolean contains(MemorySegment segment, int start, int end) {
+        if (segment != this.segment && !this.segment.equals(segment)) {
+            return false;
+        }
+        int mask = starts.length - 1;
+        for (int slot = mix(start) & mask; ; slot = (slot + 1) & mask) {
+            int candidate = starts[slot];
+            if (candidate == EMPTY) {
+                return false;
+            }
+            if (candidate == start) {
+                return ends[slot] == end;
+            }
+        }
+    }
+
+    /**
+     * Parses {@code [start, end)} as {@link FastWireCursor#nextField} would, without throwing:
+     * speculative frames mostly fail, and exceptions would cost more than the parse.
+     */
+    private boolean validateFrame(int start, int end, int depth) {
+        int pos = start;
+        while (pos < end) {
+            long tag = varint(pos, end);
+            if (tag < 0L) {
+                return false;
+            }
+            pos += (int) (tag >>> 56);
+            int tagValue = (int) tag;
+            if (tagValue == 0) {
+                return false;
+            }
+            switch (tagValue & 0x07) {
+                case 0 -> {
+                    long value = varint(pos, end);
+                    if (value < 0L) {
+                        return false;
+                    }
+                    pos += (int) (value >>> 56);
+                }
+                case 1 -> {
+                    if (end - pos < 8) {
+                        return false;
+                    }
+                    pos += 8;
+                }
+                case 2 -> {
+                    long size = varint(pos, end);
+                    if (size < 0L) {
+                        return false;
+                    }
+                    pos += (int) (size >>> 56);
+                    int len = (int) size;
+                    if (len < 0 || len > end - pos) {
+                        return false;
+                    }
+                    if (depth + 1 < MAX_DEPTH) {
+                        validateFrame(pos, pos + len, depth + 1);
+                    }
+                    pos += len;
+                }
+                case 5 -> {
+                    if (end - pos < 4) {
+                        return false;
+                    }
+                    pos += 4;
+                }
+                default -> {
+                    return false;
+                }
+            }
+        }
+        add(start, end);
+        return true;
+    }
+
+    /**
+     * Decodes a varint of at most ten bytes ending before {@code end}.
+     *
+     * @return its byte count in the top byte and its low 32 bits below, or {@code -1} if it
+     *         is truncated or longer
+     */
+    private long varint(int pos, int end) {
+        long result = 0L;
+        for (int i = 0; i < 10; i++) {
+            if (pos + i >= end) {
+                return -1L;
+            }
+            byte b = segment.get(ValueLayout.JAVA_BYTE, pos + i);
+            result |= ((long) (b & 0x7F)) << (7 * i);
+            if ((b & 0x80) == 0) {
+                return ((long) (i + 1) << 56) | (result & 0xFFFFFFFFL);
+            }
+        }
+        return -1L;
+    }
+
+    private void add(int start, int end) {
+        if ((size + 1) * 2 > starts.length) {
+            grow();
+        }
+        int mask = starts.length - 1;
+        int slot = mix(start) & mask;
+        while (starts[slot] != EMPTY && starts[slot] != start) {
+            slot = (slot + 1) & mask;
+        }
+        if (starts[slot] == EMPTY) {
+            size++;
+        }
+        starts[slot] = start;
+        ends[slot] = end;
+    }
+
+    private void grow() {
+        int[] oldStarts = starts;
+        int[] oldEnds = ends;
+        starts = new int[oldStarts.length * 2];
+        ends = new int[oldEnds.length * 2];
+        Arrays.fill(starts, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldStarts.length; i++) {
+            if (oldStarts[i] != EMPTY) {
+                add(oldStarts[i], oldEnds[i]);
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
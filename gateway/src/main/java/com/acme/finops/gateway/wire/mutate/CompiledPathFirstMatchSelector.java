@@ -9,6 +9,7 @@ import com.acme.finops.gateway.wire.cursor.EvalScratch;
 import com.acme.finops.gateway.wire.cursor.FastWireCursor;
 
 import java.util.Objects;
+import java.util.function.IntFunction;
 
 final class CompiledPathFirstMatchSelector implements ValueSpanSelector {
     private final BytecodeCompiledPathEvaluator evaluator;
@@ -20,6 +21,14 @@ final class CompiledPathFirstMatchSelector implements ValueSpanSelector {
         this.compiledPath = Objects.requireNonNull(compiledPath, "compiledPath");
     }
 
+    CompiledPath compiledPath() {
+        return compiledPath;
+    }
+
+    IntFunction<String> mapKeyResolver() {
+        return evaluator.mapKeyResolver();
+    }
+
     @Override
     public int collect(PacketRef packetRef,
                        FastWireCursor cursor,
@@ -41,7 +50,8 @@ final class CompiledPathFirstMatchSelector implements ValueSpanSelector {
             packetRef.offset(),
             packetRef.length(),
             scratch,
-            consumer
+            consumer,
+            cursor.validatedFrames()
         );
     }
 
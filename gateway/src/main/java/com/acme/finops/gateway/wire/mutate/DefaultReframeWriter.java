@@ -3,9 +3,11 @@ package com.acme.finops.gateway.wire.mutate;
 import com.acme.finops.gateway.memory.AllocationTag;
 import com.acme.finops.gateway.memory.LeaseResult;
 import com.acme.finops.gateway.memory.PacketAllocator;
+import com.acme.finops.gateway.memory.PacketDescriptor;
 import com.acme.finops.gateway.memory.PacketRef;
 import com.acme.finops.gateway.transport.api.SignalKind;
 import com.acme.finops.gateway.util.GatewayStatusCodes;
+import com.acme.finops.gateway.util.TenantRegistry;
 
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
@@ -243,9 +245,11 @@ public final class DefaultReframeWriter implements ReframeWriter {
         return pos - offset;
     }
 
+    /** The copy is charged to the source packet's tenant, so reframes draw on that tenant's quota. */
     private static AllocationTag allocationTag(PacketRef src) {
-        int signalTypeCode = signalTypeCode(src.descriptor().signalKind());
-        return new AllocationTag("reframe", "unknown", signalTypeCode);
+        PacketDescriptor descriptor = src.descriptor();
+        String tenant = descriptor.tenantId() == null ? TenantRegistry.UNKNOWN_TENANT : descriptor.tenantId();
+        return new AllocationTag("reframe", tenant, signalTypeCode(descriptor.signalKind()), descriptor.deadlineNanos());
     }
 
     private static int signalTypeCode(SignalKind signalKind) {
@@ -0,0 +1,651 @@
+package com.acme.finops.gateway.wire.mutate;
+
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.policy.CompiledPath;
+import com.acme.finops.gateway.policy.PathOp;
+import com.acme.finops.gateway.policy.ValueType;
+import com.acme.finops.gateway.transport.api.SignalKind;
+import com.acme.finops.gateway.wire.cursor.FastWireCursor;
+import com.acme.finops.gateway.wire.cursor.WireException;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * The selectors of a snapshot's rules for one signal, merged into one walk of the packet.
+ *
+ * <p>Paths are merged into a trie over field numbers: an edge enters every occurrence of a
+ * field, or only its first for singular path segments, and a node carries the terminals of
+ * the rules whose paths end there: a scalar read of a field, or a set of map keys looked up
+ * once per attribute entry however many rules name a key. One walk therefore reports the
+ * matches of every rule, each rule's in the same document order its own selector would.</p>
+ *
+ * <p>Rules whose selector has a shape the trie does not model keep their own traversal, and
+ * so does every rule when {@link #collect} returns {@code false}: the walk reads every
+ * message some rule reads, so a payload it cannot parse may still be partly readable by a
+ * single rule, and per-rule evaluation decides those exactly as before.</p>
+ *
+ * <h3>Concurrency Protocol</h3>
+ * <ul>
+ *   <li>Immutable after {@link #build}; per-walk state lives in a {@link Walk}, one per
+ *       thread.</li>
+ * </ul>
+ */
+final class MultiRuleAutomaton {
+    /** Deepest trie node; leaves cursors for an entry and its value below it. */
+    static final int MAX_DEPTH = 24;
+    private static final int LEN = 2;
+    private static final int VARINT = 0;
+    private static final int ANYVALUE_STRING_FIELD = 1;
+    private static final int ANYVALUE_BYTES_FIELD = 7;
+
+    private final Node root;
+    private final boolean[] covered;
+    private final boolean hasResourceAttributeRules;
+    private final int nodeCount;
+
+    private MultiRuleAutomaton(Node root, boolean[] covered, boolean hasResourceAttributeRules, int nodeCount) {
+        this.root = root;
+        this.covered = covered;
+        this.hasResourceAttributeRules = hasResourceAttributeRules;
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * @param rules  rules of a snapshot, in priority order; results are indexed the same way
+     * @param signal signal of the packets the automaton will walk
+     * @return the automaton, or {@code null} if fewer than two rules for {@code signal} can be merged
+     */
+    static MultiRuleAutomaton build(List<CompiledMaskingRule> rules, SignalKind signal) {
+        Builder builder = new Builder();
+        boolean[] covered = new boolean[rules.size()];
+        int merged = 0;
+        boolean resourceAttributes = false;
+        for (int i = 0; i < rules.size(); i++) {
+            CompiledMaskingRule rule = rules.get(i);
+            if (!rule.enabled() || !rule.appliesTo(signal)) {
+                continue;
+            }
+            ValueSpanSelector selector = rule.selector();
+            if (selector instanceof ResourceAttributeSpanSelector attribute) {
+                builder.addResourceAttribute(i, attribute.keyUtf8());
+                covered[i] = true;
+                resourceAttributes = true;
+            } else if (selector instanceof CompiledPathFirstMatchSelector path) {
+                covered[i] = builder.addPath(i, path.compiledPath(), path.mapKeyResolver());
+            }
+            if (covered[i]) {
+                merged++;
+            }
+        }
+        if (merged < 2) {
+            // A lone rule walks no less on its own selector, and may run a compiled kernel.
+            return null;
+        }
+        return new MultiRuleAutomaton(builder.root.freeze(), covered, resourceAttributes, builder.nodeCount);
+    }
+
+    /** Whether rule {@code ruleIndex} is reported by {@link #collect}. */
+    boolean covers(int ruleIndex) {
+        return ruleIndex < covered.length && covered[ruleIndex];
+    }
+
+    /**
+     * Walks the packet once and records the matches of every covered rule in {@code walk}.
+     *
+     * @param maxValueBytes largest string value a path read accepts, the evaluation scratch size
+     * @return {@code false} if the packet must be evaluated rule by rule instead
+     */
+    boolean collect(PacketRef packet, Walk walk, int maxValueBytes) {
+        if (hasResourceAttributeRules && ResourceAttributeSpanSelector.isLikelyJson(packet)) {
+            return false;
+        }
+        walk.begin(covered.length, nodeCount, packet.offset(), maxValueBytes);
+        try {
+            visit(root, packet.segment(), packet.offset(), packet.length(), 0, walk);
+            return true;
+        } catch (WireException e) {
+            return false;
+        }
+    }
+
+    private static void visit(Node node, MemorySegment segment, int offset, int length, int depth, Walk walk)
+        throws WireException {
+        NodeState state = walk.state(node);
+        FastWireCursor cursor = walk.cursors[depth];
+        cursor.reset(segment, offset, length);
+        int firstLenOffset = -1;
+        int firstLenLength = 0;
+        int firstVarintOffset = -1;
+        int firstVarintLength = 0;
+        while (cursor.nextField()) {
+            int field = cursor.fieldNumber();
+            int wireType = cursor.wireType();
+            int valueOffset = cursor.valueOffset();
+            int valueLength = cursor.valueLength();
+            if (wireType == LEN && firstLenOffset < 0) {
+                firstLenOffset = valueOffset;
+                firstLenLength = valueLength;
+            } else if (wireType == VARINT && firstVarintOffset < 0) {
+                firstVarintOffset = valueOffset;
+                firstVarintLength = valueLength;
+            }
+
+            for (int e = 0; e < node.edgeFields.length; e++) {
+                if (node.edgeFields[e] != field) {
+                    continue;
+                }
+                if (node.edgeFirstOnly[e]) {
+                    if (state.edgeSeen[e]) {
+                        continue;
+                    }
+                    state.edgeSeen[e] = true;
+                }
+                if (wireType == LEN) {
+                    visit(node.edgeChildren[e], segment, valueOffset, valueLength, depth + 1, walk);
+                }
+            }
+            for (int t = 0; t < node.fieldReads.length; t++) {
+                if (node.fieldReads[t].field == field && state.fieldWireType[t] < 0) {
+                    state.fieldWireType[t] = wireType;
+                    state.fieldOffset[t] = valueOffset;
+                    state.fieldLength[t] = valueLength;
+                }
+            }
+            if (wireType != LEN) {
+                continue;
+            }
+            if (node.mapKeys != null && state.mapFound < node.mapKeys.size()) {
+                scanMapEntry(node, state, segment, valueOffset, valueLength, depth + 1, walk);
+            }
+            if (node.attributeKeys != null && field == 1) {
+                scanAttribute(node, state, segment, valueOffset, valueLength, depth + 1, walk);
+            }
+        }
+
+        // A field read takes the first occurrence of its field; when that has another wire
+        // type, the first field of the message that has the right one, as the interpreter does.
+        for (int t = 0; t < node.fieldReads.length; t++) {
+            int selectedWireType = state.fieldWireType[t];
+            if (selectedWireType < 0) {
+                continue;
+            }
+            Read read = node.fieldReads[t];
+            if (selectedWireType == read.wireType) {
+                report(read, state.fieldOffset[t], state.fieldLength[t], walk);
+            } else if (read.wireType == LEN && firstLenOffset >= 0) {
+                report(read, firstLenOffset, firstLenLength, walk);
+            } else if (read.wireType == VARINT && firstVarintOffset >= 0) {
+                report(read, firstVarintOffset, firstVarintLength, walk);
+            }
+        }
+    }
+
+    /**
+     * One LEN field of a node with map-key reads, parsed as a key/value entry. Each key is
+     * resolved by the first entry that has it, like {@code MAP_SCAN_STRING_KEY}.
+     */
+    private static void scanMapEntry(Node node,
+                                     NodeState state,
+                                     MemorySegment segment,
+                                     int offset,
+                                     int length,
+                                     int depth,
+                                     Walk walk) throws WireException {
+        FastWireCursor entry = walk.cursors[depth];
+        entry.reset(segment, offset, length);
+        int key = -1;
+        while (entry.nextField()) {
+            if (entry.wireType() != LEN) {
+                continue;
+            }
+            if (entry.fieldNumber() == 1) {
+                key = node.mapKeys.indexOf(segment, entry.valueOffset(), entry.valueLength());
+                continue;
+            }
+            if (entry.fieldNumber() != 2 || key < 0 || state.mapKeyFound[key]) {
+                continue;
+            }
+            state.mapKeyFound[key] = true;
+            state.mapFound++;
+            for (Read read : node.mapReads[key]) {
+                readFirstOfWireType(read, segment, entry.valueOffset(), entry.valueLength(), depth + 1, walk);
+            }
+            if (state.mapFound == node.mapKeys.size()) {
+                return;
+            }
+        }
+    }
+
+    private static void readFirstOfWireType(Read read,
+                                            MemorySegment segment,
+                                            int offset,
+                                            int length,
+                                            int depth,
+                                            Walk walk) throws WireException {
+        FastWireCursor value = walk.cursors[depth];
+        value.reset(segment, offset, length);
+        while (value.nextField()) {
+            if (value.wireType() == read.wireType) {
+                report(read, value.valueOffset(), value.valueLength(), walk);
+                return;
+            }
+        }
+    }
+
+    /**
+     * One resource attribute, matched like {@link ResourceAttributeSpanSelector}: the value
+     * after a matching key, its string or bytes member.
+     */
+    private static void scanAttribute(Node node,
+                                      NodeState state,
+                                      MemorySegment segment,
+                                      int offset,
+                                      int length,
+                                      int depth,
+                                      Walk walk) throws WireException {
+        Arrays.fill(state.attributeDone, false);
+        int done = 0;
+        FastWireCursor entry = walk.cursors[depth];
+        entry.reset(segment, offset, length);
+        int key = -1;
+        while (entry.nextField()) {
+            if (entry.wireType() != LEN) {
+                continue;
+            }
+            if (entry.fieldNumber() == 1) {
+                key = node.attributeKeys.indexOf(segment, entry.valueOffset(), entry.valueLength());
+                continue;
+            }
+            if (entry.fieldNumber() != 2 || key < 0 || state.attributeDone[key]) {
+                continue;
+            }
+            state.attributeDone[key] = true;
+            done++;
+            FastWireCursor value = walk.cursors[depth + 1];
+            value.reset(segment, entry.valueOffset(), entry.valueLength());
+            while (value.nextField()) {
+                int field = value.fieldNumber();
+                if (value.wireType() == LEN && (field == ANYVALUE_STRING_FIELD || field == ANYVALUE_BYTES_FIELD)) {
+                    for (int rule : node.attributeRules[key]) {
+                        walk.add(rule, value.valueOffset(), value.valueLength());
+                    }
+                    break;
+                }
+            }
+            if (done == node.attributeKeys.size()) {
+                return;
+            }
+        }
+    }
+
+    private static void report(Read read, int valueOffset, int valueLength, Walk walk) {
+        if (read.wireType == LEN && valueLength > walk.maxValueBytes) {
+            return;
+        }
+        if (read.spans) {
+            walk.add(read.rule, valueOffset, valueLength);
+        } else {
+            walk.flag(read.rule);
+        }
+    }
+
+    /** Per-thread state of {@link #collect}, and the matches it found per rule. */
+    static final class Walk {
+        final FastWireCursor[] cursors = new FastWireCursor[MAX_DEPTH + 3];
+        private final int spanCapacity;
+        private ValueSpanCollector[] spans = new ValueSpanCollector[0];
+        private int[] matches = new int[0];
+        private NodeState[] states = new NodeState[0];
+        private int packetOffset;
+        private int maxValueBytes;
+
+        Walk(int spanCapacity) {
+            this.spanCapacity = spanCapacity;
+            for (int i = 0; i < cursors.length; i++) {
+                cursors[i] = new FastWireCursor();
+            }
+        }
+
+        /** Matches of rule {@code ruleIndex}, as its selector's {@code collect} would count them. */
+        int matches(int ruleIndex) {
+            return matches[ruleIndex];
+        }
+
+        /** Value spans of rule {@code ruleIndex}, relative to the packet. */
+        ValueSpanCollector spans(int ruleIndex) {
+            return spans[ruleIndex];
+        }
+
+        private void begin(int rules, int nodes, int packetOffset, int maxValueBytes) {
+            if (spans.length < rules) {
+                int from = spans.length;
+                spans = Arrays.copyOf(spans, rules);
+                for (int i = from; i < rules; i++) {
+                    spans[i] = new ValueSpanCollector(spanCapacity);
+                }
+                matches = new int[rules];
+            }
+            if (states.length < nodes) {
+                states = Arrays.copyOf(states, nodes);
+            }
+            for (int i = 0; i < rules; i++) {
+                spans[i].reset();
+                matches[i] = 0;
+            }
+            this.packetOffset = packetOffset;
+            this.maxValueBytes = maxValueBytes;
+        }
+
+        private NodeState state(Node node) {
+            NodeState state = states[node.id];
+            if (state == null || !state.fits(node)) {
+                state = new NodeState(node);
+                states[node.id] = state;
+            }
+            state.reset();
+            return state;
+        }
+
+        private void add(int rule, int valueOffset, int valueLength) {
+            spans[rule].add(valueOffset - packetOffset, valueLength);
+            matches[rule] = spans[rule].count();
+        }
+
+        private void flag(int rule) {
+            matches[rule] = 1;
+        }
+    }
+
+    /** Per-visit state of one node; nodes never nest in themselves, so one per node suffices. */
+    private static final class NodeState {
+        final boolean[] edgeSeen;
+        final int[] fieldWireType;
+        final int[] fieldOffset;
+        final int[] fieldLength;
+        final boolean[] mapKeyFound;
+        final boolean[] attributeDone;
+        int mapFound;
+
+        NodeState(Node node) {
+            edgeSeen = new boolean[node.edgeFields.length];
+            fieldWireType = new int[node.fieldReads.length];
+            fieldOffset = new int[node.fieldReads.length];
+            fieldLength = new int[node.fieldReads.length];
+            mapKeyFound = new boolean[node.mapKeys == null ? 0 : node.mapKeys.size()];
+            attributeDone = new boolean[node.attributeKeys == null ? 0 : node.attributeKeys.size()];
+        }
+
+        boolean fits(Node node) {
+            return edgeSeen.length == node.edgeFields.length
+                && fieldWireType.length == node.fieldReads.length
+                && mapKeyFound.length == (node.mapKeys == null ? 0 : node.mapKeys.size())
+                && attributeDone.length == (node.attributeKeys == null ? 0 : node.attributeKeys.size());
+        }
+
+        void reset() {
+            Arrays.fill(edgeSeen, false);
+            Arrays.fill(fieldWireType, -1);
+            Arrays.fill(mapKeyFound, false);
+            mapFound = 0;
+        }
+    }
+
+    /** A terminal read: the rule it reports for and the wire type it accepts. */
+    private record Read(int rule, int field, int wireType, boolean spans) {}
+
+    private static final class Node {
+        final int id;
+        final List<Integer> edgeFieldList = new ArrayList<>();
+        final List<Boolean> edgeFirstOnlyList = new ArrayList<>();
+        final List<Node> edgeChildList = new ArrayList<>();
+        final List<Read> fieldReadList = new ArrayList<>();
+        final List<byte[]> mapKeyList = new ArrayList<>();
+        final List<List<Read>> mapReadList = new ArrayList<>();
+        final List<byte[]> attributeKeyList = new ArrayList<>();
+        final List<List<Integer>> attributeRuleList = new ArrayList<>();
+
+        int[] edgeFields;
+        boolean[] edgeFirstOnly;
+        Node[] edgeChildren;
+        Read[] fieldReads;
+        KeySet mapKeys;
+        Read[][] mapReads;
+        KeySet attributeKeys;
+        int[][] attributeRules;
+
+        Node(int id) {
+            this.id = id;
+        }
+
+        Node freeze() {
+            edgeFields = edgeFieldList.stream().mapToInt(Integer::intValue).toArray();
+            edgeFirstOnly = new boolean[edgeFirstOnlyList.size()];
+            for (int i = 0; i < edgeFirstOnly.length; i++) {
+                edgeFirstOnly[i] = edgeFirstOnlyList.get(i);
+            }
+            edgeChildren = edgeChildList.toArray(new Node[0]);
+            for (Node child : edgeChildren) {
+                child.freeze();
+            }
+            fieldReads = fieldReadList.toArray(new Read[0]);
+            if (!mapKeyList.isEmpty()) {
+                mapKeys = new KeySet(mapKeyList);
+                mapReads = new Read[mapReadList.size()][];
+                for (int i = 0; i < mapReads.length; i++) {
+                    mapReads[i] = mapReadList.get(i).toArray(new Read[0]);
+                }
+            }
+            if (!attributeKeyList.isEmpty()) {
+                attributeKeys = new KeySet(attributeKeyList);
+                attributeRules = new int[attributeRuleList.size()][];
+                for (int i = 0; i < attributeRules.length; i++) {
+                    attributeRules[i] = attributeRuleList.get(i).stream().mapToInt(Integer::intValue).toArray();
+                }
+            }
+            return this;
+        }
+
+        Node child(int field, boolean firstOnly, Builder builder) {
+            for (int i = 0; i < edgeFieldList.size(); i++) {
+                if (edgeFieldList.get(i) == field && edgeFirstOnlyList.get(i) == firstOnly) {
+                    return edgeChildList.get(i);
+                }
+            }
+            Node child = new Node(builder.nodeCount++);
+            edgeFieldList.add(field);
+            edgeFirstOnlyList.add(firstOnly);
+            edgeChildList.add(child);
+            return child;
+        }
+    }
+
+    private static final class Builder {
+        int nodeCount;
+        final Node root = new Node(nodeCount++);
+
+        /** Same walk as {@link ResourceAttributeSpanSelector}: every resource of every container. */
+        void addResourceAttribute(int rule, byte[] keyUtf8) {
+            Node resource = root.child(1, false, this).child(1, false, this);
+            int key = indexOf(resource.attributeKeyList, keyUtf8);
+            if (key < 0) {
+                resource.attributeKeyList.add(keyUtf8);
+                resource.attributeRuleList.add(new ArrayList<>());
+                key = resource.attributeKeyList.size() - 1;
+            }
+            resource.attributeRuleList.get(key).add(rule);
+        }
+
+        /**
+         * Adds a path of the shapes {@link com.acme.finops.gateway.policy.OtlpPathCompiler}
+         * emits: message segments, then a field read or a map-key read.
+         *
+         * @return {@code false} if the program has another shape and must run on its own
+         */
+        boolean addPath(int rule, CompiledPath path, IntFunction<String> mapKeyResolver) {
+            PathOp[] ops = PathOp.values();
+            short[] opcodes = path.program().opcodes();
+            int[] operands = path.program().operands();
+            if (opcodes.length != operands.length) {
+                return false;
+            }
+            for (short opcode : opcodes) {
+                if ((opcode & 0xFFFF) >= ops.length) {
+                    return false;
+                }
+            }
+            boolean spans = path.terminalType() == ValueType.STRING || path.terminalType() == ValueType.BYTES;
+            List<int[]> edges = new ArrayList<>();
+            int pc = 0;
+            while (pc < opcodes.length) {
+                PathOp op = ops[opcodes[pc]];
+                PathOp next = pc + 1 < opcodes.length ? ops[opcodes[pc + 1]] : null;
+                PathOp after = pc + 2 < opcodes.length ? ops[opcodes[pc + 2]] : null;
+                if (op == PathOp.ENTER_MSG_FIELD) {
+                    if (next == PathOp.ENTER_LEN_DELIMITED) {
+                        edges.add(new int[] {operands[pc], 1});
+                        pc += 2;
+                        continue;
+                    }
+                    if ((next == PathOp.REPEATED_ANY || next == PathOp.REPEATED_FIRST) && after == PathOp.ENTER_LEN_DELIMITED) {
+                        edges.add(new int[] {operands[pc], next == PathOp.REPEATED_FIRST ? 1 : 0});
+                        pc += 3;
+                        continue;
+                    }
+                    int readPc = next == PathOp.REPEATED_FIRST ? pc + 2 : pc + 1;
+                    int wireType = readWireType(readPc, opcodes, ops);
+                    if (wireType < 0 || edges.size() > MAX_DEPTH || !endsAfter(readPc, opcodes, ops)) {
+                        return false;
+                    }
+                    nodeAt(edges).fieldReadList.add(new Read(rule, operands[pc], wireType, spans));
+                    return true;
+                }
+                if (op == PathOp.MAP_SCAN_STRING_KEY) {
+                    String key = mapKeyResolver.apply(operands[pc]);
+                    int wireType = readWireType(pc + 1, opcodes, ops);
+                    if (key == null || key.isEmpty() || wireType < 0 || edges.size() > MAX_DEPTH
+                        || !endsAfter(pc + 1, opcodes, ops)) {
+                        return false;
+                    }
+                    Node node = nodeAt(edges);
+                    byte[] keyUtf8 = key.getBytes(StandardCharsets.UTF_8);
+                    int index = indexOf(node.mapKeyList, keyUtf8);
+                    if (index < 0) {
+                        node.mapKeyList.add(keyUtf8);
+                        node.mapReadList.add(new ArrayList<>());
+                        index = node.mapKeyList.size() - 1;
+                    }
+                    node.mapReadList.get(index).add(new Read(rule, 0, wireType, spans));
+                    return true;
+                }
+                return false;
+            }
+            return false;
+        }
+
+        private Node nodeAt(List<int[]> edges) {
+            Node node = root;
+            for (int[] edge : edges) {
+                node = node.child(edge[0], edge[1] != 0, this);
+            }
+            return node;
+        }
+
+        private static int readWireType(int pc, short[] opcodes, PathOp[] ops) {
+            if (pc >= opcodes.length) {
+                return -1;
+            }
+            return switch (ops[opcodes[pc]]) {
+                case READ_STRING, READ_BYTES -> LEN;
+                case READ_BOOL, READ_ENUM, READ_SCALAR -> VARINT;
+                default -> -1;
+            };
+        }
+
+        /** The read at {@code readPc} is the last step: the program ends or halts right after it. */
+        private static boolean endsAfter(int readPc, short[] opcodes, PathOp[] ops) {
+            return readPc + 1 >= opcodes.length || ops[opcodes[readPc + 1]] == PathOp.HALT;
+        }
+
+        private static int indexOf(List<byte[]> keys, byte[] key) {
+            for (int i = 0; i < keys.size(); i++) {
+                if (Arrays.equals(keys.get(i), key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Distinct UTF-8 keys looked up by content straight from the payload: a length filter,
+     * then one FNV-1a hash and one comparison, with no per-lookup allocation.
+     */
+    static final class KeySet {
+        private final MemorySegment[] keys;
+        private final int[] slots;
+        private final int mask;
+        private final long lengths;
+
+        KeySet(List<byte[]> keyList) {
+            this.keys = new MemorySegment[keyList.size()];
+            int capacity = Integer.highestOneBit(Math.max(4, keyList.size() * 4) - 1) << 1;
+            this.slots = new int[capacity];
+            this.mask = capacity - 1;
+            long lengthBits = 0L;
+            for (int i = 0; i < keys.length; i++) {
+                byte[] key = keyList.get(i);
+                keys[i] = MemorySegment.ofArray(key);
+                lengthBits |= lengthBit(key.length);
+                int slot = hash(keys[i], 0, key.length) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = i + 1;
+            }
+            this.lengths = lengthBits;
+        }
+
+        int size() {
+            return keys.length;
+        }
+
+        /** @return index of the key equal to {@code length} bytes at {@code offset}, or {@code -1} */
+        int indexOf(MemorySegment segment, int offset, int length) {
+            if ((lengths & lengthBit(length)) == 0L) {
+                return -1;
+            }
+            int slot = hash(segment, offset, length) & mask;
+            while (true) {
+                int candidate = slots[slot] - 1;
+                if (candidate < 0) {
+                    return -1;
+                }
+                MemorySegment key = keys[candidate];
+                if (key.byteSize() == length
+                    && MemorySegment.mismatch(segment, offset, (long) offset + length, key, 0L, length) < 0L) {
+                    return candidate;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private static long lengthBit(int length) {
+            return 1L << Math.min(length, 63);
+        }
+
+        private static int hash(MemorySegment segment, long offset, int length) {
+            int h = 0x811C9DC5;
+            for (int i = 0; i < length; i++) {
+                h ^= segment.get(ValueLayout.JAVA_BYTE, offset + i);
+                h *= 0x01000193;
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -134,9 +134,10 @@ public record MutationPlan(
     public static final class Builder {
         private final long requestId;
         private PlanMode mode = PlanMode.NOOP;
-        private final List<Op> passAOps = new ArrayList<>();
-        private final List<Op> passBOps = new ArrayList<>();
-        private final List<LengthDelta> lengthDeltas = new ArrayList<>();
+        // Created on first add: most packets get a NOOP plan with no ops at all.
+        private List<Op> passAOps;
+        private List<Op> passBOps;
+        private List<LengthDelta> lengthDeltas;
         private int sourceLength;
         private int targetLength;
         private String reasonCode = "";
@@ -166,16 +167,25 @@ public record MutationPlan(
         }
 
         public Builder addPassA(Op op) {
+            if (passAOps == null) {
+                passAOps = new ArrayList<>();
+            }
             this.passAOps.add(Objects.requireNonNull(op, "op"));
             return this;
         }
 
         public Builder addPassB(Op op) {
+            if (passBOps == null) {
+                passBOps = new ArrayList<>();
+            }
             this.passBOps.add(Objects.requireNonNull(op, "op"));
             return this;
         }
 
         public Builder addLengthDelta(LengthDelta delta) {
+            if (lengthDeltas == null) {
+                lengthDeltas = new ArrayList<>();
+            }
             this.lengthDeltas.add(Objects.requireNonNull(delta, "delta"));
             return this;
         }
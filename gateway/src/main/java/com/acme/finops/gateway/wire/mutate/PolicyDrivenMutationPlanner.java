@@ -6,24 +6,65 @@ import com.acme.finops.gateway.policy.PolicyDecision;
 import com.acme.finops.gateway.transport.api.SignalKind;
 import com.acme.finops.gateway.wire.cursor.DefaultEvalScratch;
 import com.acme.finops.gateway.wire.cursor.FastWireCursor;
+import com.acme.finops.gateway.wire.cursor.ValidatedFrames;
 
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Plans masks and drops from the active {@link CompiledMaskingSnapshot}: rules run in priority
+ * order, and the first matching DROP rule, or a FAIL_CLOSED mask mismatch, ends planning.
+ *
+ * <p>With single-pass matching, the selectors of a snapshot's rules for a signal are merged
+ * into one {@link MultiRuleAutomaton}, built once per snapshot, and one walk of the packet
+ * finds every rule's matches before the priority loop reads them. Rules the automaton does
+ * not cover, and packets it cannot walk, fall back to their own selectors.</p>
+ */
 public final class PolicyDrivenMutationPlanner implements MutationPlanner {
     private static final Logger LOG = Logger.getLogger(PolicyDrivenMutationPlanner.class.getName());
     private static final byte DEFAULT_MASK_BYTE = (byte) '*';
+    /** Selector walks of one packet before validating it can pay off; one walk has nothing to share. */
+    static final int VALIDATE_MIN_SELECTOR_WALKS = 2;
 
     private final ControlPlanePolicyProvider policyProvider;
     private final int maxMaskOpsPerPacket;
     private final ThreadLocal<FastWireCursor> cursorTl = ThreadLocal.withInitial(FastWireCursor::new);
     private final ThreadLocal<DefaultEvalScratch> scratchTl = ThreadLocal.withInitial(DefaultEvalScratch::new);
     private final ThreadLocal<ValueSpanCollector> collectorTl;
+    private final ThreadLocal<MultiRuleAutomaton.Walk> walkTl;
+    private final boolean singlePass;
+    private final boolean validateOnce;
+    private volatile Automata automata;
 
     public PolicyDrivenMutationPlanner(ControlPlanePolicyProvider policyProvider, int maxMaskOpsPerPacket) {
+        this(policyProvider, maxMaskOpsPerPacket, true);
+    }
+
+    /**
+     * @param singlePass {@code false} to walk the packet once per rule
+     */
+    public PolicyDrivenMutationPlanner(ControlPlanePolicyProvider policyProvider,
+                                       int maxMaskOpsPerPacket,
+                                       boolean singlePass) {
+        this(policyProvider, maxMaskOpsPerPacket, singlePass, false);
+    }
+
+    /**
+     * @param singlePass {@code false} to walk the packet once per rule
+     * @param validateOnce {@code true} to validate a packet walked by several rule selectors
+     *                     once, so that they read its frames without bounds checks
+     */
+    public PolicyDrivenMutationPlanner(ControlPlanePolicyProvider policyProvider,
+                                       int maxMaskOpsPerPacket,
+                                       boolean singlePass,
+                                       boolean validateOnce) {
         this.policyProvider = policyProvider;
         this.maxMaskOpsPerPacket = Math.max(1, maxMaskOpsPerPacket);
+        this.singlePass = singlePass;
+        this.validateOnce = validateOnce;
         this.collectorTl = ThreadLocal.withInitial(() -> new ValueSpanCollector(this.maxMaskOpsPerPacket));
+        this.walkTl = ThreadLocal.withInitial(() -> new MultiRuleAutomaton.Walk(this.maxMaskOpsPerPacket));
     }
 
     @Override
@@ -46,18 +87,40 @@ public final class PolicyDrivenMutationPlanner implements MutationPlanner {
         int emittedMaskOps = 0;
         int[] emittedStarts = new int[maxMaskOpsPerPacket];
         int[] emittedEnds = new int[maxMaskOpsPerPacket];
+        FastWireCursor cursor = cursorTl.get();
         try {
-            FastWireCursor cursor = cursorTl.get();
             DefaultEvalScratch scratch = scratchTl.get();
             ValueSpanCollector collector = collectorTl.get();
+            List<CompiledMaskingRule> rules = snapshot.rules();
+
+            MultiRuleAutomaton automaton = singlePass ? automatonFor(snapshot, signal) : null;
+            MultiRuleAutomaton.Walk walk = null;
+            if (automaton != null) {
+                walk = walkTl.get();
+                if (!automaton.collect(envelope, walk, scratch.tempBytes().length)) {
+                    automaton = null;
+                }
+            }
+            if (validateOnce && selectorWalks(rules, signal, automaton) >= VALIDATE_MIN_SELECTOR_WALKS) {
+                cursor.useValidatedFrames(ValidatedFrames.validate(envelope.segment(), envelope.offset(), envelope.length()));
+            }
 
-            for (CompiledMaskingRule rule : snapshot.rules()) {
+            for (int r = 0; r < rules.size(); r++) {
+                CompiledMaskingRule rule = rules.get(r);
                 if (!rule.enabled() || !rule.appliesTo(signal)) {
                     continue;
                 }
 
-                collector.reset();
-                int matches = rule.selector().collect(envelope, cursor, scratch, collector);
+                ValueSpanCollector spans;
+                int matches;
+                if (automaton != null && automaton.covers(r)) {
+                    spans = walk.spans(r);
+                    matches = walk.matches(r);
+                } else {
+                    spans = collector;
+                    spans.reset();
+                    matches = rule.selector().collect(envelope, cursor, scratch, spans);
+                }
                 if (matches <= 0) {
                     continue;
                 }
@@ -74,12 +137,12 @@ public final class PolicyDrivenMutationPlanner implements MutationPlanner {
                     continue;
                 }
 
-                for (int i = 0; i < collector.count(); i++) {
+                for (int i = 0; i < spans.count(); i++) {
                     if (emittedMaskOps >= maxMaskOpsPerPacket) {
                         break;
                     }
-                    int offset = collector.offsetAt(i);
-                    int length = collector.lengthAt(i);
+                    int offset = spans.offsetAt(i);
+                    int length = spans.lengthAt(i);
                     byte[] token = rule.redactionToken();
                     if (token.length > 0 && token.length != length) {
                         if (rule.mismatchMode() == MismatchMode.FAIL_CLOSED) {
@@ -113,6 +176,8 @@ public final class PolicyDrivenMutationPlanner implements MutationPlanner {
         } catch (RuntimeException e) {
             LOG.log(Level.WARNING, "Policy planner failed requestId=" + requestId + ", fail-open NOOP", e);
             return builder.mode(MutationPlan.PlanMode.NOOP).build();
+        } finally {
+            cursor.useValidatedFrames(null);
         }
 
         if (emittedMaskOps == 0) {
@@ -121,6 +186,27 @@ public final class PolicyDrivenMutationPlanner implements MutationPlanner {
         return builder.mode(MutationPlan.PlanMode.INPLACE_ONLY).build();
     }
 
+    private static int selectorWalks(List<CompiledMaskingRule> rules, SignalKind signal, MultiRuleAutomaton automaton) {
+        int walks = 0;
+        for (int r = 0; r < rules.size(); r++) {
+            CompiledMaskingRule rule = rules.get(r);
+            if (rule.enabled() && rule.appliesTo(signal) && (automaton == null || !automaton.covers(r))) {
+                walks++;
+            }
+        }
+        return walks;
+    }
+
+    /** The snapshot's automaton for {@code signal}, built on the first packet after a snapshot change. */
+    private MultiRuleAutomaton automatonFor(CompiledMaskingSnapshot snapshot, SignalKind signal) {
+        Automata current = automata;
+        if (current == null || current.snapshot != snapshot) {
+            current = new Automata(snapshot);
+            automata = current;
+        }
+        return current.forSignal(signal);
+    }
+
     private static boolean overlapsExisting(int[] starts, int[] ends, int size, int start, int end) {
         for (int i = 0; i < size; i++) {
             if (start < ends[i] && starts[i] < end) {
@@ -130,4 +216,22 @@ public final class PolicyDrivenMutationPlanner implements MutationPlanner {
         return false;
     }
 
+    /** Automata of one snapshot, per signal; a race to build them only wastes the loser's work. */
+    private static final class Automata {
+        private final CompiledMaskingSnapshot snapshot;
+        private final MultiRuleAutomaton[] bySignal;
+
+        Automata(CompiledMaskingSnapshot snapshot) {
+            this.snapshot = snapshot;
+            SignalKind[] signals = SignalKind.values();
+            this.bySignal = new MultiRuleAutomaton[signals.length];
+            for (SignalKind signal : signals) {
+                bySignal[signal.ordinal()] = MultiRuleAutomaton.build(snapshot.rules(), signal);
+            }
+        }
+
+        MultiRuleAutomaton forSignal(SignalKind signal) {
+            return bySignal[signal.ordinal()];
+        }
+    }
 }
@@ -30,6 +30,10 @@ final class ResourceAttributeSpanSelector implements ValueSpanSelector {
         this.keyUtf8 = key.getBytes(StandardCharsets.UTF_8);
     }
 
+    byte[] keyUtf8() {
+        return keyUtf8;
+    }
+
     @Override
     public int collect(PacketRef packetRef,
                        FastWireCursor cursor,
@@ -195,7 +199,7 @@ final class ResourceAttributeSpanSelector implements ValueSpanSelector {
         return true;
     }
 
-    private static boolean isLikelyJson(PacketRef packetRef) {
+    static boolean isLikelyJson(PacketRef packetRef) {
         MemorySegment payload = packetRef.segment().asSlice(packetRef.offset(), packetRef.length());
         for (int i = 0; i < packetRef.length(); i++) {
             byte b = payload.get(ValueLayout.JAVA_BYTE, i);
@@ -0,0 +1,66 @@
+package com.acme.finops.gateway.wire.mutate;
+
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.transport.api.InboundPacket;
+import com.acme.finops.gateway.transport.api.TenantKeyResolver;
+import com.acme.finops.gateway.wire.cursor.DefaultEvalScratch;
+import com.acme.finops.gateway.wire.cursor.FastWireCursor;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Tenant key taken from a resource attribute of the payload (protobuf or JSON), e.g.
+ * {@code tenant_id}. The first matching resource wins; packets without the attribute fall
+ * back to the adapter's tenant ({@link InboundPacket#tenantId()}).
+ *
+ * <p>Each thread remembers the last value it decoded; a payload carrying the same bytes,
+ * as consecutive requests on one connection usually do, gets the same {@link String} back
+ * without copying or decoding.</p>
+ */
+public final class ResourceAttributeTenantResolver implements TenantKeyResolver {
+    private final ResourceAttributeSpanSelector selector;
+    private final ThreadLocal<FastWireCursor> cursor = ThreadLocal.withInitial(FastWireCursor::new);
+    private final ThreadLocal<DefaultEvalScratch> scratch = ThreadLocal.withInitial(DefaultEvalScratch::new);
+    private final ThreadLocal<ValueSpanCollector> collector = ThreadLocal.withInitial(() -> new ValueSpanCollector(1));
+    private final ThreadLocal<LastTenant> last = ThreadLocal.withInitial(LastTenant::new);
+
+    public ResourceAttributeTenantResolver(String attributeKey) {
+        this.selector = new ResourceAttributeSpanSelector(Objects.requireNonNull(attributeKey, "attributeKey"));
+    }
+
+    @Override
+    public String tenantOf(InboundPacket packet) {
+        return tenantOf(packet.packetRef(), packet.tenantId());
+    }
+
+    /** Tenant attribute of {@code ref}, or {@code fallback} when it has none. */
+    public String tenantOf(PacketRef ref, String fallback) {
+        if (ref == null) {
+            return fallback;
+        }
+        ValueSpanCollector spans = collector.get();
+        if (selector.collect(ref, cursor.get(), scratch.get(), spans) == 0) {
+            return fallback;
+        }
+        return last.get().tenantOf(ref.segment(), ref.offset() + (long) spans.offsetAt(0), spans.lengthAt(0));
+    }
+
+    private static final class LastTenant {
+        private MemorySegment bytes = MemorySegment.NULL;
+        private String tenant;
+
+        String tenantOf(MemorySegment segment, long offset, int length) {
+            if (tenant != null && bytes.byteSize() == length
+                && MemorySegment.mismatch(segment, offset, offset + length, bytes, 0L, length) == -1L) {
+                return tenant;
+            }
+            byte[] value = segment.asSlice(offset, length).toArray(ValueLayout.JAVA_BYTE);
+            bytes = MemorySegment.ofArray(value);
+            tenant = new String(value, StandardCharsets.UTF_8);
+            return tenant;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.acme.finops.gateway.backpressure;
+
+import com.acme.finops.gateway.memory.PacketDescriptor;
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.memory.PacketRefImpl;
+import com.acme.finops.gateway.queue.QueueSnapshot;
+import com.acme.finops.gateway.transport.api.ProtocolKind;
+import com.acme.finops.gateway.transport.api.SignalKind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoDelDropPolicyTest {
+    private static final long MS = 1_000_000L;
+    private static final long T0 = 1_000_000 * MS;
+
+    private final PacketRef packet = packetRef();
+
+    @AfterEach
+    void release() {
+        packet.release();
+    }
+
+    @Test
+    void shouldKeepPacketsBelowTarget() {
+        CoDelDropPolicy policy = new CoDelDropPolicy(5 * MS, 100 * MS, 1);
+        for (long t = 0; t <= 1_000; t += 10) {
+            assertKeep(policy, 0, t, 4);
+        }
+        assertEquals(0L, policy.stats().get(0).drops());
+    }
+
+    @Test
+    void shouldDropAfterIntervalAboveTargetAndSpeedUpBySqrtCount() {
+        CoDelDropPolicy policy = new CoDelDropPolicy(5 * MS, 100 * MS, 1);
+        assertKeep(policy, 0, 0, 10);
+        assertKeep(policy, 0, 50, 10);
+        // Above target for a full interval: first drop, next one interval later.
+        assertDrop(policy, 0, 100, 10);
+        assertKeep(policy, 0, 150, 10);
+        assertDrop(policy, 0, 200, 10);
+        // Second gap is interval / sqrt(2) ~= 70.7 ms.
+        assertKeep(policy, 0, 260, 10);
+        assertDrop(policy, 0, 271, 10);
+        CoDelLaneStats dropping = policy.stats().get(0);
+        assertTrue(dropping.dropping());
+        assertEquals(3, dropping.count());
+        assertEquals(3L, dropping.drops());
+
+        // Sojourn back below target leaves the dropping state.
+        assertKeep(policy, 0, 300, 1);
+        assertFalse(policy.stats().get(0).dropping());
+
+        // Re-entering soon after resumes from the previous rate instead of count 1.
+        assertKeep(policy, 0, 310, 10);
+        assertDrop(policy, 0, 410, 10);
+        assertEquals(2, policy.stats().get(0).count());
+        assertEquals(4L, policy.stats().get(0).drops());
+    }
+
+    @Test
+    void shouldNotDropFromNearlyEmptyLane() {
+        CoDelDropPolicy policy = new CoDelDropPolicy(5 * MS, 100 * MS, 1);
+        for (long t = 0; t <= 500; t += 10) {
+            DropDecision decision = policy.decide(packet, snapshot(0, 1), T0 + t * MS, T0 + t * MS - 50 * MS);
+            assertInstanceOf(DropDecision.Keep.class, decision);
+        }
+    }
+
+    @Test
+    void shouldTrackLanesIndependently() {
+        CoDelDropPolicy policy = new CoDelDropPolicy(5 * MS, 100 * MS, 2);
+        assertKeep(policy, 1, 0, 10);
+        assertKeep(policy, 0, 0, 1);
+        assertDrop(policy, 1, 100, 10);
+        assertKeep(policy, 0, 100, 1);
+        assertFalse(policy.stats().get(0).dropping());
+        assertTrue(policy.stats().get(1).dropping());
+    }
+
+    private void assertDrop(CoDelDropPolicy policy, int lane, long atMs, long sojournMs) {
+        DropDecision.Drop drop = assertInstanceOf(DropDecision.Drop.class, decide(policy, lane, atMs, sojournMs),
+            "expected drop at " + atMs + "ms");
+        assertEquals(DropReasonCode.SOJOURN_ABOVE_TARGET, drop.reason());
+    }
+
+    private void assertKeep(CoDelDropPolicy policy, int lane, long atMs, long sojournMs) {
+        assertInstanceOf(DropDecision.Keep.class, decide(policy, lane, atMs, sojournMs), "expected keep at " + atMs + "ms");
+    }
+
+    private DropDecision decide(CoDelDropPolicy policy, int lane, long atMs, long sojournMs) {
+        long now = T0 + atMs * MS;
+        return policy.decide(packet, snapshot(lane, 64), now, now - sojournMs * MS);
+    }
+
+    private static QueueSnapshot snapshot(int lane, int depth) {
+        return new QueueSnapshot(depth, 1024, 0, depth, 0L).inLane(lane, lane, depth, 2048);
+    }
+
+    private static PacketRef packetRef() {
+        byte[] payload = new byte[] {0x01, 0x02, 0x03};
+        PacketDescriptor descriptor = new PacketDescriptor(
+            1L, 1L, SignalKind.TRACES, ProtocolKind.OTLP_HTTP_PROTO, 0, payload.length, 0L);
+        return new PacketRefImpl(1L, descriptor, MemorySegment.ofArray(payload), 0, payload.length);
+    }
+}
@@ -0,0 +1,74 @@
+package com.acme.finops.gateway.backpressure;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CompositeThrottleStrategyTest {
+    private static final long MS = 1_000_000L;
+    private static final Watermarks WATERMARKS = new Watermarks(100, 200, 300);
+
+    @Test
+    void queueOnlyShouldShedLikeWatermarks() {
+        CompositeThrottleStrategy composite = new CompositeThrottleStrategy(SampledPressure.NONE, 0.1d, 0.5d, 5L, 0.0d);
+        WatermarkThrottleStrategy watermark = new WatermarkThrottleStrategy(0.1d, 0.5d, 5L);
+        for (int depth : new int[] {0, 99, 100, 199, 200, 299, 300, 400, 250, 150, 10}) {
+            assertEquals(watermark.onDepth(depth, WATERMARKS, 0L).mode(), composite.onDepth(depth, WATERMARKS, 0L).mode(),
+                "depth " + depth);
+        }
+        assertEquals("queue_depth_above_critical", composite.onDepth(300, WATERMARKS, 0L).reason());
+    }
+
+    @Test
+    void sampledInputShouldShedBeforeQueueFillsAndNameItself() {
+        AtomicReference<Double> memory = new AtomicReference<>(0.5d);
+        SampledPressure sampled = new SampledPressure(List.of(
+            new PressureSource(PressureInput.MEMORY, memory::get, PressureLevels.of(0.7d, 0.9d))), 10 * MS);
+        CompositeThrottleStrategy throttle = new CompositeThrottleStrategy(sampled, 0.1d, 0.5d, 5L, 0.0d);
+
+        assertEquals(ThrottleMode.PASS, throttle.onDepth(10, WATERMARKS, 0L).mode());
+        memory.set(0.85d);
+        // Not re-sampled within the interval.
+        assertEquals(ThrottleMode.PASS, throttle.onDepth(10, WATERMARKS, 5 * MS).mode());
+
+        ThrottleDecision decision = throttle.onDepth(10, WATERMARKS, 10 * MS);
+        assertEquals(ThrottleMode.SHED_AGGRESSIVE, decision.mode());
+        assertEquals("memory_above_high", decision.reason());
+
+        CompositeThrottleStats stats = throttle.stats();
+        assertEquals(PressureInput.MEMORY, stats.dominant());
+        assertEquals(0.875d, stats.pressures().get(PressureInput.MEMORY), 1e-9);
+        assertEquals(0.05d, stats.pressures().get(PressureInput.QUEUE_DEPTH), 1e-9);
+        assertEquals(1L, stats.throttled().get(PressureInput.MEMORY));
+        assertEquals(0L, stats.throttled().get(PressureInput.QUEUE_DEPTH));
+    }
+
+    @Test
+    void hysteresisShouldHoldModeUntilScoreClearsGap() {
+        CompositeThrottleStrategy throttle = new CompositeThrottleStrategy(SampledPressure.NONE, 0.1d, 0.5d, 5L, 0.1d);
+        assertEquals(ThrottleMode.SHED_AGGRESSIVE, throttle.onDepth(200, WATERMARKS, 0L).mode());
+        // Score 0.7: below high (0.75) but within the 0.1 gap, so the aggressive mode holds.
+        assertEquals(ThrottleMode.SHED_AGGRESSIVE, throttle.onDepth(180, WATERMARKS, 0L).mode());
+        // Score 0.6: clears high by the gap, but not low, so it steps down to light only.
+        assertEquals(ThrottleMode.SHED_LIGHT, throttle.onDepth(120, WATERMARKS, 0L).mode());
+        assertEquals(ThrottleMode.SHED_LIGHT, throttle.onDepth(90, WATERMARKS, 0L).mode());
+        assertEquals(ThrottleMode.PASS, throttle.onDepth(70, WATERMARKS, 0L).mode());
+        // Escalation is immediate.
+        assertEquals(ThrottleMode.PAUSE_INGRESS, throttle.onDepth(300, WATERMARKS, 0L).mode());
+        assertEquals(ThrottleMode.PAUSE_INGRESS, throttle.stats().mode());
+    }
+
+    @Test
+    void byteWatermarksShouldCountAsQueueBytes() {
+        CompositeThrottleStrategy throttle = new CompositeThrottleStrategy(SampledPressure.NONE, 0.1d, 0.5d, 5L, 0.0d);
+        Watermarks withBytes = new Watermarks(100, 200, 300, 1_000L, 2_000L, 3_000L);
+        ThrottleDecision decision = throttle.onLoad(10, 3_000L, withBytes, 0L);
+        assertEquals(ThrottleMode.PAUSE_INGRESS, decision.mode());
+        assertEquals("queue_bytes_above_critical", decision.reason());
+        assertSame(decision, throttle.onLoad(10, 3_500L, withBytes, 0L));
+    }
+}
@@ -0,0 +1,64 @@
+package com.acme.finops.gateway.backpressure;
+
+import com.acme.finops.gateway.memory.PacketDescriptor;
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.memory.PacketRefImpl;
+import com.acme.finops.gateway.queue.QueueSnapshot;
+import com.acme.finops.gateway.transport.api.ProtocolKind;
+import com.acme.finops.gateway.transport.api.SignalKind;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class DeadlineDropPolicyTest {
+    private static final long NOW = 1_000_000_000L;
+
+    @Test
+    void shouldDropOnlyPacketsPastTheirDeadline() {
+        DeadlineDropPolicy policy = new DeadlineDropPolicy((ref, snapshot, now) -> new DropDecision.Keep());
+        QueueSnapshot snapshot = new QueueSnapshot(1, 16, 0, 1, NOW);
+        assertInstanceOf(DropDecision.Keep.class, policy.decide(packetRef(0L), snapshot, NOW, NOW - 10L));
+        assertInstanceOf(DropDecision.Keep.class, policy.decide(packetRef(NOW + 1L), snapshot, NOW, NOW - 10L));
+
+        PacketRef expired = packetRef(NOW);
+        DropDecision.Drop drop = assertInstanceOf(DropDecision.Drop.class, policy.decide(expired, snapshot, NOW, NOW - 10L));
+        assertEquals(DropReasonCode.DEADLINE_EXPIRED, drop.reason());
+        assertInstanceOf(DropDecision.Drop.class, policy.decide(expired, snapshot, NOW + 5L));
+    }
+
+    @Test
+    void shouldDeferToDelegateWithEnqueueTime() {
+        long[] seenEnqueue = {-1L};
+        DeadlineDropPolicy policy = new DeadlineDropPolicy(new DropPolicy() {
+            @Override
+            public DropDecision decide(PacketRef packet, QueueSnapshot snapshot, long nowNanos) {
+                return new DropDecision.Keep();
+            }
+
+            @Override
+            public DropDecision decide(PacketRef packet, QueueSnapshot snapshot, long nowNanos, long enqueueNanos) {
+                seenEnqueue[0] = enqueueNanos;
+                return new DropDecision.Drop(DropReasonCode.SOJOURN_ABOVE_TARGET);
+            }
+        });
+        PacketRef packet = packetRef(NOW + 1_000L);
+        try {
+            DropDecision.Drop drop = assertInstanceOf(DropDecision.Drop.class,
+                policy.decide(packet, new QueueSnapshot(1, 16, 0, 1, NOW), NOW, 42L));
+            assertEquals(DropReasonCode.SOJOURN_ABOVE_TARGET, drop.reason());
+            assertEquals(42L, seenEnqueue[0]);
+        } finally {
+            packet.release();
+        }
+    }
+
+    private static PacketRef packetRef(long deadlineNanos) {
+        byte[] payload = new byte[] {0x0A, 0x01, 0x01};
+        PacketDescriptor descriptor = new PacketDescriptor(
+            1L, 1L, SignalKind.TRACES, ProtocolKind.OTLP_GRPC, 0, payload.length, NOW, deadlineNanos);
+        return new PacketRefImpl(1L, descriptor, MemorySegment.ofArray(payload), 0, payload.length);
+    }
+}
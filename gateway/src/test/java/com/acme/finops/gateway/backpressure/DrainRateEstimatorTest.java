@@ -0,0 +1,57 @@
+package com.acme.finops.gateway.backpressure;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DrainRateEstimatorTest {
+    private static final long MS = 1_000_000L;
+    private static final long T0 = 1_000_000 * MS;
+
+    @Test
+    void firstFoldShouldTakeObservedRatePerShard() {
+        DrainRateEstimator rates = new DrainRateEstimator(2, 1_000 * MS, T0);
+        rates.onDrained(0, 30, 3_000L, T0 + 10 * MS);
+        rates.onDrained(1, 10, 1_000L, T0 + 20 * MS);
+        assertEquals(0.0d, rates.itemsPerSecond(), "no fold before one tick");
+
+        rates.tick(T0 + 100 * MS);
+        assertEquals(300.0d, rates.itemsPerSecond(0), 1e-9);
+        assertEquals(100.0d, rates.itemsPerSecond(1), 1e-9);
+        assertEquals(400.0d, rates.itemsPerSecond(), 1e-9);
+        assertEquals(40_000.0d, rates.bytesPerSecond(), 1e-6);
+    }
+
+    @Test
+    void idleTimeShouldDecayRateByHalfLife() {
+        DrainRateEstimator rates = new DrainRateEstimator(1, 1_000 * MS, T0);
+        rates.onDrained(0, 100, 0L, T0 + 100 * MS);
+        rates.tick(T0 + 100 * MS);
+        assertEquals(1_000.0d, rates.itemsPerSecond(), 1e-9);
+
+        // Nothing drained for one half life: the observed rate is 0 and carries half the weight.
+        rates.tick(T0 + 1_100 * MS);
+        assertEquals(500.0d, rates.itemsPerSecond(), 1e-6);
+    }
+
+    @Test
+    void millisToDrainShouldUseSlowerOfItemsAndBytes() {
+        DrainRateEstimator rates = new DrainRateEstimator(1, 1_000 * MS, T0);
+        assertEquals(0L, rates.millisToDrain(0L, 0L));
+        assertEquals(-1L, rates.millisToDrain(10L, 0L), "unknown before a rate is measured");
+
+        rates.onDrained(0, 100, 10_000L, T0 + 100 * MS);
+        rates.tick(T0 + 100 * MS);
+        // 1000 items/s and 100 KB/s.
+        assertEquals(50L, rates.millisToDrain(50L, 0L));
+        assertEquals(200L, rates.millisToDrain(50L, 20_000L));
+        assertEquals(1L, rates.millisToDrain(1L, -5L));
+    }
+
+    @Test
+    void shouldRejectInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new DrainRateEstimator(0, MS, T0));
+        assertThrows(IllegalArgumentException.class, () -> new DrainRateEstimator(1, 0L, T0));
+    }
+}
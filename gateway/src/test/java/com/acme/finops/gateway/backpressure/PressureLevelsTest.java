@@ -0,0 +1,35 @@
+package com.acme.finops.gateway.backpressure;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PressureLevelsTest {
+
+    @Test
+    void shouldMapLevelsOntoSharedScale() {
+        PressureLevels levels = new PressureLevels(50.0d, 75.0d, 90.0d);
+        assertEquals(0.0d, levels.pressure(0.0d));
+        assertEquals(0.25d, levels.pressure(25.0d), 1e-9);
+        assertEquals(PressureLevels.LOW, levels.pressure(50.0d), 1e-9);
+        assertEquals(0.625d, levels.pressure(62.5d), 1e-9);
+        assertEquals(PressureLevels.HIGH, levels.pressure(75.0d), 1e-9);
+        assertEquals(PressureLevels.CRITICAL, levels.pressure(90.0d), 1e-9);
+        assertEquals(2.0d, levels.pressure(180.0d), 1e-9);
+    }
+
+    @Test
+    void ofShouldPlaceHighHalfway() {
+        PressureLevels levels = PressureLevels.of(0.7d, 0.9d);
+        assertEquals(0.8d, levels.high(), 1e-9);
+    }
+
+    @Test
+    void shouldHandleCollapsedLevels() {
+        assertEquals(PressureLevels.CRITICAL, PressureLevels.pressure(10, 10, 10, 10), 1e-9);
+        assertEquals(PressureLevels.HIGH, PressureLevels.pressure(10, 5, 10, 20), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> new PressureLevels(0.0d, 1.0d, 2.0d));
+        assertThrows(IllegalArgumentException.class, () -> new PressureLevels(2.0d, 1.0d, 3.0d));
+    }
+}
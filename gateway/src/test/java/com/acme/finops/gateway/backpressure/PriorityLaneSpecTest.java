@@ -0,0 +1,30 @@
+package com.acme.finops.gateway.backpressure;
+
+import com.acme.finops.gateway.transport.api.SignalKind;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriorityLaneSpecTest {
+
+    @Test
+    void shouldParseLanesAndSkipInvalidEntries() {
+        List<PriorityLaneSpec> lanes = PriorityLaneSpec.parse(
+            "zero|LOGS|1|0;neg|LOGS|-1|1;hot|traces+METRICS|0|4; logs|LOGS|2|1 ;bad|LOGS|1;dup|TRACES|1|1;x|FOO|1|1");
+
+        // Rejected entries do not claim their signals.
+        assertEquals(2, lanes.size());
+        assertEquals(new PriorityLaneSpec("hot", Set.of(SignalKind.TRACES, SignalKind.METRICS), 0, 4), lanes.get(0));
+        assertEquals(new PriorityLaneSpec("logs", Set.of(SignalKind.LOGS), 2, 1), lanes.get(1));
+    }
+
+    @Test
+    void blankSpecShouldMeanNoLanes() {
+        assertTrue(PriorityLaneSpec.parse(null).isEmpty());
+        assertTrue(PriorityLaneSpec.parse("  ").isEmpty());
+    }
+}
@@ -9,6 +9,8 @@ import com.acme.finops.gateway.transport.api.SignalKind;
 import org.junit.jupiter.api.Test;
 
 import java.lang.foreign.MemorySegment;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
@@ -75,6 +77,96 @@ class QueueAwareDropPolicyTest {
         }
     }
 
+    @Test
+    void overallPressureShouldShedLowPriorityLanesFirst() {
+        ThrottleDecision[] overall = {new ThrottleDecision(ThrottleMode.SHED_LIGHT, 1.0d, 0L, "light")};
+        QueueAwareDropPolicy policy = new QueueAwareDropPolicy(
+            (depth, wm, ts) -> overall[0],
+            new Watermarks(10, 20, 30),
+            1_000_000_000L,
+            List.of(lane("traces", 0), lane("metrics", 1), lane("logs", 2))
+        );
+        PacketRef packet = packetRef(42L, System.nanoTime());
+        try {
+            assertInstanceOf(DropDecision.Keep.class, decideInLane(policy, packet, 0));
+            assertInstanceOf(DropDecision.Keep.class, decideInLane(policy, packet, 1));
+            assertInstanceOf(DropDecision.Drop.class, decideInLane(policy, packet, 2));
+
+            overall[0] = new ThrottleDecision(ThrottleMode.SHED_AGGRESSIVE, 1.0d, 0L, "aggressive");
+            assertInstanceOf(DropDecision.Keep.class, decideInLane(policy, packet, 0));
+            assertInstanceOf(DropDecision.Drop.class, decideInLane(policy, packet, 1));
+            assertInstanceOf(DropDecision.Drop.class, decideInLane(policy, packet, 2));
+
+            overall[0] = new ThrottleDecision(ThrottleMode.PAUSE_INGRESS, 1.0d, 0L, "pause");
+            DropDecision.Drop drop = assertInstanceOf(DropDecision.Drop.class, decideInLane(policy, packet, 0));
+            assertEquals(DropReasonCode.QUEUE_FULL, drop.reason());
+        } finally {
+            packet.release();
+        }
+    }
+
+    @Test
+    void laneWatermarksShouldShedOnlyTheFloodedLane() {
+        QueueAwareDropPolicy policy = new QueueAwareDropPolicy(
+            new WatermarkThrottleStrategy(1.0d, 1.0d, 0L),
+            new Watermarks(1_000, 2_000, 3_000),
+            1_000_000_000L,
+            List.of(
+                new PriorityLane("traces", Set.of(SignalKind.TRACES), 0, 1, new Watermarks(10, 20, 30),
+                    new WatermarkThrottleStrategy(1.0d, 1.0d, 0L)),
+                new PriorityLane("logs", Set.of(SignalKind.LOGS), 1, 1, new Watermarks(10, 20, 30),
+                    new WatermarkThrottleStrategy(1.0d, 1.0d, 0L)))
+        );
+        PacketRef packet = packetRef(7L, System.nanoTime());
+        try {
+            long now = System.nanoTime();
+            // Logs lane is past its own critical mark; overall depth is still low.
+            DropDecision logs = policy.decide(packet, new QueueSnapshot(40, 100, 0, 40, now, 1, 1, 42, 200), now);
+            assertEquals(DropReasonCode.QUEUE_FULL, assertInstanceOf(DropDecision.Drop.class, logs).reason());
+            DropDecision traces = policy.decide(packet, new QueueSnapshot(2, 100, 0, 2, now, 0, 0, 42, 200), now);
+            assertInstanceOf(DropDecision.Keep.class, traces);
+        } finally {
+            packet.release();
+        }
+    }
+
+    @Test
+    void laneByteWatermarksShouldShedOnQueuedBytes() {
+        QueueAwareDropPolicy policy = new QueueAwareDropPolicy(
+            new WatermarkThrottleStrategy(1.0d, 1.0d, 0L),
+            new Watermarks(1_000, 2_000, 3_000),
+            1_000_000_000L,
+            List.of(
+                new PriorityLane("traces", Set.of(SignalKind.TRACES), 0, 1, new Watermarks(10, 20, 30, 1L << 20, 2L << 20, 4L << 20),
+                    new WatermarkThrottleStrategy(1.0d, 1.0d, 0L)),
+                new PriorityLane("logs", Set.of(SignalKind.LOGS), 1, 1, new Watermarks(10, 20, 30),
+                    new WatermarkThrottleStrategy(1.0d, 1.0d, 0L)))
+        );
+        PacketRef packet = packetRef(7L, System.nanoTime());
+        try {
+            long now = System.nanoTime();
+            // Three envelopes, but 5 MiB of payload: past the lane's critical byte mark.
+            QueueSnapshot heavy = new QueueSnapshot(3, 100, 0, 3, now, 5L << 20).inLane(0, 0, 3, 200, 5L << 20);
+            DropDecision decision = policy.decide(packet, heavy, now);
+            assertEquals(DropReasonCode.QUEUE_FULL, assertInstanceOf(DropDecision.Drop.class, decision).reason());
+
+            QueueSnapshot light = new QueueSnapshot(3, 100, 0, 3, now, 4_096L).inLane(0, 0, 3, 200, 4_096L);
+            assertInstanceOf(DropDecision.Keep.class, policy.decide(packet, light, now));
+        } finally {
+            packet.release();
+        }
+    }
+
+    private static PriorityLane lane(String name, int priority) {
+        return new PriorityLane(name, Set.of(), priority, 1, new Watermarks(10, 20, 30),
+            (depth, wm, ts) -> new ThrottleDecision(ThrottleMode.PASS, 0.0d, 0L, "pass"));
+    }
+
+    private static DropDecision decideInLane(QueueAwareDropPolicy policy, PacketRef packet, int lane) {
+        long now = System.nanoTime();
+        return policy.decide(packet, new QueueSnapshot(1, 100, 0, 1, now, lane, lane, 50, 300), now);
+    }
+
     private static PacketRef packetRef(long requestId, long ingestNanos) {
         byte[] payload = new byte[] {0x01, 0x02, 0x03};
         PacketDescriptor descriptor = new PacketDescriptor(
@@ -3,6 +3,7 @@ package com.acme.finops.gateway.backpressure;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class WatermarkThrottleStrategyTest {
 
@@ -27,5 +28,51 @@ class WatermarkThrottleStrategyTest {
         ThrottleDecision aggressive = strategy.onDepth(2, watermarks, System.nanoTime());
         assertEquals(1.0d, aggressive.shedRatio());
     }
-}
 
+    @Test
+    void shouldReturnCachedDecisionPerMode() {
+        WatermarkThrottleStrategy strategy = new WatermarkThrottleStrategy(0.1d, 0.5d, 7_000_000L);
+        Watermarks watermarks = new Watermarks(10, 20, 30);
+
+        ThrottleDecision pass = strategy.onDepth(1, watermarks, 0L);
+        assertSame(pass, strategy.onDepth(2, watermarks, 0L));
+        ThrottleDecision pause = strategy.onDepth(31, watermarks, 0L);
+        assertEquals(7_000_000L, pause.pauseNanos());
+        assertSame(pause, strategy.onDepth(40, watermarks, 0L));
+        assertSame(pass, strategy.onDepth(0, watermarks, 0L));
+    }
+
+    @Test
+    void shouldThrottleOnBytesWhileDepthIsLow() {
+        WatermarkThrottleStrategy strategy = new WatermarkThrottleStrategy(0.1d, 0.5d, 7_000_000L);
+        Watermarks watermarks = new Watermarks(10, 20, 30, 1_000L, 2_000L, 3_000L);
+
+        assertEquals(ThrottleMode.PASS, strategy.onLoad(1, 999L, watermarks, 0L).mode());
+        assertEquals(ThrottleMode.SHED_LIGHT, strategy.onLoad(1, 1_000L, watermarks, 0L).mode());
+        assertEquals(ThrottleMode.SHED_AGGRESSIVE, strategy.onLoad(1, 2_500L, watermarks, 0L).mode());
+        assertEquals(ThrottleMode.PAUSE_INGRESS, strategy.onLoad(2, 3_000L, watermarks, 0L).mode());
+        // The more severe of depth and bytes wins.
+        assertEquals(ThrottleMode.PAUSE_INGRESS, strategy.onLoad(30, 1_000L, watermarks, 0L).mode());
+        assertEquals(ThrottleMode.PASS, strategy.onLoad(9, 10L, watermarks, 0L).mode());
+    }
+
+    @Test
+    void shouldIgnoreBytesWithoutByteWatermarks() {
+        WatermarkThrottleStrategy strategy = new WatermarkThrottleStrategy(0.1d, 0.5d, 7_000_000L);
+        Watermarks watermarks = new Watermarks(10, 20, 30);
+
+        assertEquals(false, watermarks.hasByteLimits());
+        assertEquals(ThrottleMode.PASS, strategy.onLoad(1, Long.MAX_VALUE - 1, watermarks, 0L).mode());
+    }
+
+    @Test
+    void shouldFollowLoadDownWithoutHoldingMode() {
+        WatermarkThrottleStrategy strategy = new WatermarkThrottleStrategy(0.1d, 0.5d, 7_000_000L);
+        Watermarks watermarks = new Watermarks(10, 20, 30, 1_000L, 2_000L, 3_000L);
+
+        assertEquals(ThrottleMode.PAUSE_INGRESS, strategy.onLoad(31, 0L, watermarks, 0L).mode());
+        assertEquals(ThrottleMode.SHED_AGGRESSIVE, strategy.onLoad(25, 0L, watermarks, 0L).mode());
+        assertEquals(ThrottleMode.SHED_LIGHT, strategy.onLoad(1, 1_500L, watermarks, 0L).mode());
+        assertEquals(ThrottleMode.PASS, strategy.onLoad(9, 999L, watermarks, 0L).mode());
+    }
+}
@@ -0,0 +1,59 @@
+package com.acme.finops.gateway.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuotaDeltaCodecTest {
+
+    @Test
+    void shouldRoundTripReport() {
+        ByteBuffer buffer = ByteBuffer.allocate(QuotaDeltaCodec.MAX_DATAGRAM_BYTES);
+        QuotaDeltaCodec.beginDatagram(buffer, 42L, 7, true);
+        assertTrue(QuotaDeltaCodec.putEntry(buffer, utf8("acme"), 10L, 1_000L));
+        assertTrue(QuotaDeltaCodec.putEntry(buffer, utf8("globex-ü"), 3L, 7L));
+        assertEquals(2, QuotaDeltaCodec.entryCount(buffer));
+        buffer.flip();
+
+        QuotaDeltaCodec.Report report = QuotaDeltaCodec.decode(buffer);
+        assertEquals(42L, report.nodeId());
+        assertEquals(7, report.sequence());
+        assertTrue(report.full());
+        assertEquals(List.of(
+            new QuotaDeltaCodec.Entry("acme", 10L, 1_000L),
+            new QuotaDeltaCodec.Entry("globex-ü", 3L, 7L)), report.entries());
+    }
+
+    @Test
+    void shouldRefuseEntryThatDoesNotFit() {
+        ByteBuffer buffer = ByteBuffer.allocate(QuotaDeltaCodec.MAX_DATAGRAM_BYTES);
+        QuotaDeltaCodec.beginDatagram(buffer, 1L, 1, false);
+        byte[] tenant = new byte[QuotaDeltaCodec.MAX_TENANT_BYTES];
+        assertTrue(QuotaDeltaCodec.putEntry(buffer, tenant, 1L, 1L));
+        assertFalse(QuotaDeltaCodec.putEntry(buffer, utf8("x"), 1L, 1L));
+        assertEquals(1, QuotaDeltaCodec.entryCount(buffer));
+    }
+
+    @Test
+    void shouldRejectMalformedDatagrams() {
+        assertThrows(IllegalArgumentException.class, () -> QuotaDeltaCodec.decode(ByteBuffer.wrap(utf8("hello world!!!!"))));
+
+        ByteBuffer buffer = ByteBuffer.allocate(QuotaDeltaCodec.MAX_DATAGRAM_BYTES);
+        QuotaDeltaCodec.beginDatagram(buffer, 1L, 1, false);
+        QuotaDeltaCodec.putEntry(buffer, utf8("acme"), 1L, 1L);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 3);
+        assertThrows(IllegalArgumentException.class, () -> QuotaDeltaCodec.decode(buffer));
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
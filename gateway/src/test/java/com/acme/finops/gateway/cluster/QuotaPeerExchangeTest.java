@@ -0,0 +1,205 @@
+package com.acme.finops.gateway.cluster;
+
+import com.acme.finops.gateway.memory.PacketDescriptor;
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.memory.PacketRefImpl;
+import com.acme.finops.gateway.policy.DecisionAction;
+import com.acme.finops.gateway.policy.PolicyContext;
+import com.acme.finops.gateway.policy.PolicyDecision;
+import com.acme.finops.gateway.policy.TenantQuotaAdmissionPolicy;
+import com.acme.finops.gateway.transport.api.ProtocolKind;
+import com.acme.finops.gateway.transport.api.SignalKind;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.lang.foreign.MemorySegment;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuotaPeerExchangeTest {
+    private static final long MS = 1_000_000L;
+
+    private final PacketRef packet = packet(100);
+
+    @Test
+    void shouldParsePeerListSkippingMalformedEntries() {
+        List<InetSocketAddress> peers = QuotaPeerExchange.parsePeers(" 127.0.0.1:7001, nohost, 127.0.0.1:x,[::1]:7002,127.0.0.1:70000 ");
+        assertEquals(2, peers.size());
+        assertEquals(7001, peers.get(0).getPort());
+        assertEquals(7002, peers.get(1).getPort());
+        assertTrue(QuotaPeerExchange.parsePeers("").isEmpty());
+    }
+
+    @Test
+    void shouldChargePeerAdmissionsToLocalBuckets() throws Exception {
+        TenantQuotaAdmissionPolicy a = new TenantQuotaAdmissionPolicy(10.0d, 0L, 1.0d, 16);
+        TenantQuotaAdmissionPolicy b = new TenantQuotaAdmissionPolicy(10.0d, 0L, 1.0d, 16);
+        try (QuotaPeerExchange exchangeA = bindLoopback(a, 10 * MS);
+             QuotaPeerExchange exchangeB = bindLoopback(b, 10 * MS)) {
+            exchangeA.start(List.of(exchangeB.localAddress()));
+            exchangeB.start(List.of(exchangeA.localAddress()));
+            // A's first report, full and empty, is B's baseline; later counts are charged.
+            awaitPeers(exchangeB, 1);
+            awaitPeers(exchangeA, 1);
+
+            int admitted = 0;
+            for (int i = 0; i < 10; i++) {
+                if (evaluate(a, "acme").action() == DecisionAction.ROUTE_DEFAULT) {
+                    admitted++;
+                }
+            }
+            assertEquals(10, admitted);
+
+            long deadline = System.nanoTime() + 5_000 * MS;
+            while (exchangeB.stats().remoteRequests() < 10L && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(5 * MS);
+            }
+            QuotaExchangeStats stats = exchangeB.stats();
+            assertEquals(10L, stats.remoteRequests());
+            assertEquals(1_000L, stats.remoteBytes());
+            // A's burst spent B's tokens too.
+            assertEquals(DecisionAction.THROTTLE, evaluate(b, "acme").action());
+            assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(b, "globex").action());
+        }
+    }
+
+    @Test
+    void shouldDropReportsFromAddressesThatAreNotPeers() throws Exception {
+        TenantQuotaAdmissionPolicy b = new TenantQuotaAdmissionPolicy(10.0d, 0L, 1.0d, 16);
+        TenantQuotaAdmissionPolicy intruder = new TenantQuotaAdmissionPolicy(10.0d, 0L, 1.0d, 16);
+        try (QuotaPeerExchange exchangeA = bindLoopback(new TenantQuotaAdmissionPolicy(10.0d, 0L, 1.0d, 16), 10 * MS);
+             QuotaPeerExchange exchangeB = bindLoopback(b, 10 * MS);
+             QuotaPeerExchange exchangeIntruder = bindLoopback(intruder, 10 * MS)) {
+            exchangeB.start(List.of(exchangeA.localAddress()));
+            exchangeIntruder.start(List.of(exchangeB.localAddress()));
+            for (int i = 0; i < 10; i++) {
+                evaluate(intruder, "acme");
+            }
+
+            long deadline = System.nanoTime() + 5_000 * MS;
+            while (exchangeB.stats().datagramsRejected() < 3L && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(5 * MS);
+            }
+            QuotaExchangeStats stats = exchangeB.stats();
+            assertTrue(stats.datagramsRejected() >= 3L, "intruder reports should be rejected: " + stats);
+            assertEquals(0L, stats.datagramsReceived());
+            assertEquals(0, stats.peers());
+            assertEquals(0L, stats.remoteRequests());
+            assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(b, "acme").action());
+        }
+    }
+
+    /**
+     * Three nodes on localhost, each offered far more than the tenant's global limit. Without
+     * the exchange each node would admit the full rate; with it the cluster total converges
+     * to the configured rate, plus one burst and at most a report interval of overshoot.
+     */
+    @Test
+    @Tag("benchmark")
+    void clusterAdmissionShouldConvergeToGlobalLimit(TestReporter reporter) throws Exception {
+        double rate = 200.0d;
+        double burstSeconds = 0.1d;
+        long runNanos = 2_000 * MS;
+        int nodes = 3;
+
+        long isolated = runCluster(nodes, rate, burstSeconds, runNanos, false);
+        long shared = runCluster(nodes, rate, burstSeconds, runNanos, true);
+        double expected = rate * (runNanos / 1e9d) + rate * burstSeconds;
+        reporter.publishEntry("quota convergence", String.format("nodes=%d rate=%.0f/s run=%dms expected~%.0f isolated=%d shared=%d",
+            nodes, rate, runNanos / MS, expected, isolated, shared));
+
+        assertTrue(isolated > 2.0d * expected, "isolated nodes should each admit the full rate: " + isolated);
+        assertTrue(shared < 1.5d * expected, "cluster should converge to the global rate: " + shared);
+        assertTrue(shared > 0.6d * expected, "cluster should still admit about the global rate: " + shared);
+    }
+
+    private long runCluster(int nodes, double rate, double burstSeconds, long runNanos, boolean exchange) throws Exception {
+        List<TenantQuotaAdmissionPolicy> policies = new ArrayList<>();
+        List<QuotaPeerExchange> exchanges = new ArrayList<>();
+        try {
+            for (int i = 0; i < nodes; i++) {
+                TenantQuotaAdmissionPolicy policy = new TenantQuotaAdmissionPolicy(rate, 0L, burstSeconds, 16);
+                policies.add(policy);
+                if (exchange) {
+                    exchanges.add(bindLoopback(policy, 10 * MS));
+                }
+            }
+            for (QuotaPeerExchange self : exchanges) {
+                List<InetSocketAddress> peers = new ArrayList<>();
+                for (QuotaPeerExchange other : exchanges) {
+                    if (other != self) {
+                        peers.add(other.localAddress());
+                    }
+                }
+                self.start(peers);
+            }
+            for (QuotaPeerExchange self : exchanges) {
+                awaitPeers(self, nodes - 1);
+            }
+
+            AtomicLong admitted = new AtomicLong();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> clients = new ArrayList<>();
+            for (TenantQuotaAdmissionPolicy policy : policies) {
+                Thread client = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long end = System.nanoTime() + runNanos;
+                    while (System.nanoTime() < end) {
+                        if (evaluate(policy, "acme").action() == DecisionAction.ROUTE_DEFAULT) {
+                            admitted.incrementAndGet();
+                        }
+                        LockSupport.parkNanos(MS);
+                    }
+                });
+                client.start();
+                clients.add(client);
+            }
+            start.countDown();
+            for (Thread client : clients) {
+                client.join();
+            }
+            return admitted.get();
+        } finally {
+            for (QuotaPeerExchange e : exchanges) {
+                e.close();
+            }
+        }
+    }
+
+    private static QuotaPeerExchange bindLoopback(TenantQuotaAdmissionPolicy policy, long intervalNanos) throws Exception {
+        return QuotaPeerExchange.bind(policy, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), intervalNanos);
+    }
+
+    private static void awaitPeers(QuotaPeerExchange exchange, int peers) {
+        long deadline = System.nanoTime() + 5_000 * MS;
+        while (exchange.stats().peers() < peers && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(5 * MS);
+        }
+        assertEquals(peers, exchange.stats().peers());
+    }
+
+    private PolicyDecision evaluate(TenantQuotaAdmissionPolicy policy, String tenant) {
+        return policy.evaluate(new PolicyContext(1L, tenant, packet, System.nanoTime()));
+    }
+
+    private static PacketRef packet(int bytes) {
+        byte[] payload = new byte[bytes];
+        PacketDescriptor descriptor = new PacketDescriptor(
+            1L, 1L, SignalKind.TRACES, ProtocolKind.OTLP_HTTP_PROTO, 0, payload.length, 0L);
+        return new PacketRefImpl(1L, descriptor, MemorySegment.ofArray(payload), 0, payload.length);
+    }
+}
@@ -0,0 +1,135 @@
+package com.acme.finops.gateway.memory;
+
+import com.acme.finops.gateway.transport.api.SignalKind;
+import com.acme.finops.gateway.util.GatewayStatusCodes;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AllocationQuotasTest {
+
+    @Test
+    void shouldDenyTenantAboveBurstLimit() {
+        AllocationQuotas quotas = new AllocationQuotas(
+            new AllocationQuotaConfig(Map.of("t1", new QuotaLimit(0, 100)), null, Map.of()), 1_000);
+
+        AllocationQuotas.Charge first = quotas.charge(tag("t1", 1), 80);
+        assertTrue(first.granted());
+
+        AllocationQuotas.Charge second = quotas.charge(tag("t1", 1), 40);
+        assertFalse(second.granted());
+        assertEquals(GatewayStatusCodes.TENANT_QUOTA_EXCEEDED, second.reasonCode());
+        assertEquals(1L, usage(quotas, QuotaUsage.DIMENSION_TENANT, "t1").deniedAllocations());
+
+        quotas.refund(first);
+        assertTrue(quotas.charge(tag("t1", 1), 100).granted());
+    }
+
+    @Test
+    void shouldProtectReservationFromOtherTenantsBurst() {
+        // capacity 1000, t1 reserves 400 -> shared pool 600
+        AllocationQuotas quotas = new AllocationQuotas(
+            new AllocationQuotaConfig(Map.of("t1", new QuotaLimit(400, 1_000)), null, Map.of()), 1_000);
+
+        assertTrue(quotas.charge(tag("noisy", 1), 600).granted());
+        AllocationQuotas.Charge overflow = quotas.charge(tag("noisy", 1), 8);
+        assertFalse(overflow.granted());
+        assertEquals(GatewayStatusCodes.TENANT_QUOTA_EXCEEDED, overflow.reasonCode());
+
+        // t1's reservation is still fully available
+        assertTrue(quotas.charge(tag("t1", 1), 400).granted());
+        assertFalse(quotas.charge(tag("t1", 1), 8).granted());
+    }
+
+    @Test
+    void shouldDenySignalAndRollBackTenantCharge() {
+        AllocationQuotas quotas = new AllocationQuotas(
+            new AllocationQuotaConfig(Map.of(), null, Map.of(SignalKind.LOGS, new QuotaLimit(0, 64))), 1_000);
+
+        assertTrue(quotas.charge(tag("t1", 3), 64).granted());
+        AllocationQuotas.Charge denied = quotas.charge(tag("t1", 3), 8);
+        assertEquals(GatewayStatusCodes.SIGNAL_QUOTA_EXCEEDED, denied.reasonCode());
+
+        assertEquals(64L, usage(quotas, QuotaUsage.DIMENSION_TENANT, "t1").inUseBytes());
+        assertEquals(64L, usage(quotas, QuotaUsage.DIMENSION_SIGNAL, "LOGS").inUseBytes());
+
+        // Other signals are unaffected
+        assertTrue(quotas.charge(tag("t1", 1), 64).granted());
+    }
+
+    @Test
+    void shouldApplyDefaultBurstToUnlistedTenants() {
+        AllocationQuotaConfig config = AllocationQuotaConfig.parse("*|50|128;bad-entry;t2|0|x", "LOGS|0|1000;NOPE|0|1");
+        assertEquals(0L, config.defaultTenantLimit().reservedBytes());
+        assertEquals(128L, config.defaultTenantLimit().burstBytes());
+        assertTrue(config.tenantLimits().isEmpty());
+        assertEquals(Map.of(SignalKind.LOGS, new QuotaLimit(0, 1000)), config.signalLimits());
+
+        AllocationQuotas quotas = new AllocationQuotas(config, 1_000);
+        assertTrue(quotas.charge(tag("a", 1), 128).granted());
+        assertFalse(quotas.charge(tag("a", 1), 1).granted());
+        assertTrue(quotas.charge(tag("b", 1), 128).granted());
+    }
+
+    @Test
+    void shouldRejectReservationsExceedingCapacity() {
+        AllocationQuotaConfig config = new AllocationQuotaConfig(
+            Map.of("a", new QuotaLimit(600, 600), "b", new QuotaLimit(600, 600)), null, Map.of());
+        assertThrows(IllegalArgumentException.class, () -> new AllocationQuotas(config, 1_000));
+    }
+
+    @Test
+    void shouldKeepAccountingConsistentUnderContention() throws Exception {
+        AllocationQuotas quotas = new AllocationQuotas(
+            new AllocationQuotaConfig(Map.of("t1", new QuotaLimit(256, 2_048)), null, Map.of()), 4_096);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String tenant = (t & 1) == 0 ? "t1" : "t" + t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 20_000; i++) {
+                    AllocationQuotas.Charge c = quotas.charge(tag(tenant, 1 + (i % 3)), 64);
+                    quotas.refund(c);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        for (QuotaUsage u : quotas.usage()) {
+            assertEquals(0L, u.inUseBytes(), u.dimension() + "/" + u.key());
+        }
+        assertEquals(0L, quotas.tenantSharedInUse());
+        assertEquals(0L, quotas.signalSharedInUse());
+    }
+
+    private static QuotaUsage usage(AllocationQuotas quotas, String dimension, String key) {
+        return quotas.usage().stream()
+            .filter(u -> dimension.equals(u.dimension()) && key.equals(u.key()))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static AllocationTag tag(String tenant, int signalTypeCode) {
+        return new AllocationTag("test", tenant, signalTypeCode);
+    }
+}
@@ -0,0 +1,192 @@
+package com.acme.finops.gateway.memory;
+
+import com.acme.finops.gateway.util.GatewayStatusCodes;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ElasticSlabPacketAllocatorTest {
+
+    @Test
+    void shouldGrowUnderPressureUpToCap() {
+        try (ElasticSlabPacketAllocator allocator = new ElasticSlabPacketAllocator(config(1, 3, 0))) {
+            List<PacketRef> held = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                held.add(granted(allocator.allocate(1024, tag())));
+            }
+            assertEquals(3, allocator.arenaCount());
+            assertEquals(2L, allocator.growCount());
+
+            LeaseResult.Denied denied = assertInstanceOf(LeaseResult.Denied.class, allocator.allocate(1024, tag()));
+            assertEquals(GatewayStatusCodes.INSUFFICIENT_STORAGE, denied.reasonCode());
+            assertEquals(1L, allocator.stats().failedAllocations());
+            assertEquals(3 * 1024L, allocator.stats().inUseBytes());
+
+            held.forEach(PacketRef::release);
+        }
+    }
+
+    @Test
+    void shouldGrowOnlyAfterPressureLastsGrowAfterMillis() {
+        ElasticSlabConfig config = new ElasticSlabConfig(1024, 1, 1, 3, 0, 100, 0);
+        try (ElasticSlabPacketAllocator allocator = new ElasticSlabPacketAllocator(config)) {
+            long t0 = System.nanoTime();
+            PacketRef first = granted(allocator.allocate(1024, tag(), t0));
+
+            // A single exhausted scan is refused without growing.
+            assertInstanceOf(LeaseResult.Denied.class, allocator.allocate(1024, tag(), t0));
+            assertEquals(1, allocator.arenaCount());
+            assertEquals(0L, allocator.growCount());
+
+            // A gap longer than the window starts a new episode instead of continuing this one.
+            assertInstanceOf(LeaseResult.Denied.class, allocator.allocate(1024, tag(), t0 + ms(250)));
+            assertInstanceOf(LeaseResult.Denied.class, allocator.allocate(1024, tag(), t0 + ms(300)));
+            assertEquals(0L, allocator.growCount());
+
+            PacketRef second = granted(allocator.allocate(1024, tag(), t0 + ms(350)));
+            assertEquals(2, allocator.arenaCount());
+            assertEquals(1L, allocator.growCount());
+            assertEquals(3L, allocator.stats().failedAllocations());
+
+            first.release();
+            second.release();
+        }
+    }
+
+    @Test
+    void shouldNotGrowForRequestsLargerThanRegion() {
+        try (ElasticSlabPacketAllocator allocator = new ElasticSlabPacketAllocator(config(1, 4, 0))) {
+            assertInstanceOf(LeaseResult.Denied.class, allocator.allocate(2048, tag()));
+            assertEquals(1, allocator.arenaCount());
+            assertEquals(0L, allocator.growCount());
+        }
+    }
+
+    @Test
+    void shouldRetireIdleArenasAfterCooldownButKeepMinimum() {
+        try (ElasticSlabPacketAllocator allocator = new ElasticSlabPacketAllocator(config(1, 3, 1_000))) {
+            List<PacketRef> held = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                held.add(granted(allocator.allocate(1024, tag())));
+            }
+            held.forEach(PacketRef::release);
+            long now = System.nanoTime();
+
+            allocator.maintain(now);
+            assertEquals(3, allocator.arenaCount(), "activity resets idle clock");
+
+            allocator.maintain(now + TimeUnit.MILLISECONDS.toNanos(999));
+            assertEquals(3, allocator.arenaCount());
+
+            allocator.maintain(now + TimeUnit.SECONDS.toNanos(2));
+            assertEquals(1, allocator.arenaCount());
+            assertEquals(0, allocator.retiringArenaCount());
+            assertEquals(2L, allocator.shrinkCount());
+            assertEquals(1024L, allocator.committedBytes());
+
+            AllocatorStats stats = allocator.stats();
+            assertEquals(3L, stats.allocCount());
+            assertEquals(3L, stats.releaseCount());
+        }
+    }
+
+    @Test
+    void shouldDeferCloseOfRetiredArenaUntilLivePacketsReleased() {
+        try (ElasticSlabPacketAllocator allocator = new ElasticSlabPacketAllocator(config(1, 2, 0))) {
+            PacketRef pinned = granted(allocator.allocate(1024, tag()));
+            PacketRef second = granted(allocator.allocate(1024, tag()));
+            second.release();
+            assertEquals(2, allocator.arenaCount());
+
+            allocator.maintain(System.nanoTime() + 1);
+            assertEquals(1, allocator.arenaCount());
+            assertEquals(1, allocator.retiringArenaCount());
+
+            // Segment of the retiring arena stays valid while the packet is held
+            pinned.segment().set(ValueLayout.JAVA_BYTE, 0, (byte) 7);
+            assertEquals(1024L, allocator.stats().inUseBytes());
+
+            pinned.release();
+            allocator.maintain(System.nanoTime() + 2);
+            assertEquals(0, allocator.retiringArenaCount());
+            assertEquals(2L, allocator.stats().releaseCount());
+        }
+    }
+
+    @Test
+    void shouldKeepAccountingConsistentWhileGrowingAndShrinkingConcurrently() throws Exception {
+        try (ElasticSlabPacketAllocator allocator = new ElasticSlabPacketAllocator(config(1, 4, 0))) {
+            int threads = 6;
+            ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+            CountDownLatch start = new CountDownLatch(1);
+            ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 5_000; i++) {
+                        LeaseResult r = allocator.allocate(256, tag());
+                        if (r instanceof LeaseResult.Granted g) {
+                            try {
+                                g.packetRef().segment().set(ValueLayout.JAVA_BYTE, 0, (byte) 1);
+                            } catch (Throwable e) {
+                                errors.add(e);
+                            }
+                            g.packetRef().release();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Future<?> maintainer = pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 2_000; i++) {
+                    allocator.maintain(System.nanoTime() + TimeUnit.SECONDS.toNanos(1));
+                }
+                return null;
+            });
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+            maintainer.get(30, TimeUnit.SECONDS);
+            pool.shutdown();
+
+            assertTrue(errors.isEmpty(), () -> "segment access failed: " + errors.peek());
+            allocator.maintain(System.nanoTime() + TimeUnit.SECONDS.toNanos(1));
+            AllocatorStats stats = allocator.stats();
+            assertEquals(stats.allocCount(), stats.releaseCount());
+            assertEquals(0L, stats.inUseBytes());
+            assertEquals(0, allocator.retiringArenaCount());
+        }
+    }
+
+    /** 1 KiB arenas with a single region each, so one 1 KiB packet fills an arena. */
+    private static ElasticSlabConfig config(int min, int max, long cooldownMillis) {
+        return new ElasticSlabConfig(1024, 1, min, max, cooldownMillis, 0);
+    }
+
+    private static long ms(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private static PacketRef granted(LeaseResult result) {
+        return assertInstanceOf(LeaseResult.Granted.class, result).packetRef();
+    }
+
+    private static AllocationTag tag() {
+        return new AllocationTag("test", "elastic", 1);
+    }
+}
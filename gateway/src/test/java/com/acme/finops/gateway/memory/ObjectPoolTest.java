@@ -0,0 +1,82 @@
+package com.acme.finops.gateway.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ObjectPoolTest {
+
+    @Test
+    void shouldReuseReleasedObjects() {
+        ObjectPool<Object> pool = new ObjectPool<>(4, Object::new);
+        Object first = pool.acquire();
+        assertEquals(1L, pool.createdCount());
+        assertTrue(pool.release(first));
+        assertSame(first, pool.acquire());
+        assertEquals(1L, pool.createdCount());
+    }
+
+    @Test
+    void shouldDropObjectsBeyondCapacity() {
+        ObjectPool<Object> pool = new ObjectPool<>(3, Object::new);
+        assertEquals(4, pool.capacity(), "rounded up to a power of two");
+        for (int i = 0; i < 4; i++) {
+            assertTrue(pool.release(new Object()));
+        }
+        assertFalse(pool.release(new Object()));
+        assertEquals(4, pool.size());
+    }
+
+    @Test
+    void shouldRejectInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new ObjectPool<>(0, Object::new));
+    }
+
+    @Test
+    void shouldNeverHandOutTheSameObjectTwiceConcurrently() throws Exception {
+        ObjectPool<Object> pool = new ObjectPool<>(64, Object::new);
+        Set<Object> inUse = ConcurrentHashMap.newKeySet();
+        int threads = 6;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 50_000; i++) {
+                    Object o = pool.acquire();
+                    if (!inUse.add(o)) {
+                        throw new AssertionError("object handed out twice");
+                    }
+                    inUse.remove(o);
+                    pool.release(o);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        // No bound on createdCount(): a slot mid-publish reads as empty to every acquirer until
+        // the releasing thread is scheduled again, so the miss rate depends on the host.
+        // Single-threaded reuse is covered by shouldReuseReleasedObjects.
+        assertTrue(pool.size() <= pool.capacity());
+        assertTrue(inUse.isEmpty());
+    }
+}
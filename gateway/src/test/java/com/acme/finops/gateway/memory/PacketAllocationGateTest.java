@@ -0,0 +1,52 @@
+package com.acme.finops.gateway.memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Allocation-per-packet gate for the slab hot path: heap bytes allocated by the calling
+ * thread per allocate/retain/release cycle, measured with the JVM's per-thread allocation
+ * counter. Pooled carriers leave only the payload slice; regressions show up as bytes/op.
+ */
+class PacketAllocationGateTest {
+    private static final int WARMUP_CYCLES = 200_000;
+    private static final int MEASURED_CYCLES = 200_000;
+    /** One {@code MemorySegment} slice per packet, plus headroom for JIT noise. */
+    private static final double MAX_BYTES_PER_PACKET = 64.0d;
+
+    @Test
+    void slabAllocateReleaseCycleShouldStayUnderByteBudget(TestReporter reporter) {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(1024 * 1024, 8)) {
+            AllocationTag tag = new AllocationTag("gate", "tenant", 1);
+            runCycles(allocator, tag, WARMUP_CYCLES);
+
+            long tid = Thread.currentThread().threadId();
+            long before = threads.getThreadAllocatedBytes(tid);
+            runCycles(allocator, tag, MEASURED_CYCLES);
+            long after = threads.getThreadAllocatedBytes(tid);
+
+            double bytesPerPacket = (after - before) / (double) MEASURED_CYCLES;
+            reporter.publishEntry("slab allocate/release bytes/packet", String.format("%.1f", bytesPerPacket));
+            assertTrue(bytesPerPacket <= MAX_BYTES_PER_PACKET,
+                () -> "allocation gate exceeded: " + bytesPerPacket + " bytes/packet");
+        }
+    }
+
+    private static void runCycles(SlabPacketAllocator allocator, AllocationTag tag, int cycles) {
+        for (int i = 0; i < cycles; i++) {
+            LeaseResult result = allocator.allocate(256, tag);
+            PacketRef ref = assertInstanceOf(LeaseResult.Granted.class, result).packetRef();
+            ref.retain().touch("gate");
+            ref.descriptor().ingestNanos();
+            ref.release();
+            ref.release();
+        }
+    }
+}
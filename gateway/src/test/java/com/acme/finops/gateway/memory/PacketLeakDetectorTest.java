@@ -0,0 +1,160 @@
+package com.acme.finops.gateway.memory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.Reference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PacketLeakDetectorTest {
+
+    @AfterEach
+    void uninstall() {
+        PacketLeakDetector.uninstall();
+    }
+
+    @Test
+    void shouldNotTrackWhenDisabled() {
+        assertNull(PacketLeakDetector.installed());
+        assertNull(PacketLeakDetector.trackIfSampled(null, 1L));
+    }
+
+    @Test
+    void shouldReportLongLivedRefWithSiteAndTouches() throws Exception {
+        PacketLeakDetector detector = new PacketLeakDetector(1.0d, 1, 16);
+        PacketLeakDetector.install(detector);
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4096, 1)) {
+            PacketRef ref = granted(allocator.allocate(64, tag()));
+            ref.touch("enqueue").touch("plan").touch("export");
+            Thread.sleep(5);
+
+            PacketLeakDetector.Snapshot snapshot = detector.snapshot();
+            assertEquals(1L, snapshot.sampledTotal());
+            assertEquals(1L, snapshot.tracked());
+            assertEquals(1L, snapshot.longLived());
+            PacketLeakReport report = snapshot.reports().getFirst();
+            assertEquals(ref.packetId(), report.packetId());
+            assertEquals(PacketLeakDetector.KIND_LONG_LIVED, report.kind());
+            assertEquals(3, report.touches().size());
+            assertTrue(report.touches().get(0).startsWith("enqueue@"));
+            assertTrue(report.touches().get(2).startsWith("export@"));
+            assertTrue(report.allocationSite().stream().anyMatch(f -> f.contains("shouldReportLongLivedRefWithSiteAndTouches")));
+
+            ref.release();
+            snapshot = detector.snapshot();
+            assertEquals(0L, snapshot.tracked());
+            assertTrue(snapshot.reports().isEmpty());
+        }
+    }
+
+    @Test
+    void shouldKeepOnlyMostRecentTouches() throws Exception {
+        PacketLeakDetector detector = new PacketLeakDetector(1.0d, 1, 16);
+        PacketRef ref = new PacketRefImpl(7L, null, null, 0, 0);
+        PacketLeakDetector.Tracker tracker = detector.maybeTrack(ref, 7L);
+        for (int i = 0; i < PacketLeakDetector.MAX_TOUCHES + 3; i++) {
+            tracker.touch("t" + i);
+        }
+        Thread.sleep(5);
+        PacketLeakReport report = detector.snapshot().reports().stream()
+            .filter(r -> r.packetId() == 7L)
+            .findFirst()
+            .orElseThrow();
+        assertEquals(PacketLeakDetector.MAX_TOUCHES, report.touches().size());
+        assertTrue(report.touches().getFirst().startsWith("t3@"));
+        tracker.close();
+        Reference.reachabilityFence(ref);
+    }
+
+    @Test
+    void shouldDetectRefCollectedWithoutRelease() throws Exception {
+        PacketLeakDetector detector = new PacketLeakDetector(1.0d, 60_000, 16);
+        PacketLeakDetector.install(detector);
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4096, 1)) {
+            allocateAndDrop(allocator);
+
+            for (int i = 0; i < 50 && detector.snapshot().gcUnreleasedTotal() == 0; i++) {
+                System.gc();
+                Thread.sleep(20);
+            }
+            PacketLeakDetector.Snapshot snapshot = detector.snapshot();
+            assertEquals(1L, snapshot.gcUnreleasedTotal());
+            assertEquals(0L, snapshot.tracked());
+            PacketLeakReport report = snapshot.reports().getFirst();
+            assertEquals(PacketLeakDetector.KIND_GC_UNRELEASED, report.kind());
+            assertEquals(1, report.touches().size());
+        }
+    }
+
+    @Test
+    void shouldDetectRefCollectedWithoutReleaseInRelocatableAllocator() throws Exception {
+        PacketLeakDetector detector = new PacketLeakDetector(1.0d, 60_000, 16);
+        PacketLeakDetector.install(detector);
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4096, 1, null, SlabBacking.ANONYMOUS, true)) {
+            allocateAndDrop(allocator);
+
+            for (int i = 0; i < 50 && detector.snapshot().gcUnreleasedTotal() == 0; i++) {
+                System.gc();
+                Thread.sleep(20);
+            }
+            assertEquals(1L, detector.snapshot().gcUnreleasedTotal());
+        }
+    }
+
+    @Test
+    void shouldStopSamplingAtCapacity() {
+        PacketLeakDetector detector = new PacketLeakDetector(1.0d, 60_000, 1);
+        PacketLeakDetector.install(detector);
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4096, 1)) {
+            PacketRef a = granted(allocator.allocate(64, tag()));
+            PacketRef b = granted(allocator.allocate(64, tag()));
+            PacketLeakDetector.Snapshot snapshot = detector.snapshot();
+            assertEquals(1L, snapshot.tracked());
+            assertEquals(1L, snapshot.skippedAtCapacity());
+            assertFalse(snapshot.reports().stream().anyMatch(r -> r.kind().equals(PacketLeakDetector.KIND_GC_UNRELEASED)));
+            a.release();
+            b.release();
+        }
+    }
+
+    @Test
+    void shouldFailFastOnDoubleReleaseWhileInstalled() {
+        PacketLeakDetector.install(new PacketLeakDetector(0.01d, 60_000, 16));
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4096, 1)) {
+            PacketRef first = granted(allocator.allocate(64, tag()));
+            assertTrue(first.release());
+            PacketRef second = granted(allocator.allocate(64, tag()));
+
+            assertNotSame(first, second, "carriers must not be recycled while the detector is installed");
+            assertThrows(IllegalStateException.class, first::release);
+            assertThrows(IllegalStateException.class, first::retain);
+            assertEquals(1, second.refCount());
+            assertTrue(second.release());
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidSampleRate() {
+        assertThrows(IllegalArgumentException.class, () -> new PacketLeakDetector(0.0d, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PacketLeakDetector(1.5d, 1, 1));
+    }
+
+    private static void allocateAndDrop(SlabPacketAllocator allocator) {
+        granted(allocator.allocate(64, tag())).touch("enqueue");
+    }
+
+    private static PacketRef granted(LeaseResult result) {
+        return assertInstanceOf(LeaseResult.Granted.class, result).packetRef();
+    }
+
+    private static AllocationTag tag() {
+        return new AllocationTag("test", "leak", 1);
+    }
+}
@@ -0,0 +1,47 @@
+package com.acme.finops.gateway.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.ValueLayout;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlabBackingTest {
+
+    @Test
+    void shouldServeAllocationsFromFileBackedSlabAndLeaveNoFileBehind() throws Exception {
+        Path dir = Files.createTempDirectory("slab-backing-test");
+        SlabBacking backing = SlabBacking.fileBacked(dir);
+        assertTrue(backing.isFileBacked());
+
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(64 * 1024, 4, null, backing)) {
+            PacketRef ref = assertInstanceOf(LeaseResult.Granted.class, allocator.allocate(128, tag())).packetRef();
+            ref.segment().set(ValueLayout.JAVA_LONG, 0, 0x0102030405060708L);
+            assertEquals(0x0102030405060708L, ref.segment().get(ValueLayout.JAVA_LONG, 0));
+            ref.release();
+
+            try (var files = Files.list(dir)) {
+                assertEquals(0L, files.count(), "backing file is unlinked after mapping");
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void shouldFallBackToAnonymousMemoryWhenDirectoryIsMissing() {
+        SlabBacking backing = SlabBacking.fileBacked(Path.of("/nonexistent/slab-backing"));
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4096, 1, null, backing)) {
+            PacketRef ref = assertInstanceOf(LeaseResult.Granted.class, allocator.allocate(64, tag())).packetRef();
+            assertEquals(64, ref.length());
+            ref.release();
+        }
+    }
+
+    private static AllocationTag tag() {
+        return new AllocationTag("test", "backing", 1);
+    }
+}
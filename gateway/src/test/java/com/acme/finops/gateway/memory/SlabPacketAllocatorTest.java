@@ -5,15 +5,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.lang.foreign.ValueLayout;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -86,6 +92,19 @@ class SlabPacketAllocatorTest {
         }
     }
 
+    @Test
+    void shouldCarryTaggedDeadlineOnDescriptor() {
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(64, 1)) {
+            PacketRef withDeadline = granted(allocator.allocate(16, new AllocationTag("test", "tenant", 1, 1_234L)));
+            assertEquals(1_234L, withDeadline.descriptor().deadlineNanos());
+            withDeadline.release();
+
+            PacketRef reused = granted(allocator.allocate(16, tag()));
+            assertEquals(0L, reused.descriptor().deadlineNanos(), "a recycled descriptor must not keep the old deadline");
+            reused.release();
+        }
+    }
+
     @Test
     void shouldDenyNonPositiveAllocations() {
         try (SlabPacketAllocator allocator = new SlabPacketAllocator(64, 1)) {
@@ -398,6 +417,300 @@ class SlabPacketAllocatorTest {
         }
     }
 
+    @Test
+    void shouldDenyWithQuotaReasonAndRefundOnRelease() {
+        AllocationQuotaConfig config = new AllocationQuotaConfig(
+            Map.of("slab", new QuotaLimit(0, 64)), null, Map.of());
+        AllocationQuotas quotas = new AllocationQuotas(config, 1024);
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(1024, 1, quotas)) {
+            PacketRef a = granted(allocator.allocate(64, tag()));
+
+            LeaseResult denied = allocator.allocate(8, tag());
+            LeaseResult.Denied d = assertInstanceOf(LeaseResult.Denied.class, denied);
+            assertEquals(GatewayStatusCodes.TENANT_QUOTA_EXCEEDED, d.reasonCode());
+            assertEquals(1L, allocator.stats().failedAllocations());
+
+            a.release();
+            PacketRef b = granted(allocator.allocate(64, tag()));
+            b.release();
+            assertEquals(0L, usageOf(quotas, "slab"));
+        }
+    }
+
+    @Test
+    void shouldRefundQuotaWhenSlabIsExhausted() {
+        AllocationQuotas quotas = new AllocationQuotas(
+            new AllocationQuotaConfig(Map.of(), null, Map.of()), 1024);
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(64, 1, quotas)) {
+            PacketRef a = granted(allocator.allocate(64, tag()));
+            assertInstanceOf(LeaseResult.Denied.class, allocator.allocate(8, tag()));
+            assertEquals(64L, usageOf(quotas, "slab"));
+            a.release();
+            assertEquals(0L, usageOf(quotas, "slab"));
+        }
+    }
+
+    @Test
+    void shouldDenyAfterRetireAndCloseOnLastRelease() {
+        SlabPacketAllocator allocator = new SlabPacketAllocator(1024, 1);
+        PacketRef live = granted(allocator.allocate(64, tag()));
+
+        allocator.retire();
+        assertTrue(allocator.isRetiring());
+        assertFalse(allocator.isClosed());
+        LeaseResult.Denied denied = assertInstanceOf(LeaseResult.Denied.class, allocator.allocate(8, tag()));
+        assertEquals(GatewayStatusCodes.SERVICE_UNAVAILABLE, denied.reasonCode());
+
+        live.release();
+        assertTrue(allocator.isClosed());
+        assertEquals(0L, allocator.liveAllocations());
+    }
+
+    @Test
+    void shouldPreTouchEveryPageInParallel() {
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(10 * 4096 + 100, 1)) {
+            SlabPreTouch.Result result = allocator.preTouch(4);
+            assertEquals(10 * 4096 + 100, result.bytes());
+            assertEquals(11L, result.pages());
+            assertEquals(4, result.threads());
+            assertTrue(result.durationNanos() >= 0);
+
+            PacketRef ref = granted(allocator.allocate(64, tag()));
+            ref.release();
+        }
+    }
+
+    @Test
+    void shouldReportPerRegionStateAndPinnedBytes() throws Exception {
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(2048, 2)) {
+            PacketRef first = granted(allocator.allocate(1024, tag()));
+            PacketRef second = granted(allocator.allocate(512, tag()));
+            Thread.sleep(5);
+
+            List<RegionStats> regions = allocator.regionStats();
+            assertEquals(2, regions.size());
+            RegionStats draining = regions.get(0);
+            assertEquals(RegionStats.DRAINING, draining.state());
+            assertEquals(2, draining.stateCode());
+            assertEquals(1024L, draining.cursorBytes());
+            assertEquals(1024L, draining.capacityBytes());
+            assertEquals(1L, draining.livePackets());
+            assertEquals(1024L, draining.pinnedBytes());
+            assertTrue(draining.oldestLiveAgeMillis() >= 5, "epoch age tracks the pinned packet");
+
+            RegionStats active = regions.get(1);
+            assertEquals(RegionStats.ACTIVE, active.state());
+            assertEquals(512L, active.cursorBytes());
+            assertEquals(1L, active.livePackets());
+
+            first.release();
+            RegionStats reclaimed = allocator.regionStats().get(0);
+            assertEquals(RegionStats.FREE, reclaimed.state());
+            assertEquals(0L, reclaimed.cursorBytes());
+            assertEquals(0L, reclaimed.pinnedBytes());
+            assertEquals(0L, reclaimed.oldestLiveAgeMillis());
+
+            second.release();
+            RegionStats idle = allocator.regionStats().get(1);
+            assertEquals(RegionStats.ACTIVE, idle.state());
+            assertEquals(0L, idle.livePackets());
+            assertEquals(0L, idle.pinnedBytes());
+        }
+    }
+
+    @Test
+    void shouldRelocateUnpinnedPacketsOutOfSparseDrainingRegion() {
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4096, 4, null, SlabBacking.ANONYMOUS, true)) {
+            PacketRef survivor = granted(allocator.allocate(64, tag()));
+            survivor.segment().set(ValueLayout.JAVA_LONG, 0, 0x1122334455667788L);
+            List<PacketRef> filler = new ArrayList<>();
+            for (int i = 0; i < 15; i++) {
+                filler.add(granted(allocator.allocate(64, tag())));
+            }
+            PacketRef next = granted(allocator.allocate(64, tag()));
+            filler.forEach(PacketRef::release);
+            assertEquals(RegionStats.DRAINING, allocator.regionStats().get(0).state());
+
+            survivor.unpin();
+            CompactionResult result = allocator.compact(1024, 10);
+
+            assertEquals(1L, result.regionsFreed());
+            assertEquals(1L, result.packetsMoved());
+            assertEquals(64L, result.bytesCopied());
+            assertEquals(RegionStats.FREE, allocator.regionStats().get(0).state());
+            assertEquals(2L, allocator.regionStats().get(1).livePackets());
+            survivor.pin();
+            assertEquals(0x1122334455667788L, survivor.segment().get(ValueLayout.JAVA_LONG, 0));
+            survivor.unpin();
+
+            survivor.release();
+            next.release();
+            assertEquals(0L, allocator.stats().inUseBytes());
+            assertEquals(0L, allocator.liveAllocations());
+        }
+    }
+
+    @Test
+    void shouldNotRelocatePinnedPackets() {
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4096, 4, null, SlabBacking.ANONYMOUS, true)) {
+            PacketRef held = granted(allocator.allocate(64, tag()));
+            for (int i = 0; i < 15; i++) {
+                granted(allocator.allocate(64, tag())).release();
+            }
+            PacketRef next = granted(allocator.allocate(64, tag()));
+
+            // Still holds its creation pin
+            CompactionResult result = allocator.compact(1024, 10);
+            assertEquals(0L, result.packetsMoved());
+            assertEquals(1L, result.pinnedSkips());
+            assertEquals(RegionStats.DRAINING, allocator.regionStats().get(0).state());
+
+            held.release();
+            next.release();
+            assertEquals(RegionStats.FREE, allocator.regionStats().get(0).state());
+        }
+    }
+
+    @Test
+    void shouldNotRelocatePacketsOlderThanLeakThreshold() throws Exception {
+        PacketLeakDetector.install(new PacketLeakDetector(1.0d, 1, 16));
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4096, 4, null, SlabBacking.ANONYMOUS, true)) {
+            PacketRef stale = granted(allocator.allocate(64, tag()));
+            stale.unpin();
+            for (int i = 0; i < 15; i++) {
+                granted(allocator.allocate(64, tag())).release();
+            }
+            PacketRef next = granted(allocator.allocate(64, tag()));
+            Thread.sleep(5);
+
+            CompactionResult result = allocator.compact(1024, 10);
+            assertEquals(0L, result.packetsMoved());
+            assertEquals(1L, result.leakSkips());
+            assertEquals(RegionStats.DRAINING, allocator.regionStats().get(0).state());
+
+            stale.release();
+            next.release();
+        } finally {
+            PacketLeakDetector.uninstall();
+        }
+    }
+
+    @Test
+    void shouldNotHoldLeakedPacketsReachableInRelocatableMode() throws Exception {
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4096, 4, null, SlabBacking.ANONYMOUS, true)) {
+            WeakReference<PacketRef> leaked = allocateUnpinnedAndDrop(allocator);
+            for (int i = 0; i < 15; i++) {
+                granted(allocator.allocate(64, tag())).release();
+            }
+            PacketRef next = granted(allocator.allocate(64, tag()));
+            for (int i = 0; i < 50 && !leaked.refersTo(null); i++) {
+                System.gc();
+                Thread.sleep(20);
+            }
+            assertTrue(leaked.refersTo(null), "the region's live set must not keep a dropped ref reachable");
+
+            CompactionResult result = allocator.compact(1024, 10);
+            assertEquals(0L, result.packetsMoved());
+            assertEquals(1L, result.leakSkips());
+            assertEquals(1L, allocator.regionStats().get(0).livePackets(), "a leak stays charged to its region");
+            next.release();
+        }
+    }
+
+    private static WeakReference<PacketRef> allocateUnpinnedAndDrop(SlabPacketAllocator allocator) {
+        PacketRef ref = granted(allocator.allocate(64, tag()));
+        ref.unpin();
+        return new WeakReference<>(ref);
+    }
+
+    @Test
+    void shouldIgnoreCompactionWhenNotRelocatable() {
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4096, 4)) {
+            PacketRef ref = granted(allocator.allocate(64, tag()));
+            ref.unpin();
+            assertEquals(CompactionResult.NONE, allocator.compact(1024, 100));
+            ref.release();
+        }
+    }
+
+    @Test
+    void shouldRejectUnbalancedUnpin() {
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4096, 4, null, SlabBacking.ANONYMOUS, true)) {
+            PacketRef ref = granted(allocator.allocate(64, tag()));
+            ref.unpin();
+            assertThrows(IllegalStateException.class, ref::unpin);
+            ref.release();
+            assertThrows(IllegalStateException.class, ref::pin);
+        }
+    }
+
+    @Test
+    void shouldKeepPayloadIntactWhileCompactingConcurrently() throws Exception {
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(64 * 1024, 8, null, SlabBacking.ANONYMOUS, true)) {
+            int threads = 4;
+            ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            AtomicBoolean done = new AtomicBoolean();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    List<PacketRef> parked = new ArrayList<>();
+                    for (int i = 0; i < 20_000; i++) {
+                        LeaseResult r = allocator.allocate(128, tag());
+                        if (r instanceof LeaseResult.Granted g) {
+                            PacketRef ref = g.packetRef();
+                            long stamp = ((long) id << 32) | i;
+                            ref.segment().set(ValueLayout.JAVA_LONG, 0, stamp);
+                            ref.segment().set(ValueLayout.JAVA_LONG, 120, stamp);
+                            ref.unpin();
+                            parked.add(ref);
+                        }
+                        if (parked.size() > 8 || (i % 64 == 0 && !parked.isEmpty())) {
+                            PacketRef ref = parked.removeFirst();
+                            ref.pin();
+                            long head = ref.segment().get(ValueLayout.JAVA_LONG, 0);
+                            long tail = ref.segment().get(ValueLayout.JAVA_LONG, 120);
+                            ref.unpin();
+                            ref.release();
+                            if (head != tail || (head >>> 32) != id) {
+                                throw new AssertionError("payload corrupted: " + head + " vs " + tail);
+                            }
+                        }
+                    }
+                    parked.forEach(PacketRef::release);
+                    return null;
+                }));
+            }
+            Future<?> compactor = pool.submit(() -> {
+                start.await();
+                while (!done.get()) {
+                    allocator.compact(16 * 1024, 50);
+                }
+                return null;
+            });
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+            done.set(true);
+            compactor.get(10, TimeUnit.SECONDS);
+            pool.shutdown();
+
+            AllocatorStats stats = allocator.stats();
+            assertEquals(stats.allocCount(), stats.releaseCount());
+            assertEquals(0L, allocator.liveAllocations());
+        }
+    }
+
+    private static long usageOf(AllocationQuotas quotas, String tenant) {
+        return quotas.usage().stream()
+            .filter(u -> QuotaUsage.DIMENSION_TENANT.equals(u.dimension()) && tenant.equals(u.key()))
+            .mapToLong(QuotaUsage::inUseBytes)
+            .sum();
+    }
+
     private static PacketRef granted(LeaseResult result) {
         LeaseResult.Granted granted = assertInstanceOf(LeaseResult.Granted.class, result);
         return granted.packetRef();
@@ -223,6 +223,85 @@ class StripedPacketAllocatorTest {
         return granted.packetRef();
     }
 
+    @Test
+    void shouldPreTouchAllShards() {
+        try (StripedPacketAllocator allocator = new StripedPacketAllocator(4 * 8192, 4)) {
+            SlabPreTouch.Result result = allocator.preTouch(0);
+            assertEquals(4 * 8192L, result.bytes());
+            assertEquals(8L, result.pages());
+            assertTrue(result.threads() >= 1);
+        }
+    }
+
+    @Test
+    void shouldExposePerShardAndPerRegionStats() {
+        try (StripedPacketAllocator allocator = new StripedPacketAllocator(4 * 4096, 4, 2)) {
+            PacketRef ref = granted(allocator.allocate(100, tag()));
+
+            List<ShardStats> shards = allocator.shardStats();
+            assertEquals(4, shards.size());
+            long inUse = 0;
+            long live = 0;
+            for (ShardStats shard : shards) {
+                assertEquals(2, shard.regions().size());
+                inUse += shard.stats().inUseBytes();
+                for (RegionStats region : shard.regions()) {
+                    live += region.livePackets();
+                }
+            }
+            assertEquals(104L, inUse, "aligned to 8 bytes");
+            assertEquals(1L, live);
+
+            ref.release();
+            assertEquals(0L, allocator.shardStats().stream()
+                .mapToLong(s -> s.stats().inUseBytes()).sum());
+        }
+    }
+
+    @Test
+    void shouldLabelElasticRegionsByArena() {
+        ElasticSlabConfig config = new ElasticSlabConfig(1024, 1, 1, 2, 0, 0);
+        PacketAllocator[] shards = {new ElasticSlabPacketAllocator(config)};
+        try (StripedPacketAllocator allocator = new StripedPacketAllocator(shards)) {
+            PacketRef a = granted(allocator.allocate(1024, tag()));
+            PacketRef b = granted(allocator.allocate(1024, tag()));
+
+            List<RegionStats> regions = allocator.shardStats().get(0).regions();
+            assertEquals(2, regions.size());
+            assertEquals(0, regions.get(0).arena());
+            assertEquals(1, regions.get(1).arena());
+
+            a.release();
+            b.release();
+        }
+    }
+
+    @Test
+    void shouldCompactAcrossShardsThroughCompactor() {
+        try (StripedPacketAllocator allocator = new StripedPacketAllocator(
+                4096, 1, 4, null, SlabBacking.ANONYMOUS, true);
+             SlabCompactor compactor = new SlabCompactor(allocator, 4096, 10, 0)) {
+            PacketRef survivor = granted(allocator.allocate(64, tag()));
+            for (int i = 0; i < 15; i++) {
+                granted(allocator.allocate(64, tag())).release();
+            }
+            PacketRef next = granted(allocator.allocate(64, tag()));
+            survivor.unpin();
+
+            CompactionResult result = compactor.runOnce();
+            assertEquals(1L, result.regionsFreed());
+            assertEquals(1L, compactor.runs());
+            assertEquals(result, compactor.totals());
+
+            compactor.runOnce();
+            assertEquals(1L, compactor.totals().packetsMoved(), "nothing left to move");
+
+            survivor.release();
+            next.release();
+            assertEquals(0L, allocator.stats().inUseBytes());
+        }
+    }
+
     private static AllocationTag tag() {
         return new AllocationTag("test", "striped", 1);
     }
@@ -0,0 +1,176 @@
+package com.acme.finops.gateway.policy;
+
+import com.acme.finops.gateway.memory.PacketDescriptor;
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.memory.PacketRefImpl;
+import com.acme.finops.gateway.transport.api.ProtocolKind;
+import com.acme.finops.gateway.transport.api.SignalKind;
+import com.acme.finops.gateway.util.GatewayStatusCodes;
+import com.acme.finops.gateway.util.TenantRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TenantQuotaAdmissionPolicyTest {
+    private static final long MS = 1_000_000L;
+    private static final long T0 = 1_000_000 * MS;
+
+    @Test
+    void shouldAdmitBurstThenThrottleUntilRequestTokensRefill() {
+        // 10 rps, 1 s burst: 10 requests at once, then one per 100 ms.
+        TenantQuotaAdmissionPolicy policy = new TenantQuotaAdmissionPolicy(10.0d, 0L, 1.0d, 16);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(policy, "acme", 100, T0).action());
+        }
+        PolicyDecision throttled = evaluate(policy, "acme", 100, T0);
+        assertEquals(DecisionAction.THROTTLE, throttled.action());
+        assertEquals(GatewayStatusCodes.TENANT_RATE_LIMITED, throttled.reasonCode());
+        assertEquals(100L, throttled.retryAfterMillis());
+
+        assertEquals(DecisionAction.THROTTLE, evaluate(policy, "acme", 100, T0 + 99 * MS).action());
+        assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(policy, "acme", 100, T0 + 100 * MS).action());
+        assertEquals(DecisionAction.THROTTLE, evaluate(policy, "acme", 100, T0 + 100 * MS).action());
+    }
+
+    @Test
+    void shouldLimitTenantsIndependently() {
+        TenantQuotaAdmissionPolicy policy = new TenantQuotaAdmissionPolicy(1.0d, 0L, 1.0d, 16);
+        assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(policy, "acme", 1, T0).action());
+        assertEquals(DecisionAction.THROTTLE, evaluate(policy, "acme", 1, T0).action());
+        assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(policy, "globex", 1, T0).action());
+        assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(policy, null, 1, T0).action());
+
+        List<TenantQuotaStats> stats = policy.stats();
+        assertEquals(List.of(
+            new TenantQuotaStats("acme", 1L, 1L, 1L, 1L),
+            new TenantQuotaStats("globex", 1L, 1L, 0L, 0L),
+            new TenantQuotaStats(TenantRegistry.UNKNOWN_TENANT, 1L, 1L, 0L, 0L)), stats);
+    }
+
+    @Test
+    void shouldLimitBytesAndRefundRequestTokenWhenBytesRefuse() {
+        // 2 rps, 1000 B/s, 1 s burst.
+        TenantQuotaAdmissionPolicy policy = new TenantQuotaAdmissionPolicy(2.0d, 1_000L, 1.0d, 16);
+        assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(policy, "acme", 800, T0).action());
+        PolicyDecision overBytes = evaluate(policy, "acme", 400, T0);
+        assertEquals(DecisionAction.THROTTLE, overBytes.action());
+        assertEquals(200L, overBytes.retryAfterMillis());
+
+        // The refused request did not spend a request token: one more small request fits.
+        assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(policy, "acme", 100, T0).action());
+        assertEquals(DecisionAction.THROTTLE, evaluate(policy, "acme", 1, T0).action());
+    }
+
+    @Test
+    void shouldRestoreBucketsOnRefund() {
+        // 1 rps, 1000 B/s, 1 s burst: one request of 1000 B empties both buckets.
+        TenantQuotaAdmissionPolicy policy = new TenantQuotaAdmissionPolicy(1.0d, 1_000L, 1.0d, 16);
+        PolicyContext context = new PolicyContext(1L, "acme", packet(1_000), T0);
+        assertEquals(DecisionAction.ROUTE_DEFAULT, policy.evaluate(context).action());
+        assertEquals(DecisionAction.THROTTLE, evaluate(policy, "acme", 1, T0).action());
+
+        policy.refund(context);
+        assertEquals(List.of(new TenantQuotaStats("acme", 0L, 0L, 1L, 1L)), policy.stats());
+        assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(policy, "acme", 1_000, T0).action());
+        assertEquals(DecisionAction.THROTTLE, evaluate(policy, "acme", 1, T0).action());
+    }
+
+    @Test
+    void shouldAdmitPayloadLargerThanByteBurstFromFullBucket() {
+        TenantQuotaAdmissionPolicy policy = new TenantQuotaAdmissionPolicy(0.0d, 1_000L, 1.0d, 16);
+        assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(policy, "acme", 5_000, T0).action());
+        PolicyDecision next = evaluate(policy, "acme", 1, T0 + 1_000 * MS);
+        assertEquals(DecisionAction.THROTTLE, next.action());
+        assertEquals(3_001L, next.retryAfterMillis());
+        assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(policy, "acme", 1, T0 + 5_000 * MS).action());
+    }
+
+    @Test
+    void shouldShareOverflowBucketsPastMaxTrackedTenants() {
+        TenantQuotaAdmissionPolicy policy = new TenantQuotaAdmissionPolicy(1.0d, 0L, 1.0d, 1);
+        assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(policy, "acme", 1, T0).action());
+        assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(policy, "globex", 1, T0).action());
+        assertEquals(DecisionAction.THROTTLE, evaluate(policy, "initech", 1, T0).action());
+
+        List<TenantQuotaStats> stats = policy.stats();
+        assertEquals(TenantRegistry.OVERFLOW_TENANT, stats.get(0).tenant());
+        assertEquals(1L, stats.get(0).admitted());
+        assertEquals(1L, stats.get(0).denied());
+        assertEquals("acme", stats.get(1).tenant());
+    }
+
+    @Test
+    void shouldChargeRemoteUsageWithDebtCappedAtOneBurst() {
+        // 10 rps, 1 s burst.
+        TenantQuotaAdmissionPolicy policy = new TenantQuotaAdmissionPolicy(10.0d, 0L, 1.0d, 16);
+        policy.chargeRemote("acme", 4, 0L, T0);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(policy, "acme", 1, T0).action());
+        }
+        assertEquals(DecisionAction.THROTTLE, evaluate(policy, "acme", 1, T0).action());
+        assertEquals(6L, policy.stats().get(0).admitted());
+
+        // A huge late report leaves at most one burst of debt: the bucket is 2 s from full.
+        policy.chargeRemote("acme", 1_000_000, 0L, T0);
+        PolicyDecision throttled = evaluate(policy, "acme", 1, T0);
+        assertEquals(DecisionAction.THROTTLE, throttled.action());
+        assertEquals(1_100L, throttled.retryAfterMillis());
+        assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(policy, "acme", 1, T0 + 1_100 * MS).action());
+    }
+
+    @Test
+    void shouldUseCustomTenantExtractor() {
+        TenantQuotaAdmissionPolicy policy = new TenantQuotaAdmissionPolicy(1.0d, 0L, 1.0d, 16, context -> "fixed");
+        assertEquals(DecisionAction.ROUTE_DEFAULT, evaluate(policy, "acme", 1, T0).action());
+        assertEquals(DecisionAction.THROTTLE, evaluate(policy, "globex", 1, T0).action());
+        assertEquals("fixed", policy.stats().get(0).tenant());
+    }
+
+    @Test
+    void shouldNeverAdmitMoreThanBurstUnderContention() throws Exception {
+        TenantQuotaAdmissionPolicy policy = new TenantQuotaAdmissionPolicy(100.0d, 0L, 1.0d, 16);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 100; i++) {
+                    if (evaluate(policy, "acme", 1, T0).action() == DecisionAction.ROUTE_DEFAULT) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(100, admitted.get());
+        TenantQuotaStats stats = policy.stats().get(0);
+        assertEquals(100L, stats.admitted());
+        assertEquals(300L, stats.denied());
+    }
+
+    private static PolicyDecision evaluate(TenantQuotaAdmissionPolicy policy, String tenant, int bytes, long nowNanos) {
+        return policy.evaluate(new PolicyContext(1L, tenant, packet(bytes), nowNanos));
+    }
+
+    private static PacketRef packet(int bytes) {
+        byte[] payload = new byte[bytes];
+        PacketDescriptor descriptor = new PacketDescriptor(
+            1L, 1L, SignalKind.TRACES, ProtocolKind.OTLP_HTTP_PROTO, 0, payload.length, 0L);
+        return new PacketRefImpl(1L, descriptor, MemorySegment.ofArray(payload), 0, payload.length);
+    }
+}
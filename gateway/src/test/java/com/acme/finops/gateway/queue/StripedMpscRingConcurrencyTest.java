@@ -233,4 +233,65 @@ class StripedMpscRingConcurrencyTest {
             pool.awaitTermination(2, TimeUnit.SECONDS);
         }
     }
+
+    @Test
+    void shouldDeliverEachItemOnceWithSharedTryDrainConsumers() throws Exception {
+        StripedMpscRing<Integer> ring = new StripedMpscRing<>(512, 4);
+        int consumerThreads = 3;
+        int totalItems = 60_000;
+
+        ExecutorService pool = Executors.newFixedThreadPool(consumerThreads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger consumed = new AtomicInteger(0);
+        Map<Integer, Boolean> seen = new ConcurrentHashMap<>();
+        try {
+            Future<?> producer = pool.submit(() -> {
+                start.await();
+                for (int id = 0; id < totalItems; id++) {
+                    // Skew towards shard 0 so consumers contend for it.
+                    int shard = id % 3 == 0 ? Math.floorMod(id, ring.shardCount()) : 0;
+                    while (!(ring.offer(shard, id) instanceof OfferResult.Ok)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            });
+            Future<?>[] consumers = new Future<?>[consumerThreads];
+            for (int c = 0; c < consumerThreads; c++) {
+                consumers[c] = pool.submit(() -> {
+                    start.await();
+                    while (consumed.get() < totalItems) {
+                        int progressed = 0;
+                        for (int shard = 0; shard < ring.shardCount(); shard++) {
+                            progressed += ring.tryDrain(shard, value -> {
+                                if (seen.putIfAbsent(value, Boolean.TRUE) != null) {
+                                    throw new IllegalStateException("Duplicate value consumed: " + value);
+                                }
+                                consumed.incrementAndGet();
+                            }, 16);
+                        }
+                        if (progressed == 0) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    return null;
+                });
+            }
+
+            start.countDown();
+            producer.get(20, TimeUnit.SECONDS);
+            for (Future<?> consumer : consumers) {
+                consumer.get(20, TimeUnit.SECONDS);
+            }
+
+            assertEquals(totalItems, seen.size());
+            assertEquals(totalItems, consumed.get());
+            assertTrue(ring.isDrained());
+            assertTrue(ring.validateInvariants());
+        } finally {
+            ring.close();
+            pool.shutdownNow();
+            pool.awaitTermination(2, TimeUnit.SECONDS);
+        }
+    }
 }
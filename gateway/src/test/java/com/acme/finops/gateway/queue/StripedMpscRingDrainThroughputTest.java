@@ -0,0 +1,78 @@
+package com.acme.finops.gateway.queue;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Consumer-side cost of per-item {@code pollShard} vs batched {@code drain}. Shards are
+ * filled untimed, then only the consume phase is timed, so producer contention does not
+ * mask the difference. Reports ops/s for both modes; the assertions cover delivery and
+ * the ring's invariants.
+ */
+@Tag("benchmark")
+class StripedMpscRingDrainThroughputTest {
+    private static final int SHARDS = 4;
+    private static final int CAPACITY = 16_384;
+    private static final int CYCLES = 200;
+    private static final int WARMUP_CYCLES = 100;
+    private static final int MAX_BATCH = 64;
+
+    @Test
+    void shouldCompareSingleAndBatchedConsumerThroughput(TestReporter reporter) {
+        StripedMpscRing<Long> ring = new StripedMpscRing<>(CAPACITY, SHARDS);
+        long[] counted = new long[1];
+        Consumer<Long> sink = v -> counted[0] += v;
+
+        measure(ring, sink, counted, false, WARMUP_CYCLES);
+        measure(ring, sink, counted, true, WARMUP_CYCLES);
+        double perItem = measure(ring, sink, counted, false, CYCLES);
+        double batched = measure(ring, sink, counted, true, CYCLES);
+
+        reporter.publishEntry("ring consumer", String.format("pollShard=%.0f ops/s, drain(%d)=%.0f ops/s (x%.2f)",
+            perItem, MAX_BATCH, batched, batched / perItem));
+        assertTrue(ring.isDrained());
+        assertTrue(ring.validateInvariants());
+    }
+
+    private static double measure(StripedMpscRing<Long> ring, Consumer<Long> sink, long[] counted,
+                                  boolean batchedMode, int cycles) {
+        Long one = 1L;
+        long consumedNanos = 0;
+        long consumed = 0;
+        for (int c = 0; c < cycles; c++) {
+            for (int s = 0; s < SHARDS; s++) {
+                while (ring.offer(s, one) instanceof OfferResult.Ok) {
+                    // fill shard to capacity
+                }
+            }
+            counted[0] = 0;
+            long started = System.nanoTime();
+            long n = 0;
+            for (int s = 0; s < SHARDS; s++) {
+                if (batchedMode) {
+                    int taken;
+                    while ((taken = ring.drain(s, sink, MAX_BATCH)) > 0) {
+                        n += taken;
+                    }
+                } else {
+                    Long v;
+                    while ((v = ring.pollShard(s)) != null) {
+                        sink.accept(v);
+                        n++;
+                    }
+                }
+            }
+            consumedNanos += System.nanoTime() - started;
+            assertEquals(ring.capacity(), n);
+            assertEquals(n, counted[0]);
+            consumed += n;
+        }
+        return consumed * 1e9d / consumedNanos;
+    }
+}
@@ -2,11 +2,15 @@ package com.acme.finops.gateway.queue;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -79,6 +83,196 @@ class StripedMpscRingTest {
         }
     }
 
+    @Test
+    void shouldDrainRunInFifoOrderUpToMaxBatch() {
+        StripedMpscRing<Integer> ring = new StripedMpscRing<>(8, 2);
+        try {
+            for (int i = 0; i < 3; i++) {
+                ring.offer(0, i);
+            }
+            ring.offer(1, 100);
+            List<Integer> out = new ArrayList<>();
+
+            assertEquals(2, ring.drain(0, out::add, 2));
+            assertEquals(List.of(0, 1), out);
+            assertEquals(1, ring.shardDepth(0));
+
+            assertEquals(1, ring.drain(0, out::add, 64));
+            assertEquals(List.of(0, 1, 2), out);
+            assertEquals(0, ring.drain(0, out::add, 64));
+            assertEquals(1, ring.shardDepth(1));
+
+            QueueSnapshot snapshot = ring.snapshot();
+            assertEquals(3L, snapshot.headSeq());
+            assertEquals(1, snapshot.depth());
+        } finally {
+            ring.close();
+        }
+    }
+
+    @Test
+    void shouldDrainAcrossWrapAroundAndFreeSlots() {
+        StripedMpscRing<Integer> ring = new StripedMpscRing<>(4, 1);
+        try {
+            List<Integer> out = new ArrayList<>();
+            for (int round = 0; round < 3; round++) {
+                for (int i = 0; i < ring.capacity(); i++) {
+                    assertInstanceOf(OfferResult.Ok.class, ring.offer(0, round * 10 + i));
+                }
+                assertInstanceOf(OfferResult.Full.class, ring.offer(0, 999));
+                assertEquals(ring.capacity(), ring.drain(0, out::add, Integer.MAX_VALUE));
+                assertTrue(ring.isDrained());
+                assertTrue(ring.validateInvariants());
+            }
+            assertEquals(List.of(0, 1, 2, 3, 10, 11, 12, 13, 20, 21, 22, 23), out);
+        } finally {
+            ring.close();
+        }
+    }
+
+    @Test
+    void shouldPublishPartialProgressWhenConsumerThrows() {
+        StripedMpscRing<Integer> ring = new StripedMpscRing<>(8, 1);
+        try {
+            for (int i = 0; i < 5; i++) {
+                ring.offer(0, i);
+            }
+            List<Integer> out = new ArrayList<>();
+            assertThrows(IllegalStateException.class, () -> ring.drain(0, v -> {
+                out.add(v);
+                if (v == 2) {
+                    throw new IllegalStateException("boom");
+                }
+            }, 64));
+
+            assertEquals(List.of(0, 1, 2), out);
+            assertEquals(2, ring.shardDepth(0));
+            assertEquals(3, ring.pollShard(0));
+            assertEquals(1, ring.drain(0, out::add, 64));
+            assertEquals(4, out.getLast());
+            assertTrue(ring.validateInvariants());
+        } finally {
+            ring.close();
+        }
+    }
+
+    @Test
+    void shouldLetNestedTryDrainClaimTheNextRun() {
+        StripedMpscRing<Integer> ring = new StripedMpscRing<>(8, 1);
+        try {
+            for (int i = 0; i < 4; i++) {
+                ring.offer(0, i);
+            }
+            List<Integer> outer = new ArrayList<>();
+            List<Integer> nested = new ArrayList<>();
+            assertEquals(2, ring.tryDrain(0, v -> {
+                outer.add(v);
+                // The outer run [0, 1] is already claimed; a second consumer gets [2, 3].
+                ring.tryDrain(0, nested::add, 8);
+            }, 2));
+            assertEquals(List.of(0, 1), outer);
+            assertEquals(List.of(2, 3), nested);
+            assertTrue(ring.isDrained());
+            assertTrue(ring.validateInvariants());
+        } finally {
+            ring.close();
+        }
+    }
+
+    @Test
+    void shouldDeliverWholeClaimedRunWhenConsumerThrows() {
+        StripedMpscRing<Integer> ring = new StripedMpscRing<>(8, 1);
+        try {
+            for (int i = 0; i < 3; i++) {
+                ring.offer(0, i);
+            }
+            List<Integer> out = new ArrayList<>();
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> ring.tryDrain(0, v -> {
+                out.add(v);
+                throw new IllegalStateException("boom-" + v);
+            }, 8));
+            assertEquals("boom-0", e.getMessage());
+            assertEquals(List.of(0, 1, 2), out);
+            assertTrue(ring.isDrained());
+            // All slots were handed back to producers.
+            for (int i = 0; i < ring.capacity(); i++) {
+                assertInstanceOf(OfferResult.Ok.class, ring.offer(0, i));
+            }
+        } finally {
+            ring.close();
+        }
+    }
+
+    @Test
+    void shouldFillPreallocatedSlotsInPlaceWithPerShardSequences() {
+        StripedMpscRing<long[]> ring = new StripedMpscRing<>(4, 2, () -> new long[2]);
+        StripedMpscRing.SlotWriter<long[], Long> writer = (slot, value, shardId, seq) -> {
+            slot[0] = value;
+            slot[1] = seq;
+        };
+        try {
+            assertTrue(ring.hasPreallocatedSlots());
+            assertEquals(1L, ring.offerInPlace(0, writer, 10L));
+            assertEquals(2L, ring.offerInPlace(0, writer, 11L));
+            assertEquals(StripedMpscRing.OFFER_FULL, ring.offerInPlace(0, writer, 12L));
+            assertEquals(1L, ring.offerInPlace(1, writer, 20L));
+
+            List<long[]> seen = new ArrayList<>();
+            List<Long> values = new ArrayList<>();
+            assertEquals(2, ring.drain(0, slot -> {
+                seen.add(slot);
+                values.add(slot[0]);
+            }, 8));
+            assertEquals(List.of(10L, 11L), values);
+
+            // Slots are reused, not replaced.
+            assertEquals(3L, ring.offerInPlace(0, writer, 13L));
+            ring.drain(0, slot -> assertSame(seen.getFirst(), slot), 8);
+
+            QueueSnapshot snapshot = ring.snapshot();
+            assertEquals(3L, snapshot.headSeq());
+            assertEquals(4L, snapshot.tailSeq());
+            assertEquals(1, snapshot.depth());
+
+            assertThrows(IllegalStateException.class, () -> ring.offer(0, new long[2]));
+            assertThrows(IllegalStateException.class, () -> ring.pollShard(0));
+            ring.close();
+            assertEquals(StripedMpscRing.OFFER_CLOSED, ring.offerInPlace(1, writer, 21L));
+        } finally {
+            ring.close();
+        }
+    }
+
+    @Test
+    void shouldTrackQueuedBytesPerShard() {
+        StripedMpscRing<long[]> ring = new StripedMpscRing<>(4, 2, () -> new long[1]);
+        StripedMpscRing.SlotWriter<long[], Long> writer = (slot, value, shardId, seq) -> slot[0] = value;
+        try {
+            ring.offerInPlace(0, writer, 1L, 1_000L);
+            ring.offerInPlace(0, writer, 2L, 500L);
+            ring.offerInPlace(1, writer, 3L, 64L);
+            // A rejected offer adds nothing.
+            assertEquals(StripedMpscRing.OFFER_FULL, ring.offerInPlace(0, writer, 4L, 9_999L));
+
+            assertEquals(1_500L, ring.shardQueuedBytes(0));
+            assertEquals(1_564L, ring.queuedBytes());
+            assertEquals(1_564L, ring.snapshot().queuedBytes());
+
+            ring.drain(0, slot -> ring.releaseBytes(0, slot[0] == 1L ? 1_000L : 500L), 8);
+            assertEquals(0L, ring.shardQueuedBytes(0));
+            assertEquals(64L, ring.queuedBytes());
+        } finally {
+            ring.close();
+        }
+    }
+
+    @Test
+    void shouldRejectInPlaceOfferWithoutSlotFactory() {
+        StripedMpscRing<long[]> ring = new StripedMpscRing<>(4, 1);
+        assertFalse(ring.hasPreallocatedSlots());
+        assertThrows(IllegalStateException.class, () -> ring.offerInPlace(0, (slot, a, shard, seq) -> { }, 1L));
+    }
+
     @Test
     void shouldRoundUpCapacityToPowerOfTwo() {
         // totalCapacity=3, shards=1 → perShard rounds up to 4
@@ -0,0 +1,82 @@
+package com.acme.finops.gateway.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaitStrategyTest {
+    private static final long LONG_PARK_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    @Test
+    void signalShouldWakeBlockedConsumer() throws Exception {
+        assertWakesOnSignal(new BlockingWaitStrategy(LONG_PARK_NANOS));
+    }
+
+    @Test
+    void phasedBackoffShouldBlockAfterSpinAndYieldAndWakeOnSignal() throws Exception {
+        assertWakesOnSignal(new PhasedBackoffWaitStrategy(0L, 0L, LONG_PARK_NANOS));
+    }
+
+    @Test
+    void shouldNotParkWhenWorkIsAlreadyAvailable() {
+        Waiter waiter = new Waiter(() -> true);
+        waiter.bind(Thread.currentThread());
+        long started = System.nanoTime();
+        new BlockingWaitStrategy(LONG_PARK_NANOS).idle(waiter, 0);
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+        assertFalse(waiter.isSleeping());
+    }
+
+    @Test
+    void wakeShouldBeNoopWhileConsumerIsRunning() {
+        Waiter waiter = new Waiter(() -> false);
+        waiter.bind(Thread.currentThread());
+        waiter.wake();
+        assertFalse(waiter.isSleeping());
+    }
+
+    @Test
+    void spinningStrategiesShouldReturnWithoutSignal() {
+        Waiter waiter = new Waiter(() -> false);
+        waiter.bind(Thread.currentThread());
+        for (int round = 0; round < 200; round++) {
+            BusySpinWaitStrategy.INSTANCE.idle(waiter, round);
+            new YieldingWaitStrategy(10).idle(waiter, round);
+            new PhasedBackoffWaitStrategy(LONG_PARK_NANOS, 0L, 1L).idle(waiter, round);
+        }
+        assertFalse(waiter.isSleeping());
+        assertEquals("busy_spin", BusySpinWaitStrategy.INSTANCE.name());
+    }
+
+    private static void assertWakesOnSignal(WaitStrategy strategy) throws Exception {
+        AtomicBoolean work = new AtomicBoolean(false);
+        Waiter waiter = new Waiter(work::get);
+        CountDownLatch woke = new CountDownLatch(1);
+        Thread consumer = new Thread(() -> {
+            int rounds = 0;
+            while (!work.get()) {
+                strategy.idle(waiter, rounds++);
+            }
+            woke.countDown();
+        }, "wait-strategy-test");
+        waiter.bind(consumer);
+        consumer.setDaemon(true);
+        consumer.start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!waiter.isSleeping() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(waiter.isSleeping(), "consumer should reach the blocking phase");
+        work.set(true);
+        strategy.signal(waiter);
+        assertTrue(woke.await(5, TimeUnit.SECONDS), "signal should wake the parked consumer");
+        consumer.join(5_000);
+    }
+}
@@ -0,0 +1,52 @@
+package com.acme.finops.gateway.telemetry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Log2HistogramTest {
+
+    @Test
+    void shouldBucketByPowerOfTwoUpperBound() {
+        assertEquals(0, Log2Histogram.bucketOf(0L, 8));
+        assertEquals(0, Log2Histogram.bucketOf(1L, 8));
+        assertEquals(1, Log2Histogram.bucketOf(2L, 8));
+        assertEquals(2, Log2Histogram.bucketOf(3L, 8));
+        assertEquals(2, Log2Histogram.bucketOf(4L, 8));
+        assertEquals(3, Log2Histogram.bucketOf(5L, 8));
+        assertEquals(7, Log2Histogram.bucketOf(1L << 40, 8));
+    }
+
+    @Test
+    void shouldReportQuantileBoundAndMerge() {
+        Log2Histogram a = new Log2Histogram(8);
+        Log2Histogram b = new Log2Histogram(8);
+        for (int i = 0; i < 99; i++) {
+            a.record(10L);
+        }
+        b.record(1_000L);
+
+        Log2Histogram.Snapshot merged = a.snapshot().merge(b.snapshot());
+        assertEquals(100L, merged.count());
+        assertEquals(99L * 10L + 1_000L, merged.sum());
+        assertEquals(16L, merged.quantileUpperBound(0.99d));
+        assertEquals(128L, merged.quantileUpperBound(1.0d));
+        assertArrayEquals(new long[] {0, 0, 0, 0, 99, 0, 0, 1}, merged.counts());
+        assertEquals(0L, Log2Histogram.Snapshot.empty(8).quantileUpperBound(0.99d));
+    }
+
+    @Test
+    void sinceShouldKeepOnlyLaterRecordings() {
+        Log2Histogram histogram = new Log2Histogram(8);
+        histogram.record(1_000L);
+        Log2Histogram.Snapshot before = histogram.snapshot();
+        histogram.record(3L);
+        histogram.record(4L);
+
+        Log2Histogram.Snapshot window = histogram.snapshot().since(before);
+        assertEquals(2L, window.count());
+        assertEquals(7L, window.sum());
+        assertEquals(4L, window.quantileUpperBound(0.99d));
+    }
+}
@@ -2,8 +2,10 @@ package com.acme.finops.gateway.telemetry;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class MetricsHttpEndpointTest {
@@ -45,4 +47,48 @@ class MetricsHttpEndpointTest {
         assertTrue(body.contains("gateway_masking_simd_available 1"));
         assertTrue(body.contains("gateway_masking_simd_strict_mode 1"));
     }
+
+    @Test
+    void shouldRenderLabeledSamplesGroupedByFamily() {
+        AtomicHotPathMetrics metrics = new AtomicHotPathMetrics();
+        String body = MetricsHttpEndpoint.renderPrometheus(
+            metrics.snapshot(),
+            Map.of(),
+            MaskingRuntimeInfo.UNKNOWN,
+            List.of(
+                MetricSample.gauge("gateway_allocator_quota_in_use_bytes", "bytes", Map.of("key", "a"), 64),
+                MetricSample.counter("gateway_allocator_quota_denied_total", "denied", Map.of("key", "a"), 2),
+                MetricSample.gauge("gateway_allocator_quota_in_use_bytes", "bytes", Map.of("key", "b\"x"), 128)
+            )
+        );
+
+        assertTrue(body.contains("# TYPE gateway_allocator_quota_in_use_bytes gauge\n"
+            + "gateway_allocator_quota_in_use_bytes{key=\"a\"} 64\n"
+            + "gateway_allocator_quota_in_use_bytes{key=\"b\\\"x\"} 128\n"));
+        assertTrue(body.contains("# TYPE gateway_allocator_quota_denied_total counter\n"
+            + "gateway_allocator_quota_denied_total{key=\"a\"} 2\n"));
+    }
+
+    @Test
+    void shouldRenderHistogramAsOneFamily() {
+        Log2Histogram histogram = new Log2Histogram(4);
+        histogram.record(1);
+        histogram.record(3);
+        histogram.record(100);
+        String body = MetricsHttpEndpoint.renderPrometheus(
+            new AtomicHotPathMetrics().snapshot(),
+            Map.of(),
+            MaskingRuntimeInfo.UNKNOWN,
+            MetricSample.histogram("gateway_sojourn_us", "sojourn", Map.of("lane", "a"), histogram.snapshot())
+        );
+
+        assertTrue(body.contains("# TYPE gateway_sojourn_us histogram\n"
+            + "gateway_sojourn_us_bucket{lane=\"a\",le=\"1\"} 1\n"
+            + "gateway_sojourn_us_bucket{lane=\"a\",le=\"2\"} 1\n"
+            + "gateway_sojourn_us_bucket{lane=\"a\",le=\"4\"} 2\n"
+            + "gateway_sojourn_us_bucket{lane=\"a\",le=\"+Inf\"} 3\n"
+            + "gateway_sojourn_us_sum{lane=\"a\"} 104\n"
+            + "gateway_sojourn_us_count{lane=\"a\"} 3\n"), body);
+        assertFalse(body.contains("# TYPE gateway_sojourn_us_bucket"));
+    }
 }
@@ -0,0 +1,37 @@
+package com.acme.finops.gateway.telemetry;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadPinningMonitorTest {
+
+    @Test
+    void shouldCountPinnedParkInsideMonitor() throws Exception {
+        try (VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(5), 1)) {
+            monitor.start();
+            Object lock = new Object();
+            Thread vt = Thread.ofVirtual().start(() -> {
+                synchronized (lock) {
+                    try {
+                        Thread.sleep(30);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            vt.join();
+
+            // JFR flushes stream chunks about once a second.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+            while (monitor.pinnedEvents() == 0L && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertTrue(monitor.pinnedEvents() >= 1L, "expected a jdk.VirtualThreadPinned event");
+            assertTrue(monitor.pinnedNanos() >= TimeUnit.MILLISECONDS.toNanos(5));
+        }
+    }
+}
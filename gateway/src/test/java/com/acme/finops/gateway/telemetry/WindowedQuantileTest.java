@@ -0,0 +1,33 @@
+package com.acme.finops.gateway.telemetry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WindowedQuantileTest {
+
+    @Test
+    void shouldReportQuantileOfEachWindowOnly() {
+        Log2Histogram histogram = new Log2Histogram(16);
+        WindowedQuantile p99 = new WindowedQuantile(histogram::snapshot, 0.99d);
+        assertEquals(0.0d, p99.getAsDouble());
+
+        histogram.record(5_000L);
+        assertEquals(8_192.0d, p99.getAsDouble());
+
+        // The slow value has aged out; only the new fast ones count.
+        for (int i = 0; i < 10; i++) {
+            histogram.record(100L);
+        }
+        assertEquals(128.0d, p99.getAsDouble());
+        assertEquals(0.0d, p99.getAsDouble(), "empty window");
+    }
+
+    @Test
+    void shouldRejectQuantileOutsideUnitInterval() {
+        Log2Histogram histogram = new Log2Histogram(4);
+        assertThrows(IllegalArgumentException.class, () -> new WindowedQuantile(histogram::snapshot, 0.0d));
+        assertThrows(IllegalArgumentException.class, () -> new WindowedQuantile(histogram::snapshot, 1.5d));
+    }
+}
@@ -1,7 +1,10 @@
 package com.acme.finops.gateway.transport.grpc;
 
+import com.acme.finops.gateway.memory.AllocationQuotaConfig;
+import com.acme.finops.gateway.memory.AllocationQuotas;
 import com.acme.finops.gateway.memory.AllocationTag;
 import com.acme.finops.gateway.memory.PacketAllocator;
+import com.acme.finops.gateway.memory.QuotaLimit;
 import com.acme.finops.gateway.memory.SlabPacketAllocator;
 import com.acme.finops.gateway.transport.api.SignalKind;
 import com.acme.finops.gateway.transport.api.TransportAck;
@@ -28,10 +31,11 @@ import io.netty.util.ReferenceCountUtil;
 import org.junit.jupiter.api.Test;
 
 import java.net.ServerSocket;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -182,7 +186,81 @@ class NettyOtlpGrpcAdapterTest {
         }
     }
 
+    @Test
+    void shouldPropagateGrpcTimeoutAndSendRetryPushback() throws Exception {
+        int port = freePort();
+        try (PacketAllocator allocator = new SlabPacketAllocator(8L * 1024 * 1024)) {
+            NettyOtlpGrpcAdapter adapter = new NettyOtlpGrpcAdapter(
+                port,
+                allocator,
+                SignalKind.TRACES,
+                new AllocationTag("test", "grpc-deadline", 1)
+            );
+
+            AtomicLong deadline = new AtomicLong();
+            adapter.setInboundHandler(packet -> {
+                deadline.set(packet.packetRef().descriptor().deadlineNanos());
+                return new com.acme.finops.gateway.transport.api.TransportNack(0, 429, true, 250);
+            });
+            adapter.start();
+            try {
+                byte[] ok = new byte[]{0x00, 0, 0, 0, 1, 0x01};
+                long before = System.nanoTime();
+                Http2Headers trailers = sendGrpcRequest(
+                    "127.0.0.1", port, "application/grpc+proto", ok, Map.of("grpc-timeout", "30S"));
+                assertEquals("14", String.valueOf(trailers.get("grpc-status")));
+                assertEquals("250", String.valueOf(trailers.get("grpc-retry-pushback-ms")));
+                long remaining = deadline.get() - before;
+                assertTrue(remaining > TimeUnit.SECONDS.toNanos(25) && remaining <= TimeUnit.SECONDS.toNanos(31),
+                    "descriptor deadline should be ~30s ahead, was " + remaining + "ns");
+            } finally {
+                adapter.stop();
+            }
+        }
+    }
+
+    @Test
+    void shouldChargeAllocatorQuotaToHeaderTenant() throws Exception {
+        int port = freePort();
+        AllocationQuotas quotas = new AllocationQuotas(
+            new AllocationQuotaConfig(Map.of("greedy", new QuotaLimit(0, 0)), null, Map.of()), 8L * 1024 * 1024);
+        try (PacketAllocator allocator = new SlabPacketAllocator(8L * 1024 * 1024, 1, quotas)) {
+            NettyOtlpGrpcAdapter adapter = new NettyOtlpGrpcAdapter(
+                port,
+                allocator,
+                SignalKind.TRACES,
+                new AllocationTag("test", "tag-tenant", 1)
+            );
+            adapter.setTenantHeader("x-tenant-id");
+            adapter.setCopyToAllocator(true);
+            adapter.start();
+            try {
+                byte[] ok = new byte[]{0x00, 0, 0, 0, 1, 0x01};
+                Http2Headers denied = sendGrpcRequest(
+                    "127.0.0.1", port, "application/grpc+proto", ok, Map.of("x-tenant-id", "greedy"));
+                assertEquals("14", String.valueOf(denied.get("grpc-status")));
+                assertEquals("allocation_quota_exceeded", String.valueOf(denied.get("grpc-message")));
+                assertEquals("250", String.valueOf(denied.get("grpc-retry-pushback-ms")));
+
+                Http2Headers admitted = sendGrpcRequest(
+                    "127.0.0.1", port, "application/grpc+proto", ok, Map.of("x-tenant-id", "modest"));
+                assertEquals("0", String.valueOf(admitted.get("grpc-status")));
+            } finally {
+                adapter.stop();
+            }
+        }
+    }
+
     private static String sendGrpcRequest(String host, int port, String contentType, byte[] grpcBody) throws Exception {
+        CharSequence status = sendGrpcRequest(host, port, contentType, grpcBody, Map.of()).get("grpc-status");
+        return status == null ? null : status.toString();
+    }
+
+    private static Http2Headers sendGrpcRequest(String host,
+                                                int port,
+                                                String contentType,
+                                                byte[] grpcBody,
+                                                Map<String, String> extraHeaders) throws Exception {
         EventLoopGroup group = new NioEventLoopGroup(1);
         try {
             Bootstrap bootstrap = new Bootstrap()
@@ -199,7 +277,7 @@ class NettyOtlpGrpcAdapterTest {
 
             Channel parent = bootstrap.connect(host, port).sync().channel();
             CountDownLatch done = new CountDownLatch(1);
-            AtomicReference<String> status = new AtomicReference<>();
+            Http2Headers trailers = new DefaultHttp2Headers();
 
             Http2StreamChannel stream = new Http2StreamChannelBootstrap(parent)
                 .handler(new ChannelInboundHandlerAdapter() {
@@ -207,10 +285,7 @@ class NettyOtlpGrpcAdapterTest {
                     public void channelRead(ChannelHandlerContext ctx, Object msg) {
                         try {
                             if (msg instanceof Http2HeadersFrame headersFrame && headersFrame.isEndStream()) {
-                                CharSequence grpcStatus = headersFrame.headers().get("grpc-status");
-                                if (grpcStatus != null) {
-                                    status.set(grpcStatus.toString());
-                                }
+                                trailers.set(headersFrame.headers());
                                 done.countDown();
                             }
                         } finally {
@@ -235,6 +310,7 @@ class NettyOtlpGrpcAdapterTest {
                 .path("/opentelemetry.proto.collector.trace.v1.TraceService/Export")
                 .set("content-type", contentType)
                 .set("te", "trailers");
+            extraHeaders.forEach(headers::set);
             boolean endStreamOnHeaders = grpcBody == null || grpcBody.length == 0;
             stream.writeAndFlush(new DefaultHttp2HeadersFrame(headers, endStreamOnHeaders)).sync();
             if (!endStreamOnHeaders) {
@@ -245,7 +321,7 @@ class NettyOtlpGrpcAdapterTest {
 
             stream.close().sync();
             parent.close().sync();
-            return status.get();
+            return trailers;
         } finally {
             group.shutdownGracefully().syncUninterruptibly();
         }
@@ -1,10 +1,13 @@
 package com.acme.finops.gateway.transport.http;
 
+import com.acme.finops.gateway.memory.AllocationQuotaConfig;
+import com.acme.finops.gateway.memory.AllocationQuotas;
 import com.acme.finops.gateway.memory.AllocationTag;
 import com.acme.finops.gateway.memory.PacketAllocator;
 import com.acme.finops.gateway.memory.PacketDescriptor;
 import com.acme.finops.gateway.memory.PacketRef;
 import com.acme.finops.gateway.memory.PacketRefImpl;
+import com.acme.finops.gateway.memory.QuotaLimit;
 import com.acme.finops.gateway.memory.SlabPacketAllocator;
 import com.acme.finops.gateway.transport.api.ProtocolKind;
 import com.acme.finops.gateway.transport.api.SignalKind;
@@ -23,6 +26,9 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -91,6 +97,7 @@ class NettyOtlpHttpAdapterTest {
                     HttpResponse.BodyHandlers.ofByteArray()
                 );
                 assertEquals(429, nack.statusCode());
+                assertEquals("1", nack.headers().firstValue("retry-after").orElse(null));
 
                 // Ack path with response payload
                 PacketRef responseRef = responseRef(new byte[]{7, 8, 9});
@@ -136,6 +143,89 @@ class NettyOtlpHttpAdapterTest {
         }
     }
 
+    @Test
+    void shouldTakeTenantFromConfiguredHeader() throws Exception {
+        int port = freePort();
+        HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+        try (PacketAllocator allocator = new SlabPacketAllocator(4 * 1024 * 1024)) {
+            NettyOtlpHttpAdapter adapter = new NettyOtlpHttpAdapter(
+                port,
+                allocator,
+                new AllocationTag("test", "tag-tenant", 1)
+            );
+            adapter.setTenantHeader("X-Tenant-Id");
+            List<String> tenants = new CopyOnWriteArrayList<>();
+            adapter.setInboundHandler(packet -> {
+                tenants.add(packet.tenantId());
+                return new TransportAck(200, null);
+            });
+
+            adapter.start();
+            try {
+                for (String tenant : new String[] {"acme", "acme", null}) {
+                    HttpRequest.Builder request = HttpRequest.newBuilder()
+                        .uri(URI.create("http://127.0.0.1:" + port + "/v1/traces"))
+                        .header("Content-Type", "application/x-protobuf")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(new byte[]{0x0A, 0x01, 0x01}));
+                    if (tenant != null) {
+                        request.header("X-Tenant-Id", tenant);
+                    }
+                    assertEquals(200, client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray()).statusCode());
+                }
+            } finally {
+                adapter.stop();
+            }
+            assertEquals(List.of("acme", "acme", "tag-tenant"), tenants);
+        }
+    }
+
+    @Test
+    void shouldChargeAllocatorQuotaToHeaderTenant() throws Exception {
+        int port = freePort();
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        AllocationQuotas quotas = new AllocationQuotas(
+            new AllocationQuotaConfig(Map.of("greedy", new QuotaLimit(0, 2)), null, Map.of()), 1024 * 1024);
+        try (PacketAllocator allocator = new SlabPacketAllocator(1024 * 1024, 1, quotas)) {
+            NettyOtlpHttpAdapter adapter = new NettyOtlpHttpAdapter(
+                port,
+                allocator,
+                new AllocationTag("test", "tag-tenant", 1)
+            );
+            adapter.setTenantHeader("X-Tenant-Id");
+            adapter.setCopyToAllocator(true);
+            List<String> tenants = new CopyOnWriteArrayList<>();
+            adapter.setInboundHandler(packet -> {
+                tenants.add(packet.tenantId());
+                return new TransportAck(200, null);
+            });
+
+            adapter.start();
+            try {
+                HttpResponse<byte[]> denied = client.send(tenantRequest(port, "greedy"), HttpResponse.BodyHandlers.ofByteArray());
+                assertEquals(429, denied.statusCode());
+                assertEquals("1", denied.headers().firstValue("retry-after").orElse(null));
+
+                assertEquals(200, client.send(tenantRequest(port, "modest"), HttpResponse.BodyHandlers.ofByteArray()).statusCode());
+            } finally {
+                adapter.stop();
+            }
+            assertEquals(List.of("modest"), tenants);
+            assertEquals(0L, allocator.stats().inUseBytes());
+        }
+    }
+
+    private static HttpRequest tenantRequest(int port, String tenant) {
+        return HttpRequest.newBuilder()
+            .uri(URI.create("http://127.0.0.1:" + port + "/v1/traces"))
+            .header("Content-Type", "application/x-protobuf")
+            .header("X-Tenant-Id", tenant)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(new byte[]{0x0A, 0x01, 0x01}))
+            .build();
+    }
+
     @Test
     void shouldConvertDirectAndHeapPayloadsToPacketRef() throws Exception {
         int port = freePort();
@@ -146,7 +236,7 @@ class NettyOtlpHttpAdapterTest {
                 new AllocationTag("test", "http-toPacketRef", 1)
             );
 
-            Method toPacketRef = NettyOtlpHttpAdapter.class.getDeclaredMethod("toPacketRef", ByteBuf.class, SignalKind.class);
+            Method toPacketRef = NettyOtlpHttpAdapter.class.getDeclaredMethod("toPacketRef", ByteBuf.class, SignalKind.class, String.class, long.class);
             toPacketRef.setAccessible(true);
 
             ByteBuf direct = Unpooled.directBuffer(4);
@@ -155,12 +245,14 @@ class NettyOtlpHttpAdapterTest {
                 direct.writeBytes(new byte[]{1, 2, 3, 4});
                 heap.writeBytes(new byte[]{5, 6, 7, 8});
 
-                PacketRef directRef = (PacketRef) toPacketRef.invoke(adapter, direct, SignalKind.TRACES);
+                PacketRef directRef = (PacketRef) toPacketRef.invoke(adapter, direct, SignalKind.TRACES, null, 42L);
                 assertInstanceOf(NettyPacketRefImpl.class, directRef);
+                assertEquals(42L, directRef.descriptor().deadlineNanos());
                 directRef.release();
 
-                PacketRef heapRef = (PacketRef) toPacketRef.invoke(adapter, heap, SignalKind.TRACES);
+                PacketRef heapRef = (PacketRef) toPacketRef.invoke(adapter, heap, SignalKind.TRACES, null, 42L);
                 assertNotNull(heapRef);
+                assertEquals(42L, heapRef.descriptor().deadlineNanos());
                 assertTrue(heapRef.length() > 0);
                 heapRef.release();
             } finally {
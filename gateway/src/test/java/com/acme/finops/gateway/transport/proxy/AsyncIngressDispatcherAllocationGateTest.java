@@ -0,0 +1,119 @@
+package com.acme.finops.gateway.transport.proxy;
+
+import com.acme.finops.gateway.backpressure.DropDecision;
+import com.acme.finops.gateway.backpressure.Watermarks;
+import com.acme.finops.gateway.backpressure.WatermarkThrottleStrategy;
+import com.acme.finops.gateway.memory.AllocationTag;
+import com.acme.finops.gateway.memory.LeaseResult;
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.memory.SlabPacketAllocator;
+import com.acme.finops.gateway.queue.QueueEnvelope;
+import com.acme.finops.gateway.queue.StripedMpscRing;
+import com.acme.finops.gateway.transport.api.InboundPacket;
+import com.acme.finops.gateway.transport.api.ProtocolKind;
+import com.acme.finops.gateway.transport.api.SignalKind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Allocation gate for {@link AsyncIngressDispatcher#enqueue}: heap bytes allocated by the
+ * ingress thread per accepted enqueue. Packets are built outside the measured window, so
+ * only the enqueue path counts. The envelope, offer result and throttle decision are all
+ * reused; at most the returned {@link EnqueueResult.Accepted} remains.
+ */
+class AsyncIngressDispatcherAllocationGateTest {
+    private static final int BATCH = 1024;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 200;
+    /** One {@code EnqueueResult.Accepted} (32 bytes) when escape analysis keeps it, plus JIT noise. */
+    private static final double MAX_BYTES_PER_ENQUEUE = 40.0d;
+
+    @Test
+    void acceptedEnqueueShouldStayUnderByteBudget(TestReporter reporter) {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        LongAdder processed = new LongAdder();
+        StripedMpscRing<QueueEnvelope> queue = new StripedMpscRing<>(4 * BATCH, 4, QueueEnvelope::new);
+        AsyncIngressDispatcher dispatcher = new AsyncIngressDispatcher(
+            queue,
+            1,
+            new WatermarkThrottleStrategy(0.0d, 0.0d, 1_000_000L),
+            new Watermarks(8 * BATCH, 8 * BATCH, 8 * BATCH),
+            (ref, snapshot, now) -> new DropDecision.Keep(),
+            packet -> {
+                processed.increment();
+                return null;
+            },
+            null
+        );
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4 * 1024 * 1024, 8)) {
+            dispatcher.start();
+            AllocationTag tag = new AllocationTag("gate", "tenant", 1);
+            InboundPacket[] packets = new InboundPacket[BATCH];
+            long tid = Thread.currentThread().threadId();
+            long measuredBytes = 0;
+            long requestId = 0;
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                for (int i = 0; i < BATCH; i++) {
+                    PacketRef ref = assertInstanceOf(LeaseResult.Granted.class, allocator.allocate(128, tag)).packetRef();
+                    packets[i] = new InboundPacket(requestId++, ProtocolKind.OTLP_GRPC, SignalKind.TRACES, ref);
+                }
+                long before = threads.getThreadAllocatedBytes(tid);
+                int accepted = enqueueAll(dispatcher, packets);
+                long after = threads.getThreadAllocatedBytes(tid);
+                assertEquals(BATCH, accepted);
+                for (int i = 0; i < BATCH; i++) {
+                    // Drop the ingress-side reference; the queue holds its own.
+                    packets[i].packetRef().release();
+                    packets[i] = null;
+                }
+                if (round >= WARMUP_ROUNDS) {
+                    measuredBytes += after - before;
+                }
+                while (!queue.isDrained()) {
+                    LockSupport.parkNanos(10_000L);
+                }
+            }
+            double bytesPerEnqueue = measuredBytes / (double) (MEASURED_ROUNDS * BATCH);
+            reporter.publishEntry("dispatcher enqueue bytes/enqueue", String.format("%.1f", bytesPerEnqueue));
+            assertTrue(bytesPerEnqueue <= MAX_BYTES_PER_ENQUEUE,
+                () -> "allocation gate exceeded: " + bytesPerEnqueue + " bytes/enqueue");
+        } finally {
+            dispatcher.stopAndDrain(Duration.ofSeconds(5));
+        }
+        assertEquals((long) (WARMUP_ROUNDS + MEASURED_ROUNDS) * BATCH, processed.sum());
+    }
+
+    @Test
+    void shouldRequirePreallocatedQueue() {
+        assertThrows(IllegalArgumentException.class, () -> new AsyncIngressDispatcher(
+            new StripedMpscRing<>(16, 1),
+            1,
+            new WatermarkThrottleStrategy(0.0d, 0.0d, 0L),
+            new Watermarks(1, 2, 3),
+            (ref, snapshot, now) -> new DropDecision.Keep(),
+            packet -> null,
+            null
+        ));
+    }
+
+    private static int enqueueAll(AsyncIngressDispatcher dispatcher, InboundPacket[] packets) {
+        int accepted = 0;
+        for (InboundPacket packet : packets) {
+            if (dispatcher.enqueue(packet) instanceof EnqueueResult.Accepted) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+}
@@ -0,0 +1,521 @@
+package com.acme.finops.gateway.transport.proxy;
+
+import com.acme.finops.gateway.backpressure.DeadlineDropPolicy;
+import com.acme.finops.gateway.backpressure.DropDecision;
+import com.acme.finops.gateway.backpressure.PriorityLane;
+import com.acme.finops.gateway.backpressure.Watermarks;
+import com.acme.finops.gateway.backpressure.WatermarkThrottleStrategy;
+import com.acme.finops.gateway.memory.AllocationTag;
+import com.acme.finops.gateway.memory.LeaseResult;
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.memory.SlabPacketAllocator;
+import com.acme.finops.gateway.queue.PhasedBackoffWaitStrategy;
+import com.acme.finops.gateway.queue.QueueEnvelope;
+import com.acme.finops.gateway.queue.StripedMpscRing;
+import com.acme.finops.gateway.telemetry.AtomicHotPathMetrics;
+import com.acme.finops.gateway.transport.api.InboundPacket;
+import com.acme.finops.gateway.transport.api.IngestResult;
+import com.acme.finops.gateway.transport.api.ProtocolKind;
+import com.acme.finops.gateway.transport.api.SignalKind;
+import com.acme.finops.gateway.util.GatewayStatusCodes;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncIngressDispatcherTest {
+    private static final AllocationTag TAG = new AllocationTag("dispatcher", "tenant", 1);
+
+    @Test
+    void idleWorkerShouldStealFromHotShard() throws Exception {
+        int packets = 200;
+        Set<Long> processed = ConcurrentHashMap.newKeySet();
+        StripedMpscRing<QueueEnvelope> queue = new StripedMpscRing<>(1024, 2, QueueEnvelope::new);
+        AsyncIngressDispatcher dispatcher = dispatcher(queue, 2, 4, 1, packet -> {
+            LockSupport.parkNanos(200_000L);
+            processed.add(packet.requestId());
+            return null;
+        });
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(1024 * 1024, 4)) {
+            dispatcher.start();
+            // Even request ids all hash to shard 0, owned by worker 0.
+            for (int i = 0; i < packets; i++) {
+                enqueue(dispatcher, allocator, 2L * i);
+            }
+            awaitProcessed(processed, packets);
+
+            List<DispatcherWorkerStats> stats = awaitCounted(dispatcher, packets);
+            assertEquals(2, stats.size());
+            assertEquals(packets, stats.get(0).processed() + stats.get(1).processed());
+            assertTrue(stats.get(1).stolen() > 0, "worker 1 should have stolen from shard 0: " + stats);
+            assertTrue(stats.get(1).stealBatches() > 0);
+            assertEquals(0L, stats.get(0).stolen());
+            for (DispatcherWorkerStats s : stats) {
+                assertTrue(s.utilization() >= 0.0d && s.utilization() <= 1.0d);
+                assertTrue(s.busyNanos() > 0L);
+            }
+        } finally {
+            dispatcher.stopAndDrain(Duration.ofSeconds(5));
+        }
+    }
+
+    @Test
+    void shouldNotStealWhenDisabled() throws Exception {
+        int packets = 50;
+        Set<Long> processed = ConcurrentHashMap.newKeySet();
+        StripedMpscRing<QueueEnvelope> queue = new StripedMpscRing<>(256, 2, QueueEnvelope::new);
+        AsyncIngressDispatcher dispatcher = dispatcher(queue, 2, 4, 0, packet -> {
+            LockSupport.parkNanos(100_000L);
+            processed.add(packet.requestId());
+            return null;
+        });
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(1024 * 1024, 4)) {
+            dispatcher.start();
+            for (int i = 0; i < packets; i++) {
+                enqueue(dispatcher, allocator, 2L * i);
+            }
+            awaitProcessed(processed, packets);
+
+            List<DispatcherWorkerStats> stats = awaitCounted(dispatcher, packets);
+            assertEquals(packets, stats.get(0).processed());
+            assertEquals(0L, stats.get(1).processed());
+            assertEquals(0L, stats.get(1).stolen());
+        } finally {
+            dispatcher.stopAndDrain(Duration.ofSeconds(5));
+        }
+    }
+
+    @Test
+    void floodedLaneShouldPauseOnlyItsOwnSignals() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        DispatchLane traces = lane("traces", SignalKind.TRACES, 0, 1, 256);
+        DispatchLane logs = lane("logs", SignalKind.LOGS, 1, 1, 256);
+        AsyncIngressDispatcher dispatcher = laneDispatcher(List.of(traces, logs), 8, packet -> {
+            awaitQuietly(gate);
+            return null;
+        });
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4 * 1024 * 1024, 4)) {
+            dispatcher.start();
+            int acceptedLogs = 0;
+            EnqueueResult last = null;
+            for (int i = 0; i < 400; i++) {
+                last = enqueueResult(dispatcher, allocator, i, SignalKind.LOGS);
+                if (last instanceof EnqueueResult.Accepted) {
+                    acceptedLogs++;
+                }
+            }
+            EnqueueResult.Busy busy = assertInstanceOf(EnqueueResult.Busy.class, last);
+            assertEquals(GatewayStatusCodes.TOO_MANY_REQUESTS, busy.reasonCode());
+            assertTrue(acceptedLogs < 400);
+            assertInstanceOf(EnqueueResult.Accepted.class, enqueueResult(dispatcher, allocator, 1_000, SignalKind.TRACES));
+        } finally {
+            gate.countDown();
+            dispatcher.stopAndDrain(Duration.ofSeconds(5));
+        }
+    }
+
+    @Test
+    void saturatedWorkerShouldShareLanesByWeight() throws Exception {
+        int perLane = 400;
+        CountDownLatch gate = new CountDownLatch(1);
+        List<SignalKind> order = Collections.synchronizedList(new ArrayList<>());
+        DispatchLane traces = lane("traces", SignalKind.TRACES, 0, 3, 1024);
+        DispatchLane logs = lane("logs", SignalKind.LOGS, 1, 1, 1024);
+        AsyncIngressDispatcher dispatcher = laneDispatcher(List.of(traces, logs), 10, packet -> {
+            awaitQuietly(gate);
+            order.add(packet.signalKind());
+            return null;
+        });
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4 * 1024 * 1024, 4)) {
+            dispatcher.start();
+            // Hold the worker on one trace while both lanes fill up.
+            enqueue(dispatcher, allocator, 0L, SignalKind.TRACES);
+            for (int i = 1; i <= perLane; i++) {
+                enqueue(dispatcher, allocator, i, SignalKind.TRACES);
+                enqueue(dispatcher, allocator, 10_000L + i, SignalKind.LOGS);
+            }
+            gate.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (order.size() < 2 * perLane + 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(2 * perLane + 1, order.size());
+
+            // While both lanes are backed up, traces get ~3 of every 4 slots.
+            long tracesInWindow = order.subList(0, perLane).stream().filter(k -> k == SignalKind.TRACES).count();
+            assertTrue(tracesInWindow >= 270 && tracesInWindow <= 330, "traces in first " + perLane + ": " + tracesInWindow);
+
+            List<DispatchLaneStats> stats = dispatcher.laneStats();
+            assertEquals("traces", stats.get(0).name());
+            assertEquals(perLane + 1L, stats.get(0).dequeued());
+            assertEquals(perLane, stats.get(1).dequeued());
+            assertEquals(0, stats.get(0).depth() + stats.get(1).depth());
+            assertEquals(perLane + 1L, stats.get(0).sojournMicros().count());
+            assertEquals(perLane, stats.get(1).sojournMicros().count());
+        } finally {
+            gate.countDown();
+            dispatcher.stopAndDrain(Duration.ofSeconds(5));
+        }
+    }
+
+    @Test
+    void burstingTenantShouldNotCrowdOutQuietTenants() throws Exception {
+        int maxTenantDepth = 100;
+        CountDownLatch gate = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        TenantFairQueuing fairQueuing = new TenantFairQueuing(InboundPacket::tenantId, maxTenantDepth, 64, 7L);
+        DispatchLane lane = new DispatchLane(
+            new PriorityLane("default", Set.of(SignalKind.values()), 0, 1,
+                new Watermarks(4096, 4096, 4096), new WatermarkThrottleStrategy(0.0d, 0.0d, 1_000_000L)),
+            new StripedMpscRing<>(4096, 8, QueueEnvelope::new));
+        AsyncIngressDispatcher dispatcher = new AsyncIngressDispatcher.Builder(
+            List.of(lane), (ref, snapshot, now) -> new DropDecision.Keep(),
+            packet -> {
+                awaitQuietly(gate);
+                order.add(packet.tenantId());
+                return null;
+            })
+            .drainBatch(8)
+            .stealMinDepth(0)
+            .waitStrategy(new PhasedBackoffWaitStrategy(10_000L, 10_000L, 1_000_000L))
+            .fairQueuing(fairQueuing)
+            .build();
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4 * 1024 * 1024, 4)) {
+            dispatcher.start();
+            int noisyAccepted = 0;
+            int noisyShard = -1;
+            EnqueueResult last = null;
+            for (int i = 0; i < 400; i++) {
+                last = enqueueResult(dispatcher, allocator, i, "noisy");
+                if (last instanceof EnqueueResult.Accepted accepted) {
+                    noisyAccepted++;
+                    noisyShard = accepted.shardId();
+                }
+            }
+            EnqueueResult.Busy busy = assertInstanceOf(EnqueueResult.Busy.class, last);
+            assertEquals(GatewayStatusCodes.TOO_MANY_REQUESTS, busy.reasonCode());
+            // The worker may already hold one packet, which no longer counts against the bound.
+            assertTrue(noisyAccepted >= maxTenantDepth && noisyAccepted <= maxTenantDepth + 1, "noisy accepted: " + noisyAccepted);
+
+            List<String> separated = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String tenant = "quiet-" + i;
+                EnqueueResult.Accepted accepted = assertInstanceOf(EnqueueResult.Accepted.class,
+                    enqueueResult(dispatcher, allocator, 10_000L + i, tenant));
+                if (accepted.shardId() != noisyShard) {
+                    separated.add(tenant);
+                }
+            }
+            assertTrue(!separated.isEmpty(), "some quiet tenant should hash away from the noisy one");
+
+            gate.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (order.size() < noisyAccepted + 8 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(noisyAccepted + 8, order.size());
+            // One sweep over the 8 shards takes at most 8 envelopes from each, so quiet tenants
+            // on their own shards are served within the first pass, not after the noisy backlog.
+            for (String tenant : separated) {
+                assertTrue(order.indexOf(tenant) < 1 + 8 * 8, tenant + " served at " + order.indexOf(tenant));
+            }
+
+            TenantQueueStats noisy = fairQueuing.stats().stream()
+                .filter(s -> s.tenant().equals("noisy")).findFirst().orElseThrow();
+            assertEquals(400L - noisyAccepted, noisy.rejected());
+            assertEquals(noisyAccepted, noisy.dequeued());
+            assertEquals(0, noisy.depth());
+        } finally {
+            gate.countDown();
+            dispatcher.stopAndDrain(Duration.ofSeconds(5));
+        }
+    }
+
+    @Test
+    void largePacketsShouldPauseOnBytesBeforeDepth() throws Exception {
+        int packetBytes = 16 * 1024;
+        CountDownLatch gate = new CountDownLatch(1);
+        DispatchLane lane = new DispatchLane(
+            new PriorityLane("default", Set.of(SignalKind.values()), 0, 1,
+                new Watermarks(1024, 1024, 1024, 2L * packetBytes, 3L * packetBytes, 4L * packetBytes),
+                new WatermarkThrottleStrategy(0.0d, 0.0d, 1_000_000L)),
+            new StripedMpscRing<>(2048, 1, QueueEnvelope::new));
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4 * 1024 * 1024, 4)) {
+            AsyncIngressDispatcher dispatcher = new AsyncIngressDispatcher.Builder(
+                List.of(lane), (ref, snapshot, now) -> new DropDecision.Keep(),
+                packet -> {
+                    awaitQuietly(gate);
+                    return null;
+                })
+                .drainBatch(8)
+                .stealMinDepth(0)
+                .waitStrategy(new PhasedBackoffWaitStrategy(10_000L, 10_000L, 1_000_000L))
+                .allocatorStats(allocator::stats)
+                .build();
+            try {
+                dispatcher.start();
+                int accepted = 0;
+                EnqueueResult last = null;
+                for (int i = 0; i < 20; i++) {
+                    last = enqueueResult(dispatcher, allocator, i, SignalKind.TRACES, packetBytes);
+                    if (last instanceof EnqueueResult.Accepted) {
+                        accepted++;
+                    }
+                }
+                EnqueueResult.Busy busy = assertInstanceOf(EnqueueResult.Busy.class, last);
+                assertEquals(GatewayStatusCodes.TOO_MANY_REQUESTS, busy.reasonCode());
+                // Four queued packets reach the critical byte mark (one more if the worker holds the first),
+                // far below the depth watermark.
+                assertTrue(accepted >= 1 && accepted <= 5, "accepted: " + accepted);
+                long queuedBytes = dispatcher.laneStats().getFirst().queuedBytes();
+                assertTrue(queuedBytes >= (accepted - 1L) * packetBytes && queuedBytes <= 4L * packetBytes,
+                    "queued bytes: " + queuedBytes);
+
+                gate.countDown();
+                awaitCounted(dispatcher, accepted);
+                assertEquals(0L, dispatcher.laneStats().getFirst().queuedBytes());
+            } finally {
+                gate.countDown();
+                dispatcher.stopAndDrain(Duration.ofSeconds(5));
+            }
+        }
+    }
+
+    @Test
+    void retryAfterShouldFollowMeasuredDrainRate() throws Exception {
+        AtomicBoolean hold = new AtomicBoolean(true);
+        AtomicReference<CountDownLatch> gate = new AtomicReference<>(new CountDownLatch(1));
+        DispatchLane lane = new DispatchLane(
+            new PriorityLane("default", Set.of(SignalKind.values()), 0, 1,
+                new Watermarks(2, 4, 6),
+                new WatermarkThrottleStrategy(0.0d, 0.0d, 1_000_000L)),
+            new StripedMpscRing<>(256, 1, QueueEnvelope::new));
+        RetryAfterPolicy policy = new RetryAfterPolicy(1L, 600_000L, 0, TimeUnit.SECONDS.toNanos(10));
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(4 * 1024 * 1024)) {
+            AsyncIngressDispatcher dispatcher = new AsyncIngressDispatcher.Builder(
+                List.of(lane), (ref, snapshot, now) -> new DropDecision.Keep(),
+                packet -> {
+                    if (hold.get()) {
+                        awaitQuietly(gate.get());
+                    }
+                    return null;
+                })
+                .drainBatch(8)
+                .stealMinDepth(0)
+                .waitStrategy(new PhasedBackoffWaitStrategy(10_000L, 10_000L, 1_000_000L))
+                .retryAfter(policy)
+                .build();
+            try {
+                dispatcher.start();
+                long requestId = 0;
+                // No measured rate yet: the throttle's fixed 1 ms pause.
+                EnqueueResult.Busy unknown = fillUntilBusy(dispatcher, allocator, requestId);
+                requestId += 100;
+                assertEquals(1L, unknown.retryAfterMillis());
+                assertEquals(-1L, dispatcher.laneStats().getFirst().millisToLow());
+
+                hold.set(false);
+                gate.get().countDown();
+                for (int i = 0; i < 40; i++) {
+                    // Stay below the watermarks so every packet is accepted.
+                    while (dispatcher.laneStats().getFirst().depth() >= 2) {
+                        Thread.sleep(1);
+                    }
+                    enqueue(dispatcher, allocator, requestId++);
+                }
+                awaitCounted(dispatcher, 46);
+                // Past one tick (a tenth of the half life), the first fold takes the observed rate.
+                Thread.sleep(1_100);
+                DispatchLaneStats idle = dispatcher.laneStats().getFirst();
+                assertTrue(idle.drainPerSecond() > 0L, "drain rate: " + idle.drainPerSecond());
+                assertEquals(0L, idle.millisToLow());
+
+                gate.set(new CountDownLatch(1));
+                hold.set(true);
+                EnqueueResult.Busy measured = fillUntilBusy(dispatcher, allocator, requestId);
+                DispatchLaneStats loaded = dispatcher.laneStats().getFirst();
+                assertTrue(loaded.millisToLow() > 0L, "eta: " + loaded.millisToLow());
+                assertEquals(loaded.millisToLow(), measured.retryAfterMillis());
+            } finally {
+                gate.get().countDown();
+                hold.set(false);
+                dispatcher.stopAndDrain(Duration.ofSeconds(5));
+            }
+        }
+    }
+
+    @Test
+    void expiredPacketsShouldBeRejectedAtEnqueueAndSkippedAtDequeue() throws Exception {
+        AtomicHotPathMetrics metrics = new AtomicHotPathMetrics();
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch firstTaken = new CountDownLatch(1);
+        Set<Long> processed = ConcurrentHashMap.newKeySet();
+        DispatchLane lane = lane("default", SignalKind.TRACES, 0, 1, 256);
+        AsyncIngressDispatcher dispatcher = new AsyncIngressDispatcher.Builder(
+            List.of(lane), new DeadlineDropPolicy((ref, snapshot, now) -> new DropDecision.Keep()),
+            packet -> {
+                firstTaken.countDown();
+                awaitQuietly(gate);
+                processed.add(packet.requestId());
+                return null;
+            })
+            .metrics(metrics)
+            .drainBatch(8)
+            .stealMinDepth(0)
+            .waitStrategy(new PhasedBackoffWaitStrategy(10_000L, 10_000L, 1_000_000L))
+            .build();
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(1024 * 1024, 4)) {
+            dispatcher.start();
+            EnqueueResult.Rejected rejected = assertInstanceOf(EnqueueResult.Rejected.class,
+                enqueueWithDeadline(dispatcher, allocator, 1L, System.nanoTime() - 1L));
+            assertEquals(GatewayStatusCodes.GATEWAY_TIMEOUT, rejected.errorCode());
+
+            enqueue(dispatcher, allocator, 2L);
+            assertTrue(firstTaken.await(5, TimeUnit.SECONDS));
+            // Queued behind the blocked worker until well past its deadline.
+            assertInstanceOf(EnqueueResult.Accepted.class,
+                enqueueWithDeadline(dispatcher, allocator, 3L, System.nanoTime() + 20_000_000L));
+            enqueue(dispatcher, allocator, 4L);
+            Thread.sleep(50);
+            gate.countDown();
+            awaitProcessed(processed, 2);
+            assertEquals(Set.of(2L, 4L), processed);
+            assertEquals(2L, metrics.snapshot().droppedByReason().get(GatewayStatusCodes.DEADLINE_EXPIRED));
+        } finally {
+            gate.countDown();
+            dispatcher.stopAndDrain(Duration.ofSeconds(5));
+        }
+    }
+
+    private static DispatchLane lane(String name, SignalKind signal, int priority, int weight, int capacity) {
+        return new DispatchLane(
+            new PriorityLane(name, Set.of(signal), priority, weight,
+                new Watermarks(capacity / 2, capacity * 3 / 4, capacity * 9 / 10),
+                new WatermarkThrottleStrategy(0.0d, 0.0d, 1_000_000L)),
+            new StripedMpscRing<>(capacity, 1, QueueEnvelope::new));
+    }
+
+    private static AsyncIngressDispatcher laneDispatcher(List<DispatchLane> lanes,
+                                                         int drainBatch,
+                                                         Function<InboundPacket, IngestResult> processor) {
+        return new AsyncIngressDispatcher.Builder(lanes, (ref, snapshot, now) -> new DropDecision.Keep(), processor)
+            .drainBatch(drainBatch)
+            .stealMinDepth(0)
+            .waitStrategy(new PhasedBackoffWaitStrategy(10_000L, 10_000L, 1_000_000L))
+            .build();
+    }
+
+    private static void awaitQuietly(CountDownLatch gate) {
+        try {
+            gate.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static AsyncIngressDispatcher dispatcher(StripedMpscRing<QueueEnvelope> queue,
+                                                     int workers,
+                                                     int drainBatch,
+                                                     int stealMinDepth,
+                                                     Function<InboundPacket, IngestResult> processor) {
+        int cap = queue.capacity();
+        return new AsyncIngressDispatcher.Builder(
+            queue,
+            new WatermarkThrottleStrategy(0.0d, 0.0d, 1_000_000L),
+            new Watermarks(cap, cap, cap),
+            (ref, snapshot, now) -> new DropDecision.Keep(),
+            processor)
+            .workers(workers)
+            .drainBatch(drainBatch)
+            .stealMinDepth(stealMinDepth)
+            .waitStrategy(new PhasedBackoffWaitStrategy(10_000L, 10_000L, 1_000_000L))
+            .build();
+    }
+
+    private static void enqueue(AsyncIngressDispatcher dispatcher, SlabPacketAllocator allocator, long requestId) {
+        enqueue(dispatcher, allocator, requestId, SignalKind.TRACES);
+    }
+
+    private static void enqueue(AsyncIngressDispatcher dispatcher, SlabPacketAllocator allocator,
+                                long requestId, SignalKind signal) {
+        assertInstanceOf(EnqueueResult.Accepted.class, enqueueResult(dispatcher, allocator, requestId, signal));
+    }
+
+    private static EnqueueResult enqueueResult(AsyncIngressDispatcher dispatcher, SlabPacketAllocator allocator,
+                                               long requestId, SignalKind signal) {
+        return enqueueResult(dispatcher, allocator, requestId, signal, 64);
+    }
+
+    private static EnqueueResult enqueueResult(AsyncIngressDispatcher dispatcher, SlabPacketAllocator allocator,
+                                               long requestId, SignalKind signal, int bytes) {
+        PacketRef ref = assertInstanceOf(LeaseResult.Granted.class, allocator.allocate(bytes, TAG)).packetRef();
+        InboundPacket packet = new InboundPacket(requestId, ProtocolKind.OTLP_GRPC, signal, ref);
+        EnqueueResult result = dispatcher.enqueue(packet);
+        ref.release();
+        return result;
+    }
+
+    private static EnqueueResult enqueueResult(AsyncIngressDispatcher dispatcher, SlabPacketAllocator allocator,
+                                               long requestId, String tenant) {
+        PacketRef ref = assertInstanceOf(LeaseResult.Granted.class, allocator.allocate(64, TAG)).packetRef();
+        InboundPacket packet = new InboundPacket(requestId, ProtocolKind.OTLP_GRPC, SignalKind.TRACES, ref, null, tenant);
+        EnqueueResult result = dispatcher.enqueue(packet);
+        ref.release();
+        return result;
+    }
+
+    private static EnqueueResult enqueueWithDeadline(AsyncIngressDispatcher dispatcher, SlabPacketAllocator allocator,
+                                                     long requestId, long deadlineNanos) {
+        AllocationTag tag = new AllocationTag(TAG.pipeline(), TAG.tenantId(), TAG.signalTypeCode(), deadlineNanos);
+        PacketRef ref = assertInstanceOf(LeaseResult.Granted.class, allocator.allocate(64, tag)).packetRef();
+        EnqueueResult result = dispatcher.enqueue(new InboundPacket(requestId, ProtocolKind.OTLP_GRPC, SignalKind.TRACES, ref));
+        ref.release();
+        return result;
+    }
+
+    private static EnqueueResult.Busy fillUntilBusy(AsyncIngressDispatcher dispatcher, SlabPacketAllocator allocator,
+                                                    long firstRequestId) {
+        for (long id = firstRequestId; id < firstRequestId + 100; id++) {
+            EnqueueResult result = enqueueResult(dispatcher, allocator, id, SignalKind.TRACES);
+            if (result instanceof EnqueueResult.Busy busy) {
+                return busy;
+            }
+        }
+        throw new AssertionError("lane never pushed back");
+    }
+
+    /** Worker counters are bumped after each pass, so they trail the processor slightly. */
+    private static List<DispatcherWorkerStats> awaitCounted(AsyncIngressDispatcher dispatcher, long expected)
+        throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        List<DispatcherWorkerStats> stats = dispatcher.workerStats();
+        while (stats.stream().mapToLong(DispatcherWorkerStats::processed).sum() < expected
+            && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            stats = dispatcher.workerStats();
+        }
+        return stats;
+    }
+
+    private static void awaitProcessed(Set<Long> processed, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (processed.size() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, processed.size());
+    }
+}
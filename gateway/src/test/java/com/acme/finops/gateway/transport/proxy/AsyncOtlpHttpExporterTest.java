@@ -1,8 +1,13 @@
 package com.acme.finops.gateway.transport.proxy;
 
+import com.acme.finops.gateway.memory.AllocationTag;
+import com.acme.finops.gateway.memory.LeaseResult;
 import com.acme.finops.gateway.memory.PacketDescriptor;
 import com.acme.finops.gateway.memory.PacketRef;
 import com.acme.finops.gateway.memory.PacketRefImpl;
+import com.acme.finops.gateway.memory.RegionStats;
+import com.acme.finops.gateway.memory.SlabBacking;
+import com.acme.finops.gateway.memory.SlabPacketAllocator;
 import com.acme.finops.gateway.transport.api.ProtocolKind;
 import com.acme.finops.gateway.transport.api.SignalKind;
 import org.junit.jupiter.api.Test;
@@ -30,6 +35,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -117,6 +123,35 @@ class AsyncOtlpHttpExporterTest {
         }
     }
 
+    @Test
+    void statsShouldReportInFlightAndLatency() throws Exception {
+        // Keep-alive upstream: a Connection: close reply could leave the second export on a closing pooled socket.
+        try (KeepAliveHttpServer server = new KeepAliveHttpServer(200);
+             AsyncOtlpHttpExporter exporter = new AsyncOtlpHttpExporter(
+                 server.uri("/v1/traces"),
+                 server.uri("/v1/metrics"),
+                 server.uri("/v1/logs"),
+                 Map.of(),
+                 8,
+                 1_000
+             )) {
+            assertEquals(8, exporter.stats().maxInFlight());
+            exporter.exportAsync(SignalKind.TRACES, new byte[]{0x01}, "application/x-protobuf").get(3, TimeUnit.SECONDS);
+            exporter.exportAsync(SignalKind.TRACES, new byte[]{0x02}, "application/x-protobuf").get(3, TimeUnit.SECONDS);
+
+            // Permit release and latency recording run in whenComplete, possibly just after get() returns.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            ExporterStats stats = exporter.stats();
+            while ((stats.inFlight() > 0 || stats.latencyMicros().count() < 2) && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+                stats = exporter.stats();
+            }
+            assertEquals(0, stats.inFlight());
+            assertEquals(0.0d, stats.inFlightRatio());
+            assertEquals(2L, stats.latencyMicros().count());
+        }
+    }
+
     @Test
     void shouldReleasePacketRefAfterExportCompletion() throws Exception {
         try (SimpleHttpServer server = new SimpleHttpServer(200);
@@ -143,6 +178,66 @@ class AsyncOtlpHttpExporterTest {
         }
     }
 
+    @Test
+    void shouldLetRegionHeldOnlyByInFlightExportReturnToFree() throws Exception {
+        try (HangingHttpServer server = new HangingHttpServer();
+             SlabPacketAllocator allocator = new SlabPacketAllocator(4096, 4, null, SlabBacking.ANONYMOUS, true);
+             AsyncOtlpHttpExporter exporter = new AsyncOtlpHttpExporter(
+                 server.uri("/v1/traces"),
+                 server.uri("/v1/metrics"),
+                 server.uri("/v1/logs"),
+                 Map.of(),
+                 1,
+                 10_000
+             )) {
+            PacketRef exported = granted(allocator.allocate(64, new AllocationTag("test", "export", 1)));
+            for (int i = 0; i < 15; i++) {
+                granted(allocator.allocate(64, new AllocationTag("test", "export", 1))).release();
+            }
+            PacketRef next = granted(allocator.allocate(64, new AllocationTag("test", "export", 1)));
+
+            var future = exporter.exportAsync(SignalKind.TRACES, exported, "application/x-protobuf");
+            exported.unpin(); // creation pin, as the pipeline drops it
+            exported.release(); // caller ownership
+            assertEquals(RegionStats.DRAINING, allocator.regionStats().get(0).state());
+
+            // The upstream never answers: once the request is written, nothing holds the packet.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+            while (allocator.regionStats().get(0).state() != RegionStats.FREE && System.nanoTime() < deadline) {
+                Thread.sleep(5L);
+            }
+            assertEquals(RegionStats.FREE, allocator.regionStats().get(0).state());
+            assertFalse(future.isDone(), "export is still awaiting the response");
+
+            next.release();
+            assertEquals(0L, allocator.stats().inUseBytes());
+        }
+    }
+
+    @Test
+    void shouldSkipExpiredPacketsWhenDropExpiredIsEnabled() throws Exception {
+        try (SimpleHttpServer server = new SimpleHttpServer(200);
+             AsyncOtlpHttpExporter exporter = new AsyncOtlpHttpExporter(
+                 server.uri("/v1/traces"),
+                 server.uri("/v1/metrics"),
+                 server.uri("/v1/logs"),
+                 Map.of(),
+                 8,
+                 1_000,
+                 1,
+                 1,
+                 true
+             )) {
+            PacketRef ref = packetRef(new byte[]{1, 2, 3}, System.nanoTime() - 1L);
+            var future = exporter.exportAsync(SignalKind.TRACES, ref, "application/x-protobuf");
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(3, TimeUnit.SECONDS));
+            assertInstanceOf(ExportDeadlineExceededException.class, failure.getCause());
+            assertEquals(1, ref.refCount(), "skipped export must not retain the caller's PacketRef");
+            ref.release();
+        }
+    }
+
     @Test
     void shouldReusePooledConnectionsWithKeepAlive() throws Exception {
         try (KeepAliveHttpServer server = new KeepAliveHttpServer(200);
@@ -205,7 +300,15 @@ class AsyncOtlpHttpExporterTest {
         }
     }
 
+    private static PacketRef granted(LeaseResult result) {
+        return assertInstanceOf(LeaseResult.Granted.class, result).packetRef();
+    }
+
     private static PacketRef packetRef(byte[] payload) {
+        return packetRef(payload, 0L);
+    }
+
+    private static PacketRef packetRef(byte[] payload, long deadlineNanos) {
         PacketDescriptor descriptor = new PacketDescriptor(
             1L,
             1L,
@@ -213,7 +316,8 @@ class AsyncOtlpHttpExporterTest {
             ProtocolKind.OTLP_HTTP_PROTO,
             0,
             payload.length,
-            System.nanoTime()
+            System.nanoTime(),
+            deadlineNanos
         );
         return new PacketRefImpl(1L, descriptor, MemorySegment.ofArray(payload), 0, payload.length);
     }
@@ -0,0 +1,249 @@
+package com.acme.finops.gateway.transport.proxy;
+
+import com.acme.finops.gateway.backpressure.DropDecision;
+import com.acme.finops.gateway.backpressure.Watermarks;
+import com.acme.finops.gateway.backpressure.WatermarkThrottleStrategy;
+import com.acme.finops.gateway.memory.AllocationTag;
+import com.acme.finops.gateway.memory.LeaseResult;
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.memory.SlabPacketAllocator;
+import com.acme.finops.gateway.policy.TenantQuotaAdmissionPolicy;
+import com.acme.finops.gateway.queue.BlockingWaitStrategy;
+import com.acme.finops.gateway.queue.QueueEnvelope;
+import com.acme.finops.gateway.queue.StripedMpscRing;
+import com.acme.finops.gateway.transport.api.InboundPacket;
+import com.acme.finops.gateway.transport.api.IngestResult;
+import com.acme.finops.gateway.transport.api.ProtocolKind;
+import com.acme.finops.gateway.transport.api.SignalKind;
+import com.acme.finops.gateway.transport.api.TransportAck;
+import com.acme.finops.gateway.wire.mutate.CompiledMaskingSnapshot;
+import com.acme.finops.gateway.wire.mutate.DefaultReframeWriter;
+import com.acme.finops.gateway.wire.mutate.MaskWriter;
+import com.acme.finops.gateway.wire.mutate.MaskingFixtures;
+import com.acme.finops.gateway.wire.mutate.MutationPlanValidator;
+import com.acme.finops.gateway.wire.mutate.PolicyDrivenMutationPlanner;
+import com.acme.finops.gateway.wire.mutate.ResourceAttributeTenantResolver;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.foreign.MemorySegment;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Platform-worker vs virtual-thread processing throughput through the real pipeline:
+ * resource-attribute tenant quotas, the masking planner with three rules and an export to
+ * a local upstream. The {@code blocking} workload also parks before each request, as a
+ * synchronous lookup would. Reports requests/second per mode and, for the virtual modes,
+ * how many virtual threads served them.
+ */
+@Tag("benchmark")
+class DispatcherVirtualThreadBenchmarkTest {
+    private static final int WORKERS = 2;
+    private static final int REQUESTS = 2_000;
+    private static final long BLOCKING_NANOS = 500_000L;
+    private static final AllocationTag TAG = new AllocationTag("bench", "tenant", 1);
+    private static final List<String> RULES = List.of(
+        "span-tenant|TRACES|REDACT_MASK|scopeSpans[*].spans[*].attributes.tenant_id||10|skip|true",
+        "event-name|TRACES|REDACT_MASK|scopeSpans[*].spans[*].events[*].name||11|skip|true",
+        "secret|TRACES|REDACT_MASK|resource.attributes.secret||12|skip|true");
+
+    @Test
+    void shouldComparePlatformAndVirtualThreadModes(TestReporter reporter) throws Exception {
+        byte[] payload = MaskingFixtures.traceRequest(2, 2, 2);
+        CompiledMaskingSnapshot snapshot = MaskingFixtures.snapshot(RULES);
+        try (SinkHttpServer upstream = new SinkHttpServer();
+             AsyncOtlpHttpExporter exporter = new AsyncOtlpHttpExporter(
+                 upstream.uri("/v1/traces"), upstream.uri("/v1/metrics"), upstream.uri("/v1/logs"), Map.of(), 4 * REQUESTS)) {
+            for (boolean blocking : new boolean[] {false, true}) {
+                String workload = blocking ? "blocking" : "pipeline";
+                report(reporter, workload, "platform", run(exporter, snapshot, payload, blocking, null));
+                report(reporter, workload, "virtual_request", run(exporter, snapshot, payload, blocking,
+                    new VirtualThreadExecution(VirtualThreadExecution.Granularity.REQUEST, 256)));
+                report(reporter, workload, "virtual_batch", run(exporter, snapshot, payload, blocking,
+                    new VirtualThreadExecution(VirtualThreadExecution.Granularity.BATCH, 256)));
+            }
+        }
+    }
+
+    private static void report(TestReporter reporter, String workload, String mode, Result result) {
+        reporter.publishEntry("dispatcher " + workload + " " + mode, String.format("%.0f req/s, %d virtual threads",
+            REQUESTS / (result.nanos() / 1e9d), result.threadsCreated()));
+    }
+
+    /** Times from the first enqueue until the last request is processed. */
+    private static Result run(AsyncOtlpHttpExporter exporter,
+                              CompiledMaskingSnapshot snapshot,
+                              byte[] payload,
+                              boolean blocking,
+                              VirtualThreadExecution execution) throws Exception {
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        LongAdder accepted = new LongAdder();
+        AtomicReference<OtlpProcessingPipeline> pipelineRef = new AtomicReference<>();
+        StripedMpscRing<QueueEnvelope> queue = new StripedMpscRing<>(4 * REQUESTS, WORKERS, QueueEnvelope::new);
+        int cap = queue.capacity();
+        AsyncIngressDispatcher dispatcher = new AsyncIngressDispatcher.Builder(
+            queue,
+            new WatermarkThrottleStrategy(0.0d, 0.0d, 1_000_000L),
+            new Watermarks(cap, cap, cap),
+            (ref, queueSnapshot, now) -> new DropDecision.Keep(),
+            packet -> {
+                if (blocking) {
+                    LockSupport.parkNanos(BLOCKING_NANOS);
+                }
+                IngestResult result = pipelineRef.get().processAdmitted(packet);
+                if (result instanceof IngestResult.Accepted) {
+                    accepted.increment();
+                }
+                done.countDown();
+                return result;
+            })
+            .workers(WORKERS)
+            .drainBatch(16)
+            .stealMinDepth(16)
+            .waitStrategy(new BlockingWaitStrategy(1_000_000L))
+            .virtualExecution(execution)
+            .build();
+        ResourceAttributeTenantResolver tenants = new ResourceAttributeTenantResolver("tenant_id");
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(16 * 1024 * 1024, 4)) {
+            pipelineRef.set(new OtlpProcessingPipeline(
+                exporter,
+                allocator,
+                new TenantQuotaAdmissionPolicy(0.0d, 0L, 1.0d, 64,
+                    context -> tenants.tenantOf(context.envelope(), context.tenantId())),
+                new PolicyDrivenMutationPlanner(() -> snapshot, 128),
+                new DefaultReframeWriter(),
+                new MutationPlanValidator(),
+                MaskWriter.scalar(),
+                false,
+                dispatcher,
+                null,
+                null));
+            InboundPacket[] packets = new InboundPacket[REQUESTS];
+            for (int i = 0; i < REQUESTS; i++) {
+                PacketRef ref = assertInstanceOf(LeaseResult.Granted.class, allocator.allocate(payload.length, TAG)).packetRef();
+                MemorySegment.copy(MemorySegment.ofArray(payload), 0L, ref.segment(), ref.offset(), payload.length);
+                packets[i] = new InboundPacket(i, ProtocolKind.OTLP_HTTP_PROTO, SignalKind.TRACES, ref, "application/x-protobuf");
+            }
+            dispatcher.start();
+            long start = System.nanoTime();
+            for (InboundPacket packet : packets) {
+                assertInstanceOf(TransportAck.class, pipelineRef.get().onPacket(packet));
+                packet.packetRef().release();
+            }
+            assertTrue(done.await(60, TimeUnit.SECONDS), "all requests should be processed");
+            long elapsed = System.nanoTime() - start;
+            dispatcher.stopAndDrain(Duration.ofSeconds(10));
+            assertEquals(REQUESTS, accepted.sum());
+            // Exports hold their packets until the upstream answers.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (allocator.liveAllocations() > 0L && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(1_000_000L);
+            }
+            assertEquals(0L, allocator.liveAllocations());
+            return new Result(elapsed, execution == null ? 0L : execution.stats().threadsCreated());
+        } finally {
+            dispatcher.stopAndDrain(Duration.ofSeconds(5));
+        }
+    }
+
+    private record Result(long nanos, long threadsCreated) {
+    }
+
+    /** Answers every request on a kept-alive connection with an empty 200. */
+    private static final class SinkHttpServer implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final ExecutorService connections;
+
+        private SinkHttpServer() throws IOException {
+            this.serverSocket = new ServerSocket(0);
+            this.connections = Executors.newCachedThreadPool();
+            this.connections.submit(this::acceptForever);
+        }
+
+        private void acceptForever() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.submit(() -> serve(socket));
+                } catch (IOException ignored) {
+                    if (serverSocket.isClosed()) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            byte[] response = "HTTP/1.1 200 OK\r\nContent-Length: 0\r\nConnection: keep-alive\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII);
+            try (socket) {
+                InputStream in = socket.getInputStream();
+                OutputStream out = socket.getOutputStream();
+                while (skipRequest(in)) {
+                    out.write(response);
+                    out.flush();
+                }
+            } catch (IOException ignored) {
+            }
+        }
+
+        /** Reads one request's headers and its Content-Length body; {@code false} at end of stream. */
+        private static boolean skipRequest(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            long contentLength = 0L;
+            while (true) {
+                int b = in.read();
+                if (b == -1) {
+                    return false;
+                }
+                if (b != '\n') {
+                    if (b != '\r') {
+                        line.append((char) b);
+                    }
+                    continue;
+                }
+                if (line.isEmpty()) {
+                    in.skipNBytes(contentLength);
+                    return true;
+                }
+                String header = line.toString();
+                if (header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    contentLength = Long.parseLong(header.substring(15).trim());
+                }
+                line.setLength(0);
+            }
+        }
+
+        private URI uri(String path) {
+            return URI.create("http://127.0.0.1:" + serverSocket.getLocalPort() + path);
+        }
+
+        @Override
+        public void close() throws Exception {
+            serverSocket.close();
+            connections.shutdownNow();
+            connections.awaitTermination(2, TimeUnit.SECONDS);
+        }
+    }
+}
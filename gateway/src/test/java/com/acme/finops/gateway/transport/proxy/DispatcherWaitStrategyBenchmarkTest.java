@@ -0,0 +1,125 @@
+package com.acme.finops.gateway.transport.proxy;
+
+import com.acme.finops.gateway.backpressure.DropDecision;
+import com.acme.finops.gateway.backpressure.Watermarks;
+import com.acme.finops.gateway.backpressure.WatermarkThrottleStrategy;
+import com.acme.finops.gateway.memory.AllocationTag;
+import com.acme.finops.gateway.memory.LeaseResult;
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.memory.SlabPacketAllocator;
+import com.acme.finops.gateway.queue.BlockingWaitStrategy;
+import com.acme.finops.gateway.queue.BusySpinWaitStrategy;
+import com.acme.finops.gateway.queue.PhasedBackoffWaitStrategy;
+import com.acme.finops.gateway.queue.QueueEnvelope;
+import com.acme.finops.gateway.queue.StripedMpscRing;
+import com.acme.finops.gateway.queue.WaitStrategy;
+import com.acme.finops.gateway.queue.YieldingWaitStrategy;
+import com.acme.finops.gateway.transport.api.InboundPacket;
+import com.acme.finops.gateway.transport.api.ProtocolKind;
+import com.acme.finops.gateway.transport.api.SignalKind;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Low-load enqueue-to-process latency vs worker CPU burn for each {@link WaitStrategy}.
+ * Requests arrive one at a time with a gap, so every one finds the worker idle. Reports
+ * p50/p99 latency and the worker's CPU share per strategy. The busy-spin run keeps a core
+ * at 100% while it lasts.
+ */
+@Tag("benchmark")
+class DispatcherWaitStrategyBenchmarkTest {
+    private static final int REQUESTS = 400;
+    private static final long GAP_NANOS = 200_000L;
+    private static final AllocationTag TAG = new AllocationTag("bench", "tenant", 1);
+
+    @Test
+    void shouldCompareLatencyAndCpuAcrossWaitStrategies(TestReporter reporter) throws Exception {
+        List<WaitStrategy> strategies = List.of(
+            BusySpinWaitStrategy.INSTANCE,
+            new YieldingWaitStrategy(100),
+            new PhasedBackoffWaitStrategy(20_000L, 100_000L, 10_000_000L),
+            new BlockingWaitStrategy(10_000_000L)
+        );
+        for (WaitStrategy strategy : strategies) {
+            Result r = run(strategy);
+            reporter.publishEntry("wait strategy " + strategy.name(), String.format("p50=%.1fus p99=%.1fus workerCpu=%.1f%%",
+                r.p50Nanos / 1e3d, r.p99Nanos / 1e3d, r.cpuShare * 100.0d));
+        }
+    }
+
+    private record Result(long p50Nanos, long p99Nanos, double cpuShare) {}
+
+    private static Result run(WaitStrategy strategy) throws Exception {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        long[] enqueuedAt = new long[REQUESTS];
+        long[] latency = new long[REQUESTS];
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        StripedMpscRing<QueueEnvelope> queue = new StripedMpscRing<>(1024, 1, QueueEnvelope::new);
+        AsyncIngressDispatcher dispatcher = new AsyncIngressDispatcher.Builder(
+            queue,
+            new WatermarkThrottleStrategy(0.0d, 0.0d, 1_000_000L),
+            new Watermarks(1024, 1024, 1024),
+            (ref, snapshot, now) -> new DropDecision.Keep(),
+            packet -> {
+                int i = (int) packet.requestId();
+                latency[i] = System.nanoTime() - enqueuedAt[i];
+                worker.compareAndSet(null, Thread.currentThread());
+                done.countDown();
+                return null;
+            })
+            .drainBatch(64)
+            .stealMinDepth(0)
+            .waitStrategy(strategy)
+            .build();
+        long cpuStart = -1;
+        long wallStart = 0;
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(1024 * 1024, 4)) {
+            dispatcher.start();
+            for (int i = 0; i < REQUESTS; i++) {
+                PacketRef ref = assertInstanceOf(LeaseResult.Granted.class, allocator.allocate(64, TAG)).packetRef();
+                InboundPacket packet = new InboundPacket(i, ProtocolKind.OTLP_GRPC, SignalKind.TRACES, ref);
+                enqueuedAt[i] = System.nanoTime();
+                assertInstanceOf(EnqueueResult.Accepted.class, dispatcher.enqueue(packet));
+                ref.release();
+                if (i == 0) {
+                    // First request publishes the worker thread; measure CPU from here on.
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                    while (worker.get() == null && System.nanoTime() < deadline) {
+                        Thread.sleep(1);
+                    }
+                    assertTrue(worker.get() != null, "first request should be processed");
+                    cpuStart = mx.getThreadCpuTime(worker.get().threadId());
+                    wallStart = System.nanoTime();
+                }
+                LockSupport.parkNanos(GAP_NANOS);
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS), "all requests should be processed");
+            long cpuEnd = mx.getThreadCpuTime(worker.get().threadId());
+            long wall = System.nanoTime() - wallStart;
+            long[] sorted = Arrays.copyOfRange(latency, 1, REQUESTS);
+            Arrays.sort(sorted);
+            return new Result(
+                sorted[sorted.length / 2],
+                sorted[(int) (sorted.length * 0.99)],
+                cpuStart < 0 ? 0.0d : (double) (cpuEnd - cpuStart) / wall
+            );
+        } finally {
+            dispatcher.stopAndDrain(Duration.ofSeconds(5));
+        }
+    }
+}
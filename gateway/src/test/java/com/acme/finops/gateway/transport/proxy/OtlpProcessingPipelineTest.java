@@ -1,5 +1,8 @@
 package com.acme.finops.gateway.transport.proxy;
 
+import com.acme.finops.gateway.backpressure.DropDecision;
+import com.acme.finops.gateway.backpressure.Watermarks;
+import com.acme.finops.gateway.backpressure.WatermarkThrottleStrategy;
 import com.acme.finops.gateway.memory.PacketDescriptor;
 import com.acme.finops.gateway.memory.PacketRef;
 import com.acme.finops.gateway.memory.PacketRefImpl;
@@ -8,6 +11,10 @@ import com.acme.finops.gateway.policy.AdmissionPolicy;
 import com.acme.finops.gateway.policy.PolicyContext;
 import com.acme.finops.gateway.policy.PolicyDecision;
 import com.acme.finops.gateway.policy.PolicyMode;
+import com.acme.finops.gateway.policy.TenantQuotaAdmissionPolicy;
+import com.acme.finops.gateway.policy.TenantQuotaStats;
+import com.acme.finops.gateway.queue.QueueEnvelope;
+import com.acme.finops.gateway.queue.StripedMpscRing;
 import com.acme.finops.gateway.transport.api.InboundPacket;
 import com.acme.finops.gateway.transport.api.ProtocolKind;
 import com.acme.finops.gateway.transport.api.SignalKind;
@@ -26,12 +33,18 @@ import java.lang.foreign.MemorySegment;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -339,6 +352,275 @@ class OtlpProcessingPipelineTest {
         }
     }
 
+    @Test
+    void shouldNackWithRetryAfterWhenTenantQuotaIsExceeded() throws Exception {
+        try (HangingHttpServer upstream = new HangingHttpServer();
+             AsyncOtlpHttpExporter exporter = new AsyncOtlpHttpExporter(
+                 upstream.uri("/v1/traces"),
+                 upstream.uri("/v1/metrics"),
+                 upstream.uri("/v1/logs"),
+                 Map.of(),
+                 8,
+                 300
+             );
+             SlabPacketAllocator allocator = new SlabPacketAllocator(4 * 1024 * 1024)) {
+            AtomicReference<String> seenTenant = new AtomicReference<>();
+            TenantQuotaAdmissionPolicy quotas = new TenantQuotaAdmissionPolicy(0.001d, 0L, 1.0d, 16, context -> {
+                seenTenant.set(context.tenantId());
+                return context.tenantId();
+            });
+            MutationPlanner planner = (packet, decision) -> new MutationPlan(
+                decision.requestId(), MutationPlan.PlanMode.DROP, null, null, null, packet.length(), 0, "test_drop");
+
+            OtlpProcessingPipeline pipeline = new OtlpProcessingPipeline(
+                exporter,
+                allocator,
+                quotas,
+                planner,
+                new com.acme.finops.gateway.wire.mutate.DefaultReframeWriter(),
+                new MutationPlanValidator(),
+                MaskWriter.scalar(),
+                false
+            );
+
+            PacketRef packetRef = packetRef(new byte[]{0x0A, 0x01, 0x01});
+            try {
+                InboundPacket packet = new InboundPacket(
+                    3L,
+                    ProtocolKind.OTLP_HTTP_PROTO,
+                    SignalKind.TRACES,
+                    packetRef,
+                    "application/x-protobuf",
+                    "acme"
+                );
+                assertInstanceOf(TransportAck.class, pipeline.onPacket(packet));
+                TransportNack nack = assertInstanceOf(TransportNack.class, pipeline.onPacket(packet));
+                assertEquals(429, nack.statusCode());
+                assertTrue(nack.retryable());
+                assertTrue(nack.retryAfterMillis() > 0L);
+                assertEquals("acme", seenTenant.get());
+                assertEquals(1L, quotas.stats().get(0).denied());
+            } finally {
+                packetRef.release();
+            }
+        }
+    }
+
+    @Test
+    void shouldApplyTenantQuotaBeforeDispatcherAck() throws Exception {
+        try (HangingHttpServer upstream = new HangingHttpServer();
+             AsyncOtlpHttpExporter exporter = new AsyncOtlpHttpExporter(
+                 upstream.uri("/v1/traces"),
+                 upstream.uri("/v1/metrics"),
+                 upstream.uri("/v1/logs"),
+                 Map.of(),
+                 8,
+                 300
+             );
+             SlabPacketAllocator allocator = new SlabPacketAllocator(4 * 1024 * 1024)) {
+            TenantQuotaAdmissionPolicy quotas = new TenantQuotaAdmissionPolicy(0.001d, 0L, 1.0d, 16);
+            AtomicReference<OtlpProcessingPipeline> pipelineRef = new AtomicReference<>();
+            AtomicInteger processed = new AtomicInteger();
+            StripedMpscRing<QueueEnvelope> queue = new StripedMpscRing<>(64, 1, QueueEnvelope::new);
+            AsyncIngressDispatcher dispatcher = new AsyncIngressDispatcher.Builder(
+                queue,
+                new WatermarkThrottleStrategy(0.0d, 0.0d, 1_000_000L),
+                new Watermarks(64, 64, 64),
+                (ref, snapshot, now) -> new DropDecision.Keep(),
+                inbound -> {
+                    processed.incrementAndGet();
+                    return pipelineRef.get().processAdmitted(inbound);
+                })
+                .build();
+            MutationPlanner planner = (packet, decision) -> new MutationPlan(
+                decision.requestId(), MutationPlan.PlanMode.DROP, null, null, null, packet.length(), 0, "test_drop");
+            OtlpProcessingPipeline pipeline = new OtlpProcessingPipeline(
+                exporter,
+                allocator,
+                quotas,
+                planner,
+                new com.acme.finops.gateway.wire.mutate.DefaultReframeWriter(),
+                new MutationPlanValidator(),
+                MaskWriter.scalar(),
+                false,
+                dispatcher,
+                null,
+                null
+            );
+            pipelineRef.set(pipeline);
+
+            PacketRef packetRef = packetRef(new byte[]{0x0A, 0x01, 0x01});
+            dispatcher.start();
+            try {
+                InboundPacket packet = new InboundPacket(
+                    4L, ProtocolKind.OTLP_HTTP_PROTO, SignalKind.TRACES, packetRef, "application/x-protobuf", "acme");
+                assertInstanceOf(TransportAck.class, pipeline.onPacket(packet));
+                TransportNack nack = assertInstanceOf(TransportNack.class, pipeline.onPacket(packet));
+                assertEquals(429, nack.statusCode());
+                assertTrue(nack.retryable());
+                assertTrue(nack.retryAfterMillis() > 0L);
+
+                dispatcher.stopAndDrain(Duration.ofSeconds(5));
+                assertEquals(1, processed.get(), "only the admitted packet is queued");
+                TenantQuotaStats acme = quotas.stats().get(0);
+                assertEquals(1L, acme.admitted(), "workers must not charge the quota a second time");
+                assertEquals(1L, acme.denied());
+            } finally {
+                dispatcher.close();
+                packetRef.release();
+            }
+        }
+    }
+
+    @Test
+    void shouldRefundTenantQuotaWhenQueueIsFull() throws Exception {
+        try (HangingHttpServer upstream = new HangingHttpServer();
+             AsyncOtlpHttpExporter exporter = new AsyncOtlpHttpExporter(
+                 upstream.uri("/v1/traces"),
+                 upstream.uri("/v1/metrics"),
+                 upstream.uri("/v1/logs"),
+                 Map.of(),
+                 8,
+                 300
+             );
+             SlabPacketAllocator allocator = new SlabPacketAllocator(4 * 1024 * 1024)) {
+            // One request per tenant until the test is long over.
+            TenantQuotaAdmissionPolicy quotas = new TenantQuotaAdmissionPolicy(0.001d, 0L, 1.0d, 16);
+            AtomicReference<OtlpProcessingPipeline> pipelineRef = new AtomicReference<>();
+            AtomicInteger processed = new AtomicInteger();
+            CountDownLatch unblock = new CountDownLatch(1);
+            StripedMpscRing<QueueEnvelope> queue = new StripedMpscRing<>(8, 1, QueueEnvelope::new);
+            AsyncIngressDispatcher dispatcher = new AsyncIngressDispatcher.Builder(
+                queue,
+                new WatermarkThrottleStrategy(0.0d, 0.0d, 1_000_000L),
+                new Watermarks(64, 64, 64),
+                (ref, snapshot, now) -> new DropDecision.Keep(),
+                inbound -> {
+                    processed.incrementAndGet();
+                    try {
+                        unblock.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return pipelineRef.get().processAdmitted(inbound);
+                })
+                .build();
+            MutationPlanner planner = (packet, decision) -> new MutationPlan(
+                decision.requestId(), MutationPlan.PlanMode.DROP, null, null, null, packet.length(), 0, "test_drop");
+            OtlpProcessingPipeline pipeline = new OtlpProcessingPipeline(
+                exporter,
+                allocator,
+                quotas,
+                planner,
+                new com.acme.finops.gateway.wire.mutate.DefaultReframeWriter(),
+                new MutationPlanValidator(),
+                MaskWriter.scalar(),
+                false,
+                dispatcher,
+                null,
+                null
+            );
+            pipelineRef.set(pipeline);
+
+            PacketRef packetRef = packetRef(new byte[]{0x0A, 0x01, 0x01});
+            List<PacketRef> fillers = new ArrayList<>();
+            dispatcher.start();
+            try {
+                // Park the worker on one packet, then fill the queue behind it.
+                assertInstanceOf(EnqueueResult.Accepted.class, dispatcher.enqueue(filler(fillers)));
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (processed.get() == 0 && System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+                int queued = 1;
+                while (dispatcher.enqueue(filler(fillers)) instanceof EnqueueResult.Accepted) {
+                    queued++;
+                }
+
+                InboundPacket acme = new InboundPacket(
+                    3L, ProtocolKind.OTLP_HTTP_PROTO, SignalKind.TRACES, packetRef, "application/x-protobuf", "acme");
+                TransportNack full = assertInstanceOf(TransportNack.class, pipeline.onPacket(acme));
+                assertEquals(429, full.statusCode());
+                assertEquals(List.of(new TenantQuotaStats("acme", 0L, 0L, 0L, 0L)), quotas.stats(),
+                    "a request the queue refused must not stay charged to the tenant");
+
+                unblock.countDown();
+                while ((processed.get() < queued || queue.sizeApprox() > 0) && System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+                assertInstanceOf(TransportAck.class, pipeline.onPacket(acme), "the retry must find the bucket unchanged");
+            } finally {
+                unblock.countDown();
+                dispatcher.stopAndDrain(Duration.ofSeconds(5));
+                dispatcher.close();
+                packetRef.release();
+                fillers.forEach(PacketRef::release);
+            }
+        }
+    }
+
+    private static InboundPacket filler(List<PacketRef> fillers) {
+        PacketRef ref = packetRef(new byte[]{0x0A, 0x01, 0x01});
+        fillers.add(ref);
+        return new InboundPacket(
+            100L + fillers.size(), ProtocolKind.OTLP_HTTP_PROTO, SignalKind.TRACES, ref, "application/x-protobuf", "filler");
+    }
+
+    @Test
+    void shouldRejectExpiredPacketsBeforeProcessing() throws Exception {
+        try (HangingHttpServer upstream = new HangingHttpServer();
+             AsyncOtlpHttpExporter exporter = new AsyncOtlpHttpExporter(
+                 upstream.uri("/v1/traces"),
+                 upstream.uri("/v1/metrics"),
+                 upstream.uri("/v1/logs"),
+                 Map.of(),
+                 8,
+                 300
+             );
+             SlabPacketAllocator allocator = new SlabPacketAllocator(4 * 1024 * 1024)) {
+            AdmissionPolicy mustNotRun = new AdmissionPolicy() {
+                @Override
+                public PolicyMode mode() {
+                    return PolicyMode.FAIL_CLOSED;
+                }
+
+                @Override
+                public PolicyDecision evaluate(PolicyContext context) {
+                    throw new AssertionError("policy should not run for an expired packet");
+                }
+            };
+
+            OtlpProcessingPipeline pipeline = new OtlpProcessingPipeline(
+                exporter,
+                allocator,
+                mustNotRun,
+                (packet, decision) -> {
+                    throw new AssertionError("planner should not run for an expired packet");
+                },
+                new com.acme.finops.gateway.wire.mutate.DefaultReframeWriter(),
+                new MutationPlanValidator(),
+                MaskWriter.scalar(),
+                false
+            );
+
+            PacketRef packetRef = packetRef(new byte[]{0x0A, 0x01, 0x01}, System.nanoTime() - 1L);
+            try {
+                var response = pipeline.onPacket(new InboundPacket(
+                    3L,
+                    ProtocolKind.OTLP_HTTP_PROTO,
+                    SignalKind.TRACES,
+                    packetRef,
+                    "application/x-protobuf"
+                ));
+                TransportNack nack = assertInstanceOf(TransportNack.class, response);
+                assertEquals(504, nack.statusCode());
+                assertFalse(nack.retryable());
+            } finally {
+                packetRef.release();
+            }
+        }
+    }
+
     @Test
     void shouldRejectInvalidMutationPlan() throws Exception {
         try (HangingHttpServer upstream = new HangingHttpServer();
@@ -744,6 +1026,10 @@ class OtlpProcessingPipelineTest {
     }
 
     private static PacketRef packetRef(byte[] payload) {
+        return packetRef(payload, 0L);
+    }
+
+    private static PacketRef packetRef(byte[] payload, long deadlineNanos) {
         PacketDescriptor descriptor = new PacketDescriptor(
             1L,
             1L,
@@ -751,7 +1037,8 @@ class OtlpProcessingPipelineTest {
             ProtocolKind.OTLP_HTTP_PROTO,
             0,
             payload.length,
-            System.nanoTime()
+            System.nanoTime(),
+            deadlineNanos
         );
         return new PacketRefImpl(1L, descriptor, MemorySegment.ofArray(payload), 0, payload.length);
     }
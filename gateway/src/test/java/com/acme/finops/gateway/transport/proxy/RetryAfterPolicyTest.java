@@ -0,0 +1,64 @@
+package com.acme.finops.gateway.transport.proxy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryAfterPolicyTest {
+
+    @Test
+    void shouldClampWithoutJitter() {
+        RetryAfterPolicy policy = new RetryAfterPolicy(25L, 5_000L, 0, 1_000_000_000L);
+        assertEquals(25L, policy.retryAfterMillis(0L));
+        assertEquals(25L, policy.retryAfterMillis(-1L));
+        assertEquals(1_234L, policy.retryAfterMillis(1_234L));
+        assertEquals(5_000L, policy.retryAfterMillis(60_000L));
+    }
+
+    @Test
+    void jitterShouldOnlyStretchUpToPercent() {
+        RetryAfterPolicy policy = new RetryAfterPolicy(25L, 5_000L, 20, 1_000_000_000L);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < 2_000; i++) {
+            long hint = policy.retryAfterMillis(1_000L);
+            min = Math.min(min, hint);
+            max = Math.max(max, hint);
+        }
+        assertTrue(min >= 1_000L && max <= 1_200L, "range: " + min + ".." + max);
+        assertTrue(max > min, "hints should be spread");
+    }
+
+    @Test
+    void wholeSecondHintsShouldKeepTheirSpread() {
+        RetryAfterPolicy policy = new RetryAfterPolicy(25L, 5_000L, 20, 1_000_000_000L);
+        Set<Long> subSecond = new TreeSet<>();
+        Set<Long> fourSeconds = new TreeSet<>();
+        for (int i = 0; i < 2_000; i++) {
+            subSecond.add(policy.retryAfterMillis(300L, true));
+            fourSeconds.add(policy.retryAfterMillis(3_500L, true));
+        }
+        // Rounded up to seconds first, then spread over at least two whole seconds.
+        assertEquals(Set.of(1_000L, 2_000L), subSecond);
+        assertEquals(Set.of(4_000L, 5_000L), fourSeconds);
+        long millis = policy.retryAfterMillis(1_234L, false);
+        assertTrue(millis >= 1_234L && millis <= 1_480L, "millisecond hint: " + millis);
+
+        RetryAfterPolicy exact = new RetryAfterPolicy(25L, 5_000L, 0, 1_000_000_000L);
+        assertEquals(1_000L, exact.retryAfterMillis(300L, true));
+        assertEquals(5_000L, exact.retryAfterMillis(60_000L, true));
+    }
+
+    @Test
+    void shouldRejectInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new RetryAfterPolicy(0L, 10L, 0, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new RetryAfterPolicy(10L, 5L, 0, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new RetryAfterPolicy(1L, 5L, 101, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new RetryAfterPolicy(1L, 5L, 0, 0L));
+    }
+}
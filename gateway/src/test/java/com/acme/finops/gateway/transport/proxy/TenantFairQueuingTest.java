@@ -0,0 +1,89 @@
+package com.acme.finops.gateway.transport.proxy;
+
+import com.acme.finops.gateway.transport.api.InboundPacket;
+import com.acme.finops.gateway.transport.api.ProtocolKind;
+import com.acme.finops.gateway.transport.api.SignalKind;
+import com.acme.finops.gateway.util.TenantRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TenantFairQueuingTest {
+
+    @Test
+    void shouldBoundDepthPerTenant() {
+        TenantFairQueuing fq = new TenantFairQueuing(InboundPacket::tenantId, 3, 16, 42L);
+        int a = fq.admit(packet("a"));
+        for (int i = 0; i < 2; i++) {
+            assertEquals(a, fq.admit(packet("a")));
+        }
+        assertEquals(-1, fq.admit(packet("a")));
+        assertTrue(fq.admit(packet("b")) > 0, "other tenants keep their own bound");
+
+        fq.cancel(a);
+        assertEquals(a, fq.admit(packet("a")));
+
+        TenantQueueStats stats = stats(fq, "a");
+        assertEquals(3, stats.depth());
+        assertEquals(3L, stats.enqueued());
+        assertEquals(1L, stats.rejected());
+    }
+
+    @Test
+    void shouldRecordQueueDelayOnDequeue() {
+        TenantFairQueuing fq = new TenantFairQueuing(InboundPacket::tenantId, 1_000, 16, 42L);
+        int flow = fq.admit(packet("a"));
+        for (int i = 0; i < 99; i++) {
+            fq.admit(packet("a"));
+        }
+        for (int i = 0; i < 99; i++) {
+            fq.onDequeue(flow, 10_000L);
+        }
+        fq.onDequeue(flow, 5_000_000L);
+
+        TenantQueueStats stats = stats(fq, "a");
+        assertEquals(0, stats.depth());
+        assertEquals(100L, stats.dequeued());
+        assertEquals(99L * 10_000L + 5_000_000L, stats.delayNanosTotal());
+        // 10us lands in the [8us, 16us) bucket; the single 5ms outlier is the 100th percentile.
+        assertEquals(16_000L, stats.delayP99Nanos());
+    }
+
+    @Test
+    void shouldPlaceTenantOnStableShard() {
+        TenantFairQueuing fq = new TenantFairQueuing(InboundPacket::tenantId, 10, 16, 42L);
+        int flow = fq.admit(packet("a"));
+        int shard = fq.shardFor(flow, 8);
+        assertEquals(flow, fq.admit(packet("a")));
+        assertEquals(shard, fq.shardFor(flow, 8));
+        assertTrue(shard >= 0 && shard < 8);
+    }
+
+    @Test
+    void shouldFoldUntrackedTenantsIntoOverflow() {
+        TenantFairQueuing fq = new TenantFairQueuing(InboundPacket::tenantId, 10, 2, 42L);
+        int a = fq.admit(packet("a"));
+        int unknown = fq.admit(packet(null));
+        int c = fq.admit(packet("c"));
+        int d = fq.admit(packet("d"));
+
+        assertTrue(a > 0 && unknown > 0 && a != unknown);
+        assertEquals(0, c);
+        assertEquals(0, d);
+        List<TenantQueueStats> stats = fq.stats();
+        assertEquals(List.of(TenantRegistry.OVERFLOW_TENANT, "a", TenantRegistry.UNKNOWN_TENANT),
+            stats.stream().map(TenantQueueStats::tenant).toList());
+        assertEquals(2, stats.get(0).depth());
+    }
+
+    private static TenantQueueStats stats(TenantFairQueuing fq, String tenant) {
+        return fq.stats().stream().filter(s -> s.tenant().equals(tenant)).findFirst().orElseThrow();
+    }
+
+    private static InboundPacket packet(String tenant) {
+        return new InboundPacket(1L, ProtocolKind.OTLP_GRPC, SignalKind.TRACES, null, null, tenant);
+    }
+}
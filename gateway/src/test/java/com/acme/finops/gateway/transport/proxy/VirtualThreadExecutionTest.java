@@ -0,0 +1,164 @@
+package com.acme.finops.gateway.transport.proxy;
+
+import com.acme.finops.gateway.backpressure.DropDecision;
+import com.acme.finops.gateway.backpressure.Watermarks;
+import com.acme.finops.gateway.backpressure.WatermarkThrottleStrategy;
+import com.acme.finops.gateway.memory.AllocationTag;
+import com.acme.finops.gateway.memory.LeaseResult;
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.memory.SlabPacketAllocator;
+import com.acme.finops.gateway.queue.BlockingWaitStrategy;
+import com.acme.finops.gateway.queue.QueueEnvelope;
+import com.acme.finops.gateway.queue.StripedMpscRing;
+import com.acme.finops.gateway.transport.api.InboundPacket;
+import com.acme.finops.gateway.transport.api.ProtocolKind;
+import com.acme.finops.gateway.transport.api.SignalKind;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadExecutionTest {
+    private static final AllocationTag TAG = new AllocationTag("vt", "tenant", 1);
+
+    @Test
+    void shouldBoundInFlightTasksAndBlockSubmitter() throws Exception {
+        VirtualThreadExecution execution = new VirtualThreadExecution(VirtualThreadExecution.Granularity.REQUEST, 4);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Thread submitter = new Thread(() -> {
+            for (int i = 0; i < 16; i++) {
+                execution.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                });
+            }
+        });
+        submitter.start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (execution.stats().inFlight() < 4 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(20);
+        assertEquals(4, execution.stats().inFlight());
+        assertEquals(4L, execution.stats().started());
+        assertTrue(submitter.isAlive(), "fifth submit should block on the bound");
+        assertFalse(execution.awaitQuiescence(TimeUnit.MILLISECONDS.toNanos(10)));
+
+        release.countDown();
+        submitter.join(5_000L);
+        assertTrue(execution.awaitQuiescence(TimeUnit.SECONDS.toNanos(5)));
+        VirtualThreadStats stats = execution.stats();
+        assertEquals(16L, stats.started());
+        assertEquals(0, stats.inFlight());
+        assertTrue(stats.permitWaits() > 0L);
+        assertTrue(maxRunning.get() <= 4, "max concurrent " + maxRunning.get());
+    }
+
+    @Test
+    void shouldReuseVirtualThreadsSoThreadLocalsSurviveAcrossTasks() throws Exception {
+        VirtualThreadExecution execution = new VirtualThreadExecution(VirtualThreadExecution.Granularity.REQUEST, 2);
+        AtomicInteger initialized = new AtomicInteger();
+        ThreadLocal<Object> scratch = ThreadLocal.withInitial(() -> {
+            initialized.incrementAndGet();
+            return new Object();
+        });
+        AtomicInteger onPlatformThread = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            execution.submit(() -> {
+                if (!Thread.currentThread().isVirtual()) {
+                    onPlatformThread.incrementAndGet();
+                }
+                scratch.get();
+            });
+        }
+        assertTrue(execution.awaitQuiescence(TimeUnit.SECONDS.toNanos(5)));
+
+        assertEquals(0, onPlatformThread.get());
+        assertEquals(100L, execution.stats().started());
+        assertTrue(execution.stats().threadsCreated() <= 2, "threads created " + execution.stats().threadsCreated());
+        assertTrue(initialized.get() <= 2, "scratch built " + initialized.get() + " times");
+    }
+
+    @Test
+    void perRequestModeShouldProcessOnVirtualThreadsAndReleaseRefs() throws Exception {
+        assertDispatcherMode(VirtualThreadExecution.Granularity.REQUEST);
+    }
+
+    @Test
+    void perBatchModeShouldProcessOnVirtualThreadsAndReleaseRefs() throws Exception {
+        assertDispatcherMode(VirtualThreadExecution.Granularity.BATCH);
+    }
+
+    private static void assertDispatcherMode(VirtualThreadExecution.Granularity granularity) throws Exception {
+        int packets = 300;
+        VirtualThreadExecution execution = new VirtualThreadExecution(granularity, 8);
+        Set<Long> processed = ConcurrentHashMap.newKeySet();
+        AtomicInteger onPlatformThread = new AtomicInteger();
+        StripedMpscRing<QueueEnvelope> queue = new StripedMpscRing<>(1024, 2, QueueEnvelope::new);
+        AsyncIngressDispatcher dispatcher = new AsyncIngressDispatcher.Builder(
+            queue,
+            new WatermarkThrottleStrategy(0.0d, 0.0d, 1_000_000L),
+            new Watermarks(1024, 1024, 1024),
+            (ref, snapshot, now) -> new DropDecision.Keep(),
+            packet -> {
+                if (!Thread.currentThread().isVirtual()) {
+                    onPlatformThread.incrementAndGet();
+                }
+                // Blocking is the point of this mode.
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                processed.add(packet.requestId());
+                return null;
+            })
+            .workers(2)
+            .drainBatch(16)
+            .stealMinDepth(1)
+            .waitStrategy(new BlockingWaitStrategy(1_000_000L))
+            .virtualExecution(execution)
+            .build();
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(1024 * 1024, 4)) {
+            dispatcher.start();
+            for (int i = 0; i < packets; i++) {
+                PacketRef ref = assertInstanceOf(LeaseResult.Granted.class, allocator.allocate(64, TAG)).packetRef();
+                InboundPacket packet = new InboundPacket(i, ProtocolKind.OTLP_GRPC, SignalKind.TRACES, ref);
+                assertInstanceOf(EnqueueResult.Accepted.class, dispatcher.enqueue(packet));
+                ref.release();
+            }
+            dispatcher.stopAndDrain(Duration.ofSeconds(10));
+
+            assertEquals(packets, processed.size());
+            assertEquals(0, onPlatformThread.get());
+            assertEquals(0L, allocator.liveAllocations(), "virtual threads must release queue-owned refs");
+            assertEquals(0, execution.stats().inFlight());
+            if (granularity == VirtualThreadExecution.Granularity.REQUEST) {
+                assertEquals(packets, execution.stats().started());
+            } else {
+                assertTrue(execution.stats().started() <= packets);
+            }
+            assertTrue(execution.stats().threadsCreated() <= 8, "threads are reused: " + execution.stats());
+        } finally {
+            dispatcher.stopAndDrain(Duration.ofSeconds(5));
+        }
+    }
+}
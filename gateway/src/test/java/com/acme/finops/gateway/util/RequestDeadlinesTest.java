@@ -0,0 +1,53 @@
+package com.acme.finops.gateway.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestDeadlinesTest {
+
+    @Test
+    void shouldParseGrpcTimeoutUnits() {
+        assertEquals(2L * 3_600_000_000_000L, RequestDeadlines.parseGrpcTimeoutNanos("2H"));
+        assertEquals(3L * 60_000_000_000L, RequestDeadlines.parseGrpcTimeoutNanos("3M"));
+        assertEquals(10_000_000_000L, RequestDeadlines.parseGrpcTimeoutNanos("10S"));
+        assertEquals(250_000_000L, RequestDeadlines.parseGrpcTimeoutNanos("250m"));
+        assertEquals(99_999_999_000L, RequestDeadlines.parseGrpcTimeoutNanos("99999999u"));
+        assertEquals(5L, RequestDeadlines.parseGrpcTimeoutNanos("5n"));
+        assertEquals(0L, RequestDeadlines.parseGrpcTimeoutNanos("0m"));
+    }
+
+    @Test
+    void shouldRejectMalformedGrpcTimeouts() {
+        assertEquals(RequestDeadlines.NO_TIMEOUT, RequestDeadlines.parseGrpcTimeoutNanos(null));
+        assertEquals(RequestDeadlines.NO_TIMEOUT, RequestDeadlines.parseGrpcTimeoutNanos("S"));
+        assertEquals(RequestDeadlines.NO_TIMEOUT, RequestDeadlines.parseGrpcTimeoutNanos("10"));
+        assertEquals(RequestDeadlines.NO_TIMEOUT, RequestDeadlines.parseGrpcTimeoutNanos("10s"));
+        assertEquals(RequestDeadlines.NO_TIMEOUT, RequestDeadlines.parseGrpcTimeoutNanos("-1S"));
+        assertEquals(RequestDeadlines.NO_TIMEOUT, RequestDeadlines.parseGrpcTimeoutNanos("123456789S"));
+        // Eight digits of hours do not fit the comparable range and count as no deadline.
+        assertEquals(RequestDeadlines.NO_TIMEOUT, RequestDeadlines.parseGrpcTimeoutNanos("99999999H"));
+    }
+
+    @Test
+    void shouldParseMillisTimeouts() {
+        assertEquals(15_000_000_000L, RequestDeadlines.parseMillisTimeoutNanos("15000"));
+        assertEquals(RequestDeadlines.NO_TIMEOUT, RequestDeadlines.parseMillisTimeoutNanos(""));
+        assertEquals(RequestDeadlines.NO_TIMEOUT, RequestDeadlines.parseMillisTimeoutNanos("1.5"));
+    }
+
+    @Test
+    void shouldTurnTimeoutIntoNonZeroDeadline() {
+        assertEquals(0L, RequestDeadlines.deadlineFrom(RequestDeadlines.NO_TIMEOUT, 100L));
+        assertEquals(150L, RequestDeadlines.deadlineFrom(50L, 100L));
+        assertEquals(1L, RequestDeadlines.deadlineFrom(0L, 0L));
+        assertEquals(Long.MIN_VALUE + 9L, RequestDeadlines.deadlineFrom(10L, Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldRoundRetryAfterUpToWholeSeconds() {
+        assertEquals(1L, RequestDeadlines.retryAfterSeconds(25L));
+        assertEquals(1L, RequestDeadlines.retryAfterSeconds(1_000L));
+        assertEquals(2L, RequestDeadlines.retryAfterSeconds(1_001L));
+    }
+}
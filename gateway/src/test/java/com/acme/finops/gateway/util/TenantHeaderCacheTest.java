@@ -0,0 +1,29 @@
+package com.acme.finops.gateway.util;
+
+import io.netty.util.AsciiString;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TenantHeaderCacheTest {
+
+    @Test
+    void shouldReuseDecodedTenantForRepeatedValue() {
+        TenantHeaderCache cache = new TenantHeaderCache();
+        String first = cache.tenantOf(new AsciiString("acme"), "fallback");
+
+        assertEquals("acme", first);
+        assertSame(first, cache.tenantOf(new AsciiString("acme"), "fallback"));
+        assertEquals("globex", cache.tenantOf("globex", "fallback"));
+    }
+
+    @Test
+    void shouldFallBackForMissingEmptyOrOversizedValue() {
+        TenantHeaderCache cache = new TenantHeaderCache();
+
+        assertEquals("fallback", cache.tenantOf(null, "fallback"));
+        assertEquals("fallback", cache.tenantOf("", "fallback"));
+        assertEquals("fallback", cache.tenantOf("x".repeat(TenantHeaderCache.MAX_TENANT_LENGTH + 1), "fallback"));
+    }
+}
@@ -0,0 +1,33 @@
+package com.acme.finops.gateway.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TenantRegistryTest {
+
+    @Test
+    void shouldAssignSlotsInFirstSeenOrderAndFoldTheRestIntoOverflow() {
+        TenantRegistry<String> registry = new TenantRegistry<>(2, (tenant, slot) -> slot + ":" + tenant);
+
+        assertEquals("1:acme", registry.entryFor("acme"));
+        assertEquals("2:" + TenantRegistry.UNKNOWN_TENANT, registry.entryFor(null));
+        assertSame(registry.entryFor(""), registry.entryFor(null));
+        assertSame(registry.overflow(), registry.entryFor("globex"));
+        assertEquals("1:acme", registry.entryFor("acme"));
+
+        assertEquals("0:" + TenantRegistry.OVERFLOW_TENANT, registry.entry(TenantRegistry.OVERFLOW_SLOT));
+        assertEquals("1:acme", registry.entry(1));
+        assertEquals(List.of("0:_other", "1:acme", "2:_unknown"), registry.entries());
+    }
+
+    @Test
+    void shouldMapTheOverflowNameToTheOverflowEntry() {
+        TenantRegistry<String> registry = new TenantRegistry<>(8, (tenant, slot) -> slot + ":" + tenant);
+        assertSame(registry.overflow(), registry.entryFor(TenantRegistry.OVERFLOW_TENANT));
+        assertEquals(1, registry.entries().size());
+    }
+}
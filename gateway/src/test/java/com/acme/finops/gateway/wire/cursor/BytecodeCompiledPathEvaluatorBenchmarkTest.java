@@ -0,0 +1,70 @@
+package com.acme.finops.gateway.wire.cursor;
+
+import com.acme.finops.gateway.policy.CompiledPath;
+import com.acme.finops.gateway.policy.PathStringPool;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.lang.foreign.MemorySegment;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Interpreter vs generated kernel on the path shapes of {@code CompiledPathPipelineTest}:
+ * a resource attribute, a span attribute under two wildcards, and all event names under
+ * three. Reports ns per evaluation; a kernel that finds different matches than the
+ * interpreter fails the run.
+ */
+@Tag("benchmark")
+class BytecodeCompiledPathEvaluatorBenchmarkTest {
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 50_000;
+
+    @Test
+    void shouldCompareInterpreterAndCompiledKernels(TestReporter reporter) {
+        PathStringPool pool = new PathStringPool();
+        BytecodeCompiledPathEvaluator interpreted = new BytecodeCompiledPathEvaluator(pool::resolve, false);
+        BytecodeCompiledPathEvaluator compiled = new BytecodeCompiledPathEvaluator(pool::resolve);
+        byte[] payload = PathKernelCompilerTest.traceRequest(2, 2, 2);
+        MemorySegment segment = MemorySegment.ofArray(payload);
+
+        for (String source : List.of(
+            "resource.attributes.tenant_id",
+            "scopeSpans[*].spans[*].attributes.tenant_id",
+            "scopeSpans[*].spans[*].events[*].name")) {
+            CompiledPath path = PathKernelCompilerTest.compile(pool, source);
+            assertTrue(compiled.kernelFor(path).getClass().isHidden(), source);
+
+            long interpretedMatches = run(interpreted, path, segment, WARMUP_ROUNDS);
+            long compiledMatches = run(compiled, path, segment, WARMUP_ROUNDS);
+            assertEquals(interpretedMatches, compiledMatches, source);
+            assertTrue(compiledMatches > 0L, source);
+
+            long interpretedNanos = time(interpreted, path, segment);
+            long compiledNanos = time(compiled, path, segment);
+            reporter.publishEntry("path " + source, String.format("interpreted=%.1fns compiled=%.1fns speedup=%.2fx",
+                interpretedNanos / (double) MEASURED_ROUNDS,
+                compiledNanos / (double) MEASURED_ROUNDS,
+                interpretedNanos / (double) Math.max(1L, compiledNanos)));
+        }
+    }
+
+    private static long time(BytecodeCompiledPathEvaluator evaluator, CompiledPath path, MemorySegment segment) {
+        long start = System.nanoTime();
+        run(evaluator, path, segment, MEASURED_ROUNDS);
+        return System.nanoTime() - start;
+    }
+
+    private static long run(BytecodeCompiledPathEvaluator evaluator, CompiledPath path, MemorySegment segment, int rounds) {
+        DefaultEvalScratch scratch = new DefaultEvalScratch();
+        int length = (int) segment.byteSize();
+        long matches = 0L;
+        for (int i = 0; i < rounds; i++) {
+            matches += evaluator.evaluateAll(path, segment, 0, length, scratch, (offset, len, type) -> true);
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,148 @@
+package com.acme.finops.gateway.wire.cursor;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.foreign.MemorySegment;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Eight-byte varint decoding vs the cursor's byte-at-a-time path, on OTLP-like streams:
+ * tag/size pairs (mostly one-byte tags, sizes of one to three bytes) and int64 values of
+ * every length, where both decoders must return the same sums. Also reports the field rate
+ * of {@code nextField} over a trace request.
+ */
+@Tag("benchmark")
+class FastWireCursorBenchmarkTest {
+    private static final int VARINTS = 4_096;
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 5_000;
+
+    @Test
+    void shouldCompareEightByteAndBytewiseVarintDecoding(TestReporter reporter) {
+        Random random = new Random(49L);
+        compare(reporter, "tag+size", tagsAndSizes(random));
+        compare(reporter, "int64", int64Values(random));
+    }
+
+    @Test
+    void shouldReportNextFieldRate(TestReporter reporter) throws WireException {
+        byte[] payload = PathKernelCompilerTest.traceRequest(8, 4, 3);
+        MemorySegment segment = MemorySegment.ofArray(payload);
+        FastWireCursor cursor = new FastWireCursor();
+        long fields = 0L;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            fields += walk(cursor, segment, payload.length);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            fields += walk(cursor, segment, payload.length);
+        }
+        long nanos = System.nanoTime() - start;
+        long perRound = fields / (WARMUP_ROUNDS + MEASURED_ROUNDS);
+        reporter.publishEntry("nextField", String.format("%d-byte trace request: %d fields, %.2fns/field",
+            payload.length, perRound, nanos / (double) (perRound * MEASURED_ROUNDS)));
+    }
+
+    private static void compare(TestReporter reporter, String name, byte[] stream) {
+        MemorySegment segment = MemorySegment.ofArray(stream);
+        FastWireCursor cursor = new FastWireCursor();
+        long expected = 0L;
+        long actual = 0L;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            expected += bytewise(cursor, segment, stream.length);
+            actual += eightByte(cursor, segment, stream.length);
+        }
+        assertEquals(expected, actual, name);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            expected += bytewise(cursor, segment, stream.length);
+        }
+        long bytewiseNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            actual += eightByte(cursor, segment, stream.length);
+        }
+        long eightByteNanos = System.nanoTime() - start;
+        assertEquals(expected, actual, name);
+        reporter.publishEntry(name + " varints", String.format("bytewise=%.2fns eight-byte=%.2fns speedup=%.2fx",
+            bytewiseNanos / (double) (MEASURED_ROUNDS * (long) VARINTS),
+            eightByteNanos / (double) (MEASURED_ROUNDS * (long) VARINTS),
+            bytewiseNanos / (double) Math.max(1L, eightByteNanos)));
+    }
+
+    private static long eightByte(FastWireCursor cursor, MemorySegment segment, int length) {
+        cursor.reset(segment, 0, length);
+        long sum = 0L;
+        try {
+            while (cursor.remaining() > 0) {
+                sum += cursor.readVarint64();
+            }
+        } catch (WireException e) {
+            throw new AssertionError(e);
+        }
+        return sum;
+    }
+
+    /** The byte-at-a-time path, which the cursor now keeps for frame tails only. */
+    private static long bytewise(FastWireCursor cursor, MemorySegment segment, int length) {
+        cursor.reset(segment, 0, length);
+        long sum = 0L;
+        try {
+            while (cursor.remaining() > 0) {
+                sum += cursor.readVarint64Bytewise();
+            }
+        } catch (WireException e) {
+            throw new AssertionError(e);
+        }
+        return sum;
+    }
+
+    private static long walk(FastWireCursor cursor, MemorySegment segment, int length) {
+        cursor.reset(segment, 0, length);
+        long fields = 0L;
+        try {
+            while (cursor.nextField()) {
+                fields++;
+                if (cursor.wireType() == 2 && cursor.fieldNumber() != 2) {
+                    cursor.enterMessage();
+                    while (cursor.nextField()) {
+                        fields++;
+                    }
+                    cursor.leaveMessage();
+                }
+            }
+        } catch (WireException e) {
+            throw new AssertionError(e);
+        }
+        return fields;
+    }
+
+    /** Tags of fields 1-15 nine times in ten, 16-2047 otherwise; sizes under 128, 16K and 2M. */
+    private static byte[] tagsAndSizes(Random random) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < VARINTS / 2; i++) {
+            int field = random.nextInt(10) < 9 ? 1 + random.nextInt(15) : 16 + random.nextInt(2032);
+            out.writeBytes(FastWireCursorTest.varint(((long) field << 3) | 2));
+            int roll = random.nextInt(10);
+            int size = roll < 6 ? random.nextInt(128) : roll < 9 ? 128 + random.nextInt(16_256) : 16_384 + random.nextInt(2_080_768);
+            out.writeBytes(FastWireCursorTest.varint(size));
+        }
+        return out.toByteArray();
+    }
+
+    /** Counts, durations and ids: values of 1 to 63 significant bits, evenly. */
+    private static byte[] int64Values(Random random) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < VARINTS; i++) {
+            int bits = 1 + random.nextInt(63);
+            out.writeBytes(FastWireCursorTest.varint(random.nextLong() >>> (64 - bits)));
+        }
+        return out.toByteArray();
+    }
+}
@@ -5,7 +5,10 @@ import org.junit.jupiter.api.Test;
 
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -432,4 +435,65 @@ class FastWireCursorTest {
             );
         }
     }
+
+    // ---- Test 12: eight-byte decoding agrees with the byte-wise path at every length ----
+    @Test
+    void shouldDecodeVarintsOfEveryLengthWithAndWithoutTailPadding() throws Exception {
+        Random random = new Random(49L);
+        for (int bits = 0; bits <= 64; bits++) {
+            for (int i = 0; i < 20; i++) {
+                long value = bits == 0 ? 0L : (random.nextLong() >>> (64 - bits)) | (1L << (bits - 1));
+                byte[] encoded = varint(value);
+                for (int padding : new int[] {0, 3, 12}) {
+                    byte[] payload = new byte[encoded.length + padding];
+                    System.arraycopy(encoded, 0, payload, 0, encoded.length);
+                    MemorySegment segment = MemorySegment.ofArray(payload);
+
+                    FastWireCursor cursor64 = new FastWireCursor();
+                    cursor64.reset(segment, 0, payload.length);
+                    assertEquals(value, cursor64.readVarint64(), "bits=" + bits + " padding=" + padding);
+                    assertEquals(encoded.length, cursor64.position());
+
+                    FastWireCursor cursor32 = new FastWireCursor();
+                    cursor32.reset(segment, 0, payload.length);
+                    assertEquals((int) value, cursor32.readVarint32(), "bits=" + bits + " padding=" + padding);
+                    assertEquals(encoded.length, cursor32.position());
+                }
+            }
+        }
+    }
+
+    // ---- Test 13: a varint cut by the frame end is truncated even with bytes beyond it ----
+    @Test
+    void shouldNotDecodePastFrameEndWithEightByteLoads() throws Exception {
+        byte[] payload = new byte[32];
+        Arrays.fill(payload, (byte) 0x81);
+        MemorySegment segment = MemorySegment.ofArray(payload);
+        FastWireCursor cursor = new FastWireCursor();
+        cursor.reset(segment, 0, 4);
+        WireException ex = assertThrows(WireException.class, cursor::readVarint64);
+        assertEquals(WireErrorCode.TRUNCATED_FRAME, ex.code());
+
+        // 11 continuation bytes with plenty left: rejected as before, by the byte-wise path.
+        cursor.reset(segment, 0, payload.length);
+        ex = assertThrows(WireException.class, cursor::readVarint64);
+        assertEquals(WireErrorCode.VARINT_OVERFLOW, ex.code());
+    }
+
+    // ---- Test 14: packing 7-bit groups ----
+    @Test
+    void shouldPackVarintGroups() {
+        assertEquals(150L, FastWireCursor.packVarint(0x0196L));
+        assertEquals((1L << 56) - 1, FastWireCursor.packVarint(0x7FFFFFFFFFFFFFFFL));
+    }
+
+    static byte[] varint(long value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        while ((value & ~0x7FL) != 0L) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+        return out.toByteArray();
+    }
 }
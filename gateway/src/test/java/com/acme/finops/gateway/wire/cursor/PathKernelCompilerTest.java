@@ -0,0 +1,266 @@
+package com.acme.finops.gateway.wire.cursor;
+
+import com.acme.finops.gateway.policy.Cardinality;
+import com.acme.finops.gateway.policy.CompileResult;
+import com.acme.finops.gateway.policy.CompiledPath;
+import com.acme.finops.gateway.policy.OtlpPathCompiler;
+import com.acme.finops.gateway.policy.PathOp;
+import com.acme.finops.gateway.policy.PathProgram;
+import com.acme.finops.gateway.policy.PathStringPool;
+import com.acme.finops.gateway.policy.ValueType;
+import com.acme.finops.gateway.wire.SchemaId;
+import com.acme.finops.gateway.wire.SignalType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathKernelCompilerTest {
+    static final List<String> PATHS = List.of(
+        "resource.attributes.tenant_id",
+        "resource.attributes[\"service.namespace.name\"]",
+        "resource.schemaUrl",
+        "scopeSpans[0].scope.name",
+        "scopeSpans[*].spans[*].attributes.tenant_id",
+        "scopeSpans[*].spans[*].events[*].name",
+        "scopeSpans[*].spans[*].status.code"
+    );
+
+    @Test
+    void shouldCompileEveryPipelineShapeToHiddenClass() {
+        PathStringPool pool = new PathStringPool();
+        BytecodeCompiledPathEvaluator evaluator = new BytecodeCompiledPathEvaluator(pool::resolve);
+        for (String path : PATHS) {
+            PathKernel kernel = evaluator.kernelFor(compile(pool, path));
+            assertTrue(kernel.getClass().isHidden(), path);
+        }
+    }
+
+    @Test
+    void shouldMatchInterpreterOnWellFormedPayloads() {
+        PathStringPool pool = new PathStringPool();
+        BytecodeCompiledPathEvaluator compiled = new BytecodeCompiledPathEvaluator(pool::resolve);
+        BytecodeCompiledPathEvaluator interpreted = new BytecodeCompiledPathEvaluator(pool::resolve, false);
+        List<byte[]> payloads = List.of(
+            traceRequest(4, 3, 2),
+            traceRequest(1, 1, 0),
+            traceRequest(0, 0, 0),
+            traceRequestWithAttribute("other_key", "value"),
+            traceRequestWithAttribute("tenant_iD", "x"),
+            traceRequestWithAttribute("tenant_id_", "x"),
+            traceRequestWithAttribute("service.namespace.name", "payments"),
+            traceRequestWithAttribute("service.namespace.nam", "payments")
+        );
+        for (String path : PATHS) {
+            CompiledPath compiledPath = compile(pool, path);
+            for (byte[] payload : payloads) {
+                assertSameResults(compiled, interpreted, compiledPath, payload, path);
+            }
+        }
+    }
+
+    @Test
+    void shouldMatchInterpreterOnCorruptedPayloads() {
+        PathStringPool pool = new PathStringPool();
+        BytecodeCompiledPathEvaluator compiled = new BytecodeCompiledPathEvaluator(pool::resolve);
+        BytecodeCompiledPathEvaluator interpreted = new BytecodeCompiledPathEvaluator(pool::resolve, false);
+        byte[] valid = traceRequest(2, 2, 2);
+        Random random = new Random(47L);
+        for (String path : PATHS) {
+            CompiledPath compiledPath = compile(pool, path);
+            for (int i = 0; i < 300; i++) {
+                byte[] payload = valid.clone();
+                for (int flips = 1 + random.nextInt(3); flips > 0; flips--) {
+                    payload[random.nextInt(payload.length)] = (byte) random.nextInt(256);
+                }
+                if (random.nextBoolean()) {
+                    payload = Arrays.copyOf(payload, random.nextInt(payload.length));
+                }
+                assertSameResults(compiled, interpreted, compiledPath, payload, path + " #" + i);
+            }
+        }
+    }
+
+    @Test
+    void shouldStopAtFirstMatchLikeInterpreter() {
+        PathStringPool pool = new PathStringPool();
+        BytecodeCompiledPathEvaluator evaluator = new BytecodeCompiledPathEvaluator(pool::resolve);
+        CompiledPath path = compile(pool, "scopeSpans[*].spans[*].events[*].name");
+        byte[] payload = traceRequest(3, 3, 3);
+
+        List<String> names = new ArrayList<>();
+        int matches = evaluator.evaluateAll(path, MemorySegment.ofArray(payload), 0, payload.length, new DefaultEvalScratch(),
+            (offset, length, type) -> {
+                names.add(new String(payload, offset, length, StandardCharsets.UTF_8));
+                return names.size() < 4;
+            });
+
+        assertEquals(4, matches);
+        // Two spans per scope: the fourth match is the first event of the second span.
+        assertEquals(List.of("event-0-0-0", "event-0-0-1", "event-0-0-2", "event-0-0-0"), names);
+    }
+
+    @Test
+    void shouldFallBackToInterpreterForProgramsItCannotCompile() {
+        PathStringPool pool = new PathStringPool();
+        BytecodeCompiledPathEvaluator evaluator = new BytecodeCompiledPathEvaluator(pool::resolve);
+
+        CompiledPath unknownKey = new CompiledPath(new PathProgram(
+            new short[] {op(PathOp.ENTER_MSG_FIELD), op(PathOp.REPEATED_ANY), op(PathOp.ENTER_LEN_DELIMITED),
+                op(PathOp.ENTER_MSG_FIELD), op(PathOp.ENTER_LEN_DELIMITED), op(PathOp.MAP_SCAN_STRING_KEY),
+                op(PathOp.READ_STRING), op(PathOp.HALT)},
+            new int[] {1, 0, 0, 1, 0, 999, 0, 0}), ValueType.STRING, Cardinality.OPTIONAL);
+        assertFalse(evaluator.kernelFor(unknownKey).getClass().isHidden());
+
+        byte[] payload = traceRequest(1, 1, 1);
+        FastWireCursor cursor = new FastWireCursor();
+        cursor.reset(MemorySegment.ofArray(payload), 0, payload.length);
+        assertInstanceOf(EvalResult.NoMatch.class, evaluator.evaluate(unknownKey, cursor, new DefaultEvalScratch()));
+
+        CompiledPath tooDeep = new CompiledPath(new PathProgram(repeat(op(PathOp.ENTER_MSG_FIELD), op(PathOp.REPEATED_ANY), 40),
+            new int[80]), ValueType.STRING, Cardinality.OPTIONAL);
+        assertFalse(evaluator.kernelFor(tooDeep).getClass().isHidden());
+    }
+
+    @Test
+    void shouldPackKeysLittleEndian() {
+        byte[] key = "abcdefgh".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(MemorySegment.ofArray(key).get(PathKernel.LONG_LE, 0L), PathKernelCompiler.littleEndianLong(key, 0));
+        assertEquals(0x6867666564636261L, PathKernelCompiler.littleEndianLong(key, 0));
+    }
+
+    private static void assertSameResults(BytecodeCompiledPathEvaluator compiled,
+                                          BytecodeCompiledPathEvaluator interpreted,
+                                          CompiledPath path,
+                                          byte[] payload,
+                                          String label) {
+        DefaultEvalScratch compiledScratch = new DefaultEvalScratch();
+        DefaultEvalScratch interpretedScratch = new DefaultEvalScratch();
+        EvalResult expected = evaluate(interpreted, path, payload, interpretedScratch);
+        EvalResult actual = evaluate(compiled, path, payload, compiledScratch);
+        assertEquals(expected, actual, label);
+        if (expected instanceof EvalResult.MatchFound) {
+            assertTrue(Arrays.equals(interpretedScratch.intStack(), compiledScratch.intStack()), label);
+            assertEquals(interpretedScratch.longStack()[0], compiledScratch.longStack()[0], label);
+        }
+        assertEquals(collect(interpreted, path, payload), collect(compiled, path, payload), label);
+    }
+
+    private static EvalResult evaluate(BytecodeCompiledPathEvaluator evaluator, CompiledPath path, byte[] payload, EvalScratch scratch) {
+        FastWireCursor cursor = new FastWireCursor();
+        cursor.reset(MemorySegment.ofArray(payload), 0, payload.length);
+        return evaluator.evaluate(path, cursor, scratch);
+    }
+
+    private static List<Integer> collect(BytecodeCompiledPathEvaluator evaluator, CompiledPath path, byte[] payload) {
+        List<Integer> spans = new ArrayList<>();
+        int matches = evaluator.evaluateAll(path, MemorySegment.ofArray(payload), 0, payload.length, new DefaultEvalScratch(),
+            (offset, length, type) -> {
+                spans.add(offset);
+                spans.add(length);
+                return true;
+            });
+        spans.add(matches);
+        return spans;
+    }
+
+    static CompiledPath compile(PathStringPool pool, String path) {
+        CompileResult result = new OtlpPathCompiler(pool).compile(path, new SchemaId("otlp", "trace", "v1"), SignalType.TRACES);
+        return assertInstanceOf(CompileResult.Success.class, result, path).compiledPath();
+    }
+
+    /**
+     * ExportTraceServiceRequest with {@code resources} ResourceSpans, each with tenant and
+     * service attributes, {@code scopes} ScopeSpans of two spans, and {@code events} events
+     * per span.
+     */
+    static byte[] traceRequest(int resources, int scopes, int events) {
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        for (int r = 0; r < resources; r++) {
+            byte[] resource = concat(
+                field(1, keyValue("host.name", "node-" + r)),
+                field(1, keyValue("service.namespace.name", "payments")),
+                field(1, keyValue("tenant_id", "tenant-" + r)),
+                field(2, "https://opentelemetry.io/schemas/1.24.0"));
+            ByteArrayOutputStream resourceSpans = new ByteArrayOutputStream();
+            resourceSpans.writeBytes(field(1, resource));
+            for (int s = 0; s < scopes; s++) {
+                ByteArrayOutputStream scopeSpans = new ByteArrayOutputStream();
+                scopeSpans.writeBytes(field(1, field(1, "scope-" + s)));
+                for (int p = 0; p < 2; p++) {
+                    ByteArrayOutputStream span = new ByteArrayOutputStream();
+                    // Only message-typed fields: MAP_SCAN_STRING_KEY parses every LEN field as an entry.
+                    span.writeBytes(field(9, concat(field(1, "http.method"), field(2, field(1, "GET")))));
+                    span.writeBytes(field(9, concat(field(1, "tenant_id"), field(2, field(1, "span-tenant")))));
+                    for (int e = 0; e < events; e++) {
+                        span.writeBytes(field(11, field(2, "event-" + r + "-" + s + "-" + e)));
+                    }
+                    span.writeBytes(field(15, new byte[] {0x08, 0x02}));
+                    scopeSpans.writeBytes(field(2, span.toByteArray()));
+                }
+                resourceSpans.writeBytes(field(2, scopeSpans.toByteArray()));
+            }
+            request.writeBytes(field(1, resourceSpans.toByteArray()));
+        }
+        return request.toByteArray();
+    }
+
+    static byte[] traceRequestWithAttribute(String key, String value) {
+        return field(1, field(1, field(1, keyValue(key, value))));
+    }
+
+    private static byte[] keyValue(String key, String value) {
+        return concat(field(1, key), field(2, field(1, value)));
+    }
+
+    private static byte[] field(int number, String value) {
+        return field(number, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] field(int number, byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, (number << 3) | 2);
+        writeVarint(out, body.length);
+        out.writeBytes(body);
+        return out.toByteArray();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    private static short op(PathOp op) {
+        return (short) op.ordinal();
+    }
+
+    private static short[] repeat(short first, short second, int times) {
+        short[] out = new short[times * 2];
+        for (int i = 0; i < times; i++) {
+            out[2 * i] = first;
+            out[2 * i + 1] = second;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,191 @@
+package com.acme.finops.gateway.wire.cursor;
+
+import com.acme.finops.gateway.policy.CompiledPath;
+import com.acme.finops.gateway.policy.PathStringPool;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidatedFramesTest {
+
+    @Test
+    void shouldRecordEveryFrameThatParses() {
+        // field 1 = LEN{ field 1 = 7 }, field 2 = LEN "ÿ" (not a message)
+        byte[] payload = {0x0A, 0x02, 0x08, 0x07, 0x12, 0x01, (byte) 0xFF};
+        MemorySegment segment = MemorySegment.ofArray(payload);
+        ValidatedFrames frames = ValidatedFrames.validate(segment, 0, payload.length);
+
+        assertNotNull(frames);
+        assertEquals(2, frames.frameCount());
+        assertTrue(frames.contains(segment, 0, payload.length));
+        assertTrue(frames.contains(segment, 2, 4));
+        assertFalse(frames.contains(segment, 6, 7));
+        assertFalse(frames.contains(segment, 2, 3), "a frame is trusted only with its exact end");
+        assertFalse(frames.contains(MemorySegment.ofArray(payload.clone()), 0, payload.length));
+    }
+
+    @Test
+    void shouldRejectPayloadsWhoseRootDoesNotParse() {
+        byte[] truncated = {0x0A, 0x05, 0x08, 0x07};
+        assertNull(ValidatedFrames.validate(MemorySegment.ofArray(truncated), 0, truncated.length));
+        byte[] badWireType = {0x0F, 0x00};
+        assertNull(ValidatedFrames.validate(MemorySegment.ofArray(badWireType), 0, badWireType.length));
+        assertNull(ValidatedFrames.validate(MemorySegment.ofArray(badWireType), 1, 4));
+    }
+
+    @Test
+    void shouldTrustOnlyValidatedFrames() throws Exception {
+        byte[] payload = PathKernelCompilerTest.traceRequest(1, 1, 1);
+        MemorySegment segment = MemorySegment.ofArray(payload);
+        FastWireCursor cursor = new FastWireCursor();
+        cursor.useValidatedFrames(ValidatedFrames.validate(segment, 0, payload.length));
+
+        cursor.reset(segment, 0, payload.length);
+        assertTrue(cursor.trusted());
+        assertTrue(cursor.nextField());
+        cursor.enterMessage();
+        assertTrue(cursor.trusted());
+        cursor.leaveMessage();
+        assertTrue(cursor.trusted());
+
+        cursor.reset(segment, 0, payload.length - 1);
+        assertFalse(cursor.trusted());
+        cursor.useValidatedFrames(null);
+        cursor.reset(segment, 0, payload.length);
+        assertFalse(cursor.trusted());
+    }
+
+    @Test
+    void shouldWalkNestingDeeperThanTheInitialStack() throws Exception {
+        byte[] payload = nested(40);
+        MemorySegment segment = MemorySegment.ofArray(payload);
+        ValidatedFrames frames = ValidatedFrames.validate(segment, 0, payload.length);
+        assertNotNull(frames);
+        assertEquals(ValidatedFrames.MAX_DEPTH, frames.frameCount());
+
+        for (ValidatedFrames useFrames : Arrays.asList(null, frames)) {
+            FastWireCursor cursor = new FastWireCursor();
+            cursor.useValidatedFrames(useFrames);
+            cursor.reset(segment, 0, payload.length);
+            for (int depth = 0; depth < 40; depth++) {
+                assertTrue(cursor.nextField());
+                assertEquals(1, cursor.fieldNumber());
+                cursor.enterMessage();
+            }
+            assertTrue(cursor.nextField());
+            assertEquals(2, cursor.fieldNumber());
+            assertFalse(cursor.nextField());
+            for (int depth = 0; depth < 40; depth++) {
+                cursor.leaveMessage();
+                assertFalse(cursor.nextField());
+            }
+            assertEquals(payload.length, cursor.position());
+        }
+    }
+
+    @Test
+    void shouldWalkCorruptedPayloadsLikeCheckedCursor() {
+        byte[] valid = PathKernelCompilerTest.traceRequest(2, 2, 2);
+        Random random = new Random(50L);
+        for (int i = 0; i < 500; i++) {
+            byte[] payload = valid.clone();
+            for (int flips = random.nextInt(4); flips > 0; flips--) {
+                payload[random.nextInt(payload.length)] = (byte) random.nextInt(256);
+            }
+            if (random.nextBoolean()) {
+                payload = Arrays.copyOf(payload, random.nextInt(payload.length));
+            }
+            MemorySegment segment = MemorySegment.ofArray(payload);
+            ValidatedFrames frames = ValidatedFrames.validate(segment, 0, payload.length);
+            assertEquals(trace(segment, payload.length, null), trace(segment, payload.length, frames), "#" + i);
+        }
+    }
+
+    @Test
+    void shouldEvaluatePathsLikeCheckedCursor() {
+        PathStringPool pool = new PathStringPool();
+        BytecodeCompiledPathEvaluator compiled = new BytecodeCompiledPathEvaluator(pool::resolve);
+        BytecodeCompiledPathEvaluator interpreted = new BytecodeCompiledPathEvaluator(pool::resolve, false);
+        byte[] valid = PathKernelCompilerTest.traceRequest(2, 2, 2);
+        Random random = new Random(50L);
+        for (String path : PathKernelCompilerTest.PATHS) {
+            CompiledPath compiledPath = PathKernelCompilerTest.compile(pool, path);
+            for (int i = 0; i < 100; i++) {
+                byte[] payload = valid.clone();
+                for (int flips = random.nextInt(3); flips > 0; flips--) {
+                    payload[random.nextInt(payload.length)] = (byte) random.nextInt(256);
+                }
+                MemorySegment segment = MemorySegment.ofArray(payload);
+                ValidatedFrames frames = ValidatedFrames.validate(segment, 0, payload.length);
+                for (BytecodeCompiledPathEvaluator evaluator : List.of(compiled, interpreted)) {
+                    assertEquals(collect(evaluator, compiledPath, segment, null),
+                        collect(evaluator, compiledPath, segment, frames), path + " #" + i);
+                }
+            }
+        }
+    }
+
+    /** Every field the cursor reads, entering each LEN value that might be a message. */
+    private static List<String> trace(MemorySegment segment, int length, ValidatedFrames frames) {
+        FastWireCursor cursor = new FastWireCursor();
+        cursor.useValidatedFrames(frames);
+        cursor.reset(segment, 0, length);
+        List<String> out = new ArrayList<>();
+        traceFrame(cursor, out, 0);
+        return out;
+    }
+
+    private static void traceFrame(FastWireCursor cursor, List<String> out, int depth) {
+        try {
+            while (cursor.nextField()) {
+                out.add(cursor.fieldNumber() + ":" + cursor.wireType() + "@" + cursor.valueOffset() + "+" + cursor.valueLength());
+                if (cursor.wireType() == 2 && depth < 8) {
+                    cursor.enterMessage();
+                    traceFrame(cursor, out, depth + 1);
+                    cursor.leaveMessage();
+                }
+            }
+        } catch (WireException e) {
+            out.add("error " + e.code());
+        }
+    }
+
+    private static List<Integer> collect(BytecodeCompiledPathEvaluator evaluator,
+                                         CompiledPath path,
+                                         MemorySegment segment,
+                                         ValidatedFrames frames) {
+        List<Integer> spans = new ArrayList<>();
+        int matches = evaluator.evaluateAll(path, segment, 0, (int) segment.byteSize(), new DefaultEvalScratch(),
+            (offset, length, type) -> {
+                spans.add(offset);
+                spans.add(length);
+                return true;
+            }, frames);
+        spans.add(matches);
+        return spans;
+    }
+
+    /** Field 1 nested {@code depth} times around a varint field 2. */
+    private static byte[] nested(int depth) {
+        byte[] body = {0x10, 0x01};
+        for (int i = 0; i < depth; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(0x0A);
+            out.writeBytes(FastWireCursorTest.varint(body.length));
+            out.writeBytes(body);
+            body = out.toByteArray();
+        }
+        return body;
+    }
+}
@@ -1,15 +1,22 @@
 package com.acme.finops.gateway.wire.mutate;
 
+import com.acme.finops.gateway.memory.AllocationQuotaConfig;
+import com.acme.finops.gateway.memory.AllocationQuotas;
+import com.acme.finops.gateway.memory.AllocationTag;
+import com.acme.finops.gateway.memory.LeaseResult;
 import com.acme.finops.gateway.memory.PacketDescriptor;
 import com.acme.finops.gateway.memory.PacketRef;
 import com.acme.finops.gateway.memory.PacketRefImpl;
+import com.acme.finops.gateway.memory.QuotaUsage;
 import com.acme.finops.gateway.memory.SlabPacketAllocator;
 import com.acme.finops.gateway.transport.api.ProtocolKind;
 import com.acme.finops.gateway.transport.api.SignalKind;
+import com.acme.finops.gateway.util.TenantRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
+import java.util.Map;
 import java.util.zip.CRC32;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
@@ -134,6 +141,47 @@ class DefaultReframeWriterTest {
         }
     }
 
+    @Test
+    void shouldChargeReframedCopyToSourceTenant() {
+        AllocationQuotas quotas = new AllocationQuotas(new AllocationQuotaConfig(Map.of(), null, Map.of()), 1024 * 1024);
+        try (SlabPacketAllocator allocator = new SlabPacketAllocator(1024 * 1024, 4, quotas)) {
+            LeaseResult lease = allocator.allocate(8, new AllocationTag("ingress", "acme", 1));
+            PacketRef source = assertInstanceOf(LeaseResult.Granted.class, lease).packetRef();
+            assertEquals("acme", source.descriptor().tenantId());
+            long sourceBytes = tenantInUse(quotas, "acme");
+            MutationPlan plan = new MutationPlan.Builder(4L)
+                .mode(MutationPlan.PlanMode.REFRAME)
+                .sourceLength(8)
+                .targetLength(8)
+                .addPassB(new MutationPlan.SliceCopyOp(0, 8, 0))
+                .build();
+
+            try {
+                ReframeResult.Success success = assertInstanceOf(
+                    ReframeResult.Success.class,
+                    new DefaultReframeWriter().write(plan, source, allocator)
+                );
+                PacketRef reframed = success.reframed();
+                try {
+                    assertEquals("acme", reframed.descriptor().tenantId());
+                    assertEquals(2 * sourceBytes, tenantInUse(quotas, "acme"));
+                    assertEquals(0L, tenantInUse(quotas, TenantRegistry.UNKNOWN_TENANT));
+                } finally {
+                    reframed.release();
+                }
+            } finally {
+                source.release();
+            }
+        }
+    }
+
+    private static long tenantInUse(AllocationQuotas quotas, String tenant) {
+        return quotas.usage().stream()
+            .filter(u -> QuotaUsage.DIMENSION_TENANT.equals(u.dimension()) && tenant.equals(u.key()))
+            .mapToLong(QuotaUsage::inUseBytes)
+            .sum();
+    }
+
     private static byte[] lenMessage(int bodyLength) {
         int varintSize = LenCascadeRecalculator.varintSize(bodyLength);
         byte[] out = new byte[1 + varintSize + bodyLength];
@@ -0,0 +1,19 @@
+package com.acme.finops.gateway.wire.mutate;
+
+import java.util.List;
+
+/** Masking snapshots and OTLP payloads for tests of other packages that run the real planner. */
+public final class MaskingFixtures {
+    private MaskingFixtures() {
+    }
+
+    /** Snapshot of {@code rules} in {@code GATEWAY_MASKING_RULES} syntax. */
+    public static CompiledMaskingSnapshot snapshot(List<String> rules) {
+        return MultiRuleAutomatonTest.snapshot(rules);
+    }
+
+    /** See {@link MultiRuleAutomatonTest#traceRequest}. */
+    public static byte[] traceRequest(int resources, int scopes, int events) {
+        return MultiRuleAutomatonTest.traceRequest(resources, scopes, events);
+    }
+}
@@ -0,0 +1,278 @@
+package com.acme.finops.gateway.wire.mutate;
+
+import com.acme.finops.gateway.memory.PacketDescriptor;
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.memory.PacketRefImpl;
+import com.acme.finops.gateway.policy.PolicyDecision;
+import com.acme.finops.gateway.transport.api.ProtocolKind;
+import com.acme.finops.gateway.transport.api.SignalKind;
+import com.acme.finops.gateway.util.GatewayEnvKeys;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiRuleAutomatonTest {
+    /** Every selector shape the env provider builds for traces, at distinct priorities. */
+    static final List<String> RULES = List.of(
+        "mask-tenant|TRACES|REDACT_MASK|resource.attributes.tenant_id||10|skip|true",
+        "mask-host|ALL|REDACT_MASK|resource.attributes.host.name||11|skip|true",
+        "mask-namespace|TRACES|REDACT_MASK|resource.attributes[\"service.namespace.name\"]||12|skip|true",
+        "mask-schema|TRACES|REDACT_MASK|resource.schemaUrl||13|skip|true",
+        "mask-scope|TRACES|REDACT_MASK|scopeSpans[0].scope.name||14|skip|true",
+        "mask-span-tenant|TRACES|REDACT_MASK|scopeSpans[*].spans[*].attributes.tenant_id||15|skip|true",
+        "mask-span-method|TRACES|REDACT_MASK|scopeSpans[*].spans[*].attributes.http.method||16|skip|true",
+        "mask-events|TRACES|REDACT_MASK|scopeSpans[*].spans[*].events[*].name||17|skip|true",
+        "drop-missing|TRACES|DROP|scopeSpans[*].spans[*].attributes.absent||18|skip|true",
+        "drop-status|TRACES|DROP|scopeSpans[*].spans[*].status.code||19|skip|true"
+    );
+
+    @Test
+    void shouldCoverEveryRuleShape() {
+        CompiledMaskingSnapshot snapshot = snapshot(RULES);
+        MultiRuleAutomaton automaton = MultiRuleAutomaton.build(snapshot.rules(), SignalKind.TRACES);
+        assertNotNull(automaton);
+        for (int i = 0; i < snapshot.rules().size(); i++) {
+            assertTrue(automaton.covers(i), snapshot.rules().get(i).ruleId());
+        }
+    }
+
+    @Test
+    void shouldPlanLikePerRuleSelectors() {
+        List<byte[]> payloads = List.of(
+            traceRequest(3, 2, 2),
+            traceRequest(1, 1, 0),
+            traceRequest(0, 0, 0),
+            traceRequest(12, 2, 1),
+            field(1, field(1, field(1, concat(field(1, "tenant_id"), field(1, "other"), field(2, field(7, "b")))))),
+            field(1, field(1, field(1, concat(field(1, "tenant_id"), field(2, field(3, "x")), field(2, field(1, "y"))))))
+        );
+        for (List<String> rules : List.of(RULES, RULES.subList(0, 8), RULES.subList(5, 8))) {
+            for (byte[] payload : payloads) {
+                assertSamePlans(rules, payload);
+            }
+        }
+    }
+
+    @Test
+    void shouldPlanLikePerRuleSelectorsOnCorruptedPayloads() {
+        byte[] base = traceRequest(2, 2, 2);
+        Random random = new Random(48L);
+        for (int i = 0; i < 300; i++) {
+            byte[] payload = base.clone();
+            for (int flips = 1 + random.nextInt(3); flips > 0; flips--) {
+                payload[random.nextInt(payload.length)] = (byte) random.nextInt(256);
+            }
+            if (random.nextBoolean()) {
+                payload = Arrays.copyOf(payload, random.nextInt(payload.length));
+            }
+            assertSamePlans(RULES.subList(0, 8), payload);
+        }
+    }
+
+    @Test
+    void shouldKeepPriorityAndDropShortCircuit() {
+        byte[] payload = traceRequest(2, 1, 1);
+        List<String> rules = List.of(
+            "mask-tenant|TRACES|REDACT_MASK|resource.attributes.tenant_id||10|skip|true",
+            "drop-events|TRACES|DROP|scopeSpans[*].spans[*].events[*].name||20|skip|true",
+            "mask-span-tenant|TRACES|REDACT_MASK|scopeSpans[*].spans[*].attributes.tenant_id||30|skip|true"
+        );
+        MutationPlan plan = plan(new PolicyDrivenMutationPlanner(() -> snapshot(rules), 128, true), payload);
+        assertEquals(MutationPlan.PlanMode.DROP, plan.mode());
+        assertEquals("DROP_RULE_drop-events", plan.reasonCode());
+
+        List<String> failClosedFirst = List.of(
+            "mask-tenant|TRACES|REDACT_MASK|resource.attributes.tenant_id|##|5|fail_closed|true",
+            "drop-events|TRACES|DROP|scopeSpans[*].spans[*].events[*].name||20|skip|true"
+        );
+        plan = plan(new PolicyDrivenMutationPlanner(() -> snapshot(failClosedFirst), 128, true), payload);
+        assertEquals(MutationPlan.PlanMode.DROP, plan.mode());
+        assertEquals("MASK_MISMATCH_FAIL_CLOSED_mask-tenant", plan.reasonCode());
+    }
+
+    @Test
+    void shouldReportEveryRuleOfSharedKeyOnce() {
+        List<String> rules = List.of(
+            "mask-a|TRACES|REDACT_MASK|resource.attributes.tenant_id||10|skip|true",
+            "mask-b|TRACES|REDACT_MASK|resource.attributes.tenant_id||20|skip|true",
+            "mask-c|TRACES|REDACT_MASK|scopeSpans[*].spans[*].attributes.tenant_id||30|skip|true",
+            "mask-d|TRACES|REDACT_MASK|scopeSpans[*].spans[*].attributes.tenant_id||40|skip|true"
+        );
+        CompiledMaskingSnapshot snapshot = snapshot(rules);
+        MultiRuleAutomaton automaton = MultiRuleAutomaton.build(snapshot.rules(), SignalKind.TRACES);
+        byte[] payload = traceRequest(2, 2, 0);
+        MultiRuleAutomaton.Walk walk = new MultiRuleAutomaton.Walk(16);
+        PacketRef packetRef = packetRef(payload);
+        try {
+            assertTrue(automaton.collect(packetRef, walk, 1024));
+        } finally {
+            packetRef.release();
+        }
+        assertEquals(List.of("tenant-0", "tenant-1"), values(payload, walk.spans(0)));
+        assertEquals(List.of("tenant-0", "tenant-1"), values(payload, walk.spans(1)));
+        assertEquals(8, walk.spans(2).count());
+        assertEquals(8, walk.spans(3).count());
+        assertEquals("span-tenant", values(payload, walk.spans(3)).get(7));
+    }
+
+    @Test
+    void shouldFallBackOnMalformedAndJsonPayloads() {
+        CompiledMaskingSnapshot snapshot = snapshot(RULES);
+        MultiRuleAutomaton automaton = MultiRuleAutomaton.build(snapshot.rules(), SignalKind.TRACES);
+        MultiRuleAutomaton.Walk walk = new MultiRuleAutomaton.Walk(16);
+        byte[] full = traceRequest(1, 1, 1);
+        for (byte[] payload : List.of(
+            Arrays.copyOf(full, full.length - 3),
+            "{\"resourceSpans\":[]}".getBytes(StandardCharsets.UTF_8))) {
+            PacketRef packetRef = packetRef(payload);
+            try {
+                assertFalse(automaton.collect(packetRef, walk, 1024));
+            } finally {
+                packetRef.release();
+            }
+        }
+    }
+
+    @Test
+    void shouldNotBuildForSignalWithoutRules() {
+        CompiledMaskingSnapshot snapshot = snapshot(RULES.subList(2, 8));
+        assertEquals(null, MultiRuleAutomaton.build(snapshot.rules(), SignalKind.LOGS));
+    }
+
+    private static void assertSamePlans(List<String> rules, byte[] payload) {
+        CompiledMaskingSnapshot snapshot = snapshot(rules);
+        String perRule = describe(plan(new PolicyDrivenMutationPlanner(() -> snapshot, 128, false), payload));
+        String singlePass = describe(plan(new PolicyDrivenMutationPlanner(() -> snapshot, 128, true), payload));
+        assertEquals(perRule, singlePass);
+    }
+
+    static CompiledMaskingSnapshot snapshot(List<String> rules) {
+        EnvControlPlanePolicyProvider provider = EnvControlPlanePolicyProvider.fromEnvironment();
+        provider.refresh(Map.of(
+            GatewayEnvKeys.GATEWAY_MASKING_ENABLED, "true",
+            GatewayEnvKeys.GATEWAY_MASKING_RULES, String.join(";", rules)
+        ));
+        CompiledMaskingSnapshot snapshot = provider.activeSnapshot();
+        assertEquals(rules.size(), snapshot.rules().size());
+        return snapshot;
+    }
+
+    static MutationPlan plan(PolicyDrivenMutationPlanner planner, byte[] payload) {
+        PacketRef packetRef = packetRef(payload);
+        try {
+            return planner.plan(packetRef, PolicyDecision.routeDefault(1L));
+        } finally {
+            packetRef.release();
+        }
+    }
+
+    private static String describe(MutationPlan plan) {
+        StringBuilder out = new StringBuilder(plan.mode() + " " + plan.reasonCode());
+        for (MutationPlan.Op op : plan.passAOps()) {
+            MutationPlan.InplaceMaskOp mask = (MutationPlan.InplaceMaskOp) op;
+            out.append(' ').append(mask.reason()).append('@').append(mask.absoluteOffset()).append('+').append(mask.length());
+        }
+        return out.toString();
+    }
+
+    private static List<String> values(byte[] payload, ValueSpanCollector spans) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < spans.count(); i++) {
+            out.add(new String(payload, spans.offsetAt(i), spans.lengthAt(i), StandardCharsets.UTF_8));
+        }
+        return out;
+    }
+
+    private static PacketRef packetRef(byte[] payload) {
+        PacketDescriptor descriptor = new PacketDescriptor(
+            1L,
+            1L,
+            SignalKind.TRACES,
+            ProtocolKind.OTLP_HTTP_PROTO,
+            0,
+            payload.length,
+            System.nanoTime()
+        );
+        return new PacketRefImpl(1L, descriptor, MemorySegment.ofArray(payload), 0, payload.length);
+    }
+
+    /**
+     * ExportTraceServiceRequest with {@code resources} ResourceSpans, each with host, namespace
+     * and tenant attributes, {@code scopes} ScopeSpans of two spans, and {@code events} events
+     * per span.
+     */
+    static byte[] traceRequest(int resources, int scopes, int events) {
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        for (int r = 0; r < resources; r++) {
+            byte[] resource = concat(
+                field(1, keyValue("host.name", "node-" + r)),
+                field(1, keyValue("service.namespace.name", "payments")),
+                field(1, keyValue("tenant_id", "tenant-" + r)),
+                field(2, "https://opentelemetry.io/schemas/1.24.0"));
+            ByteArrayOutputStream resourceSpans = new ByteArrayOutputStream();
+            resourceSpans.writeBytes(field(1, resource));
+            for (int s = 0; s < scopes; s++) {
+                ByteArrayOutputStream scopeSpans = new ByteArrayOutputStream();
+                scopeSpans.writeBytes(field(1, field(1, "scope-" + s)));
+                for (int p = 0; p < 2; p++) {
+                    ByteArrayOutputStream span = new ByteArrayOutputStream();
+                    // Only message-typed fields: a map-key path reads every LEN field as an entry.
+                    span.writeBytes(field(9, keyValue("http.method", "GET")));
+                    span.writeBytes(field(9, keyValue("tenant_id", "span-tenant")));
+                    for (int e = 0; e < events; e++) {
+                        span.writeBytes(field(11, field(2, "event-" + r + "-" + s + "-" + e)));
+                    }
+                    span.writeBytes(field(15, new byte[] {0x08, 0x02}));
+                    scopeSpans.writeBytes(field(2, span.toByteArray()));
+                }
+                resourceSpans.writeBytes(field(2, scopeSpans.toByteArray()));
+            }
+            request.writeBytes(field(1, resourceSpans.toByteArray()));
+        }
+        return request.toByteArray();
+    }
+
+    private static byte[] keyValue(String key, String value) {
+        return concat(field(1, key), field(2, field(1, value)));
+    }
+
+    private static byte[] field(int number, String value) {
+        return field(number, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] field(int number, byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, (number << 3) | 2);
+        writeVarint(out, body.length);
+        out.writeBytes(body);
+        return out.toByteArray();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
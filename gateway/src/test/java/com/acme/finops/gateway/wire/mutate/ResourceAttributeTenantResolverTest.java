@@ -0,0 +1,77 @@
+package com.acme.finops.gateway.wire.mutate;
+
+import com.acme.finops.gateway.memory.PacketDescriptor;
+import com.acme.finops.gateway.memory.PacketRef;
+import com.acme.finops.gateway.memory.PacketRefImpl;
+import com.acme.finops.gateway.transport.api.InboundPacket;
+import com.acme.finops.gateway.transport.api.ProtocolKind;
+import com.acme.finops.gateway.transport.api.SignalKind;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ResourceAttributeTenantResolverTest {
+
+    @Test
+    void shouldReadTenantFromResourceAttribute() {
+        byte[] payload = """
+            {"resourceSpans":[{"resource":{"attributes":[
+              {"key":"service.name","value":{"stringValue":"gateway"}},
+              {"key":"tenant_id","value":{"stringValue":"acme-eu"}}
+            ]}}]}
+            """.getBytes(StandardCharsets.UTF_8);
+        ResourceAttributeTenantResolver resolver = new ResourceAttributeTenantResolver("tenant_id");
+
+        assertEquals("acme-eu", resolver.tenantOf(packet(payload, "adapter-tenant")));
+    }
+
+    @Test
+    void shouldFallBackToAdapterTenantWithoutAttribute() {
+        byte[] payload = """
+            {"resourceSpans":[{"resource":{"attributes":[
+              {"key":"service.name","value":{"stringValue":"gateway"}}
+            ]}}]}
+            """.getBytes(StandardCharsets.UTF_8);
+        ResourceAttributeTenantResolver resolver = new ResourceAttributeTenantResolver("tenant_id");
+
+        assertEquals("adapter-tenant", resolver.tenantOf(packet(payload, "adapter-tenant")));
+    }
+
+    @Test
+    void shouldReuseTenantStringForRepeatedAttributeValue() {
+        byte[] payload = """
+            {"resourceSpans":[{"resource":{"attributes":[
+              {"key":"tenant_id","value":{"stringValue":"acme-eu"}}
+            ]}}]}
+            """.getBytes(StandardCharsets.UTF_8);
+        byte[] other = """
+            {"resourceSpans":[{"resource":{"attributes":[
+              {"key":"tenant_id","value":{"stringValue":"acme-us"}}
+            ]}}]}
+            """.getBytes(StandardCharsets.UTF_8);
+        ResourceAttributeTenantResolver resolver = new ResourceAttributeTenantResolver("tenant_id");
+
+        String first = resolver.tenantOf(packet(payload, null));
+        assertSame(first, resolver.tenantOf(packet(payload.clone(), null)));
+        assertEquals("acme-us", resolver.tenantOf(packet(other, null)));
+        assertEquals("acme-eu", resolver.tenantOf(packet(payload, null).packetRef(), "fallback"));
+    }
+
+    private static InboundPacket packet(byte[] payload, String tenant) {
+        PacketDescriptor descriptor = new PacketDescriptor(
+            1L,
+            1L,
+            SignalKind.TRACES,
+            ProtocolKind.OTLP_HTTP_PROTO,
+            0,
+            payload.length,
+            System.nanoTime()
+        );
+        PacketRef ref = new PacketRefImpl(1L, descriptor, MemorySegment.ofArray(payload), 0, payload.length);
+        return new InboundPacket(1L, ProtocolKind.OTLP_HTTP_PROTO, SignalKind.TRACES, ref, "application/json", tenant);
+    }
+}